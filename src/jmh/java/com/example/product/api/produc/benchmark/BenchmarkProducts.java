@@ -0,0 +1,29 @@
+package com.example.product.api.produc.benchmark;
+
+import com.example.product.api.produc.domain.model.Product;
+
+import java.math.BigDecimal;
+
+/**
+ * Products of realistic size and variety for benchmarks, derived from their index so that every run and every
+ * thread works on the same catalog.
+ */
+final class BenchmarkProducts {
+
+    private BenchmarkProducts() {
+    }
+
+    static String id(int index) {
+        return String.format("bench-%07d", index);
+    }
+
+    static Product product(int index) {
+        return Product.builder()
+                .id(id(index))
+                .name("Product " + index)
+                .description("Description of product " + index + ", in stock and ready to ship")
+                .price(BigDecimal.valueOf(100 + index * 37L, 2))
+                .quantity(index % 500)
+                .build();
+    }
+}
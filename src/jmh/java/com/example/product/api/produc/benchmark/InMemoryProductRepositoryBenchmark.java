@@ -0,0 +1,84 @@
+package com.example.product.api.produc.benchmark;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import com.example.product.api.produc.infrastructure.repository.InMemoryProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Reads and writes of single products, and a full scan, against an {@link InMemoryProductRepository} holding
+ * {@code catalogSize} products. Writes restock existing products, changing their quantity but not their text, so the
+ * catalog keeps its size throughout. Run with {@code -t} to measure under contention; every thread picks its own
+ * random products.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class InMemoryProductRepositoryBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogSize;
+
+    private InMemoryProductRepository repository;
+    private Product[] catalog;
+
+    @State(Scope.Thread)
+    public static class Picker {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        repository = new InMemoryProductRepository(new NoOpProductJournal());
+        repository.init();
+        catalog = IntStream.range(0, catalogSize).mapToObj(BenchmarkProducts::product).toArray(Product[]::new);
+        repository.saveAll(Flux.fromArray(catalog)).blockLast();
+    }
+
+    @Benchmark
+    public Product findById(Picker picker) {
+        return repository.findById(catalog[picker.next(catalogSize)].getId()).block();
+    }
+
+    @Benchmark
+    public Product save(Picker picker) {
+        Product product = catalog[picker.next(catalogSize)];
+        return repository.save(product.toBuilder().quantity(picker.next(500)).build()).block();
+    }
+
+    @Benchmark
+    public Product update(Picker picker) {
+        Product product = catalog[picker.next(catalogSize)];
+        return repository.update(product.getId(), product.toBuilder().quantity(picker.next(500)).build()).block();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Long findAll() {
+        return repository.findAll().count().block();
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.product.api.produc.benchmark;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Encode and decode throughput of products in JSON and in Smile, for a single product and for a page of them,
+ * with mappers built the way the application builds its codecs. The encoded size of each payload is printed when
+ * the benchmark is set up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductCodecBenchmark {
+
+    @Param({"json", "smile"})
+    public String codec;
+
+    @Param({"1", "1000"})
+    public int products;
+
+    private Object payload;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        ObjectMapper mapper = codec.equals("smile") ? builder.factory(new SmileFactory()).build() : builder.build();
+        List<Product> catalog = IntStream.range(0, products)
+                .mapToObj(i -> BenchmarkProducts.product(i).toBuilder().version(1L + i % 7).build())
+                .toList();
+        Class<?> type = products == 1 ? Product.class : Product[].class;
+        payload = products == 1 ? catalog.get(0) : catalog.toArray(Product[]::new);
+        writer = mapper.writerFor(type);
+        reader = mapper.readerFor(type);
+        encoded = writer.writeValueAsBytes(payload);
+        System.out.printf("%n%s, %d product(s): %d bytes%n", codec, products, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(payload);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.product.api.produc.benchmark;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.event.ReplayingProductChangeFeed;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import com.example.product.api.produc.infrastructure.repository.InMemoryProductRepository;
+import com.example.product.api.produc.usecase.CreateProduct;
+import com.example.product.api.produc.usecase.PatchProduct;
+import com.example.product.api.produc.usecase.UpdateProduct;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * The write use cases over an in-memory catalog of {@value #CATALOG_SIZE} products, publishing to a change feed
+ * the way the application does. {@code randomUuid} isolates the id generation that {@code create} pays for. The
+ * catalog is rebuilt before every iteration, as {@code create} keeps adding to it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ProductUseCaseBenchmark {
+
+    static final int CATALOG_SIZE = 10_000;
+
+    private Product[] catalog;
+    private CreateProduct createProduct;
+    private UpdateProduct updateProduct;
+    private PatchProduct patchProduct;
+
+    @State(Scope.Thread)
+    public static class Picker {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        InMemoryProductRepository repository = new InMemoryProductRepository(new NoOpProductJournal());
+        repository.init();
+        catalog = IntStream.range(0, CATALOG_SIZE).mapToObj(BenchmarkProducts::product).toArray(Product[]::new);
+        repository.saveAll(Flux.fromArray(catalog)).blockLast();
+        ProductChangeFeed changeFeed = new ReplayingProductChangeFeed(1024, 256, BufferOverflowStrategy.DROP_OLDEST);
+        createProduct = new CreateProduct(repository, changeFeed);
+        updateProduct = new UpdateProduct(repository, changeFeed);
+        patchProduct = new PatchProduct(repository, changeFeed);
+    }
+
+    @Benchmark
+    public Product create(Picker picker) {
+        return createProduct.execute(catalog[picker.next(CATALOG_SIZE)].toBuilder().id(null).build()).block();
+    }
+
+    @Benchmark
+    public Product update(Picker picker) {
+        Product product = catalog[picker.next(CATALOG_SIZE)];
+        return updateProduct.execute(product.getId(), product.toBuilder().quantity(picker.next(500)).build())
+                .block();
+    }
+
+    @Benchmark
+    public Product patch(Picker picker) {
+        Product patch = Product.builder().price(BigDecimal.valueOf(picker.next(100_000), 2)).build();
+        return patchProduct.execute(catalog[picker.next(CATALOG_SIZE)].getId(), patch).block();
+    }
+
+    @Benchmark
+    public String randomUuid() {
+        return UUID.randomUUID().toString();
+    }
+}
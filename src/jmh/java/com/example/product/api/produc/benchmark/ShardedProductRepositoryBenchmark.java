@@ -0,0 +1,88 @@
+package com.example.product.api.produc.benchmark;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import com.example.product.api.produc.infrastructure.repository.ShardedProductRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Writes of single products against a {@link ShardedProductRepository} holding {@code catalogSize} products spread
+ * over {@code shards} shards, the counterpart of {@link InMemoryProductRepositoryBenchmark}. Run with {@code -t}
+ * set to the number of cores, and compare the throughput over the number of shards to see how writes scale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ShardedProductRepositoryBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int shards;
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    private ShardedProductRepository repository;
+    private Product[] catalog;
+
+    @State(Scope.Thread)
+    public static class Picker {
+
+        private final SplittableRandom random = new SplittableRandom();
+
+        int next(int bound) {
+            return random.nextInt(bound);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        repository = new ShardedProductRepository(IntStream.range(0, shards)
+                .<ProductJournal>mapToObj(shard -> new NoOpProductJournal())
+                .toList());
+        repository.init();
+        catalog = IntStream.range(0, catalogSize).mapToObj(BenchmarkProducts::product).toArray(Product[]::new);
+        repository.saveAll(Flux.fromArray(catalog)).blockLast();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        repository.close();
+    }
+
+    @Benchmark
+    public Product findById(Picker picker) {
+        return repository.findById(catalog[picker.next(catalogSize)].getId()).block();
+    }
+
+    @Benchmark
+    public Product save(Picker picker) {
+        Product product = catalog[picker.next(catalogSize)];
+        return repository.save(product.toBuilder().quantity(picker.next(500)).build()).block();
+    }
+
+    @Benchmark
+    public Product update(Picker picker) {
+        Product product = catalog[picker.next(catalogSize)];
+        return repository.update(product.getId(), product.toBuilder().quantity(picker.next(500)).build()).block();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.product.api.produc.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ids of the products the load test knows to exist, in a fixed number of slots. Deletes empty a slot and creates
+ * fill one, so reads, updates and patches keep hitting products that exist while the catalog changes under them.
+ */
+final class IdPool {
+
+    private static final int ATTEMPTS = 16;
+
+    private final AtomicReferenceArray<String> slots;
+
+    IdPool(List<String> ids) {
+        this.slots = new AtomicReferenceArray<>(ids.toArray(String[]::new));
+    }
+
+    /**
+     * Returns the id of some existing product, or null when the attempts to find one all hit empty slots.
+     */
+    String any() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            String id = slots.get(random.nextInt(slots.length()));
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes and returns the id of some existing product, so that no other request picks it any more.
+     */
+    String take() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            String id = slots.getAndSet(random.nextInt(slots.length()), null);
+            if (id != null) {
+                return id;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the id of a created product, preferably into an empty slot; when none is found, the product replaces
+     * another, which stays in the catalog without being picked again.
+     */
+    void put(String id) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int attempt = 0; attempt < ATTEMPTS; attempt++) {
+            if (slots.compareAndSet(random.nextInt(slots.length()), null, id)) {
+                return;
+            }
+        }
+        slots.set(random.nextInt(slots.length()), id);
+    }
+}
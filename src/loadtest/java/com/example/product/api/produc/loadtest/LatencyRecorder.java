@@ -0,0 +1,55 @@
+package com.example.product.api.produc.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the latency and outcome of every request of one run, per route, from any number of threads at once.
+ */
+final class LatencyRecorder {
+
+    private final Map<Route, Recorder> latencies = new EnumMap<>(Route.class);
+    private final Map<Route, LongAdder> errors = new EnumMap<>(Route.class);
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+
+    LatencyRecorder() {
+        for (Route route : Route.values()) {
+            latencies.put(route, new Recorder(3));
+            errors.put(route, new LongAdder());
+        }
+    }
+
+    void record(Route route, long elapsedNanos, boolean succeeded) {
+        latencies.get(route).recordValue(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (!succeeded) {
+            errors.get(route).increment();
+        }
+    }
+
+    LoadTestResult finish(LoadTestOptions options) {
+        double durationSeconds = (System.nanoTime() - startedNanos) / 1e9;
+        Map<Route, LoadTestResult.RouteResult> routes = new EnumMap<>(Route.class);
+        Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        for (Route route : Route.values()) {
+            if (options.mix().get(route) == 0) {
+                continue;
+            }
+            Histogram histogram = latencies.get(route).getIntervalHistogram();
+            long routeErrors = errors.get(route).sum();
+            routes.put(route, LoadTestResult.RouteResult.of(histogram, routeErrors, durationSeconds));
+            total.add(histogram);
+            totalErrors += routeErrors;
+        }
+        return new LoadTestResult(startedAt.toString(), durationSeconds, options.concurrency(),
+                options.catalogSize(), options.mix(), options.applicationArgs(), routes,
+                LoadTestResult.RouteResult.of(total, totalErrors, durationSeconds));
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.product.api.produc.loadtest;
+
+import com.example.product.api.produc.ProductApiApplication;
+import com.example.product.api.produc.domain.model.BatchItemResult;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.presentation.dto.ProductPatchRequest;
+import com.example.product.api.produc.presentation.dto.ProductRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Boots the application on a random local port, fills its catalog and drives a closed-loop mix of requests over
+ * every product route with a fixed number of requests in flight, then reports throughput and latency percentiles
+ * per route and writes them as JSON. See {@link LoadTestOptions} for the arguments:
+ * <pre>
+ * ./mvnw -Pload-test test-compile exec:exec -Dload-test.args="--duration=60s --mix=get:50,patch:50"
+ * </pre>
+ */
+public final class LoadTest {
+
+    private static final String PRODUCTS = "/api/v1/products";
+
+    private final LoadTestOptions options;
+    private final WebClient client;
+    private final Route[] routes;
+    private final int[] cumulativeWeights;
+    private IdPool ids;
+
+    private LoadTest(LoadTestOptions options, WebClient client) {
+        this.options = options;
+        this.client = client;
+        this.routes = options.mix().keySet().toArray(Route[]::new);
+        this.cumulativeWeights = new int[routes.length];
+        int total = 0;
+        for (int i = 0; i < routes.length; i++) {
+            total += options.mix().get(routes[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ProductApiApplication.class)
+                .properties("server.port=0", "product.persistence.enabled=false", "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                .run(options.applicationArgs().toArray(String[]::new))) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest loadTest = new LoadTest(options, client(port, options.concurrency()));
+
+            loadTest.seed();
+            System.out.printf("Seeded %d products; warming up for %s%n", options.catalogSize(), options.warmup());
+            loadTest.run(options.warmup());
+            System.out.printf("Measuring for %s with %d requests in flight%n", options.duration(),
+                    options.concurrency());
+            LoadTestResult result = loadTest.run(options.duration());
+
+            System.out.print(result.table());
+            write(result, options.output());
+            System.out.println("Results written to " + options.output().toAbsolutePath());
+        }
+    }
+
+    private static WebClient client(int port, int concurrency) {
+        // One connection per request in flight, so that requests never queue for a connection inside the client.
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(concurrency)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl("http://localhost:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(-1))
+                .build();
+    }
+
+    private static void write(LoadTestResult result, Path output) throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output.toFile(), result);
+    }
+
+    private void seed() {
+        List<String> seeded = client.post()
+                .uri(PRODUCTS + ":batchCreate")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .body(Flux.range(0, options.catalogSize()).map(LoadTest::request), ProductRequest.class)
+                .retrieve()
+                .bodyToFlux(BatchItemResult.class)
+                .map(BatchItemResult::id)
+                .collectList()
+                .block();
+        ids = new IdPool(seeded);
+    }
+
+    private LoadTestResult run(Duration duration) {
+        LatencyRecorder recorder = new LatencyRecorder();
+        long deadline = System.nanoTime() + duration.toNanos();
+        Flux.range(0, options.concurrency())
+                .flatMap(worker -> Mono.defer(() -> call(pick(), recorder))
+                        .repeat(() -> System.nanoTime() < deadline), options.concurrency())
+                .blockLast();
+        return recorder.finish(options);
+    }
+
+    private Route pick() {
+        int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int i = 0;
+        while (cumulativeWeights[i] <= ticket) {
+            i++;
+        }
+        return routes[i];
+    }
+
+    private Mono<Void> call(Route route, LatencyRecorder recorder) {
+        long start = System.nanoTime();
+        return send(route)
+                .onErrorReturn(false)
+                .doOnNext(succeeded -> recorder.record(route, System.nanoTime() - start, succeeded))
+                .then();
+    }
+
+    private Mono<Boolean> send(Route route) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (route) {
+            case LIST -> exchange(client.get().uri(PRODUCTS));
+            case PAGE -> exchange(client.get().uri(uri -> uri.path(PRODUCTS)
+                    .queryParam("limit", 100)
+                    .queryParam("cursor", existingId())
+                    .build()));
+            case FILTER -> {
+                int minCents = random.nextInt(37 * options.catalogSize());
+                yield exchange(client.get().uri(uri -> uri.path(PRODUCTS)
+                        .queryParam("minPrice", BigDecimal.valueOf(minCents, 2))
+                        .queryParam("maxPrice", BigDecimal.valueOf(minCents + 500, 2))
+                        .build()));
+            }
+            case SEARCH -> exchange(client.get().uri(uri -> uri.path(PRODUCTS + "/search")
+                    .queryParam("q", "product " + random.nextInt(options.catalogSize()))
+                    .build()));
+            case GET -> exchange(client.get().uri(PRODUCTS + "/{id}", existingId()));
+            case CREATE -> client.post()
+                    .uri(PRODUCTS)
+                    .bodyValue(request(random.nextInt(options.catalogSize())))
+                    .exchangeToMono(response -> response.statusCode().is2xxSuccessful()
+                            ? response.bodyToMono(Product.class).map(created -> {
+                                ids.put(created.getId());
+                                return true;
+                            })
+                            : response.releaseBody().thenReturn(false));
+            case UPDATE -> exchange(client.put()
+                    .uri(PRODUCTS + "/{id}", existingId())
+                    .bodyValue(request(random.nextInt(options.catalogSize()))));
+            case PATCH -> exchange(client.patch()
+                    .uri(PRODUCTS + "/{id}", existingId())
+                    .bodyValue(ProductPatchRequest.builder().quantity(random.nextInt(500)).build()));
+            case DELETE -> {
+                String id = ids.take();
+                yield exchange(client.delete().uri(PRODUCTS + "/{id}", id == null ? "missing" : id));
+            }
+        };
+    }
+
+    // An empty pool turns into requests for a missing product, which show up as errors rather than go unnoticed.
+    private String existingId() {
+        String id = ids.any();
+        return id == null ? "missing" : id;
+    }
+
+    private static Mono<Boolean> exchange(WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(LoadTest::succeeded);
+    }
+
+    // The body is always read to its end, so that latencies cover the whole response.
+    private static Mono<Boolean> succeeded(ClientResponse response) {
+        return response.releaseBody().thenReturn(response.statusCode().is2xxSuccessful());
+    }
+
+    private static ProductRequest request(int index) {
+        return ProductRequest.builder()
+                .name("Product " + index)
+                .description("Description of product " + index + ", in stock and ready to ship")
+                .price(BigDecimal.valueOf(100 + index * 37L, 2))
+                .quantity(index % 500)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.product.api.produc.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Options of a load test run, given as {@code --name=value} arguments:
+ * <ul>
+ *     <li>{@code duration} and {@code warmup}: how long to measure, and to run before measuring (30s and 10s)</li>
+ *     <li>{@code concurrency}: requests in flight at any time (64)</li>
+ *     <li>{@code catalog-size}: products created before the run starts (10000)</li>
+ *     <li>{@code mix}: relative weight of each route, such as {@code get:90,patch:10}; routes left out keep their
+ *     default weight, and a weight of 0 leaves a route out</li>
+ *     <li>{@code output}: where to write the JSON results ({@code target/loadtest-result.json})</li>
+ * </ul>
+ * Any other argument is passed on to the application, such as {@code --product.repository.type=columnar}.
+ */
+record LoadTestOptions(Duration duration, Duration warmup, int concurrency, int catalogSize, Map<Route, Integer> mix,
+                       Path output, List<String> applicationArgs) {
+
+    static LoadTestOptions parse(String... args) {
+        Duration duration = Duration.ofSeconds(30);
+        Duration warmup = Duration.ofSeconds(10);
+        int concurrency = 64;
+        int catalogSize = 10_000;
+        Map<Route, Integer> mix = new EnumMap<>(Route.class);
+        for (Route route : Route.values()) {
+            mix.put(route, route.defaultWeight);
+        }
+        Path output = Path.of("target", "loadtest-result.json");
+        List<String> applicationArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            String name = arg.startsWith("--") && separator > 2 ? arg.substring(2, separator) : "";
+            String value = arg.substring(separator + 1);
+            switch (name) {
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "catalog-size" -> catalogSize = Integer.parseInt(value);
+                case "mix" -> parseMix(value, mix);
+                case "output" -> output = Path.of(value);
+                default -> applicationArgs.add(arg);
+            }
+        }
+        if (concurrency < 1 || catalogSize < 1 || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("concurrency, catalog-size and the total weight of the mix must be "
+                    + "positive");
+        }
+        return new LoadTestOptions(duration, warmup, concurrency, catalogSize, Collections.unmodifiableMap(mix), output,
+                List.copyOf(applicationArgs));
+    }
+
+    private static void parseMix(String value, Map<Route, Integer> mix) {
+        for (String entry : value.split(",")) {
+            String[] weight = entry.split(":");
+            if (weight.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like route:weight, not " + entry);
+            }
+            int parsed = Integer.parseInt(weight[1].trim());
+            if (parsed < 0) {
+                throw new IllegalArgumentException("Weights cannot be negative: " + entry);
+            }
+            mix.put(Route.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), parsed);
+        }
+    }
+}
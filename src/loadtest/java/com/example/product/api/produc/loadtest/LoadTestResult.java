@@ -0,0 +1,45 @@
+package com.example.product.api.produc.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Outcome of a measured load test run, as written to the JSON results file. Latencies are measured from sending a
+ * request to receiving the last byte of its response.
+ */
+record LoadTestResult(String startedAt, double durationSeconds, int concurrency, int catalogSize,
+                      Map<Route, Integer> mix, List<String> applicationArgs, Map<Route, RouteResult> routes,
+                      RouteResult total) {
+
+    record RouteResult(long requests, long errors, double requestsPerSecond, double p50Millis, double p90Millis,
+                       double p99Millis, double p999Millis, double maxMillis) {
+
+        static RouteResult of(Histogram latencies, long errors, double durationSeconds) {
+            long requests = latencies.getTotalCount();
+            return new RouteResult(requests, errors, requests / durationSeconds,
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+
+    String table() {
+        StringBuilder table = new StringBuilder(String.format(Locale.ROOT, "%-8s %10s %8s %10s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        routes.forEach((route, result) -> table.append(row(route.name(), result)));
+        return table.append(row("TOTAL", total)).toString();
+    }
+
+    private static String row(String name, RouteResult result) {
+        return String.format(Locale.ROOT, "%-8s %10d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n", name,
+                result.requests(), result.errors(), result.requestsPerSecond(), result.p50Millis(),
+                result.p90Millis(), result.p99Millis(), result.p999Millis(), result.maxMillis());
+    }
+}
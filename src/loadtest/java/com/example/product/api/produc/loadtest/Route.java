@@ -0,0 +1,23 @@
+package com.example.product.api.produc.loadtest;
+
+/**
+ * The product routes the load test drives, with the share of requests each gets unless the mix says otherwise.
+ * The default mix is read-heavy, as production traffic is.
+ */
+enum Route {
+    LIST(2),
+    PAGE(3),
+    FILTER(3),
+    SEARCH(4),
+    GET(80),
+    CREATE(2),
+    UPDATE(2),
+    PATCH(3),
+    DELETE(1);
+
+    final int defaultWeight;
+
+    Route(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.cache.CachingProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Puts a read-through cache in front of the product store. It is on by default for the r2dbc store only, as the
+ * in-memory store already serves every read from memory; {@code product.cache.enabled} overrides that.
+ */
+@Configuration
+@ConditionalOnExpression("${product.cache.enabled:'${product.repository.type:memory}' == 'r2dbc'}")
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    @Primary
+    public CachingProductRepository cachingProductRepository(@Qualifier("productStore") ProductRepository store,
+                                                             CacheProperties properties) {
+        return new CachingProductRepository(store, properties.maximumSize().toBytes(),
+                properties.queryMaximumSize().toBytes(), properties.refreshAfterWrite(),
+                properties.expireAfterWrite());
+    }
+}
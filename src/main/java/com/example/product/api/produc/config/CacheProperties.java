@@ -0,0 +1,15 @@
+package com.example.product.api.produc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@ConfigurationProperties("product.cache")
+public record CacheProperties(
+        @DefaultValue("64MB") DataSize maximumSize,
+        @DefaultValue("16MB") DataSize queryMaximumSize,
+        @DefaultValue("30s") Duration refreshAfterWrite,
+        @DefaultValue("5m") Duration expireAfterWrite) {
+}
@@ -0,0 +1,37 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import com.example.product.api.produc.infrastructure.repository.ClusterProductRepository;
+import com.example.product.api.produc.infrastructure.repository.HttpClusterPeer;
+import com.example.product.api.produc.infrastructure.repository.InMemoryProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+/**
+ * Builds the node of a cluster partitioning products by a consistent hash of their ids. The node keeps its own
+ * products in memory, journaled like those of the memory store, and reaches the other nodes over HTTP.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.repository.type", havingValue = "cluster")
+@EnableConfigurationProperties(ClusterProperties.class)
+public class ClusterConfig {
+
+    @Bean
+    @Qualifier("productStore")
+    public ClusterProductRepository clusterProductRepository(ProductJournal journal, ClusterProperties properties,
+                                                             WebClient.Builder webClientBuilder) {
+        if (properties.self() == null || properties.nodes() == null
+                || !properties.nodes().contains(properties.self())) {
+            throw new IllegalStateException("Set product.cluster.nodes to the URLs of every node of the cluster, "
+                    + "and product.cluster.self to the one of this node");
+        }
+        return new ClusterProductRepository(properties.self(), properties.nodes(), properties.virtualNodes(),
+                new InMemoryProductRepository(journal),
+                node -> new HttpClusterPeer(webClientBuilder.clone(), node, properties.responseTimeout()),
+                properties.retryInterval());
+    }
+}
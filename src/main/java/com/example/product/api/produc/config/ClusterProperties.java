@@ -0,0 +1,23 @@
+package com.example.product.api.produc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param self            URL other nodes reach this node at, as listed in {@code nodes}
+ * @param nodes           URLs of every node of the cluster, in the same order on every node
+ * @param virtualNodes    points each node is hashed to on the ring
+ * @param retryInterval   how long a node waits before handing products over again when another node is down
+ * @param responseTimeout how long a node waits to connect to another node, or for its response, before failing
+ */
+@ConfigurationProperties("product.cluster")
+public record ClusterProperties(
+        String self,
+        List<String> nodes,
+        @DefaultValue("160") int virtualNodes,
+        @DefaultValue("1s") Duration retryInterval,
+        @DefaultValue("2s") Duration responseTimeout) {
+}
@@ -0,0 +1,27 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.cache.CoalescingProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Coalesces concurrent reads of one product into a single lookup of the product store, for the stores that answer
+ * reads asynchronously: the cluster store, and the r2dbc store while the cache of {@link CacheConfig} is off, as the
+ * cache already makes the readers of a product being loaded wait for that load. The in-memory stores answer a read
+ * within the call, so there is never a lookup in flight to share, and they are left without the extra layer.
+ */
+@Configuration
+@ConditionalOnExpression("!(${product.cache.enabled:'${product.repository.type:memory}' == 'r2dbc'})"
+        + " and '${product.repository.type:memory}'.matches('r2dbc|cluster')")
+public class CoalescingConfig {
+
+    @Bean
+    @Primary
+    public CoalescingProductRepository coalescingProductRepository(@Qualifier("productStore") ProductRepository store) {
+        return new CoalescingProductRepository(store);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.product.api.produc.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.EncodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.MimeType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Lets clients read and write products as Smile ({@code application/x-jackson-smile}), Jackson's binary JSON,
+ * instead of JSON, chosen by Accept and Content-Type. The Smile mapper is built like the JSON one, so both
+ * encodings carry the same fields under the same names; JSON stays the default when a client names neither.
+ */
+@Configuration
+public class CodecConfig {
+
+    static final MimeType[] SMILE_MIME_TYPES = {
+            new MimeType("application", "x-jackson-smile"),
+            new MimeType("application", "*+x-jackson-smile")
+    };
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        ObjectMapper smile = builder.factory(new SmileFactory()).build();
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smile, SMILE_MIME_TYPES));
+            configurer.defaultCodecs().jackson2SmileEncoder(new SmileArrayEncoder(smile));
+        };
+    }
+
+    /**
+     * Spring's Smile encoder separates the values of a stream with JSON array punctuation, which Smile readers
+     * reject; this one writes a stream of values as one Smile array instead. The array is written through one
+     * generator as the values arrive, each value flushed as its own buffer, so a listing is never held whole.
+     */
+    static final class SmileArrayEncoder extends Jackson2SmileEncoder {
+
+        private final ObjectMapper mapper;
+
+        SmileArrayEncoder(ObjectMapper mapper) {
+            super(mapper, SMILE_MIME_TYPES);
+            this.mapper = mapper;
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(Publisher<?> inputStream, DataBufferFactory bufferFactory,
+                                       ResolvableType elementType, MimeType mimeType, Map<String, Object> hints) {
+            if (inputStream instanceof Mono) {
+                return super.encode(inputStream, bufferFactory, elementType, mimeType, hints);
+            }
+            ObjectWriter writer = mapper.writerFor(mapper.constructType(elementType.getType()));
+            return Flux.using(() -> new ArrayWriter(mapper),
+                    array -> Flux.from(inputStream)
+                            .map(value -> array.write(writer, value, bufferFactory))
+                            .concatWith(Mono.fromCallable(() -> array.end(bufferFactory))),
+                    ArrayWriter::close);
+        }
+    }
+
+    /**
+     * A Smile array being written, handing out what was written since the last call as a buffer.
+     */
+    private static final class ArrayWriter {
+        private final ByteArrayBuilder output = new ByteArrayBuilder();
+        private final JsonGenerator generator;
+
+        ArrayWriter(ObjectMapper mapper) throws IOException {
+            generator = mapper.getFactory().createGenerator(output);
+            generator.writeStartArray();
+        }
+
+        DataBuffer write(ObjectWriter writer, Object value, DataBufferFactory bufferFactory) {
+            try {
+                writer.writeValue(generator, value);
+                return drain(bufferFactory);
+            } catch (IOException e) {
+                throw new EncodingException("Could not write " + value + " as Smile", e);
+            }
+        }
+
+        DataBuffer end(DataBufferFactory bufferFactory) throws IOException {
+            generator.writeEndArray();
+            generator.close();
+            return drain(bufferFactory);
+        }
+
+        void close() {
+            try {
+                generator.close();
+            } catch (IOException ignored) {
+                // The output is in memory; there is nothing left to release.
+            }
+        }
+
+        private DataBuffer drain(DataBufferFactory bufferFactory) throws IOException {
+            generator.flush();
+            DataBuffer buffer = bufferFactory.wrap(output.toByteArray());
+            output.reset();
+            return buffer;
+        }
+    }
+}
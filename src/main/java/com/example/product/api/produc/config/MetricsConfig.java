@@ -0,0 +1,49 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.metrics.ReactorSchedulerMetrics;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meters beyond the use case and repository timers of
+ * {@link com.example.product.api.produc.infrastructure.metrics.ProductMetricsAspect}, all published on
+ * {@code /actuator/prometheus}.
+ */
+@Slf4j
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public ReactorSchedulerMetrics reactorSchedulerMetrics() {
+        return new ReactorSchedulerMetrics();
+    }
+
+    /**
+     * Gauges the number of stored products. A read of the gauge starts a new count unless the last one is still
+     * running, and reports the latest one that completed, which for the in-memory stores is the count just
+     * started, and for the r2dbc and cluster stores an earlier one, so that a scrape never waits on the database
+     * or the other nodes, and overlapping scrapes do not pile up counts.
+     */
+    @Bean
+    public MeterBinder productCatalogMetrics(ProductRepository productRepository) {
+        AtomicLong size = new AtomicLong();
+        AtomicBoolean counting = new AtomicBoolean();
+        return registry -> Gauge.builder("product.catalog.size", productRepository, repository -> {
+                    if (counting.compareAndSet(false, true)) {
+                        repository.count()
+                                .doFinally(signal -> counting.set(false))
+                                .subscribe(size::set, error -> log.warn("Counting the stored products failed", error));
+                    }
+                    return size.get();
+                })
+                .description("Number of stored products")
+                .register(registry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.FileProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+@Configuration
+@ConditionalOnExpression("'${product.repository.type:memory}'.matches('memory|columnar|cluster')")
+@EnableConfigurationProperties(PersistenceProperties.class)
+public class PersistenceConfig {
+
+    @Bean
+    public ProductJournal productJournal(PersistenceProperties properties) {
+        return journal(properties, properties.directory());
+    }
+
+    static ProductJournal journal(PersistenceProperties properties, Path directory) {
+        if (!properties.enabled()) {
+            return new NoOpProductJournal();
+        }
+        return new FileProductJournal(directory, properties.fsync(), properties.fsyncInterval(),
+                properties.snapshotInterval());
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.FsyncPolicy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties("product.persistence")
+public record PersistenceProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("data") Path directory,
+        @DefaultValue("INTERVAL") FsyncPolicy fsync,
+        @DefaultValue("10ms") Duration fsyncInterval,
+        @DefaultValue("5m") Duration snapshotInterval) {
+}
@@ -0,0 +1,65 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import com.example.product.api.produc.infrastructure.replication.HttpReplicationSource;
+import com.example.product.api.produc.infrastructure.replication.ReplicaJournal;
+import com.example.product.api.produc.infrastructure.replication.ReplicationLog;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.Set;
+
+/**
+ * Puts a replicating journal in front of the product journal, according to {@code product.replication.role}: the
+ * leader streams every write it journals to its followers, and a follower applies the leader's writes instead of
+ * recovering or accepting writes of its own. Replication applies to the memory and columnar stores, which journal
+ * their writes, and the application refuses to start with a replication role on any other store.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicationProperties.class)
+public class ReplicationConfig {
+
+    private static final Set<String> REPLICATED_STORES = Set.of("memory", "columnar");
+
+    public ReplicationConfig(@Value("${product.replication.role:none}") String role,
+                             @Value("${product.repository.type:memory}") String repositoryType) {
+        checkReplicatedStore(role, repositoryType);
+    }
+
+    /**
+     * Refuses a replication role on a store that does not journal its writes through the product journal, where a
+     * leader would stream nothing and a follower would accept writes of its own.
+     */
+    static void checkReplicatedStore(String role, String repositoryType) {
+        if (!"none".equals(role) && !REPLICATED_STORES.contains(repositoryType)) {
+            throw new IllegalStateException("product.replication.role=" + role + " needs the memory or columnar "
+                    + "store, not product.repository.type=" + repositoryType);
+        }
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "product.replication.role", havingValue = "leader")
+    public ReplicationLog replicationLog(@Qualifier("productJournal") ProductJournal journal,
+                                         ReplicationProperties properties) {
+        return new ReplicationLog(journal, properties.logSize(), properties.bufferSize(),
+                properties.heartbeatInterval());
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "product.replication.role", havingValue = "follower")
+    public ReplicaJournal replicaJournal(WebClient.Builder webClientBuilder, ReplicationProperties properties) {
+        if (properties.leaderUrl() == null) {
+            throw new IllegalStateException("Set product.replication.leader-url to the URL of the leader");
+        }
+        return new ReplicaJournal(new HttpReplicationSource(webClientBuilder, properties.leaderUrl()),
+                properties.leaderUrl(), properties.retryInterval());
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.product.api.produc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * @param leaderUrl         base URL of the leader, for followers
+ * @param logSize           writes the leader keeps in memory for followers to catch up from
+ * @param bufferSize        writes the leader buffers for each follower before disconnecting it
+ * @param heartbeatInterval how often the leader tells idle followers they are current
+ * @param retryInterval     how long a follower waits before reconnecting to the leader
+ */
+@ConfigurationProperties("product.replication")
+public record ReplicationProperties(
+        String leaderUrl,
+        @DefaultValue("65536") int logSize,
+        @DefaultValue("8192") int bufferSize,
+        @DefaultValue("1s") Duration heartbeatInterval,
+        @DefaultValue("1s") Duration retryInterval) {
+}
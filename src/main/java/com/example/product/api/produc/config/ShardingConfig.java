@@ -0,0 +1,66 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import com.example.product.api.produc.infrastructure.repository.ShardedProductRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Builds the sharded store, giving every shard a journal of its own in a {@code shard-<i>-of-<n>} directory of the
+ * persistence directory.
+ */
+@Configuration
+@ConditionalOnProperty(name = "product.repository.type", havingValue = "sharded")
+@EnableConfigurationProperties({PersistenceProperties.class, ShardingProperties.class})
+public class ShardingConfig {
+
+    private static final Pattern SHARD_DIRECTORY = Pattern.compile("shard-\\d+-of-(\\d+)");
+
+    @Bean
+    @Qualifier("productStore")
+    public ShardedProductRepository shardedProductRepository(PersistenceProperties persistence,
+                                                             ShardingProperties sharding) throws IOException {
+        int shards = sharding.shardCount();
+        if (persistence.enabled()) {
+            checkShardCount(persistence.directory(), shards);
+        }
+        List<ProductJournal> journals = IntStream.range(0, shards)
+                .mapToObj(shard -> PersistenceConfig.journal(persistence,
+                        persistence.directory().resolve("shard-" + shard + "-of-" + shards)))
+                .toList();
+        return new ShardedProductRepository(journals);
+    }
+
+    /**
+     * Refuses to start with another number of shards than the data was written with, since products would then be
+     * looked up in other shards than the ones holding them.
+     */
+    static void checkShardCount(Path directory, int shards) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(directory)) {
+            entries.map(entry -> SHARD_DIRECTORY.matcher(entry.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .filter(shard -> Integer.parseInt(shard.group(1)) != shards)
+                    .findAny()
+                    .ifPresent(shard -> {
+                        throw new IllegalStateException("The data in " + directory + " was written by "
+                                + shard.group(1) + " shards, not " + shards + "; set product.sharding.shards to "
+                                + shard.group(1));
+                    });
+        }
+    }
+}
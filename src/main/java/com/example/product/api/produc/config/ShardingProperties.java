@@ -0,0 +1,15 @@
+package com.example.product.api.produc.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * @param shards number of shards of the sharded store, or 0 for one per available processor
+ */
+@ConfigurationProperties("product.sharding")
+public record ShardingProperties(@DefaultValue("0") int shards) {
+
+    public int shardCount() {
+        return shards > 0 ? shards : Runtime.getRuntime().availableProcessors();
+    }
+}
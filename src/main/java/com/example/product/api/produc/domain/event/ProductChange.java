@@ -0,0 +1,22 @@
+package com.example.product.api.produc.domain.event;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "A change applied to a product")
+public record ProductChange(
+        @Schema(description = "Position of the change in the feed, usable as Last-Event-ID", example = "42")
+        long sequence,
+        @Schema(description = "Kind of change", example = "UPDATED")
+        ProductChangeType type,
+        @Schema(description = "Identifier of the changed product", example = "1")
+        String productId,
+        @Schema(description = "Product after the change; absent for deletions")
+        Product product,
+        @Schema(description = "When the change was published")
+        Instant occurredAt) {
+}
@@ -0,0 +1,14 @@
+package com.example.product.api.produc.domain.event;
+
+import com.example.product.api.produc.domain.model.Product;
+import reactor.core.publisher.Flux;
+
+public interface ProductChangeFeed {
+    void publish(ProductChangeType type, Product product);
+
+    /**
+     * Streams changes published after {@code afterSequence}, as far back as the feed still retains them,
+     * or only changes published from now on when {@code afterSequence} is null.
+     */
+    Flux<ProductChange> changes(Long afterSequence);
+}
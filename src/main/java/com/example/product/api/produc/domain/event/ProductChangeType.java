@@ -0,0 +1,8 @@
+package com.example.product.api.produc.domain.event;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    PATCHED,
+    DELETED
+}
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.domain.exception;
+
+import lombok.Getter;
+
+@Getter
+public class InsufficientStockException extends RuntimeException {
+    private final String id;
+    private final int available;
+    private final int requested;
+
+    public InsufficientStockException(String id, int available, int requested) {
+        super("Product " + id + " has " + available + " in stock, " + requested + " requested");
+        this.id = id;
+        this.available = available;
+        this.requested = requested;
+    }
+}
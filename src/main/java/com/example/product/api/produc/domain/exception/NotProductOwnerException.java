@@ -0,0 +1,15 @@
+package com.example.product.api.produc.domain.exception;
+
+import lombok.Getter;
+
+@Getter
+public class NotProductOwnerException extends RuntimeException {
+    private final String id;
+    private final String owner;
+
+    public NotProductOwnerException(String id, String owner) {
+        super("Product " + id + " belongs to the cluster node at " + owner + ", not this one");
+        this.id = id;
+        this.owner = owner;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.domain.exception;
+
+import lombok.Getter;
+
+@Getter
+public class ProductVersionConflictException extends RuntimeException {
+    private final String id;
+    private final long expectedVersion;
+    private final long currentVersion;
+
+    public ProductVersionConflictException(String id, long expectedVersion, long currentVersion) {
+        super("Product " + id + " is at version " + currentVersion + ", expected version " + expectedVersion);
+        this.id = id;
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+}
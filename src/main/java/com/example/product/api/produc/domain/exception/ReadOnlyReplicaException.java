@@ -0,0 +1,7 @@
+package com.example.product.api.produc.domain.exception;
+
+public class ReadOnlyReplicaException extends RuntimeException {
+    public ReadOnlyReplicaException(String leader) {
+        super("This node is a read-only follower; send writes to the leader at " + leader);
+    }
+}
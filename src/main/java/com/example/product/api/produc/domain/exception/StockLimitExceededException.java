@@ -0,0 +1,18 @@
+package com.example.product.api.produc.domain.exception;
+
+import lombok.Getter;
+
+@Getter
+public class StockLimitExceededException extends RuntimeException {
+    private final String id;
+    private final int available;
+    private final int added;
+
+    public StockLimitExceededException(String id, int available, int added) {
+        super("Product " + id + " has " + available + " in stock, " + added + " more would exceed "
+                + Integer.MAX_VALUE);
+        this.id = id;
+        this.available = available;
+        this.added = added;
+    }
+}
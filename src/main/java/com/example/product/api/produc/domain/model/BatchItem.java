@@ -0,0 +1,20 @@
+package com.example.product.api.produc.domain.model;
+
+/**
+ * One entry of a bulk write: either a product to write or the reason it was rejected before reaching the
+ * repository, so that the entry still gets its own result in order.
+ */
+public record BatchItem(Product product, String rejection) {
+
+    public static BatchItem of(Product product) {
+        return new BatchItem(product, null);
+    }
+
+    public static BatchItem rejected(String rejection) {
+        return new BatchItem(null, rejection);
+    }
+
+    public boolean isRejected() {
+        return rejection != null;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.product.api.produc.domain.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Outcome of one entry of a bulk request")
+public record BatchItemResult(
+        @Schema(description = "Zero-based position of the entry in the request", example = "0")
+        long index,
+        @Schema(description = "Identifier of the product the entry applied to", example = "1")
+        String id,
+        @Schema(description = "Outcome of the entry", example = "CREATED")
+        BatchItemStatus status,
+        @Schema(description = "Product as stored after the entry was applied")
+        Product product,
+        @Schema(description = "Why the entry was not applied")
+        String message) {
+}
@@ -0,0 +1,9 @@
+package com.example.product.api.produc.domain.model;
+
+public enum BatchItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    INVALID
+}
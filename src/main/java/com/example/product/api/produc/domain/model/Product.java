@@ -1,5 +1,6 @@
 package com.example.product.api.produc.domain.model;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -9,9 +10,10 @@ import lombok.NoArgsConstructor;
 import java.math.BigDecimal;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonPropertyOrder({"id", "name", "description", "price", "quantity", "version"})
 @Schema(description = "Product entity representing an item in the inventory")
 public class Product {
     @Schema(description = "Unique identifier of the product", example = "1")
@@ -28,4 +30,7 @@ public class Product {
 
     @Schema(description = "Available quantity in stock", example = "15")
     private Integer quantity;
+
+    @Schema(description = "Version of the product, incremented on every change and exposed as its ETag", example = "1")
+    private Long version;
 }
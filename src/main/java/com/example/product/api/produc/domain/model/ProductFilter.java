@@ -0,0 +1,22 @@
+package com.example.product.api.produc.domain.model;
+
+import java.math.BigDecimal;
+
+public record ProductFilter(BigDecimal minPrice, BigDecimal maxPrice, Integer maxQuantity) {
+
+    public boolean hasPriceRange() {
+        return minPrice != null || maxPrice != null;
+    }
+
+    public boolean isEmpty() {
+        return !hasPriceRange() && maxQuantity == null;
+    }
+
+    public boolean matches(Product product) {
+        BigDecimal price = product.getPrice();
+        Integer quantity = product.getQuantity();
+        return (minPrice == null || price != null && price.compareTo(minPrice) >= 0)
+                && (maxPrice == null || price != null && price.compareTo(maxPrice) <= 0)
+                && (maxQuantity == null || quantity != null && quantity <= maxQuantity);
+    }
+}
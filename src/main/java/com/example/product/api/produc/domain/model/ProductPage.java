@@ -0,0 +1,6 @@
+package com.example.product.api.produc.domain.model;
+
+import java.util.List;
+
+public record ProductPage(List<Product> items, String nextCursor) {
+}
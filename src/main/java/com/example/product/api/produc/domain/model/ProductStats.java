@@ -0,0 +1,42 @@
+package com.example.product.api.produc.domain.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+@Schema(description = "Aggregates over every product of the catalog")
+public record ProductStats(
+        @Schema(description = "Number of products", example = "10")
+        long productCount,
+        @Schema(description = "Number of products without any unit in stock", example = "1")
+        long outOfStockCount,
+        @Schema(description = "Units in stock over all products", example = "412")
+        long unitsInStock,
+        @Schema(description = "Sum of price times quantity over all products, in USD", example = "48250.37")
+        BigDecimal stockValue,
+        @Schema(description = "Lowest price, absent when no product has a price", example = "9.99")
+        BigDecimal minPrice,
+        @Schema(description = "Highest price, absent when no product has a price", example = "1299.99")
+        BigDecimal maxPrice,
+        @Schema(description = "Average price rounded to the cent, absent when no product has a price",
+                example = "262.49")
+        BigDecimal averagePrice,
+        @Schema(description = "Number of products with a price", example = "9")
+        long pricedCount,
+        @Schema(description = "Sum of the prices over all products with a price, in USD", example = "2362.41")
+        BigDecimal priceSum) {
+
+    /**
+     * Returns the statistics of products whose {@code pricedCount} prices add up to {@code priceSum}, with their
+     * average rounded to the cent. The count and sum are kept so that statistics of several stores can be added up.
+     */
+    public static ProductStats of(long productCount, long outOfStockCount, long unitsInStock, BigDecimal stockValue,
+                                  BigDecimal minPrice, BigDecimal maxPrice, long pricedCount, BigDecimal priceSum) {
+        BigDecimal averagePrice = pricedCount == 0
+                ? null
+                : priceSum.divide(BigDecimal.valueOf(pricedCount), 2, RoundingMode.HALF_EVEN);
+        return new ProductStats(productCount, outOfStockCount, unitsInStock, stockValue, minPrice, maxPrice,
+                averagePrice, pricedCount, priceSum);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.domain.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Units of a product set aside for a limited time, such as the contents of a cart")
+public record StockHold(
+        @Schema(description = "Unique identifier of the hold", example = "5f0c2e7a-1b9d-4c1e-9a57-0d3f6b2c8e41")
+        String id,
+        @Schema(description = "Identifier of the held product", example = "1")
+        String productId,
+        @Schema(description = "Number of held units", example = "2")
+        int quantity,
+        @Schema(description = "When the units go back into stock unless the hold is confirmed first")
+        Instant expiresAt) {
+}
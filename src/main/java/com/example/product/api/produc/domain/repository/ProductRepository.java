@@ -1,14 +1,84 @@
 package com.example.product.api.produc.domain.repository;
 
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 public interface ProductRepository {
     Flux<Product> findAll();
+
+    /**
+     * Returns up to {@code limit} products ordered by id, starting right after the product
+     * whose id is {@code cursor}, or from the first product when {@code cursor} is null.
+     */
+    Flux<Product> findPage(String cursor, int limit);
+
+    /**
+     * Returns the products matching every bound of {@code filter}, ordered by the indexed attribute.
+     */
+    Flux<Product> findByFilter(ProductFilter filter);
+
+    /**
+     * Returns up to {@code limit} products whose name or description match the query terms, best match first.
+     */
+    Flux<Product> search(String query, int limit);
+
     Mono<Product> findById(String id);
     Mono<Product> save(Product product);
+
+    /**
+     * Replaces the stored product and bumps its version. When {@code product} carries a version, the
+     * replacement only happens if it still matches the stored version; otherwise a
+     * {@link ProductVersionConflictException} is signalled and the stored product is left untouched.
+     */
     Mono<Product> update(String id, Product product);
+
+    /**
+     * Adds {@code delta} to the stored quantity, a missing quantity counting as zero, and bumps the version, as one
+     * atomic write that no concurrent write can interleave with. When the quantity would drop below zero, an
+     * {@link InsufficientStockException} is signalled, and when it would exceed {@link Integer#MAX_VALUE}, a
+     * {@link StockLimitExceededException}; either way the stored product is left untouched.
+     */
+    Mono<Product> adjustQuantity(String id, int delta);
+
     Mono<Void> deleteById(String id);
+
+    /**
+     * Saves every product and emits the stored products in input order.
+     */
+    Flux<Product> saveAll(Flux<Product> products);
+
+    /**
+     * Replaces every product that exists under its id and emits only the updated products. Products carrying
+     * a version are checked like in {@link #update(String, Product)}.
+     */
+    Flux<Product> updateAll(Flux<Product> products);
+
+    /**
+     * Deletes every existing product and emits only the ids that were actually deleted.
+     */
+    Flux<String> deleteAll(Flux<String> ids);
+
     Mono<Boolean> existsById(String id);
+
+    /**
+     * Returns the number of stored products.
+     */
+    Mono<Long> count();
+
+    /**
+     * Returns aggregates over every stored product.
+     */
+    Mono<ProductStats> stats();
+
+    /**
+     * Returns a counter that changes whenever any product is saved, updated or deleted, and is read
+     * before the data it describes.
+     */
+    Mono<Long> catalogVersion();
 }
@@ -0,0 +1,37 @@
+package com.example.product.api.produc.domain.repository;
+
+import com.example.product.api.produc.domain.model.StockHold;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Keeps track of outstanding stock holds until they are removed or expire. A hold leaves this repository exactly
+ * once: either through {@link #remove}, {@link #removeAll} or {@link #expired}, never through two of them.
+ */
+public interface StockHoldRepository {
+    /**
+     * Registers a hold of {@code quantity} units of a product that expires once {@code ttl} has elapsed.
+     */
+    Mono<StockHold> create(String productId, int quantity, Duration ttl);
+
+    Mono<StockHold> findById(String id);
+
+    /**
+     * Removes an outstanding hold and emits it, or completes empty when the hold does not exist, was already
+     * removed or has expired.
+     */
+    Mono<StockHold> remove(String id);
+
+    /**
+     * Removes and emits every outstanding hold.
+     */
+    Flux<StockHold> removeAll();
+
+    /**
+     * Emits each hold as it expires. Only one subscriber is supported; holds expiring before it subscribes are
+     * buffered until it does.
+     */
+    Flux<StockHold> expired();
+}
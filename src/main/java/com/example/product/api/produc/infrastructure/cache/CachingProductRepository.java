@@ -0,0 +1,294 @@
+package com.example.product.api.produc.infrastructure.cache;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache in front of another product repository.
+ * <p>
+ * Products are cached by id, bounded by an estimate of their heap size; Caffeine's W-TinyLFU eviction keeps the
+ * products that are read often over those that were merely read last. An entry older than the refresh interval
+ * is reloaded in the background on its next read, and one older than the expiry is dropped, which bounds how
+ * long a change made behind the cache's back goes unseen. Every write through this repository invalidates the
+ * products it touches.
+ * <p>
+ * Query results are cached as well, under the catalog version read before the query ran, and are only served
+ * while the catalog version is unchanged.
+ * <p>
+ * Both caches publish their hits, misses, evictions and sizes as the {@code products} and {@code product-queries}
+ * caches once bound to a meter registry, and reads that waited for a load already in flight are counted as
+ * {@code product.repository.coalesced}.
+ */
+public class CachingProductRepository implements ProductRepository, MeterBinder {
+
+    private static final Object ALL = new Object();
+
+    private final ProductRepository delegate;
+    private final AsyncLoadingCache<String, Product> products;
+    private final Cache<ResultKey, CachedResult> results;
+    private final long resultWeightLimit;
+    private final LongAdder coalesced = new LongAdder();
+
+    public CachingProductRepository(ProductRepository delegate, long maximumWeight, long queryMaximumWeight,
+                                    Duration refreshAfterWrite, Duration expireAfterWrite) {
+        this(delegate, maximumWeight, queryMaximumWeight, refreshAfterWrite, expireAfterWrite, Ticker.systemTicker(),
+                ForkJoinPool.commonPool());
+    }
+
+    CachingProductRepository(ProductRepository delegate, long maximumWeight, long queryMaximumWeight,
+                             Duration refreshAfterWrite, Duration expireAfterWrite, Ticker ticker, Executor executor) {
+        this.delegate = delegate;
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String id, Product product) -> weigh(product))
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .buildAsync((id, loadExecutor) -> delegate.findById(id).toFuture());
+        this.results = Caffeine.newBuilder()
+                .maximumWeight(queryMaximumWeight)
+                .weigher((ResultKey key, CachedResult result) -> result.weight())
+                .expireAfterWrite(expireAfterWrite)
+                .ticker(ticker)
+                .executor(executor)
+                .recordStats()
+                .build();
+        this.resultWeightLimit = Math.min(queryMaximumWeight, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Estimates the heap taken by a product: the object and its boxed fields, plus one byte per character of
+     * its strings, which is what compact strings take for Latin-1 text.
+     */
+    static int weigh(Product product) {
+        return 96 + length(product.getId()) + length(product.getName()) + length(product.getDescription());
+    }
+
+    public CacheStats productStats() {
+        return products.synchronous().stats();
+    }
+
+    public CacheStats queryStats() {
+        return results.stats();
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, products, "products");
+        CaffeineCacheMetrics.monitor(registry, results, "product-queries");
+        CoalescingProductRepository.bindCoalesced(registry, coalesced);
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return cached(ALL, delegate::findAll);
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return cached(new PageKey(cursor, limit), () -> delegate.findPage(cursor, limit));
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        return cached(filter, () -> delegate.findByFilter(filter));
+    }
+
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        return cached(new SearchKey(query, limit), () -> delegate.search(query, limit));
+    }
+
+    // A load shared by several readers must not be cancelled when one of them goes away. Readers of a product
+    // being loaded wait for that load, as with CoalescingProductRepository, and are counted the same way; peeking
+    // through the map view leaves the cache statistics alone.
+    @Override
+    public Mono<Product> findById(String id) {
+        return Mono.fromFuture(() -> {
+            CompletableFuture<Product> pending = products.asMap().get(id);
+            if (pending != null && !pending.isDone()) {
+                coalesced.increment();
+            }
+            return products.get(id);
+        }, true);
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return invalidating(delegate.save(product), product.getId());
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        return invalidating(delegate.update(id, product), id);
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return invalidating(delegate.adjustQuantity(id, delta), id);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return invalidating(delegate.deleteById(id), id);
+    }
+
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return invalidating(products, Product::getId, delegate::saveAll, Product::getId);
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return invalidating(products, Product::getId, delegate::updateAll, Product::getId);
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return invalidating(ids, Function.identity(), delegate::deleteAll, Function.identity());
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public Mono<Long> catalogVersion() {
+        return delegate.catalogVersion();
+    }
+
+    // Results are keyed by the catalog version read before the query ran, so a result can only be newer than its
+    // key, never older, and is never served once the catalog has moved on. Results of older versions are no
+    // longer read and are the first to be evicted.
+    private Flux<Product> cached(Object query, Supplier<Flux<Product>> load) {
+        return delegate.catalogVersion().flatMapMany(catalogVersion -> {
+            ResultKey key = new ResultKey(query, catalogVersion);
+            CachedResult cached = results.getIfPresent(key);
+            if (cached != null) {
+                return Flux.fromIterable(cached.products());
+            }
+            ResultCollector collector = new ResultCollector(resultWeightLimit);
+            return load.get()
+                    .doOnNext(collector::add)
+                    .doOnComplete(() -> {
+                        if (collector.fits()) {
+                            results.put(key, collector.result());
+                        }
+                    });
+        });
+    }
+
+    // The product is invalidated before the outcome reaches the caller, so a read issued in reaction to the write
+    // never finds the entry it replaced.
+    private <T> Mono<T> invalidating(Mono<T> write, String id) {
+        return write.doOnEach(signal -> invalidate(id)).doOnCancel(() -> invalidate(id));
+    }
+
+    // A bulk write invalidates each product as its write is acknowledged, and every product it was given once it
+    // ends, so that a failed or cancelled batch never leaves a stale entry behind.
+    private <T, R> Flux<R> invalidating(Flux<T> input, Function<T, String> inputId,
+                                        Function<Flux<T>, Flux<R>> write, Function<R, String> resultId) {
+        return Flux.defer(() -> {
+            Set<String> touched = ConcurrentHashMap.newKeySet();
+            return write.apply(input.doOnNext(item -> touched.add(inputId.apply(item))))
+                    .doOnEach(signal -> {
+                        if (signal.hasValue()) {
+                            invalidate(resultId.apply(signal.get()));
+                        } else {
+                            products.synchronous().invalidateAll(touched);
+                        }
+                    })
+                    .doOnCancel(() -> products.synchronous().invalidateAll(touched));
+        });
+    }
+
+    private void invalidate(String id) {
+        products.synchronous().invalidate(id);
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    private record PageKey(String cursor, int limit) {
+    }
+
+    private record SearchKey(String query, int limit) {
+    }
+
+    private record ResultKey(Object query, long catalogVersion) {
+    }
+
+    private record CachedResult(List<Product> products, int weight) {
+    }
+
+    // Collects a query result while it streams to the reader, giving up once it outgrows the query cache.
+    private static final class ResultCollector {
+        private final long weightLimit;
+        private final List<Product> products = new ArrayList<>();
+        private long weight;
+
+        ResultCollector(long weightLimit) {
+            this.weightLimit = weightLimit;
+        }
+
+        void add(Product product) {
+            if (fits()) {
+                weight += weigh(product);
+                products.add(product);
+                if (!fits()) {
+                    products.clear();
+                }
+            }
+        }
+
+        boolean fits() {
+            return weight <= weightLimit;
+        }
+
+        CachedResult result() {
+            return new CachedResult(List.copyOf(products), (int) weight);
+        }
+    }
+}
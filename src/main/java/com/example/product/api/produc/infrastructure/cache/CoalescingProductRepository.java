@@ -0,0 +1,180 @@
+package com.example.product.api.produc.infrastructure.cache;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent reads of one product in front of another product repository: a read of a product that is
+ * already being looked up waits for that lookup instead of starting another, and every waiter gets its outcome.
+ * Nothing is kept once a lookup completes, so this never serves a product older than the reads in flight.
+ * <p>
+ * A write forgets the lookups in flight for the products it touches, so a read issued after the write completed
+ * never joins a lookup that started before it.
+ * <p>
+ * Reads answered by a lookup already in flight are counted by {@value #COALESCED_METER} once bound to a meter
+ * registry.
+ */
+public class CoalescingProductRepository implements ProductRepository, MeterBinder {
+
+    static final String COALESCED_METER = "product.repository.coalesced";
+
+    private final ProductRepository delegate;
+    private final ConcurrentMap<String, CompletableFuture<Product>> lookups = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public CoalescingProductRepository(ProductRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Registers the counter of reads answered by a lookup already in flight.
+     */
+    static void bindCoalesced(MeterRegistry registry, LongAdder coalesced) {
+        FunctionCounter.builder(COALESCED_METER, coalesced, LongAdder::sum)
+                .description("Product reads answered by a lookup of the same product already in flight")
+                .register(registry);
+    }
+
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindCoalesced(registry, coalesced);
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return delegate.findPage(cursor, limit);
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        return delegate.findByFilter(filter);
+    }
+
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        return delegate.search(query, limit);
+    }
+
+    // A lookup shared by several readers must not be cancelled when one of them goes away.
+    @Override
+    public Mono<Product> findById(String id) {
+        return Mono.fromFuture(() -> lookup(id), true);
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return forgetting(delegate.save(product), product.getId());
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        return forgetting(delegate.update(id, product), id);
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return forgetting(delegate.adjustQuantity(id, delta), id);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return forgetting(delegate.deleteById(id), id);
+    }
+
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return forgetting(products, Product::getId, delegate::saveAll, Product::getId);
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return forgetting(products, Product::getId, delegate::updateAll, Product::getId);
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return forgetting(ids, Function.identity(), delegate::deleteAll, Function.identity());
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return delegate.count();
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public Mono<Long> catalogVersion() {
+        return delegate.catalogVersion();
+    }
+
+    // The lookup is forgotten once it completes, unless a write forgot it first and another lookup took its place.
+    // A store that answers synchronously completes the lookup within this call, so nothing is left to join.
+    private CompletableFuture<Product> lookup(String id) {
+        CompletableFuture<Product> started = new CompletableFuture<>();
+        CompletableFuture<Product> inFlight = lookups.putIfAbsent(id, started);
+        if (inFlight != null) {
+            coalesced.increment();
+            return inFlight;
+        }
+        started.whenComplete((product, error) -> lookups.remove(id, started));
+        delegate.findById(id).subscribe(started::complete, started::completeExceptionally,
+                () -> started.complete(null));
+        return started;
+    }
+
+    // The lookup is forgotten before the outcome reaches the caller, so a read issued in reaction to the write
+    // starts a lookup of its own.
+    private <T> Mono<T> forgetting(Mono<T> write, String id) {
+        return write.doOnEach(signal -> lookups.remove(id)).doOnCancel(() -> lookups.remove(id));
+    }
+
+    // A bulk write forgets the lookup of each product as its write is acknowledged, and those of every product it
+    // was given once it ends, so that a failed or cancelled batch never leaves a lookup of an older product behind.
+    private <T, R> Flux<R> forgetting(Flux<T> input, Function<T, String> inputId,
+                                      Function<Flux<T>, Flux<R>> write, Function<R, String> resultId) {
+        return Flux.defer(() -> {
+            Set<String> touched = ConcurrentHashMap.newKeySet();
+            return write.apply(input.doOnNext(item -> touched.add(inputId.apply(item))))
+                    .doOnEach(signal -> {
+                        if (signal.hasValue()) {
+                            lookups.remove(resultId.apply(signal.get()));
+                        } else {
+                            lookups.keySet().removeAll(touched);
+                        }
+                    })
+                    .doOnCancel(() -> lookups.keySet().removeAll(touched));
+        });
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.product.api.produc.infrastructure.event;
+
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Multicasts product changes to any number of subscribers. The last {@code replaySize} changes are retained
+ * so reconnecting subscribers can resume from their Last-Event-ID, and every subscriber gets its own bounded
+ * buffer so a slow consumer only ever overflows itself, never the publisher or other subscribers.
+ * <p>
+ * Changes are published once their write returned, so concurrent writes of one product can be published in the
+ * opposite order from their versions. The feed keeps the changes of each product in version order by dropping a
+ * change older than one it already published, which leaves consumers with the latest state; a change published
+ * after the deletion of its product is older than that deletion, as only a creation can follow it.
+ */
+@Component
+public class ReplayingProductChangeFeed implements ProductChangeFeed {
+
+    // Writes are only reordered while they race, so only the products changed most recently need their last
+    // published version remembered.
+    static final int ORDERED_PRODUCTS = 65_536;
+    private static final long DELETED = Long.MAX_VALUE;
+
+    private final Sinks.Many<ProductChange> sink;
+    private final int subscriberBufferSize;
+    private final BufferOverflowStrategy overflowStrategy;
+    private final Map<String, Long> publishedVersions = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > ORDERED_PRODUCTS;
+        }
+    };
+    private long sequence;
+
+    public ReplayingProductChangeFeed(
+            @Value("${product.changes.replay-size:1024}") int replaySize,
+            @Value("${product.changes.subscriber-buffer-size:256}") int subscriberBufferSize,
+            @Value("${product.changes.overflow-strategy:DROP_OLDEST}") BufferOverflowStrategy overflowStrategy) {
+        this.sink = Sinks.many().replay().limit(replaySize);
+        this.subscriberBufferSize = subscriberBufferSize;
+        this.overflowStrategy = overflowStrategy;
+    }
+
+    @Override
+    public synchronized void publish(ProductChangeType type, Product product) {
+        if (isStale(type, product)) {
+            return;
+        }
+        sequence++;
+        sink.tryEmitNext(new ProductChange(sequence, type, product.getId(),
+                type == ProductChangeType.DELETED ? null : product, Instant.now()));
+    }
+
+    @Override
+    public Flux<ProductChange> changes(Long afterSequence) {
+        return Flux.defer(() -> {
+                    long after = afterSequence != null ? afterSequence : currentSequence();
+                    return sink.asFlux().filter(change -> change.sequence() > after);
+                })
+                .onBackpressureBuffer(subscriberBufferSize, overflowStrategy);
+    }
+
+    private boolean isStale(ProductChangeType type, Product product) {
+        if (type == ProductChangeType.DELETED) {
+            publishedVersions.put(product.getId(), DELETED);
+            return false;
+        }
+        Long published = publishedVersions.get(product.getId());
+        if (published != null && published == DELETED) {
+            return type != ProductChangeType.CREATED;
+        }
+        if (product.getVersion() == null) {
+            return false;
+        }
+        if (published != null && published >= product.getVersion()) {
+            return true;
+        }
+        publishedVersions.put(product.getId(), product.getVersion());
+        return false;
+    }
+
+    private synchronized long currentSequence() {
+        return sequence;
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.product.api.produc.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Times every use case and every product repository operation, from the subscription to the publisher it returns
+ * until that publisher completes, fails or is cancelled. Timers are named {@value #USE_CASE_TIMER} and
+ * {@value #REPOSITORY_TIMER}, tagged with the class and operation, the outcome and the exception class, so their
+ * counts also tell how often each outcome happened.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ProductMetricsAspect {
+
+    static final String USE_CASE_TIMER = "product.usecase";
+    static final String REPOSITORY_TIMER = "product.repository";
+
+    private final MeterRegistry registry;
+    // Timers are registered once per name, tags, outcome and exception, and looked up on every later call.
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+
+    @Around("execution(public (reactor.core.publisher.Mono || reactor.core.publisher.Flux) "
+            + "com.example.product.api.produc.usecase.*.*(..))")
+    public Object timeUseCase(ProceedingJoinPoint call) throws Throwable {
+        return timed(call, USE_CASE_TIMER, "usecase");
+    }
+
+    @Around("execution(* com.example.product.api.produc.domain.repository.ProductRepository.*(..))")
+    public Object timeRepository(ProceedingJoinPoint call) throws Throwable {
+        return timed(call, REPOSITORY_TIMER, "repository");
+    }
+
+    private Object timed(ProceedingJoinPoint call, String name, String component) throws Throwable {
+        Tags tags = Tags.of(component, call.getTarget().getClass().getSimpleName(),
+                "operation", call.getSignature().getName());
+        Object result = call.proceed();
+        if (result instanceof Mono<?> mono) {
+            return Mono.defer(() -> {
+                Timing timing = new Timing(name, tags);
+                return mono.doOnSuccess(value -> timing.stop("success", null))
+                        .doOnError(error -> timing.stop("error", error))
+                        .doOnCancel(() -> timing.stop("cancelled", null));
+            });
+        }
+        return Flux.defer(() -> {
+            Timing timing = new Timing(name, tags);
+            return ((Flux<?>) result).doOnComplete(() -> timing.stop("success", null))
+                    .doOnError(error -> timing.stop("error", error))
+                    .doOnCancel(() -> timing.stop("cancelled", null));
+        });
+    }
+
+    // A Mono can be cancelled after it emitted its value, so only the first outcome of a subscription is recorded.
+    private final class Timing {
+        private final String name;
+        private final Tags tags;
+        private final Timer.Sample sample = Timer.start(registry);
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        Timing(String name, Tags tags) {
+            this.name = name;
+            this.tags = tags;
+        }
+
+        void stop(String outcome, Throwable error) {
+            if (stopped.compareAndSet(false, true)) {
+                sample.stop(timer(name, tags, outcome, error == null ? "none" : error.getClass().getSimpleName()));
+            }
+        }
+    }
+
+    private Timer timer(String name, Tags tags, String outcome, String exception) {
+        return timers.computeIfAbsent(new TimerKey(name, tags, outcome, exception), key -> Timer.builder(name)
+                .tags(tags)
+                .tag("outcome", outcome)
+                .tag("exception", exception)
+                .register(registry));
+    }
+
+    private record TimerKey(String name, Tags tags, String outcome, String exception) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.product.api.produc.infrastructure.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.internal.TimedScheduledExecutorService;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Times the tasks run by Reactor schedulers, such as the parallel scheduler the journal acknowledges writes on.
+ * Every executor a scheduler creates from now on is decorated, and the executors of one scheduler share their
+ * {@code reactor.executor} and {@code reactor.executor.idle} timers, tagged with the scheduler's name, so that the
+ * workers a bounded elastic scheduler keeps creating and evicting do not add meters of their own. Schedulers
+ * created before the registry is bound are left alone.
+ */
+public class ReactorSchedulerMetrics implements MeterBinder, AutoCloseable {
+
+    private static final String DECORATOR_KEY = ReactorSchedulerMetrics.class.getName();
+    private static final Pattern QUOTED_NAME = Pattern.compile("\"([^\"]+)\"");
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Schedulers.removeExecutorServiceDecorator(DECORATOR_KEY);
+        Schedulers.addExecutorServiceDecorator(DECORATOR_KEY, (scheduler, executor) ->
+                new TimedScheduledExecutorService(registry, executor, name(scheduler), "reactor.", Tags.empty()));
+    }
+
+    @Override
+    public void close() {
+        Schedulers.removeExecutorServiceDecorator(DECORATOR_KEY);
+    }
+
+    // Schedulers describe themselves as parallel(4,"parallel") or boundedElastic("boundedElastic",maxThreads=...),
+    // quoting the name given to their threads.
+    static String name(Scheduler scheduler) {
+        Matcher name = QUOTED_NAME.matcher(scheduler.toString());
+        return name.find() ? name.group(1) : scheduler.getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,361 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only product journal: a write-ahead log split into segments plus periodic snapshots.
+ * <p>
+ * Writers only encode their record and queue it; a single writer thread drains the queue and appends whole
+ * batches with one gathering write, so concurrent writes share both the system call and the fsync (group
+ * commit). A snapshot first switches the log to a new segment, then writes every current product to a new
+ * {@link ProductSnapshot} file and deletes the segments it covers; closing the journal takes one last snapshot,
+ * so a clean restart has no log to replay. Recovery maps the latest snapshot and replays the segments written
+ * after it, cutting off a record torn by a crash at the end of the log.
+ */
+@Slf4j
+public class FileProductJournal implements ProductJournal, AutoCloseable {
+
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final Pattern JOURNAL_FILE = Pattern.compile("(wal|snapshot)-(\\d{20})\\.(log|bin)");
+    private static final Object STOP = new Object();
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final Duration snapshotInterval;
+    private final ThreadFactory writerThreadFactory;
+
+    private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+    private final BlockingQueue<Object> queue = new LinkedBlockingQueue<>();
+    private final AtomicLong appended = new AtomicLong();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private volatile long durable;
+    private volatile Exception failure;
+
+    private Supplier<? extends Iterable<Product>> state;
+    private long segment;
+    private long appendedAtLastSnapshot;
+    private Thread writer;
+    private ScheduledExecutorService snapshots;
+
+    // Owned by the writer thread once it has started.
+    private FileChannel channel;
+    private long written;
+    private boolean dirty;
+    private long lastForce;
+
+    public FileProductJournal(Path directory, FsyncPolicy fsyncPolicy, Duration fsyncInterval,
+                              Duration snapshotInterval) {
+        this(directory, fsyncPolicy, fsyncInterval, snapshotInterval,
+                Thread.ofPlatform().name("product-journal").daemon().factory());
+    }
+
+    FileProductJournal(Path directory, FsyncPolicy fsyncPolicy, Duration fsyncInterval, Duration snapshotInterval,
+                       ThreadFactory writerThreadFactory) {
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = fsyncInterval.toNanos();
+        this.snapshotInterval = snapshotInterval;
+        this.writerThreadFactory = writerThreadFactory;
+    }
+
+    @Override
+    public boolean recover(Consumer<List<Product>> restore, Consumer<JournalRecord> replay,
+                           Supplier<? extends Iterable<Product>> state) {
+        this.state = state;
+        AtomicLong replayed = new AtomicLong();
+        Consumer<JournalRecord> counting = record -> {
+            replayed.incrementAndGet();
+            replay.accept(record);
+        };
+        boolean hasSnapshot;
+        try {
+            Files.createDirectories(directory);
+            NavigableMap<Long, Path> snapshotFiles = files("snapshot", "bin");
+            hasSnapshot = !snapshotFiles.isEmpty();
+            long covered = hasSnapshot ? snapshotFiles.lastKey() : 0;
+            if (hasSnapshot) {
+                restore.accept(ProductSnapshot.open(snapshotFiles.lastEntry().getValue()));
+            }
+            NavigableMap<Long, Path> segments = files("wal", "log").tailMap(covered, false);
+            for (Path path : segments.values()) {
+                replaySegment(path, counting);
+            }
+            segment = segments.isEmpty() ? covered + 1 : segments.lastKey() + 1;
+            channel = openSegment(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot recover the product journal in " + directory, e);
+        }
+        if (replayed.get() > 0) {
+            // Replayed records are not in a snapshot yet, so the next snapshot must not be skipped.
+            appendedAtLastSnapshot = -1;
+        }
+        lastForce = System.nanoTime();
+        writer = writerThreadFactory.newThread(this::runWriter);
+        writer.start();
+        snapshots = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("product-snapshot").daemon().factory());
+        snapshots.scheduleWithFixedDelay(this::snapshot, snapshotInterval.toMillis(), snapshotInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+        return hasSnapshot || replayed.get() > 0;
+    }
+
+    @Override
+    public <T> T write(Supplier<T> mutation) {
+        rotationLock.readLock().lock();
+        try {
+            return mutation.get();
+        } finally {
+            rotationLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void append(JournalRecord record) {
+        if (failure != null) {
+            throw unavailable();
+        }
+        ByteBuffer frame = JournalCodec.encode(record);
+        // Counting before queueing means that once a writer's own record is queued, the count it reads covers
+        // every record queued ahead of it, so waiting for that many records to be written includes its own.
+        appended.incrementAndGet();
+        queue.add(frame);
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        return Mono.defer(() -> {
+            long target = appended.get();
+            if (target <= durable) {
+                return Mono.empty();
+            }
+            Waiter waiter = new Waiter(target, new CompletableFuture<>());
+            waiters.add(waiter);
+            releaseWaiters();
+            return Mono.fromFuture(waiter.done()).publishOn(Schedulers.parallel());
+        });
+    }
+
+    /**
+     * Writes a snapshot of the current products and deletes the log segments it makes redundant. Does nothing
+     * when nothing has been appended since the previous snapshot.
+     */
+    void snapshot() {
+        long covered;
+        long appendedAtRotation;
+        Rotation rotation;
+        rotationLock.writeLock().lock();
+        try {
+            appendedAtRotation = appended.get();
+            if (appendedAtRotation == appendedAtLastSnapshot) {
+                return;
+            }
+            covered = segment;
+            rotation = new Rotation(++segment, new CompletableFuture<>());
+            queue.add(rotation);
+        } finally {
+            rotationLock.writeLock().unlock();
+        }
+        if (failure != null) {
+            rotation.done().completeExceptionally(failure);
+        }
+        try {
+            writeSnapshot(covered, state.get());
+            rotation.done().get();
+            for (Path path : files("wal", "log").headMap(covered, true).values()) {
+                Files.delete(path);
+            }
+            for (Path path : files("snapshot", "bin").headMap(covered, false).values()) {
+                Files.delete(path);
+            }
+            appendedAtLastSnapshot = appendedAtRotation;
+        } catch (Exception e) {
+            log.warn("Product snapshot failed; the log is kept until the next snapshot", e);
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        snapshots.shutdown();
+        snapshots.awaitTermination(1, TimeUnit.MINUTES);
+        snapshot();
+        queue.add(STOP);
+        writer.join();
+    }
+
+    private void runWriter() {
+        List<Object> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        List<ByteBuffer> frames = new ArrayList<>(MAX_BATCH_SIZE);
+        try {
+            while (true) {
+                Object first = dirty
+                        ? queue.poll(fsyncIntervalNanos - (System.nanoTime() - lastForce), TimeUnit.NANOSECONDS)
+                        : queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                }
+                for (Object item : batch) {
+                    if (item instanceof ByteBuffer frame) {
+                        frames.add(frame);
+                        continue;
+                    }
+                    flush(frames, true);
+                    if (item == STOP) {
+                        channel.close();
+                        return;
+                    }
+                    Rotation rotation = (Rotation) item;
+                    channel.close();
+                    channel = openSegment(rotation.segment());
+                    rotation.done().complete(null);
+                }
+                batch.clear();
+                flush(frames, fsyncPolicy == FsyncPolicy.EVERY_BATCH
+                        || System.nanoTime() - lastForce >= fsyncIntervalNanos);
+            }
+        } catch (Exception e) {
+            log.error("Product journal failed; further writes are rejected", e);
+            failure = e;
+            batch.addAll(queue);
+            for (Object item : batch) {
+                if (item instanceof Rotation rotation) {
+                    rotation.done().completeExceptionally(e);
+                }
+            }
+            releaseWaiters();
+        }
+    }
+
+    private void flush(List<ByteBuffer> frames, boolean force) throws IOException {
+        if (!frames.isEmpty()) {
+            JournalCodec.writeFully(channel, frames);
+            written += frames.size();
+            frames.clear();
+            dirty = true;
+        }
+        if (force && dirty) {
+            channel.force(false);
+            lastForce = System.nanoTime();
+            dirty = false;
+        }
+        if (durable != written) {
+            durable = written;
+            releaseWaiters();
+        }
+    }
+
+    private void releaseWaiters() {
+        Iterator<Waiter> pending = waiters.iterator();
+        while (pending.hasNext()) {
+            Waiter waiter = pending.next();
+            if (waiter.target() <= durable) {
+                waiter.done().complete(null);
+                pending.remove();
+            } else if (failure != null) {
+                waiter.done().completeExceptionally(unavailable());
+                pending.remove();
+            }
+        }
+    }
+
+    private IllegalStateException unavailable() {
+        return new IllegalStateException("The product journal is unavailable", failure);
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        FileChannel opened = FileChannel.open(path("wal", number, "log"),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        forceDirectory();
+        return opened;
+    }
+
+    private void replaySegment(Path path, Consumer<JournalRecord> replay) throws IOException {
+        try (FileChannel segmentChannel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size());
+            for (JournalRecord record = JournalCodec.read(buffer); record != null; record = JournalCodec.read(buffer)) {
+                replay.accept(record);
+            }
+            if (buffer.hasRemaining()) {
+                log.warn("Discarding {} bytes of incomplete writes at the end of {}", buffer.remaining(), path);
+                segmentChannel.truncate(buffer.position());
+            }
+        }
+    }
+
+    private void writeSnapshot(long covered, Iterable<Product> products) throws IOException {
+        Path temporary = path("snapshot", covered, "tmp");
+        ProductSnapshot.write(temporary, products);
+        Files.move(temporary, path("snapshot", covered, "bin"), StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory();
+    }
+
+    // Makes a created or renamed file itself survive a crash, not just its contents.
+    private void forceDirectory() throws IOException {
+        try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            directoryChannel.force(true);
+        }
+    }
+
+    private Path path(String kind, long number, String extension) {
+        return directory.resolve(String.format("%s-%020d.%s", kind, number, extension));
+    }
+
+    private NavigableMap<Long, Path> files(String kind, String extension) throws IOException {
+        NavigableMap<Long, Path> files = new TreeMap<>();
+        try (Stream<Path> paths = Files.list(directory)) {
+            paths.forEach(path -> {
+                Matcher name = JOURNAL_FILE.matcher(path.getFileName().toString());
+                if (name.matches() && name.group(1).equals(kind) && name.group(3).equals(extension)) {
+                    files.put(Long.parseLong(name.group(2)), path);
+                }
+            });
+        }
+        return files;
+    }
+
+    private record Waiter(long target, CompletableFuture<Void> done) {
+    }
+
+    private record Rotation(long segment, CompletableFuture<Void> done) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+public enum FsyncPolicy {
+    /**
+     * Writes are acknowledged once their batch has been forced to disk. Survives power loss; every write pays
+     * for one fsync, shared with the writes batched alongside it.
+     */
+    EVERY_BATCH,
+    /**
+     * Writes are acknowledged once handed to the operating system and the log is forced at most once per
+     * fsync interval. Survives a process crash in microseconds; power loss can lose the last interval.
+     */
+    INTERVAL
+}
@@ -0,0 +1,82 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Frames journal records as {@code [payload length][CRC32C of payload][payload]}, where the payload is a kind
+ * byte followed by the product in {@link ProductCodec} layout, or by the id of a deleted product. A frame whose
+ * length or checksum does not add up marks the end of the readable log, which is how a write torn by a crash
+ * is found.
+ */
+final class JournalCodec {
+
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+
+    private JournalCodec() {
+    }
+
+    static ByteBuffer encode(JournalRecord record) {
+        ByteBuffer body;
+        if (record.isDelete()) {
+            byte[] id = ProductCodec.utf8(record.id());
+            body = ByteBuffer.allocate(ProductCodec.sizeOf(id));
+            ProductCodec.putString(body, id);
+            body.flip();
+        } else {
+            body = ProductCodec.encode(record.product());
+        }
+        int length = 1 + body.remaining();
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + length);
+        frame.putInt(length);
+        frame.putInt(0);
+        frame.put(record.isDelete() ? DELETE : PUT);
+        frame.put(body);
+        frame.putInt(Integer.BYTES, checksum(frame.slice(HEADER_SIZE, length)));
+        return frame.flip();
+    }
+
+    /**
+     * Decodes the frame at the buffer's position and moves past it, or returns null without moving when no
+     * complete, intact frame starts there.
+     */
+    static JournalRecord read(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        if (length <= 0 || length > buffer.remaining() - HEADER_SIZE
+                || checksum(buffer.slice(start + HEADER_SIZE, length)) != buffer.getInt(start + Integer.BYTES)) {
+            return null;
+        }
+        ByteBuffer payload = buffer.slice(start + HEADER_SIZE, length);
+        buffer.position(start + HEADER_SIZE + length);
+        return payload.get() == DELETE
+                ? JournalRecord.delete(ProductCodec.getString(payload))
+                : JournalRecord.put(ProductCodec.decode(payload));
+    }
+
+    static void writeFully(FileChannel channel, List<ByteBuffer> buffers) throws IOException {
+        ByteBuffer[] array = buffers.toArray(ByteBuffer[]::new);
+        long remaining = 0;
+        for (ByteBuffer buffer : array) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(array);
+        }
+    }
+
+    private static int checksum(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+
+/**
+ * The full state of one product after a write, or its deletion when {@code product} is null. Records carry
+ * state rather than operations, so replaying a record that is already reflected in a snapshot is harmless.
+ */
+public record JournalRecord(String id, Product product) {
+
+    public static JournalRecord put(Product product) {
+        return new JournalRecord(product.getId(), product);
+    }
+
+    public static JournalRecord delete(String id) {
+        return new JournalRecord(id, null);
+    }
+
+    public boolean isDelete() {
+        return product == null;
+    }
+}
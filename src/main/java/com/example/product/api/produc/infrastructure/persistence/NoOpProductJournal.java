@@ -0,0 +1,34 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Journal for a purely in-memory repository: nothing is recorded, so nothing survives a restart.
+ */
+public class NoOpProductJournal implements ProductJournal {
+
+    @Override
+    public boolean recover(Consumer<List<Product>> restore, Consumer<JournalRecord> replay,
+                           Supplier<? extends Iterable<Product>> state) {
+        return false;
+    }
+
+    @Override
+    public <T> T write(Supplier<T> mutation) {
+        return mutation.get();
+    }
+
+    @Override
+    public void append(JournalRecord record) {
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        return Mono.empty();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Binary layout of a product, shared by log records and snapshots:
+ * <pre>
+ * id, name, description   int length (-1 for null) + UTF-8 bytes
+ * price                   byte tag: 0 null, 1 long unscaled value + int scale,
+ *                                   2 int length + two's complement unscaled bytes + int scale
+ * quantity                byte (0 null, 1 present) + int
+ * version                 long
+ * </pre>
+ */
+final class ProductCodec {
+
+    private static final int NULL_LENGTH = -1;
+    private static final byte NO_PRICE = 0;
+    private static final byte COMPACT_PRICE = 1;
+    private static final byte LARGE_PRICE = 2;
+
+    private ProductCodec() {
+    }
+
+    static ByteBuffer encode(Product product) {
+        byte[] id = utf8(product.getId());
+        byte[] name = utf8(product.getName());
+        byte[] description = utf8(product.getDescription());
+        BigDecimal price = product.getPrice();
+        boolean compactPrice = price != null && price.unscaledValue().bitLength() < Long.SIZE;
+        byte[] largePrice = price == null || compactPrice ? null : price.unscaledValue().toByteArray();
+        int priceSize = price == null ? 0 : (compactPrice ? Long.BYTES : sizeOf(largePrice)) + Integer.BYTES;
+
+        ByteBuffer buffer = ByteBuffer.allocate(sizeOf(id) + sizeOf(name) + sizeOf(description) + 1 + priceSize
+                + 1 + Integer.BYTES + Long.BYTES);
+        putString(buffer, id);
+        putString(buffer, name);
+        putString(buffer, description);
+        if (price == null) {
+            buffer.put(NO_PRICE);
+        } else if (compactPrice) {
+            buffer.put(COMPACT_PRICE).putLong(price.unscaledValue().longValue()).putInt(price.scale());
+        } else {
+            buffer.put(LARGE_PRICE);
+            putString(buffer, largePrice);
+            buffer.putInt(price.scale());
+        }
+        buffer.put((byte) (product.getQuantity() == null ? 0 : 1));
+        buffer.putInt(product.getQuantity() == null ? 0 : product.getQuantity());
+        buffer.putLong(product.getVersion());
+        return buffer.flip();
+    }
+
+    /**
+     * Decodes the product at the buffer's position and moves past it.
+     */
+    static Product decode(ByteBuffer buffer) {
+        Product.ProductBuilder product = Product.builder()
+                .id(getString(buffer))
+                .name(getString(buffer))
+                .description(getString(buffer));
+        byte priceTag = buffer.get();
+        if (priceTag == COMPACT_PRICE) {
+            product.price(BigDecimal.valueOf(buffer.getLong(), buffer.getInt()));
+        } else if (priceTag == LARGE_PRICE) {
+            product.price(new BigDecimal(new BigInteger(getBytes(buffer)), buffer.getInt()));
+        }
+        boolean hasQuantity = buffer.get() == 1;
+        int quantity = buffer.getInt();
+        return product
+                .quantity(hasQuantity ? quantity : null)
+                .version(buffer.getLong())
+                .build();
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int sizeOf(byte[] bytes) {
+        return Integer.BYTES + (bytes == null ? 0 : bytes.length);
+    }
+
+    static void putString(ByteBuffer buffer, byte[] bytes) {
+        buffer.putInt(bytes == null ? NULL_LENGTH : bytes.length);
+        if (bytes != null) {
+            buffer.put(bytes);
+        }
+    }
+
+    static String getString(ByteBuffer buffer) {
+        byte[] bytes = getBytes(buffer);
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] getBytes(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
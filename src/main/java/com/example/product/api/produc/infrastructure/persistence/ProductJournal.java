@@ -0,0 +1,33 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+public interface ProductJournal {
+
+    /**
+     * Hands the products of the latest snapshot to {@code restore}, replays the records written after it into
+     * {@code replay}, and returns false when nothing had been recorded yet. The snapshot holds one entry per
+     * product, and its entries may be read in any order and from several threads. Snapshots taken from then on
+     * read the current products from {@code state}.
+     */
+    boolean recover(Consumer<List<Product>> restore, Consumer<JournalRecord> replay,
+                    Supplier<? extends Iterable<Product>> state);
+
+    /**
+     * Runs a write that appends to the journal, so that a snapshot never starts while the write has appended
+     * its record but not yet made it visible in {@code state}.
+     */
+    <T> T write(Supplier<T> mutation);
+
+    void append(JournalRecord record);
+
+    /**
+     * Completes once every record appended before subscription has been persisted.
+     */
+    Mono<Void> sync();
+}
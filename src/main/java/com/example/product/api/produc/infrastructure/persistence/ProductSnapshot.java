@@ -0,0 +1,149 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Memory-mapped product snapshot. The file is laid out as
+ * <pre>
+ * header    int magic, int format, long record count, long offset of the index
+ * records   one product per record in {@link ProductCodec} layout
+ * index     long file offset of every record, in record order
+ * </pre>
+ * and opening it only maps the file and checks the header: the snapshot is a list whose elements are decoded
+ * from the mapping when they are read, so pages are faulted in on demand and different parts of the list can be
+ * decoded by different threads. A mapping is limited to 2 GiB, so the file is mapped in regions and the writer
+ * pads the records so that none of them straddles two regions.
+ */
+final class ProductSnapshot extends AbstractList<Product> implements RandomAccess {
+
+    static final int MAGIC = 0x50534E50;
+    static final int FORMAT = 2;
+    static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES * 2;
+    static final long REGION_SIZE = 1L << 30;
+
+    private static final int MAX_BATCH_SIZE = 1024;
+
+    private final MappedByteBuffer[] regions;
+    private final long regionSize;
+    private final int size;
+    private final long indexOffset;
+
+    private ProductSnapshot(MappedByteBuffer[] regions, long regionSize, int size, long indexOffset) {
+        this.regions = regions;
+        this.regionSize = regionSize;
+        this.size = size;
+        this.indexOffset = indexOffset;
+    }
+
+    static ProductSnapshot open(Path path) throws IOException {
+        return open(path, REGION_SIZE);
+    }
+
+    static ProductSnapshot open(Path path, long regionSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            MappedByteBuffer[] regions = new MappedByteBuffer[(int) ((fileSize + regionSize - 1) / regionSize)];
+            for (int i = 0; i < regions.length; i++) {
+                long start = i * regionSize;
+                regions[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(regionSize, fileSize - start));
+            }
+            if (fileSize < HEADER_SIZE || regions[0].getInt(0) != MAGIC || regions[0].getInt(Integer.BYTES) != FORMAT) {
+                throw new IOException("Unrecognized product snapshot " + path);
+            }
+            long count = regions[0].getLong(Integer.BYTES * 2);
+            long indexOffset = regions[0].getLong(Integer.BYTES * 2 + Long.BYTES);
+            if (count < 0 || count > Integer.MAX_VALUE || indexOffset < HEADER_SIZE
+                    || indexOffset + count * Long.BYTES != fileSize) {
+                throw new IOException("Corrupt product snapshot " + path);
+            }
+            return new ProductSnapshot(regions, regionSize, (int) count, indexOffset);
+        }
+    }
+
+    static void write(Path path, Iterable<Product> products) throws IOException {
+        write(path, products, REGION_SIZE);
+    }
+
+    /**
+     * Writes the products to a new snapshot file and forces it to disk.
+     */
+    static void write(Path path, Iterable<Product> products, long regionSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            List<ByteBuffer> buffers = new ArrayList<>(MAX_BATCH_SIZE);
+            long[] offsets = new long[1024];
+            int count = 0;
+            long position = HEADER_SIZE;
+            channel.position(position);
+            for (Product product : products) {
+                ByteBuffer record = ProductCodec.encode(product);
+                if (record.remaining() > regionSize) {
+                    throw new IOException("Product " + product.getId() + " does not fit in a snapshot region");
+                }
+                long room = regionSize - position % regionSize;
+                if (record.remaining() > room) {
+                    buffers.add(ByteBuffer.allocate((int) room));
+                    position += room;
+                }
+                if (count == offsets.length) {
+                    offsets = Arrays.copyOf(offsets, count * 2);
+                }
+                offsets[count++] = position;
+                position += record.remaining();
+                buffers.add(record);
+                if (buffers.size() >= MAX_BATCH_SIZE) {
+                    JournalCodec.writeFully(channel, buffers);
+                    buffers.clear();
+                }
+            }
+            // Aligning the index keeps every entry inside one region, as regions are a multiple of 8 bytes.
+            int padding = (int) (-position & (Long.BYTES - 1));
+            buffers.add(ByteBuffer.allocate(padding));
+            long indexOffset = position + padding;
+            ByteBuffer index = ByteBuffer.allocate(MAX_BATCH_SIZE * Long.BYTES);
+            for (int i = 0; i < count; i++) {
+                index.putLong(offsets[i]);
+                if (!index.hasRemaining() || i == count - 1) {
+                    buffers.add(index.flip());
+                    JournalCodec.writeFully(channel, buffers);
+                    buffers.clear();
+                    index = ByteBuffer.allocate(MAX_BATCH_SIZE * Long.BYTES);
+                }
+            }
+            JournalCodec.writeFully(channel, buffers);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE)
+                    .putInt(MAGIC).putInt(FORMAT).putLong(count).putLong(indexOffset).flip();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public Product get(int index) {
+        Objects.checkIndex(index, size);
+        long entry = indexOffset + (long) index * Long.BYTES;
+        long offset = regions[(int) (entry / regionSize)].getLong((int) (entry % regionSize));
+        ByteBuffer record = regions[(int) (offset / regionSize)].duplicate();
+        return ProductCodec.decode(record.position((int) (offset % regionSize)));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+
+import java.util.Optional;
+
+/**
+ * Streams the leader's writes over HTTP, one JSON entry per line.
+ */
+public class HttpReplicationSource implements ReplicationSource {
+
+    static final String LOG_PATH = "/api/v1/replication/log";
+
+    private final WebClient webClient;
+
+    public HttpReplicationSource(WebClient.Builder builder, String leader) {
+        this.webClient = builder.baseUrl(leader).build();
+    }
+
+    @Override
+    public Flux<ReplicationEntry> stream(String log, long after) {
+        return webClient.get()
+                .uri(uri -> uri.path(LOG_PATH)
+                        .queryParamIfPresent("log", Optional.ofNullable(log))
+                        .queryParam("after", after)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .retrieve()
+                .bodyToFlux(ReplicationEntry.class);
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import com.example.product.api.produc.domain.exception.ReadOnlyReplicaException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Journal of a follower: instead of recovering products from disk, it streams the leader's writes and replays
+ * them into the store in the order the leader made them, reconnecting after {@code retryInterval} whenever the
+ * stream breaks and resuming after the last write applied. Writes sent to the follower itself are rejected.
+ * <p>
+ * The lag is how long ago the follower was last known to be current: the leader stamps every write and heartbeat
+ * with its clock, and once the follower has applied one, it has everything the leader had at that time. Leader and
+ * follower clocks are assumed to agree, as they do on one host or under NTP.
+ */
+@Slf4j
+public class ReplicaJournal implements ProductJournal, ReplicationNode, MeterBinder, AutoCloseable {
+
+    private final ReplicationSource source;
+    private final String leader;
+    private final Duration retryInterval;
+    private final Clock clock;
+    private Consumer<JournalRecord> replay;
+    private Supplier<? extends Iterable<Product>> state;
+    private Disposable replication;
+    // Ids copied since the last RESYNC, or null outside of a copy
+    private Set<String> copied;
+    private String copiedLogId;
+    private volatile String logId;
+    private volatile long sequence;
+    private volatile long currentAt = -1;
+    private volatile boolean connected;
+
+    public ReplicaJournal(ReplicationSource source, String leader, Duration retryInterval) {
+        this(source, leader, retryInterval, Clock.systemUTC());
+    }
+
+    ReplicaJournal(ReplicationSource source, String leader, Duration retryInterval, Clock clock) {
+        this.source = source;
+        this.leader = leader;
+        this.retryInterval = retryInterval;
+        this.clock = clock;
+    }
+
+    /**
+     * Starts following the leader and returns true right away, so that the store does not seed products of its
+     * own; until its first copy completes, the follower serves an empty catalog.
+     */
+    @Override
+    public boolean recover(Consumer<List<Product>> restore, Consumer<JournalRecord> replay,
+                           Supplier<? extends Iterable<Product>> state) {
+        this.replay = replay;
+        this.state = state;
+        replication = Flux.defer(() -> source.stream(logId, sequence))
+                .doOnNext(entry -> {
+                    connected = true;
+                    apply(entry);
+                })
+                .doFinally(signal -> connected = false)
+                .doOnError(error -> log.warn("Replication from the leader at {} stopped; retrying in {}", leader,
+                        retryInterval, error))
+                .repeatWhen(completed -> completed.delayElements(retryInterval))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, retryInterval))
+                .subscribe();
+        return true;
+    }
+
+    @Override
+    public <T> T write(Supplier<T> mutation) {
+        throw new ReadOnlyReplicaException(leader);
+    }
+
+    @Override
+    public void append(JournalRecord record) {
+        throw new ReadOnlyReplicaException(leader);
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        return Mono.empty();
+    }
+
+    /**
+     * Applies one entry of the stream. Entries of a copy do not move the sequence until the copy completes, so a
+     * follower disconnected in the middle of one asks for a new copy instead of resuming after a partial one.
+     */
+    void apply(ReplicationEntry entry) {
+        switch (entry.kind()) {
+            case RESYNC -> {
+                copied = new HashSet<>();
+                copiedLogId = entry.id();
+            }
+            case PUT, DELETE -> {
+                replay.accept(entry.record());
+                if (copied != null) {
+                    copied.add(entry.id());
+                } else {
+                    caughtUp(entry);
+                }
+            }
+            case SYNCED -> {
+                List<String> removed = new ArrayList<>();
+                state.get().forEach(product -> {
+                    if (!copied.contains(product.getId())) {
+                        removed.add(product.getId());
+                    }
+                });
+                removed.forEach(id -> replay.accept(JournalRecord.delete(id)));
+                copied = null;
+                logId = copiedLogId;
+                caughtUp(entry);
+            }
+            case HEARTBEAT -> caughtUp(entry);
+        }
+    }
+
+    @Override
+    public ReplicationStatus status() {
+        long at = currentAt;
+        return new ReplicationStatus(ReplicationStatus.Role.FOLLOWER, logId, sequence, null, connected,
+                at < 0 ? null : Math.max(clock.millis() - at, 0));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("product.replication.lag", this, TimeUnit.MILLISECONDS, ReplicaJournal::lagMillis)
+                .description("How long ago the follower was last known to be current with the leader")
+                .register(registry);
+        Gauge.builder("product.replication.sequence", this, journal -> journal.sequence)
+                .description("Sequence of the last leader write applied by the follower")
+                .register(registry);
+        Gauge.builder("product.replication.connected", this, journal -> journal.connected ? 1 : 0)
+                .description("Whether the follower is streaming writes from the leader")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        if (replication != null) {
+            replication.dispose();
+        }
+    }
+
+    private double lagMillis() {
+        Long lag = status().lagMillis();
+        return lag == null ? Double.NaN : lag;
+    }
+
+    private void caughtUp(ReplicationEntry entry) {
+        sequence = entry.sequence();
+        currentAt = entry.timestamp();
+    }
+}
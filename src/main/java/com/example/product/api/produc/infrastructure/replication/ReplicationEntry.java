@@ -0,0 +1,53 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * One line of the replication stream a leader sends its followers. Writes are numbered in the order the leader
+ * journaled them; a follower that is new, or too far behind for the leader to still hold what it missed, first
+ * gets a copy of every product between a {@link Kind#RESYNC} and a {@link Kind#SYNCED} entry.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Entry of the replication stream")
+public record ReplicationEntry(
+        @Schema(description = "Sequence of the last write reflected once this entry is applied", example = "42")
+        long sequence,
+        @Schema(description = "Leader time, in epoch milliseconds, when the entry was produced")
+        long timestamp,
+        @Schema(description = "Kind of entry", example = "PUT")
+        Kind kind,
+        @Schema(description = "Product written or deleted, or the id of the leader's log for RESYNC entries")
+        String id,
+        @Schema(description = "Full state of the product written; absent for other kinds")
+        Product product) {
+
+    public enum Kind {
+        /** A product was created or changed; carries its full state. */
+        PUT,
+        /** A product was deleted. */
+        DELETE,
+        /** A copy of every product follows; {@code id} names the log that sequences refer to. */
+        RESYNC,
+        /** The copy is complete; products it did not include no longer exist. */
+        SYNCED,
+        /** Nothing was written; tells followers they are current as of {@code timestamp}. */
+        HEARTBEAT
+    }
+
+    static ReplicationEntry of(long sequence, long timestamp, JournalRecord record) {
+        return record.isDelete()
+                ? new ReplicationEntry(sequence, timestamp, Kind.DELETE, record.id(), null)
+                : new ReplicationEntry(sequence, timestamp, Kind.PUT, record.id(), record.product());
+    }
+
+    static ReplicationEntry marker(long sequence, long timestamp, Kind kind, String log) {
+        return new ReplicationEntry(sequence, timestamp, kind, log, null);
+    }
+
+    JournalRecord record() {
+        return kind == Kind.DELETE ? JournalRecord.delete(id) : JournalRecord.put(product);
+    }
+}
@@ -0,0 +1,237 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Journal of the leader: passes every record on to the journal that persists it, and also numbers it and keeps
+ * the last {@code logSize} in memory, so that followers can stream the writes they have not applied yet. A
+ * follower that missed more than that, or whose log is from before the leader last started, gets a copy of every
+ * product first. The copy is read while writes go on, which is harmless because records carry full states:
+ * writes the copy already reflects are simply applied again. Each follower has a buffer of its own, and one that
+ * falls {@code bufferSize} writes behind is disconnected rather than slowing down writes; it reconnects and catches
+ * up from where it was. Writes made while a copy streams are kept however many there are, since a follower
+ * disconnected during a copy starts it over; the bound applies once the follower has received them.
+ */
+public class ReplicationLog implements ProductJournal, ReplicationNode, MeterBinder, AutoCloseable {
+
+    private final ProductJournal journal;
+    private final String id = UUID.randomUUID().toString();
+    private final ReplicationEntry[] retained;
+    private final int bufferSize;
+    private final Duration heartbeatInterval;
+    private final Clock clock;
+    private final List<Follower> followers = new ArrayList<>();
+    // Writes hold the read lock from appending their record until it is visible, so a copy started under the
+    // write lock reflects every write numbered up to the sequence it starts from.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Supplier<? extends Iterable<Product>> state;
+    private long sequence;
+
+    public ReplicationLog(ProductJournal journal, int logSize, int bufferSize, Duration heartbeatInterval) {
+        this(journal, logSize, bufferSize, heartbeatInterval, Clock.systemUTC());
+    }
+
+    ReplicationLog(ProductJournal journal, int logSize, int bufferSize, Duration heartbeatInterval, Clock clock) {
+        this.journal = journal;
+        this.retained = new ReplicationEntry[logSize];
+        this.bufferSize = bufferSize;
+        this.heartbeatInterval = heartbeatInterval;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean recover(Consumer<List<Product>> restore, Consumer<JournalRecord> replay,
+                           Supplier<? extends Iterable<Product>> state) {
+        this.state = state;
+        return journal.recover(restore, replay, state);
+    }
+
+    @Override
+    public <T> T write(Supplier<T> mutation) {
+        lock.readLock().lock();
+        try {
+            return journal.write(mutation);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void append(JournalRecord record) {
+        journal.append(record);
+        synchronized (this) {
+            sequence++;
+            ReplicationEntry entry = ReplicationEntry.of(sequence, clock.millis(), record);
+            retained[(int) (sequence % retained.length)] = entry;
+            followers.removeIf(follower -> !emit(follower, entry));
+        }
+    }
+
+    @Override
+    public Mono<Void> sync() {
+        return journal.sync();
+    }
+
+    /**
+     * Streams the writes made after {@code after} to a follower, preceded by a copy of every product when the
+     * follower's log is not this one or the writes it missed are no longer retained. Heartbeats follow every
+     * {@code heartbeatInterval}, and the stream only ends when the follower falls too far behind.
+     */
+    public Flux<ReplicationEntry> stream(String log, long after) {
+        return Flux.defer(() -> {
+            Follower follower = new Follower();
+            Flux<ReplicationEntry> missed;
+            lock.writeLock().lock();
+            try {
+                synchronized (this) {
+                    if (retains(log, after)) {
+                        missed = Flux.fromIterable(retainedAfter(after));
+                        follower.bounded = true;
+                    } else {
+                        missed = copy(sequence, clock.millis())
+                                .concatWith(Mono.fromRunnable(() -> copied(follower)));
+                    }
+                    followers.add(follower);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            Disposable heartbeats = Flux.interval(heartbeatInterval)
+                    .subscribe(tick -> heartbeat(follower));
+            return Flux.concat(missed, follower.entries())
+                    .publishOn(Schedulers.parallel())
+                    .doFinally(signal -> {
+                        heartbeats.dispose();
+                        synchronized (this) {
+                            followers.remove(follower);
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public synchronized ReplicationStatus status() {
+        return new ReplicationStatus(ReplicationStatus.Role.LEADER, id, sequence, followers.size(), null, null);
+    }
+
+    synchronized long sequence() {
+        return sequence;
+    }
+
+    synchronized int followers() {
+        return followers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.replication.sequence", this, ReplicationLog::sequence)
+                .description("Sequence of the last write made on the leader")
+                .register(registry);
+        Gauge.builder("product.replication.followers", this, ReplicationLog::followers)
+                .description("Followers streaming writes from the leader")
+                .register(registry);
+    }
+
+    /**
+     * Ends every stream, so followers reconnect to the leader once it is back.
+     */
+    @Override
+    public synchronized void close() {
+        followers.forEach(follower -> follower.sink.tryEmitComplete());
+        followers.clear();
+    }
+
+    private boolean retains(String log, long after) {
+        return id.equals(log) && after >= 0 && after <= sequence && sequence - after <= retained.length;
+    }
+
+    private List<ReplicationEntry> retainedAfter(long after) {
+        List<ReplicationEntry> missed = new ArrayList<>((int) (sequence - after));
+        for (long next = after + 1; next <= sequence; next++) {
+            missed.add(retained[(int) (next % retained.length)]);
+        }
+        return missed;
+    }
+
+    private Flux<ReplicationEntry> copy(long at, long timestamp) {
+        return Flux.concat(
+                Mono.just(ReplicationEntry.marker(at, timestamp, ReplicationEntry.Kind.RESYNC, id)),
+                Flux.defer(() -> Flux.fromIterable(state.get()))
+                        .map(product -> ReplicationEntry.of(at, timestamp, JournalRecord.put(product))),
+                Mono.just(ReplicationEntry.marker(at, timestamp, ReplicationEntry.Kind.SYNCED, null)));
+    }
+
+    /**
+     * Bounds the buffer of a follower that received its copy from the first write after it on, so that the writes
+     * made during the copy can still be drained.
+     */
+    private synchronized void copied(Follower follower) {
+        follower.boundedFrom = sequence;
+        if (follower.pending.get() == 0) {
+            follower.bounded = true;
+        }
+    }
+
+    private synchronized void heartbeat(Follower follower) {
+        if (followers.contains(follower) && !emit(follower,
+                ReplicationEntry.marker(sequence, clock.millis(), ReplicationEntry.Kind.HEARTBEAT, null))) {
+            followers.remove(follower);
+        }
+    }
+
+    private boolean emit(Follower follower, ReplicationEntry entry) {
+        if (!follower.bounded || follower.pending.get() < bufferSize) {
+            follower.pending.incrementAndGet();
+            if (follower.sink.tryEmitNext(entry).isSuccess()) {
+                return true;
+            }
+        }
+        follower.sink.tryEmitError(new IllegalStateException("The follower fell more than " + bufferSize
+                + " writes behind"));
+        return false;
+    }
+
+    /**
+     * Writes buffered for one follower. The buffer is unbounded while the follower receives a copy, and holds
+     * {@code bufferSize} writes from the first write after the copy on.
+     */
+    private static final class Follower {
+
+        private final Sinks.Many<ReplicationEntry> sink = Sinks.many().unicast()
+                .onBackpressureBuffer(Queues.<ReplicationEntry>unbounded().get());
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile long boundedFrom = Long.MAX_VALUE;
+        private volatile boolean bounded;
+
+        private Flux<ReplicationEntry> entries() {
+            return sink.asFlux().doOnNext(entry -> {
+                pending.decrementAndGet();
+                if (entry.sequence() >= boundedFrom) {
+                    bounded = true;
+                }
+            });
+        }
+    }
+}
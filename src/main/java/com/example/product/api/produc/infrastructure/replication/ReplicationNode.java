@@ -0,0 +1,9 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+/**
+ * A node taking part in replication, as a leader or as a follower.
+ */
+public interface ReplicationNode {
+
+    ReplicationStatus status();
+}
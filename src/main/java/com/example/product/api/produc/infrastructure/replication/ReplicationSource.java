@@ -0,0 +1,16 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Where a follower reads the leader's writes from.
+ */
+@FunctionalInterface
+public interface ReplicationSource {
+
+    /**
+     * Streams the writes made after {@code after} in log {@code log}, or a full copy first when {@code log} is null,
+     * is not the leader's current log, or no longer holds every write after {@code after}.
+     */
+    Flux<ReplicationEntry> stream(String log, long after);
+}
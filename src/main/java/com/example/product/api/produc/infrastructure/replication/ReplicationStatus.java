@@ -0,0 +1,27 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "Replication state of this node")
+public record ReplicationStatus(
+        @Schema(description = "Role of this node", example = "FOLLOWER")
+        Role role,
+        @Schema(description = "Id of the leader's log; changes whenever the leader restarts")
+        String log,
+        @Schema(description = "Sequence of the last write made (leader) or applied (follower)", example = "42")
+        long sequence,
+        @Schema(description = "Followers streaming from this leader", example = "2")
+        Integer followers,
+        @Schema(description = "Whether this follower is streaming from the leader")
+        Boolean connected,
+        @Schema(description = "How long ago this follower was last known to be current with the leader; absent "
+                + "before its first copy completes", example = "120")
+        Long lagMillis) {
+
+    public enum Role {
+        LEADER,
+        FOLLOWER
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductStats;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Catalog aggregates kept up to date as products are written, so reading them never visits the products. Every
+ * write adds the product it stores and removes the one it replaces, which costs a few adder updates, plus one
+ * update of an ordered count of products per price, which keeps the lowest and highest price at hand. Figures read
+ * while writes are in flight may reflect some of them only.
+ */
+final class CatalogStats {
+
+    private final LongAdder products = new LongAdder();
+    private final LongAdder outOfStock = new LongAdder();
+    private final LongAdder units = new LongAdder();
+    private final LongAdder priced = new LongAdder();
+    private final DecimalAdder priceSum = new DecimalAdder();
+    private final DecimalAdder stockValue = new DecimalAdder();
+    private final ConcurrentSkipListMap<BigDecimal, Integer> prices = new ConcurrentSkipListMap<>();
+
+    void add(Product product) {
+        add(product.getPrice(), product.getQuantity());
+    }
+
+    void remove(Product product) {
+        remove(product.getPrice(), product.getQuantity());
+    }
+
+    void add(BigDecimal price, Integer quantity) {
+        count(price, quantity, 1);
+        if (price != null) {
+            prices.merge(price, 1, Integer::sum);
+        }
+    }
+
+    void remove(BigDecimal price, Integer quantity) {
+        count(price, quantity, -1);
+        if (price != null) {
+            prices.computeIfPresent(price, (key, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    ProductStats snapshot() {
+        Map.Entry<BigDecimal, Integer> lowest = prices.firstEntry();
+        Map.Entry<BigDecimal, Integer> highest = prices.lastEntry();
+        return ProductStats.of(products.sum(), outOfStock.sum(), units.sum(), stockValue.sum(),
+                lowest == null ? null : lowest.getKey(),
+                highest == null ? null : highest.getKey(),
+                priced.sum(), priceSum.sum());
+    }
+
+    // A missing quantity counts as no unit in stock.
+    private void count(BigDecimal price, Integer quantity, int sign) {
+        int inStock = quantity == null ? 0 : quantity;
+        products.add(sign);
+        if (inStock <= 0) {
+            outOfStock.add(sign);
+        }
+        units.add((long) sign * inStock);
+        if (price != null) {
+            BigDecimal signed = sign > 0 ? price : price.negate();
+            priced.add(sign);
+            priceSum.add(signed);
+            stockValue.add(signed.multiply(BigDecimal.valueOf(inStock)));
+        }
+    }
+}
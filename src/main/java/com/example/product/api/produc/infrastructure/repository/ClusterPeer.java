@@ -0,0 +1,17 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * The products another node of the cluster holds, as seen from this node.
+ */
+public interface ClusterPeer extends ProductRepository {
+
+    /**
+     * Hands a product over to the node, which stores it as it is unless it already holds the same or a later
+     * version of it. Emits whether the node stored it.
+     */
+    Mono<Boolean> adopt(Product product);
+}
@@ -0,0 +1,376 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.NotProductOwnerException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Product repository partitioned across the nodes of a cluster, selected with
+ * {@code product.repository.type=cluster}. A {@link HashRing} assigns every product id to one node, which holds
+ * the product in an {@link InMemoryProductRepository} of its own, so the catalog can outgrow the memory of one
+ * node. Operations on one product run on the node owning it, reached through a {@link ClusterPeer} when it is
+ * another one. Listings, filters and searches ask every node and merge their ordered answers, and counts and
+ * statistics add up those of every node.
+ * <p>
+ * When the nodes change, each node hands the products it no longer owns over to their new owners, and deletes
+ * them once they are adopted. Products carry their version along, so a product written again on its old owner
+ * while it moves is handed over again instead of being lost. Until a product has moved, its new owner does not
+ * hold it, so an operation on one product that misses on the owner is tried on the owner under the previous nodes,
+ * then on the owner once more, in case the product moved in between. A product deleted on its old owner while it
+ * was being handed over is deleted from its new owner too, instead of coming back once the handover completes.
+ * <p>
+ * The catalog version adds up the versions of every node, which only grows while the nodes stay the same and keep
+ * running. When the nodes change, or a node reports a lower version than before because it restarted, the version
+ * jumps past every version this node reported so far, so it never repeats for other contents.
+ */
+@Slf4j
+public class ClusterProductRepository implements ProductRepository, AutoCloseable {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+    private static final int HANDOVER_CONCURRENCY = 16;
+
+    private final String self;
+    private final int virtualNodes;
+    private final InMemoryProductRepository local;
+    private final Function<String, ClusterPeer> connect;
+    private final Duration retryInterval;
+    private final Map<String, ClusterPeer> peers = new ConcurrentHashMap<>();
+    private volatile HashRing ring;
+    private volatile HashRing previousRing;
+    private volatile boolean rebalancing;
+    private Disposable handover;
+    private HashRing versionedRing;
+    private Map<String, Long> nodeVersions = Map.of();
+    private long versionOffset;
+
+    /**
+     * Creates the node {@code self} of a cluster made of {@code nodes}, holding its products in {@code local} and
+     * reaching the other nodes through the peers {@code connect} returns for their URLs.
+     */
+    public ClusterProductRepository(String self, List<String> nodes, int virtualNodes,
+                                    InMemoryProductRepository local, Function<String, ClusterPeer> connect,
+                                    Duration retryInterval) {
+        this.self = self;
+        this.virtualNodes = virtualNodes;
+        this.local = local;
+        this.connect = connect;
+        this.retryInterval = retryInterval;
+        this.ring = new HashRing(nodes, virtualNodes);
+        this.versionedRing = ring;
+    }
+
+    /**
+     * Recovers the products of this node. The first node seeds the default products when the cluster is new, and
+     * hands over those the other nodes own once they are up.
+     */
+    @PostConstruct
+    public void init() {
+        if (!local.recover() && self.equals(ring.nodes().get(0))) {
+            local.saveAll(Flux.fromIterable(DefaultProducts.all())).blockLast();
+        }
+        handOver();
+    }
+
+    /**
+     * Changes the nodes of the cluster and starts handing over the products this node no longer owns. Every node
+     * must be given the same nodes.
+     */
+    public Mono<ClusterStatus> rebalance(List<String> nodes) {
+        return Mono.defer(() -> {
+            changeRing(new HashRing(nodes, virtualNodes));
+            handOver();
+            return status();
+        });
+    }
+
+    public Mono<ClusterStatus> status() {
+        HashRing current = ring;
+        boolean moving = rebalancing;
+        return local.count().map(products -> new ClusterStatus(self, current.nodes(), products, moving));
+    }
+
+    /**
+     * Returns the products this node holds, for other nodes to reach them.
+     */
+    public ProductRepository partition() {
+        return local;
+    }
+
+    /**
+     * Stores a product another node hands over; see {@link ClusterPeer#adopt}.
+     */
+    public Mono<Boolean> adopt(Product product) {
+        return local.adopt(product);
+    }
+
+    /**
+     * Returns the node owning a product under the nodes this node knows of.
+     */
+    public String owner(String id) {
+        return ring.owner(id);
+    }
+
+    public boolean owns(String id) {
+        return self.equals(owner(id));
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return Flux.merge(everyNode(ProductRepository::findAll));
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return merged(BY_ID, node -> node.findPage(cursor, limit)).take(limit);
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        if (filter.hasPriceRange()) {
+            return merged(Comparator.comparing(Product::getPrice, Comparator.<BigDecimal>naturalOrder())
+                    .thenComparing(BY_ID), node -> node.findByFilter(filter));
+        }
+        if (filter.maxQuantity() != null) {
+            return merged(Comparator.comparing(Product::getQuantity, Comparator.<Integer>naturalOrder())
+                    .thenComparing(BY_ID), node -> node.findByFilter(filter));
+        }
+        return findAll();
+    }
+
+    // Scores are relative to the products of each node, so rather than comparing them the best matches of every
+    // node are taken in turn. Products are spread over the nodes by hash, so each holds a fair sample of the
+    // matches.
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        Comparator<Tuple2<Long, Product>> byRank = Comparator.<Tuple2<Long, Product>>comparingLong(Tuple2::getT1)
+                .thenComparing(Tuple2::getT2, BY_ID);
+        return Flux.mergeComparing(byRank, everyNode(node -> node.search(query, limit).index()))
+                .take(limit)
+                .map(Tuple2::getT2);
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return onHolder(id, node -> node.findById(id));
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return onOwner(product.getId(), node -> node.save(product));
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        return onHolder(id, node -> node.update(id, product));
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return onHolder(id, node -> node.adjustQuantity(id, delta));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return delete(id).then();
+    }
+
+    // Entries are sent to their owners as they come, and their results are emitted in input order.
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return products.flatMapSequential(this::save);
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return products.flatMapSequential(product ->
+                onHolder(product.getId(), node -> node.updateAll(Flux.just(product)).next()));
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return ids.flatMapSequential(this::delete);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return onHolder(id, node -> node.existsById(id).filter(Boolean::booleanValue)).defaultIfEmpty(false);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Flux.merge(everyNode(ProductRepository::count)).reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return Flux.merge(everyNode(ProductRepository::stats)).reduce(ClusterProductRepository::combine);
+    }
+
+    // Each node bumps its own version, so their sum changes whenever any of them does.
+    @Override
+    public Mono<Long> catalogVersion() {
+        HashRing current = ring;
+        return Flux.fromIterable(current.nodes())
+                .flatMap(node -> node(node).catalogVersion().map(version -> Map.entry(node, version)))
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue)
+                .map(versions -> catalogVersion(current, versions));
+    }
+
+    /**
+     * Adds up the versions of the nodes of {@code current}, offset so that the result is above every earlier one
+     * unless the nodes are the same and none of their versions went down.
+     */
+    synchronized long catalogVersion(HashRing current, Map<String, Long> versions) {
+        long sum = versions.values().stream().mapToLong(Long::longValue).sum();
+        boolean wentDown = versions.entrySet().stream()
+                .anyMatch(node -> node.getValue() < nodeVersions.getOrDefault(node.getKey(), 0L));
+        if (current != versionedRing || wentDown) {
+            long reported = versionOffset + nodeVersions.values().stream().mapToLong(Long::longValue).sum();
+            versionOffset = reported + 1 - sum;
+            versionedRing = current;
+        }
+        nodeVersions = versions;
+        return versionOffset + sum;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (handover != null) {
+            handover.dispose();
+        }
+    }
+
+    // The average price is taken over the price sums and counts of the nodes, not their averages, as products
+    // without a price count towards the products of a node but not towards its average.
+    static ProductStats combine(ProductStats left, ProductStats right) {
+        return ProductStats.of(left.productCount() + right.productCount(),
+                left.outOfStockCount() + right.outOfStockCount(),
+                left.unitsInStock() + right.unitsInStock(),
+                left.stockValue().add(right.stockValue()),
+                either(left.minPrice(), right.minPrice(), BigDecimal::min),
+                either(left.maxPrice(), right.maxPrice(), BigDecimal::max),
+                left.pricedCount() + right.pricedCount(),
+                left.priceSum().add(right.priceSum()));
+    }
+
+    private static BigDecimal either(BigDecimal left, BigDecimal right, BinaryOperator<BigDecimal> pick) {
+        return left == null ? right : right == null ? left : pick.apply(left, right);
+    }
+
+    private ProductRepository node(String node) {
+        return self.equals(node) ? local : peer(node);
+    }
+
+    private ClusterPeer peer(String node) {
+        return peers.computeIfAbsent(node, connect);
+    }
+
+    private <T> Mono<T> onOwner(String id, Function<ProductRepository, Mono<T>> operation) {
+        return Mono.defer(() -> operation.apply(node(owner(id))));
+    }
+
+    // Deletes emit the id they deleted, so that a miss on the owner can be told apart and tried on the old owner.
+    private Mono<String> delete(String id) {
+        return onHolder(id, node -> node.deleteAll(Flux.just(id)).next());
+    }
+
+    /**
+     * Runs an operation on one product on the node holding it, emitting nothing when no node does. A product that
+     * its owner misses may not have moved from its owner under the previous nodes yet, or may have moved just after
+     * the owner missed it, so it is tried on the old owner and then on the owner again. The old owner refuses the
+     * operation once it no longer holds the product, which counts as a miss.
+     */
+    private <T> Mono<T> onHolder(String id, Function<ProductRepository, Mono<T>> operation) {
+        return Mono.defer(() -> {
+            String owner = owner(id);
+            HashRing previous = previousRing;
+            String previousOwner = previous == null ? owner : previous.owner(id);
+            Mono<T> onOwner = Mono.defer(() -> operation.apply(node(owner)));
+            if (owner.equals(previousOwner)) {
+                return onOwner;
+            }
+            return onOwner
+                    .switchIfEmpty(Mono.defer(() -> operation.apply(node(previousOwner)))
+                            .onErrorResume(NotProductOwnerException.class, notHeld -> Mono.empty()))
+                    .switchIfEmpty(onOwner);
+        });
+    }
+
+    private synchronized void changeRing(HashRing next) {
+        previousRing = ring;
+        ring = next;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Flux<T>[] everyNode(Function<ProductRepository, ? extends Publisher<T>> operation) {
+        return ring.nodes().stream()
+                .map(node -> Flux.defer(() -> operation.apply(node(node))))
+                .toArray(Flux[]::new);
+    }
+
+    // A product being handed over may be on both nodes for a moment, next to itself in the merged order.
+    private Flux<Product> merged(Comparator<Product> order, Function<ProductRepository, Flux<Product>> operation) {
+        return Flux.mergeComparing(order, everyNode(operation))
+                .distinctUntilChanged(Product::getId);
+    }
+
+    // Hands over, a few at a time, every product whose owner is another node, retrying until every one has
+    // moved. Every pass tries every product, so that one that cannot move does not hold back the others. Products
+    // written again while they were handed over are kept, and handed over again by the next pass.
+    // A new set of nodes restarts the handover with the new owners.
+    private synchronized void handOver() {
+        if (handover != null) {
+            handover.dispose();
+        }
+        HashRing current = ring;
+        rebalancing = true;
+        handover = Flux.defer(local::findAll)
+                .filter(product -> !self.equals(current.owner(product.getId())))
+                .flatMap(product -> handOver(product, current.owner(product.getId())), HANDOVER_CONCURRENCY)
+                .reduce(true, Boolean::logicalAnd)
+                .filter(Boolean::booleanValue)
+                .repeatWhenEmpty(repeat -> repeat.delayElements(retryInterval))
+                .doOnError(error -> log.warn("Could not hand products over to their owners, retrying in {}: {}",
+                        retryInterval, error.toString()))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, retryInterval))
+                .subscribe(null, null, () -> rebalancing = false);
+    }
+
+    // An owner holding other contents under the same version refuses the product; both copies are kept, and the
+    // product is handed over again on every pass so that the conflict stays visible until someone resolves it.
+    // A product that is gone once adopted was deleted here while it moved, after its owner missed the delete, so
+    // the copy the owner adopted is deleted as well.
+    private Mono<Boolean> handOver(Product product, String owner) {
+        return peer(owner).adopt(product)
+                .then(local.release(product))
+                .flatMap(released -> released ? Mono.just(true) : local.existsById(product.getId())
+                        .flatMap(held -> held
+                                ? Mono.just(false)
+                                : peer(owner).deleteAll(Flux.just(product.getId())).then(Mono.just(true))))
+                .onErrorResume(ProductVersionConflictException.class, conflict -> {
+                    log.warn("Node {} holds other contents of product {} at version {}, keeping this copy", owner,
+                            product.getId(), product.getVersion());
+                    return Mono.just(false);
+                });
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Cluster membership of this node")
+public record ClusterStatus(
+        @Schema(description = "URL of this node", example = "http://10.0.0.1:8080")
+        String self,
+        @Schema(description = "URLs of every node of the cluster, this one included")
+        List<String> nodes,
+        @Schema(description = "Products held by this node", example = "2500")
+        long products,
+        @Schema(description = "Whether this node is still handing over products that other nodes now own")
+        boolean rebalancing) {
+}
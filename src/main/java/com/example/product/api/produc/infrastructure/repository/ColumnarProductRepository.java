@@ -0,0 +1,318 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Memory-compact product repository, selected with {@code product.repository.type=columnar}. Products are kept
+ * in {@link ProductColumns} instead of as objects, which takes a fraction of the heap of
+ * {@link InMemoryProductRepository} per product and makes filters a sequential scan over primitive arrays; each
+ * read builds the products it returns. Writes are serialized by one lock and journaled like the in-memory store.
+ */
+@Repository
+@Qualifier("productStore")
+@ConditionalOnProperty(name = "product.repository.type", havingValue = "columnar")
+public class ColumnarProductRepository implements ProductRepository {
+
+    static final int CHUNK_SIZE = 1024;
+
+    private final ProductColumns columns = new ProductColumns();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final InvertedIndex searchIndex = new InvertedIndex();
+    private final CatalogStats stats = new CatalogStats();
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final ProductJournal journal;
+
+    public ColumnarProductRepository(ProductJournal journal) {
+        this.journal = journal;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (journal.recover(this::restore, this::replay, this::inIdOrder)) {
+            return;
+        }
+
+        // Initialize an empty store with default products
+        DefaultProducts.all().forEach(this::store);
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return Flux.fromIterable(inIdOrder());
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(read(() -> columns.page(cursor, limit))));
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        if (filter.isEmpty()) {
+            return findAll();
+        }
+        return Flux.defer(() -> Flux.fromIterable(read(() -> columns.filter(filter))));
+    }
+
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(searchIndex.search(query, limit)))
+                .mapNotNull(this::get);
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return Mono.fromSupplier(() -> get(id));
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return Mono.fromCallable(() -> store(product))
+                .flatMap(stored -> journal.sync().thenReturn(stored));
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        return Mono.fromCallable(() -> replace(id, product))
+                .flatMap(updated -> journal.sync().thenReturn(updated));
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return Mono.fromCallable(() -> adjust(id, delta))
+                .flatMap(adjusted -> journal.sync().thenReturn(adjusted));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> remove(id))
+                .then(journal.sync());
+    }
+
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return synced(products.map(this::store));
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return synced(products.mapNotNull(product -> replace(product.getId(), product)));
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return synced(ids.filter(this::remove));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return Mono.fromSupplier(() -> read(() -> columns.slotOf(id) >= 0));
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> read(() -> (long) columns.size()));
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return Mono.fromSupplier(stats::snapshot);
+    }
+
+    @Override
+    public Mono<Long> catalogVersion() {
+        return Mono.fromSupplier(catalogVersion::get);
+    }
+
+    private <T> Flux<T> synced(Flux<T> written) {
+        return written.buffer(InMemoryProductRepository.SYNC_BATCH_SIZE)
+                .concatMap(batch -> journal.sync().thenMany(Flux.fromIterable(batch)));
+    }
+
+    private Product get(String id) {
+        return read(() -> {
+            int slot = columns.slotOf(id);
+            return slot < 0 ? null : columns.read(slot);
+        });
+    }
+
+    // Tokenizing happens before taking the lock; indexing happens under it, so that the search index sees the
+    // writes to a product in the order they were applied.
+    private Product store(Product product) {
+        List<String> tokens = InvertedIndex.tokenize(product.getName(), product.getDescription());
+        Product stored = journal.write(() -> write(() -> {
+            int slot = columns.slotOf(product.getId());
+            long version = slot < 0 ? 1L : columns.version(slot) + 1;
+            return apply(slot, journaled(product.toBuilder().version(version).build()), tokens);
+        }));
+        catalogVersion.incrementAndGet();
+        return stored;
+    }
+
+    private Product replace(String id, Product product) {
+        List<String> tokens = InvertedIndex.tokenize(product.getName(), product.getDescription());
+        Product updated = journal.write(() -> write(() -> {
+            int slot = columns.slotOf(id);
+            if (slot < 0) {
+                return null;
+            }
+            long version = columns.version(slot);
+            Long expectedVersion = product.getVersion();
+            if (expectedVersion != null && expectedVersion != version) {
+                throw new ProductVersionConflictException(id, expectedVersion, version);
+            }
+            return apply(slot, journaled(product.toBuilder().id(id).version(version + 1).build()), tokens);
+        }));
+        if (updated != null) {
+            catalogVersion.incrementAndGet();
+        }
+        return updated;
+    }
+
+    private Product adjust(String id, int delta) {
+        Product adjusted = journal.write(() -> write(() -> {
+            int slot = columns.slotOf(id);
+            if (slot < 0) {
+                return null;
+            }
+            Product existing = columns.read(slot);
+            int available = existing.getQuantity() == null ? 0 : existing.getQuantity();
+            if (available + (long) delta < 0) {
+                throw new InsufficientStockException(id, available, -delta);
+            }
+            if (available + (long) delta > Integer.MAX_VALUE) {
+                throw new StockLimitExceededException(id, available, delta);
+            }
+            return apply(slot, journaled(existing.toBuilder()
+                    .quantity(available + delta)
+                    .version(existing.getVersion() + 1)
+                    .build()), List.of());
+        }));
+        if (adjusted != null) {
+            catalogVersion.incrementAndGet();
+        }
+        return adjusted;
+    }
+
+    private boolean remove(String id) {
+        boolean removed = journal.write(() -> write(() -> {
+            int slot = columns.slotOf(id);
+            if (slot < 0) {
+                return false;
+            }
+            journal.append(JournalRecord.delete(id));
+            drop(slot, id);
+            return true;
+        }));
+        if (removed) {
+            catalogVersion.incrementAndGet();
+        }
+        return removed;
+    }
+
+    private Product journaled(Product product) {
+        journal.append(JournalRecord.put(product));
+        return product;
+    }
+
+    private Product apply(int slot, Product next, List<String> tokens) {
+        boolean textChanged = slot < 0 || !Objects.equals(columns.name(slot), next.getName())
+                || !Objects.equals(columns.description(slot), next.getDescription());
+        if (slot >= 0) {
+            stats.remove(columns.price(slot), columns.quantity(slot));
+        }
+        columns.put(next);
+        stats.add(next);
+        if (textChanged) {
+            searchIndex.index(next.getId(), tokens);
+        }
+        return next;
+    }
+
+    private void drop(int slot, String id) {
+        stats.remove(columns.price(slot), columns.quantity(slot));
+        columns.remove(slot);
+        searchIndex.remove(id);
+    }
+
+    // Reads the products in id order a chunk at a time, so a long listing never holds the lock for long, and sees
+    // every product that exists throughout it.
+    private Iterable<Product> inIdOrder() {
+        return () -> Stream.iterate(read(() -> columns.page(null, CHUNK_SIZE)), Objects::nonNull, chunk ->
+                        chunk.size() < CHUNK_SIZE
+                                ? null
+                                : read(() -> columns.page(chunk.get(CHUNK_SIZE - 1).getId(), CHUNK_SIZE)))
+                .flatMap(List::stream)
+                .iterator();
+    }
+
+    // A snapshot is restored into the empty repository before it serves anything: it is decoded and tokenized in
+    // parallel, and loaded into the columns in one pass.
+    private void restore(List<Product> snapshot) {
+        List<Product> restored = snapshot.parallelStream().toList();
+        restored.parallelStream().forEach(product -> {
+            searchIndex.index(product.getId(), InvertedIndex.tokenize(product.getName(), product.getDescription()));
+            stats.add(product);
+        });
+        write(() -> {
+            columns.load(restored);
+            return null;
+        });
+        catalogVersion.addAndGet(restored.size());
+    }
+
+    private void replay(JournalRecord record) {
+        write(() -> {
+            int slot = columns.slotOf(record.id());
+            if (record.isDelete()) {
+                if (slot >= 0) {
+                    drop(slot, record.id());
+                }
+                return null;
+            }
+            Product product = record.product();
+            return apply(slot, product, InvertedIndex.tokenize(product.getName(), product.getDescription()));
+        });
+        catalogVersion.incrementAndGet();
+    }
+
+    private <T> T read(Supplier<T> reader) {
+        lock.readLock().lock();
+        try {
+            return reader.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private <T> T write(Supplier<T> writer) {
+        lock.writeLock().lock();
+        try {
+            return writer.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Exact sum of decimals that many threads add to at once. Like {@link java.util.concurrent.atomic.LongAdder}, it
+ * spreads the additions over cells picked by thread, so that concurrent writers seldom compete for the same cell,
+ * and adds the cells up when the sum is read. A sum read while additions are in flight may miss some of them.
+ */
+final class DecimalAdder {
+
+    private final AtomicReferenceArray<BigDecimal> cells;
+    private final int mask;
+
+    DecimalAdder() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    DecimalAdder(int stripes) {
+        int size = Integer.highestOneBit(Math.max(stripes, 1) * 2 - 1);
+        cells = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+        for (int cell = 0; cell < size; cell++) {
+            cells.set(cell, BigDecimal.ZERO);
+        }
+    }
+
+    void add(BigDecimal value) {
+        // Thread ids are handed out in sequence, so they are spread with a multiplicative hash first.
+        int cell = (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        cells.accumulateAndGet(cell, value, BigDecimal::add);
+    }
+
+    BigDecimal sum() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int cell = 0; cell < cells.length(); cell++) {
+            sum = sum.add(cells.get(cell));
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Products an empty store is seeded with, whichever repository backs it.
+ */
+final class DefaultProducts {
+
+    private DefaultProducts() {
+    }
+
+    static List<Product> all() {
+        return List.of(
+                Product.builder()
+                        .id("1")
+                        .name("Laptop")
+                        .description("High-performance laptop for professional use")
+                        .price(new BigDecimal("1299.99"))
+                        .quantity(15)
+                        .build(),
+                Product.builder()
+                        .id("2")
+                        .name("Smartphone")
+                        .description("Latest model with advanced camera features")
+                        .price(new BigDecimal("899.99"))
+                        .quantity(30)
+                        .build(),
+                Product.builder()
+                        .id("3")
+                        .name("Wireless Headphones")
+                        .description("Noise-cancelling over-ear headphones")
+                        .price(new BigDecimal("249.99"))
+                        .quantity(50)
+                        .build(),
+                Product.builder()
+                        .id("4")
+                        .name("4K Monitor")
+                        .description("27-inch 4K UHD display")
+                        .price(new BigDecimal("449.99"))
+                        .quantity(20)
+                        .build(),
+                Product.builder()
+                        .id("5")
+                        .name("Mechanical Keyboard")
+                        .description("RGB backlit mechanical keyboard")
+                        .price(new BigDecimal("129.99"))
+                        .quantity(40)
+                        .build(),
+                Product.builder()
+                        .id("6")
+                        .name("Wireless Mouse")
+                        .description("Ergonomic wireless mouse")
+                        .price(new BigDecimal("49.99"))
+                        .quantity(60)
+                        .build(),
+                Product.builder()
+                        .id("7")
+                        .name("Tablet")
+                        .description("10-inch tablet with stylus support")
+                        .price(new BigDecimal("599.99"))
+                        .quantity(25)
+                        .build(),
+                Product.builder()
+                        .id("8")
+                        .name("HD Webcam")
+                        .description("1080p webcam for video conferencing")
+                        .price(new BigDecimal("89.99"))
+                        .quantity(35)
+                        .build(),
+                Product.builder()
+                        .id("9")
+                        .name("Bluetooth Speaker")
+                        .description("Portable waterproof speaker")
+                        .price(new BigDecimal("79.99"))
+                        .quantity(45)
+                        .build(),
+                Product.builder()
+                        .id("10")
+                        .name("USB-C Charger")
+                        .description("65W fast charging adapter")
+                        .price(new BigDecimal("39.99"))
+                        .quantity(100)
+                        .build());
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Consistent-hash ring assigning keys to nodes. Every node is hashed onto the ring at {@code virtualNodes}
+ * points, and a key belongs to the node of the first point at or after its own hash, wrapping around. Adding a
+ * node thus only takes over the keys falling right before its points, about 1/N of them, all from other nodes,
+ * and the many points per node even out the share each node gets.
+ * <p>
+ * Rings are immutable, so a lookup never sees a ring halfway through a change of nodes.
+ */
+public final class HashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public HashRing(List<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("A ring needs at least one node and one virtual node per node");
+        }
+        this.nodes = List.copyOf(new LinkedHashSet<>(nodes));
+        record Point(long hash, String node) {
+        }
+        Point[] placed = this.nodes.stream()
+                .flatMap(node -> IntStream.range(0, virtualNodes)
+                        .mapToObj(index -> new Point(hash(node + "#" + index), node)))
+                .sorted(Comparator.comparingLong(Point::hash).thenComparing(Point::node))
+                .toArray(Point[]::new);
+        this.points = Arrays.stream(placed).mapToLong(Point::hash).toArray();
+        this.owners = Arrays.stream(placed).map(Point::node).toArray(String[]::new);
+    }
+
+    /**
+     * Returns the nodes of the ring, in the order they were given.
+     */
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public String owner(String key) {
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    // 64-bit FNV-1a, finished with the MurmurHash3 mixer so that keys differing in their last characters, like
+    // the virtual points of one node, still spread over the whole ring.
+    static long hash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.NotProductOwnerException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import io.netty.channel.ChannelOption;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reaches the products of another node over HTTP, through the partition endpoints of its cluster API. Conflicts
+ * the other node reports are signalled as the same exceptions its repository raised, so that forwarded operations
+ * fail the way local ones do.
+ * <p>
+ * Connecting to the node, and every wait for a response from it, is bounded by the response timeout, so that a
+ * node that hangs fails the operations reaching it instead of holding them, and the handover retries later.
+ */
+public class HttpClusterPeer implements ClusterPeer {
+
+    static final String PARTITION_PATH = "/api/v1/cluster/partition";
+
+    private static final ParameterizedTypeReference<Map<String, Object>> PROBLEM =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+
+    public HttpClusterPeer(WebClient.Builder builder, String node, Duration responseTimeout) {
+        HttpClient client = HttpClient.create()
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(responseTimeout.toMillis()))
+                .responseTimeout(responseTimeout);
+        this.webClient = builder.baseUrl(node + PARTITION_PATH)
+                .clientConnector(new ReactorClientHttpConnector(client))
+                .build();
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return stream(webClient.get().uri("/products"));
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return stream(webClient.get().uri(uri -> uri.path("/products")
+                .queryParamIfPresent("cursor", Optional.ofNullable(cursor))
+                .queryParam("limit", limit)
+                .build()));
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        return stream(webClient.get().uri(uri -> uri.path("/products:filter")
+                .queryParamIfPresent("minPrice", Optional.ofNullable(filter.minPrice()))
+                .queryParamIfPresent("maxPrice", Optional.ofNullable(filter.maxPrice()))
+                .queryParamIfPresent("maxQuantity", Optional.ofNullable(filter.maxQuantity()))
+                .build()));
+    }
+
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        return stream(webClient.get().uri(uri -> uri.path("/products:search")
+                .queryParam("q", query)
+                .queryParam("limit", limit)
+                .build()));
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return product(webClient.get().uri("/products/{id}", id));
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return product(webClient.put().uri("/products/{id}", product.getId()).bodyValue(product));
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        return product(webClient.post().uri("/products/{id}:update", id).bodyValue(product));
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return product(webClient.post().uri("/products/{id}:adjust?delta={delta}", id, delta));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return delete(id).then();
+    }
+
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return products.flatMapSequential(this::save);
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return products.flatMapSequential(product -> update(product.getId(), product));
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return ids.flatMapSequential(id -> delete(id).filter(Boolean::booleanValue).map(deleted -> id));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return findById(id).hasElement();
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return retrieve(webClient.get().uri("/count")).bodyToMono(Long.class);
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return retrieve(webClient.get().uri("/stats")).bodyToMono(ProductStats.class);
+    }
+
+    @Override
+    public Mono<Long> catalogVersion() {
+        return retrieve(webClient.get().uri("/catalog-version")).bodyToMono(Long.class);
+    }
+
+    @Override
+    public Mono<Boolean> adopt(Product product) {
+        return retrieve(webClient.post().uri("/products/{id}:adopt", product.getId()).bodyValue(product))
+                .bodyToMono(Boolean.class);
+    }
+
+    private Flux<Product> stream(WebClient.RequestHeadersSpec<?> request) {
+        return retrieve(request.accept(MediaType.APPLICATION_NDJSON)).bodyToFlux(Product.class);
+    }
+
+    private Mono<Product> product(WebClient.RequestHeadersSpec<?> request) {
+        return retrieve(request).bodyToMono(Product.class)
+                .onErrorResume(WebClientResponseException.NotFound.class, missing -> Mono.empty());
+    }
+
+    private Mono<Boolean> delete(String id) {
+        return retrieve(webClient.delete().uri("/products/{id}", id)).toBodilessEntity()
+                .thenReturn(true)
+                .onErrorResume(WebClientResponseException.NotFound.class, missing -> Mono.just(false));
+    }
+
+    private WebClient.ResponseSpec retrieve(WebClient.RequestHeadersSpec<?> request) {
+        return request.retrieve()
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.PRECONDITION_FAILED), response -> response
+                        .bodyToMono(PROBLEM)
+                        .map(problem -> new ProductVersionConflictException((String) problem.get("id"),
+                                number(problem, "expectedVersion"), number(problem, "currentVersion"))))
+                .onStatus(status -> status.isSameCodeAs(HttpStatus.CONFLICT), response -> response
+                        .bodyToMono(PROBLEM)
+                        .map(problem -> problem.containsKey("added")
+                                ? new StockLimitExceededException((String) problem.get("id"),
+                                        (int) number(problem, "available"), (int) number(problem, "added"))
+                                : new InsufficientStockException((String) problem.get("id"),
+                                        (int) number(problem, "available"), (int) number(problem, "requested"))))
+                .onStatus(status -> status.value() == 421, response -> response
+                        .bodyToMono(PROBLEM)
+                        .map(problem -> new NotProductOwnerException((String) problem.get("id"),
+                                (String) problem.get("owner"))));
+    }
+
+    private static long number(Map<String, Object> problem, String property) {
+        return ((Number) problem.get(property)).longValue();
+    }
+}
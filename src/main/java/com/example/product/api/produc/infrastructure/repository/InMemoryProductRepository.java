@@ -1,114 +1,77 @@
 package com.example.product.api.produc.infrastructure.repository;
 
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
 import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 @Repository
+@Qualifier("productStore")
+@ConditionalOnProperty(name = "product.repository.type", havingValue = "memory", matchIfMissing = true)
 public class InMemoryProductRepository implements ProductRepository {
 
+    static final int SYNC_BATCH_SIZE = 512;
+
     private final Map<String, Product> products = new ConcurrentHashMap<>();
+    private final NavigableSet<String> idIndex = new ConcurrentSkipListSet<>();
+    private final RangeIndex<BigDecimal> priceIndex = new RangeIndex<>();
+    private final RangeIndex<Integer> quantityIndex = new RangeIndex<>();
+    private final InvertedIndex searchIndex = new InvertedIndex();
+    private final CatalogStats stats;
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private final ProductJournal journal;
+
+    @Autowired
+    public InMemoryProductRepository(ProductJournal journal) {
+        this(journal, new CatalogStats());
+    }
+
+    /**
+     * Creates a repository that adds its products into {@code stats}, which other repositories may share.
+     */
+    InMemoryProductRepository(ProductJournal journal, CatalogStats stats) {
+        this.journal = journal;
+        this.stats = stats;
+    }
 
     @PostConstruct
     public void init() {
-        // Initialize with default products
-        Product laptop = Product.builder()
-                .id("1")
-                .name("Laptop")
-                .description("High-performance laptop for professional use")
-                .price(new BigDecimal("1299.99"))
-                .quantity(15)
-                .build();
-
-        Product smartphone = Product.builder()
-                .id("2")
-                .name("Smartphone")
-                .description("Latest model with advanced camera features")
-                .price(new BigDecimal("899.99"))
-                .quantity(30)
-                .build();
-
-        Product headphones = Product.builder()
-                .id("3")
-                .name("Wireless Headphones")
-                .description("Noise-cancelling over-ear headphones")
-                .price(new BigDecimal("249.99"))
-                .quantity(50)
-                .build();
-
-        Product monitor = Product.builder()
-                .id("4")
-                .name("4K Monitor")
-                .description("27-inch 4K UHD display")
-                .price(new BigDecimal("449.99"))
-                .quantity(20)
-                .build();
-
-        Product keyboard = Product.builder()
-                .id("5")
-                .name("Mechanical Keyboard")
-                .description("RGB backlit mechanical keyboard")
-                .price(new BigDecimal("129.99"))
-                .quantity(40)
-                .build();
-
-        Product mouse = Product.builder()
-                .id("6")
-                .name("Wireless Mouse")
-                .description("Ergonomic wireless mouse")
-                .price(new BigDecimal("49.99"))
-                .quantity(60)
-                .build();
-
-        Product tablet = Product.builder()
-                .id("7")
-                .name("Tablet")
-                .description("10-inch tablet with stylus support")
-                .price(new BigDecimal("599.99"))
-                .quantity(25)
-                .build();
-
-        Product webcam = Product.builder()
-                .id("8")
-                .name("HD Webcam")
-                .description("1080p webcam for video conferencing")
-                .price(new BigDecimal("89.99"))
-                .quantity(35)
-                .build();
-
-        Product speaker = Product.builder()
-                .id("9")
-                .name("Bluetooth Speaker")
-                .description("Portable waterproof speaker")
-                .price(new BigDecimal("79.99"))
-                .quantity(45)
-                .build();
-
-        Product charger = Product.builder()
-                .id("10")
-                .name("USB-C Charger")
-                .description("65W fast charging adapter")
-                .price(new BigDecimal("39.99"))
-                .quantity(100)
-                .build();
-
-        products.put(laptop.getId(), laptop);
-        products.put(smartphone.getId(), smartphone);
-        products.put(headphones.getId(), headphones);
-        products.put(monitor.getId(), monitor);
-        products.put(keyboard.getId(), keyboard);
-        products.put(mouse.getId(), mouse);
-        products.put(tablet.getId(), tablet);
-        products.put(webcam.getId(), webcam);
-        products.put(speaker.getId(), speaker);
-        products.put(charger.getId(), charger);
+        if (recover()) {
+            return;
+        }
+
+        // Initialize an empty store with default products
+        DefaultProducts.all().forEach(this::store);
+    }
+
+    /**
+     * Loads the products recorded in the journal, returning false when nothing had been recorded yet.
+     */
+    boolean recover() {
+        return journal.recover(this::restore, this::replay, this::inIdOrder);
     }
 
     @Override
@@ -116,6 +79,30 @@ public class InMemoryProductRepository implements ProductRepository {
         return Flux.fromIterable(products.values());
     }
 
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return Flux.fromIterable(cursor == null ? idIndex : idIndex.tailSet(cursor, false))
+                .mapNotNull(products::get)
+                .take(limit);
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        if (filter.hasPriceRange()) {
+            return scan(priceIndex.range(filter.minPrice(), filter.maxPrice()), Product::getPrice, filter);
+        }
+        if (filter.maxQuantity() != null) {
+            return scan(quantityIndex.range(null, filter.maxQuantity()), Product::getQuantity, filter);
+        }
+        return findAll();
+    }
+
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(searchIndex.search(query, limit)))
+                .mapNotNull(products::get);
+    }
+
     @Override
     public Mono<Product> findById(String id) {
         return Mono.justOrEmpty(products.get(id));
@@ -123,28 +110,257 @@ public class InMemoryProductRepository implements ProductRepository {
 
     @Override
     public Mono<Product> save(Product product) {
-        products.put(product.getId(), product);
-        return Mono.just(product);
+        return Mono.fromCallable(() -> store(product))
+                .flatMap(stored -> journal.sync().thenReturn(stored));
     }
 
     @Override
     public Mono<Product> update(String id, Product product) {
-        return Mono.justOrEmpty(products.get(id))
-                .flatMap(existingProduct -> {
-                    product.setId(id);
-                    products.put(id, product);
-                    return Mono.just(product);
-                });
+        return Mono.fromCallable(() -> replace(id, product))
+                .flatMap(updated -> journal.sync().thenReturn(updated));
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return Mono.fromCallable(() -> adjust(id, delta))
+                .flatMap(adjusted -> journal.sync().thenReturn(adjusted));
     }
 
     @Override
     public Mono<Void> deleteById(String id) {
-        return Mono.justOrEmpty(products.remove(id))
-                .then();
+        return Mono.fromRunnable(() -> remove(id))
+                .then(journal.sync());
+    }
+
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return synced(products.map(this::store));
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return synced(products.mapNotNull(product -> replace(product.getId(), product)));
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return synced(ids.filter(this::remove));
+    }
+
+    /**
+     * Stores a product handed over by another repository as it is, version included, unless the product stored
+     * under its id is at the same or a later version. Emits whether the product was stored, or signals a
+     * {@link ProductVersionConflictException} when the stored product is at the same version with other contents,
+     * as neither copy can then be told to be the latest.
+     */
+    Mono<Boolean> adopt(Product product) {
+        return Mono.fromCallable(() -> {
+            AtomicBoolean adopted = new AtomicBoolean();
+            journal.write(() -> products.compute(product.getId(), (id, existing) -> {
+                if (existing != null && existing.getVersion().equals(product.getVersion())
+                        && !existing.equals(product)) {
+                    throw new ProductVersionConflictException(id, product.getVersion(), existing.getVersion());
+                }
+                if (existing != null && existing.getVersion() >= product.getVersion()) {
+                    return existing;
+                }
+                adopted.set(true);
+                return reindex(existing, journaled(product));
+            }));
+            if (adopted.get()) {
+                catalogVersion.incrementAndGet();
+            }
+            return adopted.get();
+        }).flatMap(adopted -> journal.sync().thenReturn(adopted));
+    }
+
+    /**
+     * Deletes a product handed over to another repository, unless it was written again since it was handed over.
+     * Emits whether the product was deleted.
+     */
+    Mono<Boolean> release(Product product) {
+        return Mono.fromCallable(() -> {
+            AtomicBoolean released = new AtomicBoolean();
+            journal.write(() -> products.computeIfPresent(product.getId(), (id, existing) -> {
+                if (existing.getVersion() != product.getVersion().longValue()) {
+                    return existing;
+                }
+                journal.append(JournalRecord.delete(id));
+                released.set(true);
+                return drop(existing);
+            }));
+            if (released.get()) {
+                catalogVersion.incrementAndGet();
+            }
+            return released.get();
+        }).flatMap(released -> journal.sync().thenReturn(released));
     }
 
     @Override
     public Mono<Boolean> existsById(String id) {
         return Mono.just(products.containsKey(id));
     }
+
+    @Override
+    public Mono<Long> count() {
+        return Mono.fromSupplier(() -> (long) products.size());
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return Mono.fromSupplier(stats::snapshot);
+    }
+
+    @Override
+    public Mono<Long> catalogVersion() {
+        return Mono.fromSupplier(catalogVersion::get);
+    }
+
+    // Writes are acknowledged in groups, so a bulk write waits for the journal once per group instead of
+    // once per product.
+    private <T> Flux<T> synced(Flux<T> written) {
+        return written.buffer(SYNC_BATCH_SIZE)
+                .concatMap(batch -> journal.sync().thenMany(Flux.fromIterable(batch)));
+    }
+
+    // Stored products are never mutated: every write stores a fresh copy carrying the next version, so
+    // readers always observe a fully applied product. The catalog version is only bumped once the write is
+    // visible, so a reader never pairs a catalog version with older contents. Each write is journaled under
+    // the same per-key lock that applies it, so the journal records the writes to a product in order.
+    private Product store(Product product) {
+        Product stored = journal.write(() -> products.compute(product.getId(), (id, existing) -> reindex(existing,
+                journaled(product.toBuilder().version(existing == null ? 1L : existing.getVersion() + 1).build()))));
+        catalogVersion.incrementAndGet();
+        return stored;
+    }
+
+    private Product replace(String id, Product product) {
+        Product updated = journal.write(() -> products.computeIfPresent(id, (key, existing) -> {
+            Long expectedVersion = product.getVersion();
+            if (expectedVersion != null && expectedVersion.longValue() != existing.getVersion()) {
+                throw new ProductVersionConflictException(key, expectedVersion, existing.getVersion());
+            }
+            return reindex(existing,
+                    journaled(product.toBuilder().id(key).version(existing.getVersion() + 1).build()));
+        }));
+        if (updated != null) {
+            catalogVersion.incrementAndGet();
+        }
+        return updated;
+    }
+
+    // The check and the write happen under the same per-key lock, so concurrent adjustments of a hot product queue
+    // on that key only, and none of them can act on a quantity another one already changed.
+    private Product adjust(String id, int delta) {
+        Product adjusted = journal.write(() -> products.computeIfPresent(id, (key, existing) -> {
+            int available = existing.getQuantity() == null ? 0 : existing.getQuantity();
+            if (available + (long) delta < 0) {
+                throw new InsufficientStockException(key, available, -delta);
+            }
+            if (available + (long) delta > Integer.MAX_VALUE) {
+                throw new StockLimitExceededException(key, available, delta);
+            }
+            return reindex(existing, journaled(existing.toBuilder()
+                    .quantity(available + delta)
+                    .version(existing.getVersion() + 1)
+                    .build()));
+        }));
+        if (adjusted != null) {
+            catalogVersion.incrementAndGet();
+        }
+        return adjusted;
+    }
+
+    private boolean remove(String id) {
+        AtomicBoolean removed = new AtomicBoolean();
+        journal.write(() -> products.computeIfPresent(id, (key, existing) -> {
+            journal.append(JournalRecord.delete(key));
+            removed.set(true);
+            return drop(existing);
+        }));
+        if (removed.get()) {
+            catalogVersion.incrementAndGet();
+        }
+        return removed.get();
+    }
+
+    private Product journaled(Product product) {
+        journal.append(JournalRecord.put(product));
+        return product;
+    }
+
+    // Snapshots list products in id order, so restoring one appends to the id index instead of inserting at
+    // random positions.
+    private Iterable<Product> inIdOrder() {
+        return () -> idIndex.stream().map(products::get).filter(Objects::nonNull).iterator();
+    }
+
+    // A snapshot is restored into the empty repository before it serves anything, so instead of one write per
+    // product the records are decoded and tokenized in parallel, and each ordered index is filled in order.
+    private void restore(List<Product> snapshot) {
+        List<Product> restored = snapshot.parallelStream().toList();
+        restored.parallelStream().forEach(product -> {
+            products.put(product.getId(), product);
+            searchIndex.index(product.getId(), InvertedIndex.tokenize(product.getName(), product.getDescription()));
+            stats.add(product);
+        });
+        idIndex.addAll(restored.stream().map(Product::getId).toList());
+        priceIndex.addAll(restored.parallelStream()
+                .map(product -> new RangeIndex.Entry<>(product.getPrice(), product.getId())));
+        quantityIndex.addAll(restored.parallelStream()
+                .map(product -> new RangeIndex.Entry<>(product.getQuantity(), product.getId())));
+        catalogVersion.addAndGet(restored.size());
+    }
+
+    private void replay(JournalRecord record) {
+        if (record.isDelete()) {
+            products.computeIfPresent(record.id(), (id, existing) -> drop(existing));
+        } else {
+            products.compute(record.id(), (id, existing) -> reindex(existing, record.product()));
+        }
+        catalogVersion.incrementAndGet();
+    }
+
+    private Product drop(Product existing) {
+        idIndex.remove(existing.getId());
+        unindex(existing);
+        searchIndex.remove(existing.getId());
+        stats.remove(existing);
+        return null;
+    }
+
+    private Product reindex(Product previous, Product next) {
+        String id = next.getId();
+        if (previous != null) {
+            unindex(previous);
+            stats.remove(previous);
+        }
+        stats.add(next);
+        idIndex.add(id);
+        priceIndex.add(next.getPrice(), id);
+        quantityIndex.add(next.getQuantity(), id);
+        if (previous == null || !Objects.equals(previous.getName(), next.getName())
+                || !Objects.equals(previous.getDescription(), next.getDescription())) {
+            searchIndex.index(id, InvertedIndex.tokenize(next.getName(), next.getDescription()));
+        }
+        return next;
+    }
+
+    private void unindex(Product product) {
+        priceIndex.remove(product.getPrice(), product.getId());
+        quantityIndex.remove(product.getQuantity(), product.getId());
+    }
+
+    // Index entries are written under the map's per-key lock but read without it, so an entry is only
+    // trusted when it still describes the product currently stored under its id.
+    private <V extends Comparable<V>> Flux<Product> scan(Iterable<RangeIndex.Entry<V>> entries,
+                                                         Function<Product, V> attribute, ProductFilter filter) {
+        return Flux.fromIterable(entries)
+                .mapNotNull(entry -> {
+                    Product product = products.get(entry.id());
+                    boolean current = product != null && filter.matches(product)
+                            && entry.value().compareTo(attribute.apply(product)) == 0;
+                    return current ? product : null;
+                });
+    }
 }
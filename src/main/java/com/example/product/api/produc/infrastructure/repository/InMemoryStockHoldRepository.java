@@ -0,0 +1,150 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.StockHold;
+import com.example.product.api.produc.domain.repository.StockHoldRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps outstanding stock holds in memory and expires them with a {@link TimingWheel} driven by a single thread,
+ * instead of scheduling a task per hold, so each hold costs one small object and the expiry work per tick only
+ * depends on the holds due in that tick. Holds are not persisted: they are lost when the process stops.
+ */
+@Repository
+public class InMemoryStockHoldRepository implements StockHoldRepository, MeterBinder, AutoCloseable {
+
+    private static final class Hold extends TimingWheel.Entry {
+        private final StockHold hold;
+
+        Hold(StockHold hold) {
+            this.hold = hold;
+        }
+    }
+
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final Sinks.Many<StockHold> expired = Sinks.many().unicast().onBackpressureBuffer();
+    private final TimingWheel<Hold> wheel;
+    private final LongSupplier nanoClock;
+    private ScheduledExecutorService ticker;
+
+    @Autowired
+    public InMemoryStockHoldRepository(@Value("${product.holds.tick:100ms}") Duration tick,
+                                       @Value("${product.holds.wheel-size:512}") int wheelSize) {
+        this(tick, wheelSize, System::nanoTime);
+        ticker = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("stock-hold-expiry").daemon().factory());
+        ticker.scheduleAtFixedRate(this::expire, tick.toNanos(), tick.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    InMemoryStockHoldRepository(Duration tick, int wheelSize, LongSupplier nanoClock) {
+        this.wheel = new TimingWheel<>(tick, wheelSize, nanoClock.getAsLong());
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<StockHold> create(String productId, int quantity, Duration ttl) {
+        return Mono.fromSupplier(() -> {
+            Hold hold = new Hold(new StockHold(UUID.randomUUID().toString(), productId, quantity,
+                    Instant.now().plus(ttl)));
+            synchronized (wheel) {
+                wheel.add(hold, nanoClock.getAsLong() + ttl.toNanos());
+                holds.put(hold.hold.id(), hold);
+            }
+            return hold.hold;
+        });
+    }
+
+    @Override
+    public Mono<StockHold> findById(String id) {
+        return Mono.fromSupplier(() -> holds.get(id)).map(hold -> hold.hold);
+    }
+
+    @Override
+    public Mono<StockHold> remove(String id) {
+        return Mono.fromSupplier(() -> {
+            synchronized (wheel) {
+                Hold hold = holds.get(id);
+                if (hold == null || !wheel.remove(hold)) {
+                    return null;
+                }
+                holds.remove(id);
+                return hold.hold;
+            }
+        });
+    }
+
+    @Override
+    public Flux<StockHold> removeAll() {
+        return Flux.defer(() -> {
+            List<StockHold> removed = new ArrayList<>();
+            synchronized (wheel) {
+                for (Hold hold : holds.values()) {
+                    wheel.remove(hold);
+                    removed.add(hold.hold);
+                }
+                holds.clear();
+            }
+            return Flux.fromIterable(removed);
+        });
+    }
+
+    @Override
+    public Flux<StockHold> expired() {
+        return expired.asFlux();
+    }
+
+    /**
+     * Expires the holds whose deadline has passed. The holds are collected under the lock but emitted outside of
+     * it, so releasing their stock never blocks callers creating or removing other holds.
+     */
+    void expire() {
+        List<StockHold> due = new ArrayList<>();
+        synchronized (wheel) {
+            wheel.advance(nanoClock.getAsLong(), hold -> {
+                holds.remove(hold.hold.id());
+                due.add(hold.hold);
+            });
+        }
+        synchronized (expired) {
+            due.forEach(expired::tryEmitNext);
+        }
+    }
+
+    int size() {
+        return holds.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("product.holds.outstanding", this, InMemoryStockHoldRepository::size)
+                .description("Stock holds that were neither confirmed, cancelled nor expired yet")
+                .register(registry);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        if (ticker != null) {
+            ticker.shutdown();
+            ticker.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+}
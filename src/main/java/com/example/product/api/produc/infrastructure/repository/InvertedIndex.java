@@ -0,0 +1,327 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text index mapping terms to compact posting lists of document ordinals and term frequencies.
+ * <p>
+ * Every indexed version of a document gets a fresh, increasing ordinal, so postings are only ever appended
+ * and stay sorted. Replaced or removed ordinals are tombstoned through the terms they were indexed under, and
+ * a posting list is compacted once more than half of it is dead, which keeps updates incremental without ever
+ * rebuilding the index. When the ordinals run out of room and more than half of them are dead, the live documents
+ * are renumbered in their original order instead of growing, so memory follows the catalog size rather than the
+ * number of updates.
+ */
+class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_CAPACITY = 64;
+    // The largest array length every JVM will allocate.
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    // Lowest score first, ties broken so that the higher ordinal (the more recent document) ranks lower.
+    private static final Comparator<Map.Entry<Integer, Double>> RANKING =
+            Map.Entry.<Integer, Double>comparingByValue()
+                    .thenComparing(Map.Entry.<Integer, Double>comparingByKey().reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private String[] documents = new String[MIN_CAPACITY];
+    private PostingList[][] terms = new PostingList[MIN_CAPACITY][];
+    private int[] lengths = new int[MIN_CAPACITY];
+    private int nextOrdinal;
+    private int liveDocuments;
+    private long liveTokens;
+
+    /**
+     * Splits the texts into lowercase runs of letters and digits, of any script.
+     */
+    static List<String> tokenize(String... texts) {
+        List<String> tokens = new ArrayList<>();
+        for (String text : texts) {
+            if (text == null) {
+                continue;
+            }
+            String lowercase = text.toLowerCase(Locale.ROOT);
+            int start = -1;
+            for (int i = 0; i < lowercase.length(); ) {
+                int codePoint = lowercase.codePointAt(i);
+                if (isWordCharacter(codePoint)) {
+                    start = start < 0 ? i : start;
+                } else if (start >= 0) {
+                    tokens.add(lowercase.substring(start, i));
+                    start = -1;
+                }
+                i += Character.charCount(codePoint);
+            }
+            if (start >= 0) {
+                tokens.add(lowercase.substring(start));
+            }
+        }
+        return tokens;
+    }
+
+    void index(String id, List<String> tokens) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        tokens.forEach(token -> frequencies.merge(token, 1, Integer::sum));
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+            if (tokens.isEmpty()) {
+                return;
+            }
+            if (nextOrdinal == documents.length) {
+                makeRoom();
+            }
+            int ordinal = nextOrdinal++;
+            documents[ordinal] = id;
+            lengths[ordinal] = tokens.size();
+            ordinals.put(id, ordinal);
+            liveDocuments++;
+            liveTokens += tokens.size();
+            // Documents refer to the posting lists of their terms, so each term is held once however many
+            // documents contain it.
+            PostingList[] lists = new PostingList[frequencies.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                lists[i] = postings.computeIfAbsent(frequency.getKey(), PostingList::new);
+                lists[i++].append(ordinal, frequency.getValue());
+            }
+            terms[ordinal] = lists;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    record Match(String id, double score) {
+    }
+
+    /**
+     * Returns the ids of the best {@code limit} documents for the query, ranked by BM25 over all query terms.
+     */
+    List<String> search(String query, int limit) {
+        return rank(query, limit).stream().map(Match::id).toList();
+    }
+
+    /**
+     * Returns the best {@code limit} documents for the query with their BM25 scores, best first, so that the
+     * results of several indexes can be merged.
+     */
+    List<Match> rank(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            if (liveDocuments == 0) {
+                return List.of();
+            }
+            double averageLength = (double) liveTokens / liveDocuments;
+            Map<Integer, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    list.score(scores, averageLength);
+                }
+            }
+            PriorityQueue<Map.Entry<Integer, Double>> best = new PriorityQueue<>(RANKING);
+            for (Map.Entry<Integer, Double> score : scores.entrySet()) {
+                best.offer(score);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            Match[] ranked = new Match[best.size()];
+            for (int i = ranked.length - 1; i >= 0; i--) {
+                Map.Entry<Integer, Double> match = best.poll();
+                ranked[i] = new Match(documents[match.getKey()], match.getValue());
+            }
+            return List.of(ranked);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int capacity() {
+        lock.readLock().lock();
+        try {
+            return documents.length;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void makeRoom() {
+        if (liveDocuments * 2 < nextOrdinal) {
+            renumber(Math.max(MIN_CAPACITY, liveDocuments * 2));
+            return;
+        }
+        if (documents.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Search index is full at " + liveDocuments + " documents");
+        }
+        int capacity = documents.length > MAX_CAPACITY / 2 ? MAX_CAPACITY : documents.length * 2;
+        documents = Arrays.copyOf(documents, capacity);
+        terms = Arrays.copyOf(terms, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+    }
+
+    /**
+     * Gives the live documents consecutive ordinals in their current order, which keeps every posting list sorted
+     * and the more recent documents ranked last among ties.
+     */
+    private void renumber(int capacity) {
+        int[] renumbered = new int[nextOrdinal];
+        String[] keptDocuments = new String[capacity];
+        PostingList[][] keptTerms = new PostingList[capacity][];
+        int[] keptLengths = new int[capacity];
+        int live = 0;
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            if (isLive(ordinal)) {
+                renumbered[ordinal] = live;
+                keptDocuments[live] = documents[ordinal];
+                keptTerms[live] = terms[ordinal];
+                keptLengths[live] = lengths[ordinal];
+                ordinals.put(documents[ordinal], live);
+                live++;
+            }
+        }
+        for (PostingList list : postings.values()) {
+            list.renumber(renumbered);
+        }
+        documents = keptDocuments;
+        terms = keptTerms;
+        lengths = keptLengths;
+        nextOrdinal = live;
+    }
+
+    private void removeLocked(String id) {
+        Integer ordinal = ordinals.remove(id);
+        if (ordinal == null) {
+            return;
+        }
+        documents[ordinal] = null;
+        liveDocuments--;
+        liveTokens -= lengths[ordinal];
+        for (PostingList list : terms[ordinal]) {
+            if (list.tombstone()) {
+                postings.remove(list.term);
+            }
+        }
+        terms[ordinal] = null;
+    }
+
+    // The same characters as \p{L} and \p{N}, without the cost of a regular expression per document.
+    private static boolean isWordCharacter(int codePoint) {
+        return switch (Character.getType(codePoint)) {
+            case Character.UPPERCASE_LETTER, Character.LOWERCASE_LETTER, Character.TITLECASE_LETTER,
+                 Character.MODIFIER_LETTER, Character.OTHER_LETTER, Character.DECIMAL_DIGIT_NUMBER,
+                 Character.LETTER_NUMBER, Character.OTHER_NUMBER -> true;
+            default -> false;
+        };
+    }
+
+    private boolean isLive(int ordinal) {
+        return documents[ordinal] != null;
+    }
+
+    private final class PostingList {
+        private final String term;
+        private int[] ordinals = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        private int dead;
+
+        PostingList(String term) {
+            this.term = term;
+        }
+
+        void append(int ordinal, int frequency) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            ordinals[size] = ordinal;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Accounts for one more tombstoned ordinal in this list and compacts the list once most of it is dead.
+         * Returns true when nothing live remains so the term can be dropped.
+         */
+        boolean tombstone() {
+            dead++;
+            if (dead * 2 > size) {
+                int live = 0;
+                for (int i = 0; i < size; i++) {
+                    if (isLive(ordinals[i])) {
+                        ordinals[live] = ordinals[i];
+                        frequencies[live] = frequencies[i];
+                        live++;
+                    }
+                }
+                size = live;
+                dead = 0;
+            }
+            return size == 0;
+        }
+
+        /**
+         * Drops the dead ordinals of this list and maps the live ones to their new numbers.
+         */
+        void renumber(int[] renumbered) {
+            int live = 0;
+            for (int i = 0; i < size; i++) {
+                if (isLive(ordinals[i])) {
+                    ordinals[live] = renumbered[ordinals[i]];
+                    frequencies[live] = frequencies[i];
+                    live++;
+                }
+            }
+            size = live;
+            dead = 0;
+        }
+
+        void score(Map<Integer, Double> scores, double averageLength) {
+            int documentFrequency = size - dead;
+            double idf = Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+            for (int i = 0; i < size; i++) {
+                int ordinal = ordinals[i];
+                if (isLive(ordinal)) {
+                    double frequency = frequencies[i];
+                    double norm = K1 * (1 - B + B * lengths[ordinal] / averageLength);
+                    scores.merge(ordinal, idf * frequency * (K1 + 1) / (frequency + norm), Double::sum);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Products stored column by column: every product is a row slot, and each attribute is a primitive array indexed
+ * by slot. Prices are a {@code long} unscaled value and a {@code byte} scale, so a price like 1299.99 is kept as
+ * the minor units 129999 at scale 2; the rare price that does not fit is kept aside as a {@link BigDecimal}. Names
+ * and descriptions are entries of a shared {@link StringArena}, so products with the same text share its bytes,
+ * and ids are entries of an arena of their own, whose hash table doubles as the id to slot index.
+ * <p>
+ * Id order is kept as an array of slots sorted by id, plus the ids added since it was last sorted. The two are
+ * merged once the added ids outgrow a fraction of the array, so paging never sorts and adding an id never shifts
+ * the array. A removed product keeps its slot, skipped as dead, until that merge drops it from the order.
+ * <p>
+ * Not thread-safe.
+ */
+final class ProductColumns {
+
+    static final int MIN_MERGE_SIZE = 1024;
+
+    private static final byte NULL_PRICE = Byte.MIN_VALUE;
+    private static final byte WIDE_PRICE = Byte.MAX_VALUE;
+
+    private final StringArena ids = new StringArena();
+    private final StringArena texts = new StringArena();
+    private int[] slotsByIdEntry = new int[64];
+    private int[] idEntries = new int[64];
+    private int[] names = new int[64];
+    private int[] descriptions = new int[64];
+    private long[] prices = new long[64];
+    private byte[] scales = new byte[64];
+    private int[] quantities = new int[64];
+    private final BitSet nullQuantities = new BitSet();
+    // A version of 0 marks a free or dead slot, as stored products start at version 1.
+    private long[] versions = new long[64];
+    private final Map<Integer, BigDecimal> widePrices = new HashMap<>();
+    private int slots;
+    private int size;
+    private int[] free = new int[16];
+    private int freeCount;
+    private int[] dead = new int[16];
+    private int deadCount;
+    private int[] order = new int[0];
+    private final TreeMap<String, Integer> added = new TreeMap<>();
+
+    /**
+     * Returns the slot of the product with the id, or -1 when there is none.
+     */
+    int slotOf(String id) {
+        int entry = ids.find(id);
+        if (entry < 0) {
+            return -1;
+        }
+        int slot = slotsByIdEntry[entry];
+        return versions[slot] == 0 ? -1 : slot;
+    }
+
+    long version(int slot) {
+        return versions[slot];
+    }
+
+    String name(int slot) {
+        return text(names[slot]);
+    }
+
+    String description(int slot) {
+        return text(descriptions[slot]);
+    }
+
+    BigDecimal price(int slot) {
+        byte scale = scales[slot];
+        return switch (scale) {
+            case NULL_PRICE -> null;
+            case WIDE_PRICE -> widePrices.get(slot);
+            default -> BigDecimal.valueOf(prices[slot], scale);
+        };
+    }
+
+    Integer quantity(int slot) {
+        return nullQuantities.get(slot) ? null : quantities[slot];
+    }
+
+    Product read(int slot) {
+        return Product.builder()
+                .id(ids.get(idEntries[slot]))
+                .name(text(names[slot]))
+                .description(text(descriptions[slot]))
+                .price(price(slot))
+                .quantity(quantity(slot))
+                .version(versions[slot])
+                .build();
+    }
+
+    /**
+     * Stores the product under its id, replacing the row of the product with the same id, with the version it
+     * carries.
+     */
+    void put(Product product) {
+        int slot = slotOf(product.getId());
+        if (slot >= 0) {
+            clear(slot);
+        } else {
+            slot = insert(product.getId());
+            added.put(product.getId(), slot);
+            if (added.size() > Math.max(MIN_MERGE_SIZE, order.length / 8)) {
+                merge();
+            }
+        }
+        write(slot, product);
+    }
+
+    /**
+     * Stores products into empty columns, appending them to the id order directly when they come sorted by id.
+     */
+    void load(List<Product> products) {
+        order = new int[products.size()];
+        boolean sorted = true;
+        for (int i = 0; i < products.size(); i++) {
+            Product product = products.get(i);
+            order[i] = insert(product.getId());
+            write(order[i], product);
+            sorted &= i == 0 || products.get(i - 1).getId().compareTo(product.getId()) < 0;
+        }
+        if (!sorted) {
+            order = Arrays.stream(order).boxed().sorted(Comparator.comparing(this::id))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    void remove(int slot) {
+        clear(slot);
+        versions[slot] = 0;
+        size--;
+        added.remove(id(slot));
+        if (deadCount == dead.length) {
+            dead = Arrays.copyOf(dead, deadCount * 2);
+        }
+        dead[deadCount++] = slot;
+        if (deadCount > Math.max(MIN_MERGE_SIZE, order.length / 8)) {
+            merge();
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code limit} products in id order, starting right after the id {@code cursor}, or from the
+     * first product when it is null.
+     */
+    List<Product> page(String cursor, int limit) {
+        List<Product> page = new ArrayList<>(Math.min(limit, MIN_MERGE_SIZE));
+        int next = cursor == null ? 0 : after(cursor);
+        Iterator<Map.Entry<String, Integer>> recent =
+                (cursor == null ? added : added.tailMap(cursor, false)).entrySet().iterator();
+        Map.Entry<String, Integer> nextAdded = recent.hasNext() ? recent.next() : null;
+        while (page.size() < limit) {
+            while (next < order.length && versions[order[next]] == 0) {
+                next++;
+            }
+            if (next < order.length && (nextAdded == null || id(order[next]).compareTo(nextAdded.getKey()) < 0)) {
+                page.add(read(order[next++]));
+            } else if (nextAdded != null) {
+                page.add(read(nextAdded.getValue()));
+                nextAdded = recent.hasNext() ? recent.next() : null;
+            } else {
+                break;
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Scans the columns for the products matching every bound of the filter, and returns them ordered by price
+     * when the filter bounds the price, and by quantity otherwise, then by id.
+     */
+    List<Product> filter(ProductFilter filter) {
+        PriceBound minPrice = filter.minPrice() == null ? null : new PriceBound(filter.minPrice(), true);
+        PriceBound maxPrice = filter.maxPrice() == null ? null : new PriceBound(filter.maxPrice(), false);
+        Integer maxQuantity = filter.maxQuantity();
+        int[] matches = new int[16];
+        int count = 0;
+        for (int slot = 0; slot < slots; slot++) {
+            if (versions[slot] == 0
+                    || minPrice != null && !admits(minPrice, slot)
+                    || maxPrice != null && !admits(maxPrice, slot)
+                    || maxQuantity != null && (nullQuantities.get(slot) || quantities[slot] > maxQuantity)) {
+                continue;
+            }
+            if (count == matches.length) {
+                matches = Arrays.copyOf(matches, count * 2);
+            }
+            matches[count++] = slot;
+        }
+        Comparator<Integer> byAttribute = filter.hasPriceRange()
+                ? this::comparePrices
+                : Comparator.comparingInt(slot -> quantities[slot]);
+        return Arrays.stream(matches, 0, count).boxed()
+                .sorted(byAttribute.thenComparing(this::id))
+                .map(this::read)
+                .toList();
+    }
+
+    private int insert(String id) {
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            slot = slots++;
+            if (slot == versions.length) {
+                grow(slot * 2);
+            }
+        }
+        int entry = ids.intern(id);
+        if (entry >= slotsByIdEntry.length) {
+            slotsByIdEntry = Arrays.copyOf(slotsByIdEntry, Math.max(entry + 1, slotsByIdEntry.length * 2));
+        }
+        slotsByIdEntry[entry] = slot;
+        idEntries[slot] = entry;
+        size++;
+        return slot;
+    }
+
+    private void write(int slot, Product product) {
+        names[slot] = product.getName() == null ? -1 : texts.intern(product.getName());
+        descriptions[slot] = product.getDescription() == null ? -1 : texts.intern(product.getDescription());
+        BigDecimal price = product.getPrice();
+        if (price == null) {
+            scales[slot] = NULL_PRICE;
+        } else if (price.scale() > NULL_PRICE && price.scale() < WIDE_PRICE && price.unscaledValue().bitLength() < 64) {
+            prices[slot] = price.unscaledValue().longValue();
+            scales[slot] = (byte) price.scale();
+        } else {
+            scales[slot] = WIDE_PRICE;
+            widePrices.put(slot, price);
+        }
+        quantities[slot] = product.getQuantity() == null ? 0 : product.getQuantity();
+        nullQuantities.set(slot, product.getQuantity() == null);
+        versions[slot] = product.getVersion();
+    }
+
+    private void clear(int slot) {
+        release(names[slot]);
+        release(descriptions[slot]);
+        if (scales[slot] == WIDE_PRICE) {
+            widePrices.remove(slot);
+        }
+    }
+
+    private void release(int text) {
+        if (text >= 0) {
+            texts.release(text);
+        }
+    }
+
+    // Rebuilds the id order without dead slots and with the added ids, then frees the dead slots and their ids,
+    // which the order no longer refers to.
+    private void merge() {
+        int[] merged = new int[size];
+        int count = 0;
+        int next = 0;
+        for (Map.Entry<String, Integer> entry : added.entrySet()) {
+            for (; next < order.length && (versions[order[next]] == 0 || id(order[next]).compareTo(entry.getKey()) < 0);
+                 next++) {
+                if (versions[order[next]] != 0) {
+                    merged[count++] = order[next];
+                }
+            }
+            merged[count++] = entry.getValue();
+        }
+        for (; next < order.length; next++) {
+            if (versions[order[next]] != 0) {
+                merged[count++] = order[next];
+            }
+        }
+        order = merged;
+        added.clear();
+        for (int i = 0; i < deadCount; i++) {
+            ids.release(idEntries[dead[i]]);
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, Math.max(freeCount * 2, deadCount));
+            }
+            free[freeCount++] = dead[i];
+        }
+        deadCount = 0;
+    }
+
+    // Returns the position of the first slot in the order whose id comes after the cursor.
+    private int after(String cursor) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (id(order[middle]).compareTo(cursor) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void grow(int capacity) {
+        idEntries = Arrays.copyOf(idEntries, capacity);
+        names = Arrays.copyOf(names, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        scales = Arrays.copyOf(scales, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+
+    private String id(int slot) {
+        return ids.get(idEntries[slot]);
+    }
+
+    private String text(int entry) {
+        return entry < 0 ? null : texts.get(entry);
+    }
+
+    private boolean admits(PriceBound bound, int slot) {
+        byte scale = scales[slot];
+        return switch (scale) {
+            case NULL_PRICE -> false;
+            case WIDE_PRICE -> bound.admits(widePrices.get(slot));
+            default -> bound.admits(prices[slot], scale);
+        };
+    }
+
+    // Null prices only occur among slots that did not match a price bound, so both prices are present here.
+    private int comparePrices(int left, int right) {
+        if (scales[left] == scales[right] && scales[left] != WIDE_PRICE) {
+            return Long.compare(prices[left], prices[right]);
+        }
+        return price(left).compareTo(price(right));
+    }
+
+    /**
+     * One end of a price range, compared against unscaled prices without creating a {@link BigDecimal} per row.
+     * A price at scale {@code s} is within a lower bound {@code b} exactly when its unscaled value is at least
+     * {@code b * 10^s} rounded up, and within an upper bound when it is at most that value rounded down; the
+     * rescaled bound is computed once per scale met.
+     */
+    private static final class PriceBound {
+        private static final byte UNKNOWN = 0;
+        private static final byte EXACT = 1;
+        private static final byte OUT_OF_RANGE = 2;
+
+        private final BigDecimal value;
+        private final boolean lower;
+        private final long[] unscaled = new long[256];
+        private final byte[] states = new byte[256];
+
+        PriceBound(BigDecimal value, boolean lower) {
+            this.value = value;
+            this.lower = lower;
+        }
+
+        boolean admits(long price, byte scale) {
+            int index = scale & 0xFF;
+            if (states[index] == UNKNOWN) {
+                BigDecimal rescaled = value.movePointRight(scale)
+                        .setScale(0, lower ? RoundingMode.CEILING : RoundingMode.FLOOR);
+                boolean exact = rescaled.unscaledValue().bitLength() < 64;
+                unscaled[index] = exact ? rescaled.longValue() : 0;
+                states[index] = exact ? EXACT : OUT_OF_RANGE;
+            }
+            if (states[index] == OUT_OF_RANGE) {
+                return admits(BigDecimal.valueOf(price, scale));
+            }
+            return lower ? price >= unscaled[index] : price <= unscaled[index];
+        }
+
+        boolean admits(BigDecimal price) {
+            int comparison = price.compareTo(value);
+            return lower ? comparison >= 0 : comparison <= 0;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Product repository backed by a relational database through R2DBC, selected with
+ * {@code product.repository.type=r2dbc} by the {@code r2dbc} profile. Connections come from the pool configured under
+ * {@code spring.r2dbc.pool}, and every statement is built from a fixed set of SQL texts with bind markers, so the
+ * driver and the database can reuse their prepared forms.
+ * <p>
+ * Prices are stored with at most 10 decimal places and read back without trailing zeros. Search matches query
+ * terms anywhere in the name or description and ranks products by how many terms they contain.
+ * <p>
+ * The catalog version is the sum of {@value #CATALOG_STRIPES} counters, each write bumping the counter its product
+ * hashes to in its own transaction. Writes of different products rarely wait on the same counter, the version is
+ * bumped exactly when a write commits, and it grows with every commit whatever order concurrent writes commit in.
+ */
+@Repository
+@Qualifier("productStore")
+@ConditionalOnProperty(name = "product.repository.type", havingValue = "r2dbc")
+@RequiredArgsConstructor
+public class R2dbcProductRepository implements ProductRepository {
+
+    static final int WRITE_CONCURRENCY = 8;
+    static final int CATALOG_STRIPES = 64;
+
+    private static final List<String> SCHEMA = List.of(
+            """
+            CREATE TABLE IF NOT EXISTS products (
+                id VARCHAR(255) PRIMARY KEY,
+                name VARCHAR,
+                description VARCHAR,
+                price NUMERIC(38, 10),
+                quantity INTEGER,
+                version BIGINT NOT NULL
+            )""",
+            "CREATE INDEX IF NOT EXISTS products_price ON products (price, id)",
+            "CREATE INDEX IF NOT EXISTS products_quantity ON products (quantity, id)",
+            "CREATE TABLE IF NOT EXISTS product_catalog (id INTEGER PRIMARY KEY, version BIGINT NOT NULL)");
+    private static final String ADD_CATALOG_STRIPE = "INSERT INTO product_catalog (id, version) SELECT :id, 0 "
+            + "WHERE NOT EXISTS (SELECT 1 FROM product_catalog WHERE id = :id)";
+
+    private static final String SELECT = "SELECT id, name, description, price, quantity, version FROM products";
+    private static final String UPSERT = """
+            MERGE INTO products AS target
+            USING (VALUES (CAST(:id AS VARCHAR(255)))) AS source (id) ON target.id = source.id
+            WHEN MATCHED THEN UPDATE SET name = :name, description = :description, price = :price,
+                quantity = :quantity, version = target.version + 1
+            WHEN NOT MATCHED THEN INSERT (id, name, description, price, quantity, version)
+                VALUES (:id, :name, :description, :price, :quantity, 1)""";
+    private static final String UPDATE = "UPDATE products SET name = :name, description = :description, "
+            + "price = :price, quantity = :quantity, version = version + 1 WHERE id = :id";
+    private static final String ADJUST_QUANTITY = "UPDATE products SET quantity = COALESCE(quantity, 0) + :delta, "
+            + "version = version + 1 WHERE id = :id "
+            + "AND COALESCE(quantity, 0) + CAST(:delta AS BIGINT) BETWEEN 0 AND " + Integer.MAX_VALUE;
+    private static final String STATS = """
+            SELECT COUNT(*) AS products,
+                   COUNT(CASE WHEN COALESCE(quantity, 0) <= 0 THEN 1 END) AS out_of_stock,
+                   COALESCE(SUM(CAST(quantity AS BIGINT)), 0) AS units,
+                   COALESCE(SUM(price * COALESCE(quantity, 0)), 0) AS stock_value,
+                   MIN(price) AS min_price,
+                   MAX(price) AS max_price,
+                   COALESCE(SUM(price), 0) AS price_sum,
+                   COUNT(price) AS priced
+            FROM products""";
+    private static final String BUMP_CATALOG = "UPDATE product_catalog SET version = version + 1 WHERE id = :id";
+
+    private final DatabaseClient database;
+    private final TransactionalOperator transactions;
+
+    @PostConstruct
+    public void init() {
+        Flux.fromIterable(SCHEMA)
+                .concatMap(statement -> database.sql(statement).then())
+                .thenMany(Flux.range(0, CATALOG_STRIPES))
+                .concatMap(stripe -> database.sql(ADD_CATALOG_STRIPE).bind("id", stripe).then())
+                .then(count())
+                .filter(count -> count == 0)
+                // Initialize an empty store with default products
+                .flatMapMany(empty -> saveAll(Flux.fromIterable(DefaultProducts.all())))
+                .blockLast();
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return database.sql(SELECT + " ORDER BY id").map(R2dbcProductRepository::product).all();
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        DatabaseClient.GenericExecuteSpec page = cursor == null
+                ? database.sql(SELECT + " ORDER BY id LIMIT :limit")
+                : database.sql(SELECT + " WHERE id > :cursor ORDER BY id LIMIT :limit").bind("cursor", cursor);
+        return page.bind("limit", limit).map(R2dbcProductRepository::product).all();
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        if (filter.isEmpty()) {
+            return findAll();
+        }
+        List<String> conditions = new ArrayList<>();
+        if (filter.minPrice() != null) {
+            conditions.add("price >= :minPrice");
+        }
+        if (filter.maxPrice() != null) {
+            conditions.add("price <= :maxPrice");
+        }
+        if (filter.maxQuantity() != null) {
+            conditions.add("quantity <= :maxQuantity");
+        }
+        String order = filter.hasPriceRange() ? "price, id" : "quantity, id";
+        DatabaseClient.GenericExecuteSpec query =
+                database.sql(SELECT + " WHERE " + String.join(" AND ", conditions) + " ORDER BY " + order);
+        if (filter.minPrice() != null) {
+            query = query.bind("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            query = query.bind("maxPrice", filter.maxPrice());
+        }
+        if (filter.maxQuantity() != null) {
+            query = query.bind("maxQuantity", filter.maxQuantity());
+        }
+        return query.map(R2dbcProductRepository::product).all();
+    }
+
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        Set<String> terms = new LinkedHashSet<>(InvertedIndex.tokenize(query));
+        if (terms.isEmpty()) {
+            return Flux.empty();
+        }
+        List<String> matches = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            matches.add("CASE WHEN LOWER(name) LIKE :term" + i + " OR LOWER(description) LIKE :term" + i
+                    + " THEN 1 ELSE 0 END");
+        }
+        DatabaseClient.GenericExecuteSpec search = database.sql(
+                "SELECT * FROM (SELECT id, name, description, price, quantity, version, "
+                        + String.join(" + ", matches) + " AS score FROM products) AS scored "
+                        + "WHERE score > 0 ORDER BY score DESC, id LIMIT :limit");
+        int i = 0;
+        for (String term : terms) {
+            // Tokens only hold letters and digits, so they never contain LIKE wildcards.
+            search = search.bind("term" + i++, "%" + term + "%");
+        }
+        return search.bind("limit", limit).map(R2dbcProductRepository::product).all();
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return database.sql(SELECT + " WHERE id = :id").bind("id", id).map(R2dbcProductRepository::product).one();
+    }
+
+    // The catalog version is bumped in the transaction of the write, so a reader sees both or neither, and never
+    // pairs a catalog version with older contents.
+    @Override
+    public Mono<Product> save(Product product) {
+        return bind(database.sql(UPSERT), product).then()
+                .then(bumpCatalog(product.getId()))
+                .then(findById(product.getId()))
+                .as(transactions::transactional);
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        Long expectedVersion = product.getVersion();
+        DatabaseClient.GenericExecuteSpec update = expectedVersion == null
+                ? database.sql(UPDATE)
+                : database.sql(UPDATE + " AND version = :expectedVersion").bind("expectedVersion", expectedVersion);
+        return bind(update, product.toBuilder().id(id).build()).fetch().rowsUpdated()
+                .flatMap(rows -> rows > 0 ? bumpCatalog(id).then(findById(id)) : conflict(id, expectedVersion))
+                .as(transactions::transactional);
+    }
+
+    // The stock check is part of the update, so the database applies both under the row lock of one statement. It
+    // adds in BIGINT, so that a quantity the INTEGER column cannot hold is refused rather than overflowing.
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return database.sql(ADJUST_QUANTITY).bind("id", id).bind("delta", delta).fetch().rowsUpdated()
+                .flatMap(rows -> rows > 0 ? bumpCatalog(id).then(findById(id)) : findById(id).flatMap(current ->
+                        Mono.error(refused(id, current.getQuantity() == null ? 0 : current.getQuantity(), delta))))
+                .as(transactions::transactional);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return delete(id).then();
+    }
+
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return products.flatMapSequential(this::save, WRITE_CONCURRENCY);
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return products.flatMapSequential(product -> update(product.getId(), product), WRITE_CONCURRENCY);
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return ids.flatMapSequential(id -> delete(id).filter(Boolean::booleanValue).map(deleted -> id),
+                WRITE_CONCURRENCY);
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return database.sql("SELECT 1 FROM products WHERE id = :id").bind("id", id)
+                .map(row -> true)
+                .first()
+                .hasElement();
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return database.sql("SELECT COUNT(*) FROM products").map(row -> row.get(0, Long.class)).one();
+    }
+
+    // The database computes the aggregates in one pass over the table, as it is shared with other instances whose
+    // writes this one never sees.
+    @Override
+    public Mono<ProductStats> stats() {
+        return database.sql(STATS).map(row -> ProductStats.of(
+                        whole(row, "products"),
+                        whole(row, "out_of_stock"),
+                        whole(row, "units"),
+                        normalize(row.get("stock_value", BigDecimal.class)),
+                        decimal(row, "min_price"),
+                        decimal(row, "max_price"),
+                        whole(row, "priced"),
+                        normalize(row.get("price_sum", BigDecimal.class))))
+                .one();
+    }
+
+    @Override
+    public Mono<Long> catalogVersion() {
+        return database.sql("SELECT COALESCE(SUM(version), 0) AS version FROM product_catalog")
+                .map(row -> whole(row, "version"))
+                .one();
+    }
+
+    private Mono<Boolean> delete(String id) {
+        return database.sql("DELETE FROM products WHERE id = :id").bind("id", id).fetch().rowsUpdated()
+                .flatMap(rows -> rows > 0 ? bumpCatalog(id).thenReturn(true) : Mono.just(false))
+                .as(transactions::transactional);
+    }
+
+    // Nothing was updated: either the product is gone, which is not an error, or another write moved it past
+    // the expected version.
+    private Mono<Product> conflict(String id, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return Mono.empty();
+        }
+        return findById(id).flatMap(current -> Mono.error(
+                new ProductVersionConflictException(id, expectedVersion, current.getVersion())));
+    }
+
+    private static RuntimeException refused(String id, int available, int delta) {
+        return delta < 0
+                ? new InsufficientStockException(id, available, -delta)
+                : new StockLimitExceededException(id, available, delta);
+    }
+
+    private Mono<Void> bumpCatalog(String id) {
+        return database.sql(BUMP_CATALOG).bind("id", Math.floorMod(id.hashCode(), CATALOG_STRIPES)).then();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, Product product) {
+        spec = spec.bind("id", product.getId());
+        spec = product.getName() == null ? spec.bindNull("name", String.class) : spec.bind("name", product.getName());
+        spec = product.getDescription() == null
+                ? spec.bindNull("description", String.class)
+                : spec.bind("description", product.getDescription());
+        spec = product.getPrice() == null
+                ? spec.bindNull("price", BigDecimal.class)
+                : spec.bind("price", product.getPrice());
+        return product.getQuantity() == null
+                ? spec.bindNull("quantity", Integer.class)
+                : spec.bind("quantity", product.getQuantity());
+    }
+
+    private static Product product(Readable row) {
+        return Product.builder()
+                .id(row.get("id", String.class))
+                .name(row.get("name", String.class))
+                .description(row.get("description", String.class))
+                .price(decimal(row, "price"))
+                .quantity(row.get("quantity", Integer.class))
+                .version(row.get("version", Long.class))
+                .build();
+    }
+
+    // Databases differ in the types they give counts and sums, so any whole number is accepted.
+    private static long whole(Readable row, String column) {
+        return row.get(column, Number.class).longValue();
+    }
+
+    private static BigDecimal decimal(Readable row, String column) {
+        BigDecimal value = row.get(column, BigDecimal.class);
+        return value == null ? null : normalize(value);
+    }
+
+    private static BigDecimal normalize(BigDecimal price) {
+        BigDecimal stripped = price.stripTrailingZeros();
+        return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+    }
+}
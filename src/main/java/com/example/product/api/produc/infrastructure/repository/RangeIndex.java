@@ -0,0 +1,67 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Ordered secondary index from a product attribute to product ids. Entries are kept sorted by value
+ * and then by id, so a range lookup only walks the entries inside the range.
+ */
+class RangeIndex<V extends Comparable<V>> {
+
+    record Entry<V>(V value, String id) {
+    }
+
+    private final NavigableSet<Entry<V>> entries;
+
+    RangeIndex() {
+        Comparator<Entry<V>> byValue = Comparator.comparing(Entry::value);
+        entries = new ConcurrentSkipListSet<>(
+                byValue.thenComparing(Entry::id, Comparator.nullsLast(Comparator.naturalOrder())));
+    }
+
+    void add(V value, String id) {
+        if (value != null) {
+            entries.add(new Entry<>(value, id));
+        }
+    }
+
+    /**
+     * Adds many entries at once. They are sorted first, so each one is appended after the previous instead of
+     * being inserted at a random position.
+     */
+    void addAll(Stream<Entry<V>> added) {
+        added.filter(entry -> entry.value() != null)
+                .sorted(entries.comparator())
+                .forEachOrdered(entries::add);
+    }
+
+    void remove(V value, String id) {
+        if (value != null) {
+            entries.remove(new Entry<>(value, id));
+        }
+    }
+
+    /**
+     * Returns the entries whose value lies within the inclusive bounds; a null bound is open.
+     */
+    NavigableSet<Entry<V>> range(V from, V to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            return new ConcurrentSkipListSet<>();
+        }
+        NavigableSet<Entry<V>> range = entries;
+        if (from != null) {
+            range = range.tailSet(new Entry<>(from, ""), true);
+        }
+        if (to != null) {
+            range = range.headSet(new Entry<>(to, null), true);
+        }
+        return range;
+    }
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.function.Tuple2;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Product repository split into shards by a hash of the product id, selected with
+ * {@code product.repository.type=sharded}. Every shard is an {@link InMemoryProductRepository} with a journal of its
+ * own, and only ever runs on its own single thread, so that its map, indexes and journal are only touched by one
+ * writer and writes to different shards share nothing but the catalog statistics, whose adders are striped for
+ * that purpose. Writes thus scale with the number of shards until every core is busy.
+ * <p>
+ * Writes of one product run on the shard owning it, while reads of one product look it up in the map of that shard
+ * directly, from the calling thread, as the map is safe to read concurrently. Listings, filters and searches ask
+ * every shard and merge their ordered answers, and counts add up the counts of every shard. Search results are merged
+ * by their rank within each shard, since relevance scores are only comparable within the shard that computed them.
+ */
+public class ShardedProductRepository implements ProductRepository, AutoCloseable {
+
+    private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+    private record Shard(InMemoryProductRepository store, Scheduler scheduler) {
+    }
+
+    private final List<Shard> shards;
+    private final List<ProductJournal> journals;
+    private final CatalogStats stats = new CatalogStats();
+
+    /**
+     * Creates one shard per journal. The shard a product belongs to depends on the number of shards, so journals
+     * must always be handed in the same order and number.
+     */
+    public ShardedProductRepository(List<ProductJournal> journals) {
+        this.journals = List.copyOf(journals);
+        this.shards = IntStream.range(0, journals.size())
+                .mapToObj(index -> new Shard(new InMemoryProductRepository(journals.get(index), stats),
+                        Schedulers.newSingle("product-shard-" + index, true)))
+                .toList();
+    }
+
+    @PostConstruct
+    public void init() {
+        boolean recovered = Flux.fromIterable(shards)
+                .flatMap(shard -> Mono.fromCallable(shard.store()::recover).subscribeOn(shard.scheduler()))
+                .reduce(false, Boolean::logicalOr)
+                .block();
+        if (!recovered) {
+            // Initialize an empty store with default products
+            saveAll(Flux.fromIterable(DefaultProducts.all())).blockLast();
+        }
+    }
+
+    int shardCount() {
+        return shards.size();
+    }
+
+    int shardOf(String id) {
+        int hash = id.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.size());
+    }
+
+    @Override
+    public Flux<Product> findAll() {
+        return everyShard(InMemoryProductRepository::findAll);
+    }
+
+    @Override
+    public Flux<Product> findPage(String cursor, int limit) {
+        return merged(BY_ID, store -> store.findPage(cursor, limit)).take(limit);
+    }
+
+    @Override
+    public Flux<Product> findByFilter(ProductFilter filter) {
+        if (filter.hasPriceRange()) {
+            return merged(Comparator.comparing(Product::getPrice, Comparator.<BigDecimal>naturalOrder())
+                    .thenComparing(BY_ID), store -> store.findByFilter(filter));
+        }
+        if (filter.maxQuantity() != null) {
+            return merged(Comparator.comparing(Product::getQuantity, Comparator.<Integer>naturalOrder())
+                    .thenComparing(BY_ID), store -> store.findByFilter(filter));
+        }
+        return findAll();
+    }
+
+    // Each shard scores against the statistics of its own products, so the n-th match of every shard is taken
+    // before the (n+1)-th of any, ties going to the lowest id.
+    @Override
+    public Flux<Product> search(String query, int limit) {
+        Comparator<Tuple2<Long, Product>> byRank = Comparator.<Tuple2<Long, Product>>comparingLong(Tuple2::getT1)
+                .thenComparing(Tuple2::getT2, BY_ID);
+        return Flux.mergeComparing(byRank, onEveryShard(store -> store.search(query, limit).index()))
+                .take(limit)
+                .map(Tuple2::getT2);
+    }
+
+    @Override
+    public Mono<Product> findById(String id) {
+        return shardStore(id).findById(id);
+    }
+
+    @Override
+    public Mono<Product> save(Product product) {
+        return onShard(product.getId(), store -> store.save(product));
+    }
+
+    @Override
+    public Mono<Product> update(String id, Product product) {
+        return onShard(id, store -> store.update(id, product));
+    }
+
+    @Override
+    public Mono<Product> adjustQuantity(String id, int delta) {
+        return onShard(id, store -> store.adjustQuantity(id, delta));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String id) {
+        return onShard(id, store -> store.deleteById(id));
+    }
+
+    // Each shard saves its entries of a group with the store's bulk write, so that it waits for its journal once
+    // per group rather than once per product, and the results are emitted in input order.
+    @Override
+    public Flux<Product> saveAll(Flux<Product> products) {
+        return products.buffer(InMemoryProductRepository.SYNC_BATCH_SIZE).concatMap(this::saveGroup);
+    }
+
+    @Override
+    public Flux<Product> updateAll(Flux<Product> products) {
+        return products.flatMapSequential(product ->
+                onShard(product.getId(), store -> store.updateAll(Flux.just(product)).next()));
+    }
+
+    @Override
+    public Flux<String> deleteAll(Flux<String> ids) {
+        return ids.flatMapSequential(id -> onShard(id, store -> store.deleteAll(Flux.just(id)).next()));
+    }
+
+    @Override
+    public Mono<Boolean> existsById(String id) {
+        return shardStore(id).existsById(id);
+    }
+
+    @Override
+    public Mono<Long> count() {
+        return Flux.fromIterable(shards)
+                .flatMap(shard -> shard.store().count())
+                .reduce(0L, Long::sum);
+    }
+
+    @Override
+    public Mono<ProductStats> stats() {
+        return Mono.fromSupplier(stats::snapshot);
+    }
+
+    // Each shard bumps its own version, so their sum changes whenever any of them does.
+    @Override
+    public Mono<Long> catalogVersion() {
+        return Flux.fromIterable(shards)
+                .flatMap(shard -> shard.store().catalogVersion())
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Closes the journals first, as their last snapshot still reads the shards, then stops the shard threads.
+     */
+    @Override
+    public void close() throws Exception {
+        for (ProductJournal journal : journals) {
+            if (journal instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+        shards.forEach(shard -> shard.scheduler().dispose());
+    }
+
+    private InMemoryProductRepository shardStore(String id) {
+        return shards.get(shardOf(id)).store();
+    }
+
+    private <T> Mono<T> onShard(String id, Function<InMemoryProductRepository, Mono<T>> operation) {
+        Shard shard = shards.get(shardOf(id));
+        return Mono.defer(() -> operation.apply(shard.store())).subscribeOn(shard.scheduler());
+    }
+
+    private Flux<Product> saveGroup(List<Product> products) {
+        Map<Integer, List<Integer>> positions = new TreeMap<>();
+        for (int position = 0; position < products.size(); position++) {
+            positions.computeIfAbsent(shardOf(products.get(position).getId()), shard -> new ArrayList<>())
+                    .add(position);
+        }
+        Product[] saved = new Product[products.size()];
+        return Flux.fromIterable(positions.entrySet())
+                .flatMap(entry -> {
+                    Shard shard = shards.get(entry.getKey());
+                    List<Integer> onShard = entry.getValue();
+                    return Flux.defer(() -> shard.store().saveAll(Flux.fromIterable(onShard).map(products::get)))
+                            .subscribeOn(shard.scheduler())
+                            .index()
+                            .doOnNext(stored -> saved[onShard.get(stored.getT1().intValue())] = stored.getT2());
+                })
+                .thenMany(Flux.defer(() -> Flux.fromArray(saved)));
+    }
+
+    private Flux<Product> everyShard(Function<InMemoryProductRepository, Flux<Product>> operation) {
+        return Flux.merge(shards.stream()
+                .map(shard -> Flux.defer(() -> operation.apply(shard.store())).subscribeOn(shard.scheduler()))
+                .toList());
+    }
+
+    private Flux<Product> merged(Comparator<Product> order,
+                                 Function<InMemoryProductRepository, Flux<Product>> operation) {
+        return Flux.mergeComparing(order, onEveryShard(operation));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Flux<T>[] onEveryShard(Function<InMemoryProductRepository, Flux<T>> operation) {
+        return shards.stream()
+                .map(shard -> Flux.defer(() -> operation.apply(shard.store())).subscribeOn(shard.scheduler()))
+                .toArray(Flux[]::new);
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Deduplicated store of strings as UTF-8 bytes in one growing array. Every distinct string is kept once, as an
+ * entry with a reference count, and is found again through an open-addressing hash table of entries, so storing
+ * a string that is already present only counts one more reference to it.
+ * <p>
+ * Entry numbers are stable for as long as an entry is referenced, so callers keep entries instead of strings.
+ * Released entries are reused, and the bytes they leave behind are reclaimed the next time the array has to
+ * grow, by copying only the live strings. Not thread-safe.
+ */
+final class StringArena {
+
+    static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+
+    private final int maxBytes;
+    private byte[] bytes = new byte[1024];
+    private int used;
+    private int[] offsets = new int[64];
+    private int[] lengths = new int[64];
+    private int[] hashes = new int[64];
+    private int[] references = new int[64];
+    private int entries;
+    private int[] free = new int[16];
+    private int freeCount;
+    // Entry + 1 per bucket, 0 for an empty bucket; kept at most half full.
+    private int[] table = new int[128];
+    private int live;
+
+    StringArena() {
+        this(MAX_BYTES);
+    }
+
+    StringArena(int maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Stores one more reference to the string and returns its entry.
+     */
+    int intern(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(value);
+        int mask = table.length - 1;
+        int bucket = hash & mask;
+        for (int entry; (entry = table[bucket] - 1) >= 0; bucket = (bucket + 1) & mask) {
+            if (hashes[entry] == hash && matches(entry, utf8)) {
+                references[entry]++;
+                return entry;
+            }
+        }
+        int entry = allocate(utf8, hash);
+        table[bucket] = entry + 1;
+        if (++live * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return entry;
+    }
+
+    /**
+     * Returns the entry holding the string, or -1 when it is not stored.
+     */
+    int find(String value) {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(value);
+        int mask = table.length - 1;
+        for (int bucket = hash & mask, entry; (entry = table[bucket] - 1) >= 0; bucket = (bucket + 1) & mask) {
+            if (hashes[entry] == hash && matches(entry, utf8)) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    String get(int entry) {
+        return new String(bytes, offsets[entry], lengths[entry], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Drops one reference to the entry, and the entry itself with the last one.
+     */
+    void release(int entry) {
+        if (--references[entry] > 0) {
+            return;
+        }
+        unlink(entry);
+        live--;
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount * 2);
+        }
+        free[freeCount++] = entry;
+    }
+
+    int size() {
+        return live;
+    }
+
+    /**
+     * Returns the bytes taken by the strings, including those of released entries not reclaimed yet.
+     */
+    int byteSize() {
+        return used;
+    }
+
+    private int allocate(byte[] utf8, int hash) {
+        reserve(utf8.length);
+        int entry;
+        if (freeCount > 0) {
+            entry = free[--freeCount];
+        } else {
+            entry = entries++;
+            if (entry == offsets.length) {
+                int capacity = entry * 2;
+                offsets = Arrays.copyOf(offsets, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+                hashes = Arrays.copyOf(hashes, capacity);
+                references = Arrays.copyOf(references, capacity);
+            }
+        }
+        System.arraycopy(utf8, 0, bytes, used, utf8.length);
+        offsets[entry] = used;
+        lengths[entry] = utf8.length;
+        hashes[entry] = hash;
+        references[entry] = 1;
+        used += utf8.length;
+        return entry;
+    }
+
+    // Growing copies the whole array anyway, so it copies only the live strings and drops the released ones.
+    private void reserve(int length) {
+        if (length <= bytes.length - used) {
+            return;
+        }
+        long liveBytes = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (references[entry] > 0) {
+                liveBytes += lengths[entry];
+            }
+        }
+        long required = liveBytes + length;
+        if (required > maxBytes) {
+            throw new IllegalStateException("String arena cannot hold more than " + maxBytes + " bytes");
+        }
+        byte[] compacted = new byte[(int) Math.min(maxBytes, Math.max(bytes.length, required * 2))];
+        int position = 0;
+        for (int entry = 0; entry < entries; entry++) {
+            if (references[entry] > 0) {
+                System.arraycopy(bytes, offsets[entry], compacted, position, lengths[entry]);
+                offsets[entry] = position;
+                position += lengths[entry];
+            }
+        }
+        bytes = compacted;
+        used = position;
+    }
+
+    // Removes the entry from its bucket and shifts back the entries that probed past it, so that lookups never
+    // need tombstones.
+    private void unlink(int entry) {
+        int mask = table.length - 1;
+        int hole = hashes[entry] & mask;
+        while (table[hole] != entry + 1) {
+            hole = (hole + 1) & mask;
+        }
+        for (int bucket = (hole + 1) & mask; table[bucket] != 0; bucket = (bucket + 1) & mask) {
+            int home = hashes[table[bucket] - 1] & mask;
+            boolean movable = hole <= bucket ? home <= hole || home > bucket : home <= hole && home > bucket;
+            if (movable) {
+                table[hole] = table[bucket];
+                hole = bucket;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] rehashed = new int[capacity];
+        int mask = capacity - 1;
+        for (int slot : table) {
+            if (slot != 0) {
+                int bucket = hashes[slot - 1] & mask;
+                while (rehashed[bucket] != 0) {
+                    bucket = (bucket + 1) & mask;
+                }
+                rehashed[bucket] = slot;
+            }
+        }
+        table = rehashed;
+    }
+
+    private boolean matches(int entry, byte[] utf8) {
+        int offset = offsets[entry];
+        return Arrays.equals(bytes, offset, offset + lengths[entry], utf8, 0, utf8.length);
+    }
+
+    private static int hash(String value) {
+        int hash = value.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: a ring of buckets, one per tick, where an entry due in {@code n} ticks goes into the bucket
+ * {@code n} ticks ahead and stays there for as many turns of the wheel as it needs. Entries are linked into their
+ * bucket intrusively, so scheduling allocates nothing beyond the entry itself, adding and removing one is O(1)
+ * whatever the number of entries, and each tick only visits the bucket it lands on. Entries expire no earlier than
+ * their deadline and at most one tick after it. Not thread-safe; time is passed in so the owner decides the clock.
+ */
+class TimingWheel<E extends TimingWheel.Entry> {
+
+    abstract static class Entry {
+        private Entry previous;
+        private Entry next;
+        private long deadlineTick;
+        private int bucket = -1;
+
+        boolean scheduled() {
+            return bucket >= 0;
+        }
+    }
+
+    private final Entry[] buckets;
+    private final int mask;
+    private final long tickNanos;
+    private final long startNanos;
+    private long tick;
+    private int size;
+
+    TimingWheel(Duration tick, int wheelSize, long nowNanos) {
+        if (tick.toNanos() <= 0 || wheelSize <= 0) {
+            throw new IllegalArgumentException("The tick and the wheel size must be positive");
+        }
+        // A power of two lets the bucket of a tick be found with a mask instead of a division.
+        int buckets = Integer.highestOneBit(wheelSize - 1) << 1;
+        this.buckets = new Entry[Math.max(buckets, 1)];
+        this.mask = this.buckets.length - 1;
+        this.tickNanos = tick.toNanos();
+        this.startNanos = nowNanos;
+    }
+
+    void add(E added, long deadlineNanos) {
+        // Entry fields cannot be reached through the type variable, only through the entry type itself.
+        Entry entry = added;
+        if (entry.scheduled()) {
+            throw new IllegalStateException("The entry is already scheduled");
+        }
+        // Rounded up and never in a tick that was already processed, so an entry cannot expire early nor be missed.
+        long deadlineTick = Math.max(Math.ceilDiv(deadlineNanos - startNanos, tickNanos), tick + 1);
+        int bucket = (int) (deadlineTick & mask);
+        entry.deadlineTick = deadlineTick;
+        entry.bucket = bucket;
+        entry.previous = null;
+        entry.next = buckets[bucket];
+        if (entry.next != null) {
+            entry.next.previous = entry;
+        }
+        buckets[bucket] = entry;
+        size++;
+    }
+
+    /**
+     * Unschedules an entry, returning false when it was not scheduled, because it was removed or expired already.
+     */
+    boolean remove(E entry) {
+        if (!entry.scheduled()) {
+            return false;
+        }
+        unlink(entry);
+        return true;
+    }
+
+    /**
+     * Processes every tick up to {@code nowNanos}, handing each entry whose deadline has passed to {@code expired}
+     * after it was unscheduled.
+     */
+    @SuppressWarnings("unchecked")
+    void advance(long nowNanos, Consumer<? super E> expired) {
+        long target = (nowNanos - startNanos) / tickNanos;
+        while (tick < target) {
+            tick++;
+            Entry entry = buckets[(int) (tick & mask)];
+            while (entry != null) {
+                Entry next = entry.next;
+                if (entry.deadlineTick <= tick) {
+                    unlink(entry);
+                    expired.accept((E) entry);
+                }
+                entry = next;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            buckets[entry.bucket] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        entry.bucket = -1;
+        size--;
+    }
+}
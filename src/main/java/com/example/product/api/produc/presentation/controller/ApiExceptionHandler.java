@@ -0,0 +1,74 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.InvalidCursorException;
+import com.example.product.api.produc.domain.exception.NotProductOwnerException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.ReadOnlyReplicaException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidCursorException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ProblemDetail handleInvalidCursor(InvalidCursorException exception) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(ProductVersionConflictException.class)
+    @ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+    public ProblemDetail handleVersionConflict(ProductVersionConflictException exception) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED,
+                exception.getMessage());
+        problem.setProperty("id", exception.getId());
+        problem.setProperty("expectedVersion", exception.getExpectedVersion());
+        problem.setProperty("currentVersion", exception.getCurrentVersion());
+        return problem;
+    }
+
+    @ExceptionHandler(InsufficientStockException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetail handleInsufficientStock(InsufficientStockException exception) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, exception.getMessage());
+        problem.setProperty("id", exception.getId());
+        problem.setProperty("available", exception.getAvailable());
+        problem.setProperty("requested", exception.getRequested());
+        return problem;
+    }
+
+    @ExceptionHandler(StockLimitExceededException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ProblemDetail handleStockLimitExceeded(StockLimitExceededException exception) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.CONFLICT, exception.getMessage());
+        problem.setProperty("id", exception.getId());
+        problem.setProperty("available", exception.getAvailable());
+        problem.setProperty("added", exception.getAdded());
+        return problem;
+    }
+
+    // 421 Misdirected Request: the write reached a node that cannot serve it, which unlike a 503 does not make load
+    // balancers take the node out of rotation for reads.
+    @ExceptionHandler(ReadOnlyReplicaException.class)
+    public ResponseEntity<ProblemDetail> handleReadOnlyReplica(ReadOnlyReplicaException exception) {
+        HttpStatusCode status = HttpStatusCode.valueOf(421);
+        return ResponseEntity.status(status).body(ProblemDetail.forStatusAndDetail(status, exception.getMessage()));
+    }
+
+    // 421 as well: the write reached a cluster node that does not own the product, and must be sent to its owner.
+    @ExceptionHandler(NotProductOwnerException.class)
+    public ResponseEntity<ProblemDetail> handleNotProductOwner(NotProductOwnerException exception) {
+        HttpStatusCode status = HttpStatusCode.valueOf(421);
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, exception.getMessage());
+        problem.setProperty("id", exception.getId());
+        problem.setProperty("owner", exception.getOwner());
+        return ResponseEntity.status(status).body(problem);
+    }
+}
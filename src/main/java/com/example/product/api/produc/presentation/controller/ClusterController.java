@@ -0,0 +1,194 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.exception.NotProductOwnerException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.infrastructure.repository.ClusterProductRepository;
+import com.example.product.api.produc.infrastructure.repository.ClusterStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Membership of the cluster, and the partition endpoints through which nodes reach the products other nodes own.
+ * Partition endpoints only ever read and write the products of this node, so nodes never forward them further. They
+ * refuse writes of products this node does not own with {@code 421 Misdirected Request}, as no other node would
+ * look for them here, except for changes to products this node still holds because they have not been handed over
+ * to their new owner yet.
+ */
+@RestController
+@RequestMapping("/api/v1/cluster")
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "product.repository.type", havingValue = "cluster")
+@Tag(name = "Cluster", description = "Partitioning of the catalog across the nodes of a cluster")
+public class ClusterController {
+
+    private static final String PARTITION = "/partition/products";
+
+    private final ClusterProductRepository cluster;
+
+    @Operation(summary = "Get the cluster membership",
+            description = "Lists the nodes of the cluster as this node knows them, with the number of products "
+                    + "this node holds and whether it is still handing products over to other nodes")
+    @ApiResponse(responseCode = "200", description = "Cluster membership")
+    @GetMapping("/nodes")
+    public Mono<ClusterStatus> status() {
+        return cluster.status();
+    }
+
+    @Operation(summary = "Change the nodes of the cluster",
+            description = "Replaces the nodes of the cluster on this node, which then hands the products it no "
+                    + "longer owns over to their new owners. Send the same nodes, in the same order, to every "
+                    + "node.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Nodes changed, products being handed over"),
+            @ApiResponse(responseCode = "400", description = "No nodes given")
+    })
+    @PutMapping("/nodes")
+    public Mono<ClusterStatus> rebalance(@RequestBody @NotEmpty List<String> nodes) {
+        return cluster.rebalance(nodes);
+    }
+
+    @Operation(summary = "List the products of this node",
+            description = "Streams the products of this node, or one page of them ordered by id when a limit is "
+                    + "given")
+    @GetMapping(value = PARTITION, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> products(@RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer limit) {
+        return limit == null ? cluster.partition().findAll() : cluster.partition().findPage(cursor, limit);
+    }
+
+    @Operation(summary = "Filter the products of this node")
+    @GetMapping(value = PARTITION + ":filter", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> filter(@RequestParam(required = false) BigDecimal minPrice,
+                                @RequestParam(required = false) BigDecimal maxPrice,
+                                @RequestParam(required = false) Integer maxQuantity) {
+        return cluster.partition().findByFilter(new ProductFilter(minPrice, maxPrice, maxQuantity));
+    }
+
+    @Operation(summary = "Search the products of this node")
+    @GetMapping(value = PARTITION + ":search", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Product> search(@RequestParam String q, @RequestParam int limit) {
+        return cluster.partition().search(q, limit);
+    }
+
+    @Operation(summary = "Get a product of this node")
+    @ApiResponse(responseCode = "404", description = "This node does not hold the product")
+    @GetMapping(PARTITION + "/{id}")
+    public Mono<ResponseEntity<Product>> product(@PathVariable String id) {
+        return found(cluster.partition().findById(id));
+    }
+
+    @Operation(summary = "Save a product on this node")
+    @ApiResponse(responseCode = "421", description = "This node does not own the product")
+    @PutMapping(PARTITION + "/{id}")
+    public Mono<Product> save(@PathVariable String id, @RequestBody Product product) {
+        return owned(id, () -> cluster.partition().save(product.toBuilder().id(id).build()));
+    }
+
+    @Operation(summary = "Replace a product of this node",
+            description = "Replaces the product when its version, if given, matches")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "404", description = "This node does not hold the product"),
+            @ApiResponse(responseCode = "412", description = "The product is at another version"),
+            @ApiResponse(responseCode = "421", description = "This node neither owns nor holds the product")
+    })
+    @PostMapping(PARTITION + "/{id}:update")
+    public Mono<ResponseEntity<Product>> update(@PathVariable String id, @RequestBody Product product) {
+        return held(id, () -> found(cluster.partition().update(id, product)));
+    }
+
+    @Operation(summary = "Adjust the quantity of a product of this node")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "404", description = "This node does not hold the product"),
+            @ApiResponse(responseCode = "409", description = "Not enough units in stock"),
+            @ApiResponse(responseCode = "421", description = "This node neither owns nor holds the product")
+    })
+    @PostMapping(PARTITION + "/{id}:adjust")
+    public Mono<ResponseEntity<Product>> adjust(@PathVariable String id, @RequestParam int delta) {
+        return held(id, () -> found(cluster.partition().adjustQuantity(id, delta)));
+    }
+
+    @Operation(summary = "Delete a product of this node")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Product deleted"),
+            @ApiResponse(responseCode = "404", description = "This node does not hold the product"),
+            @ApiResponse(responseCode = "421", description = "This node neither owns nor holds the product")
+    })
+    @DeleteMapping(PARTITION + "/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable String id) {
+        return held(id, () -> cluster.partition().deleteAll(Flux.just(id))
+                .next()
+                .map(deleted -> ResponseEntity.noContent().<Void>build())
+                .defaultIfEmpty(ResponseEntity.notFound().build()));
+    }
+
+    @Operation(summary = "Adopt a product handed over by another node",
+            description = "Stores the product as it is, unless this node holds the same or a later version of it, "
+                    + "and tells whether it did")
+    @ApiResponse(responseCode = "412", description = "This node holds other contents at the same version")
+    @PostMapping(PARTITION + "/{id}:adopt")
+    public Mono<Boolean> adopt(@PathVariable String id, @RequestBody Product product) {
+        return cluster.adopt(product.toBuilder().id(id).build());
+    }
+
+    @Operation(summary = "Count the products of this node")
+    @GetMapping("/partition/count")
+    public Mono<Long> count() {
+        return cluster.partition().count();
+    }
+
+    @Operation(summary = "Get statistics over the products of this node")
+    @GetMapping("/partition/stats")
+    public Mono<ProductStats> stats() {
+        return cluster.partition().stats();
+    }
+
+    @Operation(summary = "Get the catalog version of this node")
+    @GetMapping("/partition/catalog-version")
+    public Mono<Long> catalogVersion() {
+        return cluster.partition().catalogVersion();
+    }
+
+    private <T> Mono<T> owned(String id, Supplier<Mono<T>> write) {
+        return Mono.defer(() -> cluster.owns(id)
+                ? write.get()
+                : Mono.error(new NotProductOwnerException(id, cluster.owner(id))));
+    }
+
+    // A product still held here has not been handed over yet, and its changes are handed over with it.
+    private <T> Mono<T> held(String id, Supplier<Mono<T>> write) {
+        return Mono.defer(() -> cluster.owns(id)
+                ? write.get()
+                : cluster.partition().existsById(id).flatMap(held -> held
+                        ? write.get()
+                        : Mono.error(new NotProductOwnerException(id, cluster.owner(id)))));
+    }
+
+    private static Mono<ResponseEntity<Product>> found(Mono<Product> product) {
+        return product.map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.product.api.produc.presentation.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps product and catalog versions to strong entity tags and back.
+ * <p>
+ * Product versions are kept with the products and survive a restart, but the catalog version is counted afresh by
+ * every process, so catalog tags also carry an epoch drawn at startup: a tag handed out before a restart, or by
+ * another instance, never matches again, even once the catalog version reaches the same number.
+ * <p>
+ * The same version is served in several encodings, so tags of any encoding but JSON name it, for example
+ * {@code "7-smile"}: a body cached in one encoding is never revalidated for a request of another.
+ */
+final class ETags {
+
+    static final String EPOCH = Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36);
+
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d+)(?:-[a-z-]+)?\"");
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return of(version, MediaType.APPLICATION_JSON);
+    }
+
+    static String of(long version, MediaType encoding) {
+        return "\"" + version + suffix(encoding) + "\"";
+    }
+
+    static String ofCatalog(long catalogVersion) {
+        return ofCatalog(catalogVersion, MediaType.APPLICATION_JSON);
+    }
+
+    static String ofCatalog(long catalogVersion, MediaType encoding) {
+        return "\"catalog-" + EPOCH + "-" + catalogVersion + suffix(encoding) + "\"";
+    }
+
+    /**
+     * Returns the version an If-Match header requires, or null when any version is acceptable.
+     */
+    static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = VERSION_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED,
+                    "If-Match must be a single strong entity tag or *");
+        }
+        return Long.valueOf(matcher.group(1));
+    }
+
+    // application/x-jackson-smile becomes -smile, application/x-ndjson -ndjson and text/event-stream -event-stream.
+    private static String suffix(MediaType encoding) {
+        if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(encoding)) {
+            return "";
+        }
+        return "-" + encoding.getSubtype().replaceFirst("^x-(jackson-)?", "");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.BatchItem;
+import com.example.product.api.produc.domain.model.BatchItemResult;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.presentation.dto.ProductBatchDeleteRequest;
+import com.example.product.api.produc.presentation.dto.ProductBatchUpdateRequest;
+import com.example.product.api.produc.presentation.dto.ProductRequest;
+import com.example.product.api.produc.usecase.BatchProducts;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Tag(name = "Product batch", description = "Bulk product writes, one result per entry")
+public class ProductBatchController {
+
+    private final BatchProducts batchProducts;
+    private final Validator validator;
+
+    @Operation(summary = "Create products in bulk",
+            description = "Accepts a JSON array or NDJSON stream of products and returns one result per entry")
+    @ApiResponse(responseCode = "200", description = "Entries processed; see the status of each result")
+    @PostMapping(value = "/products:batchCreate",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchItemResult> batchCreate(@RequestBody Flux<ProductRequest> requests) {
+        return batchProducts.create(requests.map(request -> toItem(request, valid -> Product.builder()
+                .name(valid.getName())
+                .description(valid.getDescription())
+                .price(valid.getPrice())
+                .quantity(valid.getQuantity())
+                .build())));
+    }
+
+    @Operation(summary = "Update products in bulk",
+            description = "Accepts a JSON array or NDJSON stream of products with ids and returns one result per entry")
+    @ApiResponse(responseCode = "200", description = "Entries processed; see the status of each result")
+    @PostMapping(value = "/products:batchUpdate",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchItemResult> batchUpdate(@RequestBody Flux<ProductBatchUpdateRequest> requests) {
+        return batchProducts.update(requests.map(request -> toItem(request, valid -> Product.builder()
+                .id(valid.getId())
+                .name(valid.getName())
+                .description(valid.getDescription())
+                .price(valid.getPrice())
+                .quantity(valid.getQuantity())
+                .build())));
+    }
+
+    @Operation(summary = "Delete products in bulk",
+            description = "Accepts a JSON array or NDJSON stream of {\"id\": ...} entries and returns one result per entry")
+    @ApiResponse(responseCode = "200", description = "Entries processed; see the status of each result")
+    @PostMapping(value = "/products:batchDelete",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<BatchItemResult> batchDelete(@RequestBody Flux<ProductBatchDeleteRequest> requests) {
+        return batchProducts.delete(requests.map(request -> toItem(request, valid -> Product.builder()
+                .id(valid.getId())
+                .build())));
+    }
+
+    private <T> BatchItem toItem(T request, Function<T, Product> toProduct) {
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            return BatchItem.rejected(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return BatchItem.of(toProduct.apply(request));
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.usecase.WatchProductChanges;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+@Tag(name = "Product changes", description = "Live feed of product creations, updates and deletions")
+public class ProductChangeController {
+
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+
+    private final WatchProductChanges watchProductChanges;
+
+    @Operation(summary = "Watch product changes as server-sent events",
+            description = "Streams every product change as it happens. Each event carries the change sequence as "
+                    + "its id, so a reconnecting EventSource resumes after its Last-Event-ID for as long as the "
+                    + "server still retains those changes. Without Last-Event-ID only new changes are sent.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened"),
+            @ApiResponse(responseCode = "400", description = "Invalid Last-Event-ID")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ProductChange>> streamChanges(
+            @Parameter(description = "Sequence of the last change received")
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) Long lastEventId,
+            @Parameter(description = "Sequence of the last change received, for clients that cannot set headers")
+            @RequestParam(required = false) Long after) {
+        return watchProductChanges.execute(lastEventId != null ? lastEventId : after)
+                .map(change -> ServerSentEvent.builder(change)
+                        .id(Long.toString(change.sequence()))
+                        .event(change.type().name())
+                        .build());
+    }
+
+    @Operation(summary = "Watch product changes as NDJSON",
+            description = "Streams every product change as one JSON document per line, resuming after the given "
+                    + "sequence when it is still retained")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened"),
+            @ApiResponse(responseCode = "400", description = "Invalid sequence")
+    })
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ProductChange> changes(
+            @Parameter(description = "Sequence of the last change received")
+            @RequestParam(required = false) Long after) {
+        return watchProductChanges.execute(after);
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.product.api.produc.presentation.controller;
 
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
 import com.example.product.api.produc.presentation.dto.ProductPatchRequest;
 import com.example.product.api.produc.presentation.dto.ProductRequest;
 import com.example.product.api.produc.usecase.*;
@@ -12,13 +14,26 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/products")
 @RequiredArgsConstructor
@@ -31,25 +46,142 @@ public class ProductController {
     private final UpdateProduct updateProduct;
     private final PatchProduct patchProduct;
     private final DeleteProduct deleteProduct;
+    private final SearchProducts searchProducts;
+    private final GetProductStats getProductStats;
+    private final ProductJsonCache productJsonCache;
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    private static final List<MediaType> LISTING_ENCODINGS = List.of(MediaType.APPLICATION_JSON,
+            MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM, APPLICATION_SMILE);
+
+    @Operation(summary = "Get all products",
+            description = "Retrieve all products, or one page of products ordered by id when limit or cursor is given. "
+                    + "The cursor of the next page is returned in the X-Next-Cursor header. "
+                    + "Price and quantity bounds return the matching products ordered by price, or by quantity "
+                    + "when only maxQuantity is given; they cannot be combined with pagination. "
+                    + "Request application/x-ndjson or text/event-stream to stream products as they are read, "
+                    + "paced by the client, instead of receiving one JSON array. "
+                    + "Request application/x-jackson-smile for a compact binary array.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved products"),
+            @ApiResponse(responseCode = "304", description = "Catalog unchanged since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit, cursor or filter")
+    })
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.TEXT_EVENT_STREAM_VALUE, APPLICATION_SMILE_VALUE})
+    public Mono<ResponseEntity<Flux<Product>>> getAllProducts(
+            @Parameter(description = "Maximum number of products to return (1-1000)")
+            @RequestParam(required = false) @Min(1) @Max(1000) Integer limit,
+            @Parameter(description = "Opaque cursor returned by the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Minimum price, inclusive")
+            @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price, inclusive")
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Maximum quantity in stock, inclusive")
+            @RequestParam(required = false) Integer maxQuantity,
+            ServerHttpRequest request) {
+        ProductFilter filter = new ProductFilter(minPrice, maxPrice, maxQuantity);
+        boolean paged = limit != null || cursor != null;
+        if (!filter.isEmpty() && paged) {
+            return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Price and quantity filters cannot be combined with limit or cursor"));
+        }
+        // The catalog version is read before the products, so the ETag never claims newer contents than the
+        // body holds. A matching If-None-Match is answered with 304 before the body is ever subscribed.
+        MediaType encoding = listingEncoding(request.getHeaders().getAccept());
+        return getAllProducts.catalogVersion().flatMap(catalogVersion -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(ETags.ofCatalog(catalogVersion, encoding))
+                    .varyBy(HttpHeaders.ACCEPT);
+            if (!filter.isEmpty()) {
+                return Mono.just(response.body(getAllProducts.execute(filter)));
+            }
+            if (!paged) {
+                return Mono.just(response.body(getAllProducts.execute()));
+            }
+            return getAllProducts.execute(cursor, limit == null ? DEFAULT_PAGE_SIZE : limit)
+                    .map(page -> {
+                        if (page.nextCursor() != null) {
+                            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+                        }
+                        return response.body(Flux.fromIterable(page.items()));
+                    });
+        });
+    }
 
-    @Operation(summary = "Get all products", description = "Retrieve a list of all products in the inventory")
-    @ApiResponse(responseCode = "200", description = "Successfully retrieved all products")
-    @GetMapping
-    public Flux<Product> getAllProducts() {
-        return getAllProducts.execute();
+    @Operation(summary = "Search products",
+            description = "Full-text search over product names and descriptions, best match first")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully searched products"),
+            @ApiResponse(responseCode = "400", description = "Missing query or invalid limit")
+    })
+    @GetMapping("/search")
+    public Flux<Product> searchProducts(
+            @Parameter(description = "Search terms", required = true) @RequestParam @NotBlank String q,
+            @Parameter(description = "Maximum number of results (1-100)")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return searchProducts.execute(q, limit);
+    }
+
+    @Operation(summary = "Get catalog statistics",
+            description = "Product count, out-of-stock count, units and value in stock, and lowest, highest and "
+                    + "average price over the whole catalog. The in-memory stores keep these up to date on every "
+                    + "write, so reading them costs the same whatever the size of the catalog.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully computed statistics",
+                    content = @Content(schema = @Schema(implementation = ProductStats.class)))
+    })
+    @GetMapping(value = "/stats", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductStats> getProductStats() {
+        return getProductStats.execute();
     }
 
-    @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its unique identifier")
+    @Operation(summary = "Get product by ID", description = "Retrieve a specific product by its unique identifier. "
+            + "Request application/x-jackson-smile for a compact binary encoding.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Product found",
                     content = @Content(schema = @Schema(implementation = Product.class))),
+            @ApiResponse(responseCode = "304", description = "Product unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Product not found")
     })
-    @GetMapping("/{id}")
-    public Mono<ResponseEntity<Product>> getProductById(
-            @Parameter(description = "Product ID", required = true) @PathVariable String id) {
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getProductById(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            ServerWebExchange exchange) {
+        // Most reads are of products that have not changed since they were last read, so the JSON is kept per
+        // product version and written as it is; the byte array is wrapped into the response buffer, not copied.
+        // A matching If-None-Match is answered with 304 before the JSON is looked up or serialized.
+        return getProductById.execute(id)
+                .map(product -> {
+                    String eTag = ETags.of(product.getVersion());
+                    if (exchange.checkNotModified(eTag)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                                .eTag(eTag)
+                                .varyBy(HttpHeaders.ACCEPT)
+                                .<byte[]>build();
+                    }
+                    return ResponseEntity.ok()
+                            .eTag(eTag)
+                            .varyBy(HttpHeaders.ACCEPT)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .body(productJsonCache.json(product));
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // Binary reads are encoded per request; the JSON cache serves the bulk of reads, which are JSON.
+    @Operation(hidden = true)
+    @GetMapping(value = "/{id}", produces = APPLICATION_SMILE_VALUE)
+    public Mono<ResponseEntity<Product>> getProductBySmile(@PathVariable String id) {
         return getProductById.execute(id)
-                .map(ResponseEntity::ok)
+                .map(product -> ResponseEntity.ok()
+                        .eTag(ETags.of(product.getVersion(), APPLICATION_SMILE))
+                        .varyBy(HttpHeaders.ACCEPT)
+                        .body(product))
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -76,20 +208,24 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Product updated successfully",
                     content = @Content(schema = @Schema(implementation = Product.class))),
             @ApiResponse(responseCode = "404", description = "Product not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid input")
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current product version")
     })
     @PutMapping("/{id}")
     public Mono<ResponseEntity<Product>> updateProduct(
             @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Parameter(description = "ETag of the product version this update applies to")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductRequest request) {
         Product product = Product.builder()
                 .name(request.getName())
                 .description(request.getDescription())
                 .price(request.getPrice())
                 .quantity(request.getQuantity())
+                .version(ETags.requiredVersion(ifMatch))
                 .build();
         return updateProduct.execute(id, product)
-                .map(ResponseEntity::ok)
+                .map(ProductController::withETag)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -98,20 +234,24 @@ public class ProductController {
             @ApiResponse(responseCode = "200", description = "Product updated successfully",
                     content = @Content(schema = @Schema(implementation = Product.class))),
             @ApiResponse(responseCode = "404", description = "Product not found"),
-            @ApiResponse(responseCode = "400", description = "Invalid input")
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "412", description = "If-Match does not match the current product version")
     })
     @PatchMapping("/{id}")
     public Mono<ResponseEntity<Product>> patchProduct(
             @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Parameter(description = "ETag of the product version this patch applies to")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody ProductPatchRequest request) {
         Product partialProduct = Product.builder()
                 .name(request.getName())
                 .description(request.getDescription())
                 .price(request.getPrice())
                 .quantity(request.getQuantity())
+                .version(ETags.requiredVersion(ifMatch))
                 .build();
         return patchProduct.execute(id, partialProduct)
-                .map(ResponseEntity::ok)
+                .map(ProductController::withETag)
                 .defaultIfEmpty(ResponseEntity.notFound().build());
     }
 
@@ -126,4 +266,28 @@ public class ProductController {
         return deleteProduct.execute(id)
                 .then(Mono.just(ResponseEntity.noContent().<Void>build()));
     }
+
+    /**
+     * Returns the encoding the listing is written in: the first of its encodings the most specific acceptable
+     * type allows, as content negotiation picks it.
+     */
+    static MediaType listingEncoding(List<MediaType> accept) {
+        List<MediaType> acceptable = new ArrayList<>(accept);
+        MimeTypeUtils.sortBySpecificity(acceptable);
+        for (MediaType type : acceptable) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            for (MediaType encoding : LISTING_ENCODINGS) {
+                if (type.isCompatibleWith(encoding)) {
+                    return encoding;
+                }
+            }
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    private static ResponseEntity<Product> withETag(Product product) {
+        return ResponseEntity.ok().eTag(ETags.of(product.getVersion())).body(product);
+    }
 }
@@ -0,0 +1,106 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.StockHold;
+import com.example.product.api.produc.presentation.dto.StockHoldRequest;
+import com.example.product.api.produc.usecase.HoldStock;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+@Tag(name = "Stock holds", description = "Units of a product set aside until confirmed, cancelled or expired")
+public class ProductHoldController {
+
+    private final HoldStock holdStock;
+
+    @Operation(summary = "Hold stock",
+            description = "Takes units out of the stock until the hold is confirmed, cancelled or expires; "
+                    + "an expired hold puts its units back")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Stock held",
+                    content = @Content(schema = @Schema(implementation = StockHold.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Not enough units in stock; nothing was held")
+    })
+    @PostMapping("/{id}/holds")
+    public Mono<ResponseEntity<StockHold>> place(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Valid @RequestBody StockHoldRequest request) {
+        return holdStock.place(id, request.getQuantity(), request.ttl())
+                .map(hold -> ResponseEntity.created(location(hold)).body(hold))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Get a hold", description = "Returns a hold while it is outstanding")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold found",
+                    content = @Content(schema = @Schema(implementation = StockHold.class))),
+            @ApiResponse(responseCode = "404", description = "No such outstanding hold")
+    })
+    @GetMapping("/{id}/holds/{holdId}")
+    public Mono<ResponseEntity<StockHold>> get(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Parameter(description = "Hold ID", required = true) @PathVariable String holdId) {
+        return found(holdStock.get(id, holdId));
+    }
+
+    @Operation(summary = "Confirm a hold", description = "Ends a hold for good; its units stay out of the stock")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold confirmed",
+                    content = @Content(schema = @Schema(implementation = StockHold.class))),
+            @ApiResponse(responseCode = "404", description = "No such outstanding hold")
+    })
+    @PostMapping("/{id}/holds/{holdId}:confirm")
+    public Mono<ResponseEntity<StockHold>> confirm(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Parameter(description = "Hold ID", required = true) @PathVariable String holdId) {
+        return found(holdStock.confirm(id, holdId));
+    }
+
+    @Operation(summary = "Cancel a hold", description = "Ends a hold and puts its units back into the stock")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Hold cancelled"),
+            @ApiResponse(responseCode = "404", description = "No such outstanding hold")
+    })
+    @DeleteMapping("/{id}/holds/{holdId}")
+    public Mono<ResponseEntity<Void>> cancel(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Parameter(description = "Hold ID", required = true) @PathVariable String holdId) {
+        return holdStock.cancel(id, holdId)
+                .map(hold -> ResponseEntity.noContent().<Void>build())
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    private static URI location(StockHold hold) {
+        return UriComponentsBuilder.fromPath("/api/v1/products/{id}/holds/{holdId}")
+                .buildAndExpand(hold.productId(), hold.id())
+                .encode()
+                .toUri();
+    }
+
+    private static Mono<ResponseEntity<StockHold>> found(Mono<StockHold> hold) {
+        return hold.map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.UncheckedIOException;
+
+/**
+ * Keeps the UTF-8 JSON of recently read products, so that reading an unchanged product again writes the same bytes
+ * instead of running Jackson on it. Entries are keyed by id and checked against the product version, which every
+ * write bumps, so a product is serialized again exactly once after each change, whichever store it comes from.
+ */
+@Component
+class ProductJsonCache {
+
+    // Approximate heap taken by an entry besides its JSON bytes.
+    static final int ENTRY_OVERHEAD = 64;
+
+    private final ObjectWriter writer;
+    private final Cache<String, SerializedProduct> products;
+
+    ProductJsonCache(ObjectMapper objectMapper,
+                     @Value("${product.json-cache.maximum-size:32MB}") DataSize maximumSize) {
+        this.writer = objectMapper.writerFor(Product.class);
+        this.products = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((String id, SerializedProduct serialized) ->
+                        ENTRY_OVERHEAD + 2 * id.length() + serialized.json().length)
+                .build();
+    }
+
+    /**
+     * Returns the JSON of the product, serializing it only when its version has not been serialized before. A
+     * product without a version, which no store hands out, is serialized every time and never cached.
+     */
+    byte[] json(Product product) {
+        Long version = product.getVersion();
+        if (version == null) {
+            return serialize(product);
+        }
+        SerializedProduct cached = products.getIfPresent(product.getId());
+        if (cached != null && cached.version() == version) {
+            return cached.json();
+        }
+        byte[] json = serialize(product);
+        products.put(product.getId(), new SerializedProduct(version, json));
+        return json;
+    }
+
+    private byte[] serialize(Product product) {
+        try {
+            return writer.writeValueAsBytes(product);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Cannot serialize product " + product.getId(), e);
+        }
+    }
+
+    // The bytes are handed out as they are and must never be modified.
+    private record SerializedProduct(long version, byte[] json) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.presentation.dto.StockAdjustRequest;
+import com.example.product.api.produc.presentation.dto.StockChangeRequest;
+import com.example.product.api.produc.presentation.dto.StockLevel;
+import com.example.product.api.produc.usecase.AdjustStock;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+@Tag(name = "Product stock", description = "Atomic changes to the quantity in stock")
+public class ProductStockController {
+
+    private final AdjustStock adjustStock;
+
+    @Operation(summary = "Reserve stock",
+            description = "Removes units from the stock in one atomic step, unless fewer units are in stock")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock reserved",
+                    content = @Content(schema = @Schema(implementation = StockLevel.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "Not enough units in stock; nothing was reserved")
+    })
+    @PostMapping("/{id}/stock:reserve")
+    public Mono<ResponseEntity<StockLevel>> reserve(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Valid @RequestBody StockChangeRequest request) {
+        return respond(adjustStock.reserve(id, request.getQuantity()));
+    }
+
+    @Operation(summary = "Release stock", description = "Puts reserved units back into the stock in one atomic step")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock released",
+                    content = @Content(schema = @Schema(implementation = StockLevel.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409",
+                    description = "The stock would exceed the largest quantity (2147483647); nothing was released")
+    })
+    @PostMapping("/{id}/stock:release")
+    public Mono<ResponseEntity<StockLevel>> release(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Valid @RequestBody StockChangeRequest request) {
+        return respond(adjustStock.release(id, request.getQuantity()));
+    }
+
+    @Operation(summary = "Adjust stock",
+            description = "Adds units to the stock, or removes them when the delta is negative, in one atomic step")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stock adjusted",
+                    content = @Content(schema = @Schema(implementation = StockLevel.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Product not found"),
+            @ApiResponse(responseCode = "409", description = "The stock would drop below zero, or exceed the largest "
+                    + "quantity (2147483647); nothing was changed")
+    })
+    @PostMapping("/{id}/stock:adjust")
+    public Mono<ResponseEntity<StockLevel>> adjust(
+            @Parameter(description = "Product ID", required = true) @PathVariable String id,
+            @Valid @RequestBody StockAdjustRequest request) {
+        return respond(adjustStock.adjust(id, request.getDelta()));
+    }
+
+    private static Mono<ResponseEntity<StockLevel>> respond(Mono<Product> adjusted) {
+        return adjusted.map(product -> ResponseEntity.ok()
+                        .eTag(ETags.of(product.getVersion()))
+                        .body(StockLevel.of(product)))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
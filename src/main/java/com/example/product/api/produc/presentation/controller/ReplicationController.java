@@ -0,0 +1,63 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.infrastructure.replication.ReplicationEntry;
+import com.example.product.api.produc.infrastructure.replication.ReplicationLog;
+import com.example.product.api.produc.infrastructure.replication.ReplicationNode;
+import com.example.product.api.produc.infrastructure.replication.ReplicationStatus;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/replication")
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${product.replication.role:none}'.matches('leader|follower')")
+@Tag(name = "Replication", description = "Streaming of the leader's writes to read-only followers")
+public class ReplicationController {
+
+    private final ReplicationNode node;
+    private final ObjectProvider<ReplicationLog> leader;
+
+    @Operation(summary = "Get the replication status",
+            description = "Tells whether this node leads or follows, how far it got in the leader's log and, for "
+                    + "a follower, whether it is connected and how far behind the leader it may be")
+    @ApiResponse(responseCode = "200", description = "Replication status")
+    @GetMapping("/status")
+    public ReplicationStatus status() {
+        return node.status();
+    }
+
+    @Operation(summary = "Stream the leader's writes",
+            description = "Streams every write made after the given sequence of the given log, one JSON entry per "
+                    + "line, followed by heartbeats while idle. Without a log, or when the writes are no longer "
+                    + "retained, a copy of every product comes first. Followers use this to replicate the leader.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream opened"),
+            @ApiResponse(responseCode = "404", description = "This node is not the leader")
+    })
+    @GetMapping(value = "/log", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ReplicationEntry> log(
+            @Parameter(description = "Id of the leader log the follower replicated so far")
+            @RequestParam(required = false) String log,
+            @Parameter(description = "Sequence of the last write the follower applied")
+            @RequestParam(defaultValue = "0") long after) {
+        ReplicationLog replicationLog = leader.getIfAvailable();
+        if (replicationLog == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "This node is not the leader"));
+        }
+        return replicationLog.stream(log, after);
+    }
+}
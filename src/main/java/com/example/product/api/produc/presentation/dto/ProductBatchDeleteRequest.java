@@ -0,0 +1,19 @@
+package com.example.product.api.produc.presentation.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Entry of a bulk delete")
+public class ProductBatchDeleteRequest {
+    @Schema(description = "Identifier of the product to delete", example = "1", required = true)
+    @NotBlank(message = "Product id is required")
+    private String id;
+}
@@ -1,5 +1,6 @@
 package com.example.product.api.produc.presentation.dto;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.Min;
@@ -16,6 +17,7 @@ import java.math.BigDecimal;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonPropertyOrder({"name", "description", "price", "quantity"})
 @Schema(description = "Request object for creating or updating a product")
 public class ProductRequest {
     @Schema(description = "Name of the product", example = "Wireless Headphones", required = true)
@@ -0,0 +1,21 @@
+package com.example.product.api.produc.presentation.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for adding to or removing from the stock of a product")
+public class StockAdjustRequest {
+    @Schema(description = "Units to add to the stock, or to remove when negative", example = "-5", required = true)
+    @NotNull(message = "Delta is required")
+    @Min(value = -Integer.MAX_VALUE, message = "Delta must be greater than or equal to -2147483647")
+    private Integer delta;
+}
@@ -0,0 +1,35 @@
+package com.example.product.api.produc.presentation.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Request object for holding stock of a product for a limited time")
+public class StockHoldRequest {
+    static final long DEFAULT_TTL_SECONDS = 900;
+
+    @Schema(description = "Number of units to hold", example = "2", required = true)
+    @NotNull(message = "Quantity is required")
+    @Min(value = 1, message = "Quantity must be at least 1")
+    private Integer quantity;
+
+    @Schema(description = "Seconds until the units go back into stock, 15 minutes when omitted", example = "900")
+    @Min(value = 1, message = "The hold must last at least 1 second")
+    @Max(value = 86400, message = "The hold must not last more than a day")
+    private Long ttlSeconds;
+
+    public Duration ttl() {
+        return Duration.ofSeconds(ttlSeconds != null ? ttlSeconds : DEFAULT_TTL_SECONDS);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.product.api.produc.presentation.dto;
+
+import com.example.product.api.produc.domain.model.Product;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Quantity in stock of a product right after a stock change")
+public class StockLevel {
+    @Schema(description = "Identifier of the product", example = "1")
+    private String id;
+
+    @Schema(description = "Quantity now in stock", example = "13")
+    private Integer quantity;
+
+    @Schema(description = "Version of the product after the change", example = "4")
+    private Long version;
+
+    public static StockLevel of(Product product) {
+        return new StockLevel(product.getId(), product.getQuantity(), product.getVersion());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Changes the quantity in stock of a product in a single atomic write, instead of a read followed by an update
+ * that could lose a concurrent change.
+ */
+@Service
+@RequiredArgsConstructor
+public class AdjustStock {
+    private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
+
+    public Mono<Product> reserve(String id, int quantity) {
+        return adjust(id, -quantity);
+    }
+
+    public Mono<Product> release(String id, int quantity) {
+        return adjust(id, quantity);
+    }
+
+    public Mono<Product> adjust(String id, int delta) {
+        return productRepository.adjustQuantity(id, delta)
+                .doOnNext(adjusted -> productChangeFeed.publish(ProductChangeType.UPDATED, adjusted));
+    }
+}
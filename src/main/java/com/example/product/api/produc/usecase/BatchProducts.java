@@ -0,0 +1,148 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.BatchItem;
+import com.example.product.api.produc.domain.model.BatchItemResult;
+import com.example.product.api.produc.domain.model.BatchItemStatus;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.util.function.Tuple2;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Applies bulk writes in chunks, with a bounded number of chunks in flight, and reports one result per entry
+ * in request order. Entries repeating a product are written after the earlier entries of that product, and each
+ * gets the outcome of its own write. A chunk repeating products of earlier chunks waits for those chunks to be
+ * written, so that repeated products are applied in request order across chunks too.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchProducts {
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_CHUNKS_IN_FLIGHT = 4;
+
+    private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
+
+    public Flux<BatchItemResult> create(Flux<BatchItem> items) {
+        return apply(items.map(item -> item.isRejected() ? item
+                        : BatchItem.of(item.product().toBuilder().id(UUID.randomUUID().toString()).build())),
+                products -> productRepository.saveAll(Flux.fromIterable(products))
+                        .collectMap(Product::getId, Function.identity(), LinkedHashMap::new),
+                BatchItemStatus.CREATED);
+    }
+
+    public Flux<BatchItemResult> update(Flux<BatchItem> items) {
+        return apply(items,
+                products -> productRepository.updateAll(Flux.fromIterable(products))
+                        .collectMap(Product::getId, Function.identity(), LinkedHashMap::new),
+                BatchItemStatus.UPDATED);
+    }
+
+    public Flux<BatchItemResult> delete(Flux<BatchItem> items) {
+        return apply(items,
+                products -> productRepository.deleteAll(Flux.fromIterable(products).map(Product::getId))
+                        .collectMap(Function.identity(), id -> Product.builder().id(id).build(), LinkedHashMap::new),
+                BatchItemStatus.DELETED);
+    }
+
+    private Flux<BatchItemResult> apply(Flux<BatchItem> items,
+                                        Function<List<Product>, Mono<Map<String, Product>>> write,
+                                        BatchItemStatus applied) {
+        return Flux.defer(() -> {
+            Map<String, Mono<Void>> lastWrites = new HashMap<>();
+            return items.index()
+                    .buffer(CHUNK_SIZE)
+                    .flatMapSequential(chunk -> afterEarlierWrites(chunk, lastWrites, Flux.fromIterable(rounds(chunk))
+                                    .concatMap(round -> write.apply(round.stream()
+                                                    .map(Tuple2::getT2)
+                                                    .filter(item -> !item.isRejected())
+                                                    .map(BatchItem::product)
+                                                    .toList())
+                                            .doOnNext(written -> written.values().forEach(product -> productChangeFeed
+                                                    .publish(ProductChangeType.valueOf(applied.name()), product)))
+                                            .flatMapIterable(written -> round.stream()
+                                                    .map(entry -> toResult(entry.getT1(), entry.getT2(), written,
+                                                            applied))
+                                                    .toList()))
+                                    .collectSortedList(Comparator.comparingLong(BatchItemResult::index))),
+                            MAX_CHUNKS_IN_FLIGHT)
+                    .flatMapIterable(Function.identity());
+        });
+    }
+
+    /**
+     * Holds the write of a chunk back until the earlier chunks sharing a product with it are written, and records
+     * the chunk as the last write of its products. Chunks are mapped one at a time and in request order, and the
+     * chunks waited for are already in flight, so chunks without products in common still run concurrently.
+     */
+    private static Mono<List<BatchItemResult>> afterEarlierWrites(List<Tuple2<Long, BatchItem>> chunk,
+                                                                  Map<String, Mono<Void>> lastWrites,
+                                                                  Mono<List<BatchItemResult>> write) {
+        Set<String> ids = new HashSet<>();
+        chunk.stream()
+                .map(Tuple2::getT2)
+                .filter(item -> !item.isRejected() && item.product().getId() != null)
+                .forEach(item -> ids.add(item.product().getId()));
+        List<Mono<Void>> earlier = ids.stream()
+                .map(lastWrites::get)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Sinks.Empty<Void> written = Sinks.empty();
+        Mono<Void> done = written.asMono();
+        ids.forEach(id -> lastWrites.put(id, done));
+        return Mono.when(earlier)
+                .then(write)
+                .doFinally(signal -> written.tryEmitEmpty());
+    }
+
+    /**
+     * Splits a chunk into rounds in which every product appears at most once, the n-th entry of a product going to
+     * the n-th round, so that each written product maps back to a single entry. Rounds are written one after the
+     * other, which applies the entries of one product in request order.
+     */
+    private static List<List<Tuple2<Long, BatchItem>>> rounds(List<Tuple2<Long, BatchItem>> chunk) {
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<List<Tuple2<Long, BatchItem>>> rounds = new ArrayList<>();
+        for (Tuple2<Long, BatchItem> entry : chunk) {
+            BatchItem item = entry.getT2();
+            int round = item.isRejected() ? 0 : occurrences.merge(item.product().getId(), 1, Integer::sum) - 1;
+            if (round == rounds.size()) {
+                rounds.add(new ArrayList<>());
+            }
+            rounds.get(round).add(entry);
+        }
+        return rounds;
+    }
+
+    private static BatchItemResult toResult(long index, BatchItem item, Map<String, Product> written,
+                                            BatchItemStatus applied) {
+        if (item.isRejected()) {
+            return new BatchItemResult(index, null, BatchItemStatus.INVALID, null, item.rejection());
+        }
+        String id = item.product().getId();
+        if (!written.containsKey(id)) {
+            return new BatchItemResult(index, id, BatchItemStatus.NOT_FOUND, null, "Product not found");
+        }
+        Product product = applied == BatchItemStatus.DELETED ? null : written.get(id);
+        return new BatchItemResult(index, id, applied, product, null);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
 import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,9 +14,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CreateProduct {
     private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
 
     public Mono<Product> execute(Product product) {
         product.setId(UUID.randomUUID().toString());
-        return productRepository.save(product);
+        return productRepository.save(product)
+                .doOnNext(created -> productChangeFeed.publish(ProductChangeType.CREATED, created));
     }
 }
@@ -1,16 +1,24 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Service
 @RequiredArgsConstructor
 public class DeleteProduct {
     private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
 
     public Mono<Void> execute(String id) {
-        return productRepository.deleteById(id);
+        return productRepository.deleteAll(Flux.just(id))
+                .doOnNext(deleted -> productChangeFeed.publish(ProductChangeType.DELETED,
+                        Product.builder().id(deleted).build()))
+                .then();
     }
 }
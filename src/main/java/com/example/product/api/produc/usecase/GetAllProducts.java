@@ -1,17 +1,61 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.exception.InvalidCursorException;
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductPage;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class GetAllProducts {
     private final ProductRepository productRepository;
 
+    public Mono<Long> catalogVersion() {
+        return productRepository.catalogVersion();
+    }
+
     public Flux<Product> execute() {
         return productRepository.findAll();
     }
+
+    public Flux<Product> execute(ProductFilter filter) {
+        return productRepository.findByFilter(filter);
+    }
+
+    public Mono<ProductPage> execute(String cursor, int limit) {
+        return Mono.defer(() -> productRepository.findPage(decodeCursor(cursor), limit + 1).collectList())
+                .map(products -> toPage(products, limit));
+    }
+
+    private static ProductPage toPage(List<Product> products, int limit) {
+        if (products.size() <= limit) {
+            return new ProductPage(products, null);
+        }
+        List<Product> items = products.subList(0, limit);
+        return new ProductPage(items, encodeCursor(items.get(limit - 1).getId()));
+    }
+
+    static String encodeCursor(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException(cursor);
+        }
+    }
 }
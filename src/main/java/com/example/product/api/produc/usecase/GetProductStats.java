@@ -0,0 +1,17 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class GetProductStats {
+    private final ProductRepository productRepository;
+
+    public Mono<ProductStats> execute() {
+        return productRepository.stats();
+    }
+}
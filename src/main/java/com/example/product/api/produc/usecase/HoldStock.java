@@ -0,0 +1,92 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.StockHold;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.domain.repository.StockHoldRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Sets units of a product aside for a limited time. Placing a hold takes the units out of the product's quantity
+ * right away, so the quantity always tells how many units are still available; confirming the hold keeps them
+ * out for good, while cancelling it, letting it expire or shutting down puts them back.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HoldStock {
+    private final ProductRepository productRepository;
+    private final StockHoldRepository stockHoldRepository;
+    private final ProductChangeFeed productChangeFeed;
+    private Disposable expiry;
+
+    @PostConstruct
+    public void releaseExpiredHolds() {
+        expiry = stockHoldRepository.expired()
+                .concatMap(hold -> release(hold)
+                        .onErrorResume(error -> {
+                            log.warn("Cannot release the {} units of expired hold {} of product {}",
+                                    hold.quantity(), hold.id(), hold.productId(), error);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    /**
+     * Puts the units of every outstanding hold back, since holds do not outlive the process.
+     */
+    @PreDestroy
+    public void releaseAllHolds() {
+        expiry.dispose();
+        stockHoldRepository.removeAll()
+                .concatMap(hold -> release(hold).onErrorResume(error -> Mono.empty()))
+                .then()
+                .block();
+    }
+
+    public Mono<StockHold> place(String productId, int quantity, Duration ttl) {
+        return adjust(productId, -quantity)
+                .flatMap(product -> stockHoldRepository.create(productId, quantity, ttl));
+    }
+
+    public Mono<StockHold> get(String productId, String holdId) {
+        return stockHoldRepository.findById(holdId)
+                .filter(hold -> hold.productId().equals(productId));
+    }
+
+    /**
+     * Ends a hold for good: its units stay out of stock.
+     */
+    public Mono<StockHold> confirm(String productId, String holdId) {
+        return get(productId, holdId)
+                .flatMap(hold -> stockHoldRepository.remove(hold.id()));
+    }
+
+    /**
+     * Ends a hold and puts its units back into stock.
+     */
+    public Mono<StockHold> cancel(String productId, String holdId) {
+        return get(productId, holdId)
+                .flatMap(hold -> stockHoldRepository.remove(hold.id()))
+                .flatMap(hold -> release(hold).thenReturn(hold));
+    }
+
+    private Mono<Product> release(StockHold hold) {
+        return adjust(hold.productId(), hold.quantity());
+    }
+
+    private Mono<Product> adjust(String productId, int delta) {
+        return productRepository.adjustQuantity(productId, delta)
+                .doOnNext(adjusted -> productChangeFeed.publish(ProductChangeType.UPDATED, adjusted));
+    }
+}
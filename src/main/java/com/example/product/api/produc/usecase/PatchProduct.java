@@ -1,32 +1,55 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
 import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
 
 @Service
 @RequiredArgsConstructor
 public class PatchProduct {
+    static final int MAX_CONFLICT_RETRIES = 16;
+
     private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
 
+    /**
+     * Applies the non-null fields of {@code partialProduct}. When it carries a version the patch is only
+     * applied to that version; otherwise the patch is re-applied to the latest version until it wins the race.
+     */
     public Mono<Product> execute(String id, Product partialProduct) {
-        return productRepository.findById(id)
-                .flatMap(existingProduct -> {
-                    if (partialProduct.getName() != null) {
-                        existingProduct.setName(partialProduct.getName());
-                    }
-                    if (partialProduct.getDescription() != null) {
-                        existingProduct.setDescription(partialProduct.getDescription());
-                    }
-                    if (partialProduct.getPrice() != null) {
-                        existingProduct.setPrice(partialProduct.getPrice());
-                    }
-                    if (partialProduct.getQuantity() != null) {
-                        existingProduct.setQuantity(partialProduct.getQuantity());
-                    }
-                    return productRepository.update(id, existingProduct);
-                });
+        Mono<Product> patch = Mono.defer(() -> productRepository.findById(id))
+                .flatMap(existingProduct -> productRepository.update(id, merge(existingProduct, partialProduct)));
+        if (partialProduct.getVersion() == null) {
+            patch = patch.retryWhen(Retry.max(MAX_CONFLICT_RETRIES)
+                    .filter(ProductVersionConflictException.class::isInstance)
+                    .onRetryExhaustedThrow((spec, signal) -> signal.failure()));
+        }
+        return patch.doOnNext(patched -> productChangeFeed.publish(ProductChangeType.PATCHED, patched));
+    }
+
+    private static Product merge(Product existingProduct, Product partialProduct) {
+        Product.ProductBuilder patched = existingProduct.toBuilder();
+        if (partialProduct.getName() != null) {
+            patched.name(partialProduct.getName());
+        }
+        if (partialProduct.getDescription() != null) {
+            patched.description(partialProduct.getDescription());
+        }
+        if (partialProduct.getPrice() != null) {
+            patched.price(partialProduct.getPrice());
+        }
+        if (partialProduct.getQuantity() != null) {
+            patched.quantity(partialProduct.getQuantity());
+        }
+        if (partialProduct.getVersion() != null) {
+            patched.version(partialProduct.getVersion());
+        }
+        return patched.build();
     }
 }
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+@RequiredArgsConstructor
+public class SearchProducts {
+    private final ProductRepository productRepository;
+
+    public Flux<Product> execute(String query, int limit) {
+        return productRepository.search(query, limit);
+    }
+}
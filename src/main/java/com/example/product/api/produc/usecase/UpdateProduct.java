@@ -1,5 +1,7 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
 import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
@@ -10,8 +12,10 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class UpdateProduct {
     private final ProductRepository productRepository;
+    private final ProductChangeFeed productChangeFeed;
 
     public Mono<Product> execute(String id, Product product) {
-        return productRepository.update(id, product);
+        return productRepository.update(id, product)
+                .doOnNext(updated -> productChangeFeed.publish(ProductChangeType.UPDATED, updated));
     }
 }
@@ -0,0 +1,17 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+@RequiredArgsConstructor
+public class WatchProductChanges {
+    private final ProductChangeFeed productChangeFeed;
+
+    public Flux<ProductChange> execute(Long lastSequence) {
+        return productChangeFeed.changes(lastSequence);
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.product.api.produc;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Path;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
@@ -12,6 +17,14 @@ import static org.mockito.Mockito.mockStatic;
 @SpringBootTest
 class ProductApiApplicationTests {
 
+    @TempDir
+    static Path dataDirectory;
+
+    @DynamicPropertySource
+    static void persistenceProperties(DynamicPropertyRegistry registry) {
+        registry.add("product.persistence.directory", dataDirectory::toString);
+    }
+
     @Test
     void contextLoads() {
     }
@@ -0,0 +1,30 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClusterConfigTest {
+
+    private static void assertRejected(String self, List<String> nodes) {
+        ClusterProperties properties = new ClusterProperties(self, nodes, 160, Duration.ofSeconds(1),
+                Duration.ofSeconds(2));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> new ClusterConfig()
+                .clusterProductRepository(new NoOpProductJournal(), properties, WebClient.builder()));
+        assertTrue(error.getMessage().contains("product.cluster.self"));
+    }
+
+    @Test
+    void clusterProductRepository_shouldRequireThisNodeAmongTheNodes() {
+        assertRejected(null, List.of("http://a"));
+        assertRejected("http://a", null);
+        assertRejected("http://a", List.of("http://b"));
+    }
+}
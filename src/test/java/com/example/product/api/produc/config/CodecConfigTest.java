@@ -0,0 +1,77 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CodecConfigTest {
+
+    private final ObjectMapper smile = new SmileMapper();
+    private final CodecConfig.SmileArrayEncoder encoder = new CodecConfig.SmileArrayEncoder(smile);
+
+    private final Product laptop = Product.builder().id("1").name("Laptop").price(new BigDecimal("1299.99"))
+            .quantity(15).version(1L).build();
+    private final Product mouse = Product.builder().id("2").name("Mouse").price(new BigDecimal("29.99"))
+            .quantity(50).version(1L).build();
+
+    private byte[] encode(Publisher<?> values) {
+        return DataBufferUtils.join(encoder.encode(values, DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(Product.class), CodecConfig.SMILE_MIME_TYPES[0], Map.of()))
+                .map(buffer -> {
+                    byte[] bytes = new byte[buffer.readableByteCount()];
+                    buffer.read(bytes);
+                    return bytes;
+                })
+                .block();
+    }
+
+    @Test
+    void smileArrayEncoder_shouldWriteStreamAsOneSmileArray() throws IOException {
+        byte[] encoded = encode(Flux.just(laptop, mouse));
+
+        assertArrayEquals(new Product[]{laptop, mouse}, smile.readValue(encoded, Product[].class));
+    }
+
+    @Test
+    void smileArrayEncoder_shouldWriteSingleValueAsItself() throws IOException {
+        byte[] encoded = encode(Mono.just(laptop));
+
+        assertEquals(laptop, smile.readValue(encoded, Product.class));
+    }
+
+    @Test
+    void smileArrayEncoder_shouldWriteEmptyStreamAsEmptyArray() throws IOException {
+        assertArrayEquals(new Product[0], smile.readValue(encode(Flux.empty()), Product[].class));
+    }
+
+    @Test
+    void smileArrayEncoder_shouldWriteEachValueAsItArrives() {
+        Sinks.Many<Product> values = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(encoder.encode(values.asFlux(), DefaultDataBufferFactory.sharedInstance,
+                        ResolvableType.forClass(Product.class), CodecConfig.SMILE_MIME_TYPES[0], Map.of()))
+                .then(() -> values.tryEmitNext(laptop))
+                .expectNextCount(1)
+                .then(() -> values.tryEmitNext(mouse))
+                .expectNextCount(1)
+                .then(values::tryEmitComplete)
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MetricsConfigTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProductRepository repository = mock(ProductRepository.class);
+
+    private Gauge catalogSize() {
+        new MetricsConfig().productCatalogMetrics(repository).bindTo(registry);
+        return registry.get("product.catalog.size").gauge();
+    }
+
+    @Test
+    void catalogSize_shouldReportCountsThatCompleteRightAway() {
+        when(repository.count()).thenReturn(Mono.just(10L), Mono.just(12L));
+        Gauge catalogSize = catalogSize();
+
+        assertEquals(10, catalogSize.value());
+        assertEquals(12, catalogSize.value());
+    }
+
+    @Test
+    void catalogSize_shouldReportTheLatestCompletedCount() {
+        Sinks.One<Long> pending = Sinks.one();
+        when(repository.count()).thenReturn(Mono.just(10L), pending.asMono(), Mono.error(new IllegalStateException()));
+        Gauge catalogSize = catalogSize();
+
+        assertEquals(10, catalogSize.value());
+        assertEquals(10, catalogSize.value());
+        pending.tryEmitValue(11L);
+        assertEquals(11, catalogSize.value());
+    }
+
+    @Test
+    void catalogSize_shouldNotStartACountWhileTheLastOneIsRunning() {
+        Sinks.One<Long> pending = Sinks.one();
+        when(repository.count()).thenReturn(pending.asMono(), Mono.just(12L));
+        Gauge catalogSize = catalogSize();
+
+        assertEquals(0, catalogSize.value());
+        assertEquals(0, catalogSize.value());
+        verify(repository, times(1)).count();
+        pending.tryEmitValue(11L);
+        assertEquals(12, catalogSize.value());
+        verify(repository, times(2)).count();
+    }
+}
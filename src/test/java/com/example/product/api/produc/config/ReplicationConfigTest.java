@@ -0,0 +1,38 @@
+package com.example.product.api.produc.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ReplicationConfigTest {
+
+    @Test
+    void replicaJournal_shouldRequireTheLeaderUrl() {
+        ReplicationProperties properties = new ReplicationProperties(null, 16, 16, Duration.ofSeconds(1),
+                Duration.ofSeconds(1));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class,
+                () -> new ReplicationConfig("follower", "memory").replicaJournal(WebClient.builder(), properties));
+        assertEquals("Set product.replication.leader-url to the URL of the leader", error.getMessage());
+    }
+
+    @Test
+    void checkReplicatedStore_shouldOnlyAllowARoleOnTheMemoryAndColumnarStores() {
+        ReplicationConfig.checkReplicatedStore("none", "r2dbc");
+        ReplicationConfig.checkReplicatedStore("leader", "memory");
+        ReplicationConfig.checkReplicatedStore("follower", "columnar");
+
+        for (String store : List.of("r2dbc", "sharded", "cluster")) {
+            IllegalStateException error = assertThrows(IllegalStateException.class,
+                    () -> new ReplicationConfig("leader", store));
+            assertEquals("product.replication.role=leader needs the memory or columnar store, not "
+                    + "product.repository.type=" + store, error.getMessage());
+        }
+        assertThrows(IllegalStateException.class, () -> new ReplicationConfig("follower", "r2dbc"));
+    }
+}
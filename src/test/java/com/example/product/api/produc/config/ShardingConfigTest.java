@@ -0,0 +1,63 @@
+package com.example.product.api.produc.config;
+
+import com.example.product.api.produc.infrastructure.persistence.FsyncPolicy;
+import com.example.product.api.produc.infrastructure.repository.ShardedProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardingConfigTest {
+
+    private static PersistenceProperties persistence(boolean enabled, Path directory) {
+        return new PersistenceProperties(enabled, directory, FsyncPolicy.EVERY_BATCH, Duration.ofMillis(10),
+                Duration.ofHours(1));
+    }
+
+    @Test
+    void shardCount_shouldDefaultToOneShardPerProcessor() {
+        assertEquals(Runtime.getRuntime().availableProcessors(), new ShardingProperties(0).shardCount());
+        assertEquals(3, new ShardingProperties(3).shardCount());
+    }
+
+    @Test
+    void shardedProductRepository_shouldJournalEveryShardInItsOwnDirectory(@TempDir Path directory)
+            throws Exception {
+        ShardedProductRepository repository = new ShardingConfig()
+                .shardedProductRepository(persistence(true, directory), new ShardingProperties(2));
+        repository.init();
+        repository.close();
+
+        assertTrue(Files.isDirectory(directory.resolve("shard-0-of-2")));
+        assertTrue(Files.isDirectory(directory.resolve("shard-1-of-2")));
+    }
+
+    @Test
+    void shardedProductRepository_shouldRefuseDataWrittenByAnotherNumberOfShards(@TempDir Path directory)
+            throws Exception {
+        Files.createDirectories(directory.resolve("shard-0-of-2"));
+        Files.createDirectories(directory.resolve("other"));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> new ShardingConfig()
+                .shardedProductRepository(persistence(true, directory), new ShardingProperties(3)));
+        assertTrue(error.getMessage().contains("product.sharding.shards to 2"));
+        new ShardingConfig().shardedProductRepository(persistence(true, directory), new ShardingProperties(2))
+                .close();
+    }
+
+    @Test
+    void shardedProductRepository_shouldSkipTheCheckWithoutPersistence(@TempDir Path directory) throws Exception {
+        Files.createDirectories(directory.resolve("shard-0-of-2"));
+
+        new ShardingConfig().shardedProductRepository(persistence(false, directory), new ShardingProperties(3))
+                .close();
+        new ShardingConfig().shardedProductRepository(persistence(true, directory.resolve("missing")),
+                new ShardingProperties(1)).close();
+    }
+}
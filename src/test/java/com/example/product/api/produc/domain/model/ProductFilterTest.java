@@ -0,0 +1,43 @@
+package com.example.product.api.produc.domain.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductFilterTest {
+
+    private final Product product = Product.builder()
+            .id("1")
+            .price(new BigDecimal("50.00"))
+            .quantity(10)
+            .build();
+
+    @Test
+    void isEmpty_shouldBeTrueOnlyWithoutBounds() {
+        assertTrue(new ProductFilter(null, null, null).isEmpty());
+        assertFalse(new ProductFilter(BigDecimal.ONE, null, null).isEmpty());
+        assertFalse(new ProductFilter(null, BigDecimal.ONE, null).isEmpty());
+        assertFalse(new ProductFilter(null, null, 1).isEmpty());
+    }
+
+    @Test
+    void matches_shouldApplyInclusiveBounds() {
+        assertTrue(new ProductFilter(new BigDecimal("50"), new BigDecimal("50.0"), 10).matches(product));
+        assertFalse(new ProductFilter(new BigDecimal("50.01"), null, null).matches(product));
+        assertFalse(new ProductFilter(null, new BigDecimal("49.99"), null).matches(product));
+        assertFalse(new ProductFilter(null, null, 9).matches(product));
+    }
+
+    @Test
+    void matches_shouldRejectMissingAttributesWhenBounded() {
+        Product unpriced = Product.builder().id("2").build();
+
+        assertTrue(new ProductFilter(null, null, null).matches(unpriced));
+        assertFalse(new ProductFilter(BigDecimal.ONE, null, null).matches(unpriced));
+        assertFalse(new ProductFilter(null, BigDecimal.ONE, null).matches(unpriced));
+        assertFalse(new ProductFilter(null, null, 1).matches(unpriced));
+    }
+}
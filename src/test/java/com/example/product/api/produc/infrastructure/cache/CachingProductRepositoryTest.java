@@ -0,0 +1,309 @@
+package com.example.product.api.produc.infrastructure.cache;
+
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingProductRepositoryTest {
+
+    private static final Duration REFRESH = Duration.ofSeconds(30);
+    private static final Duration EXPIRY = Duration.ofMinutes(5);
+
+    @Mock
+    private ProductRepository delegate;
+
+    private final AtomicLong time = new AtomicLong();
+    private CachingProductRepository repository;
+    private Product laptop;
+    private Product mouse;
+
+    @BeforeEach
+    void setUp() {
+        repository = cache(1 << 20, 1 << 20);
+        laptop = Product.builder().id("1").name("Laptop").price(new BigDecimal("1299.99")).version(1L).build();
+        mouse = Product.builder().id("2").name("Mouse").price(new BigDecimal("29.99")).version(1L).build();
+    }
+
+    @Test
+    void findById_shouldLoadOnceAndServeFromCache() {
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop));
+
+        StepVerifier.create(repository.findById("1").then(repository.findById("1")))
+                .expectNext(laptop)
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("1"))
+                .expectNext(true)
+                .verifyComplete();
+
+        verify(delegate, times(1)).findById("1");
+        assertEquals(2, repository.productStats().hitCount());
+        assertEquals(1, repository.productStats().missCount());
+    }
+
+    @Test
+    void findById_shouldCountReadersWaitingForALoad() {
+        Sinks.One<Product> load = Sinks.one();
+        when(delegate.findById("1")).thenReturn(load.asMono());
+
+        StepVerifier.create(Flux.merge(repository.findById("1"), repository.findById("1"), repository.findById("1")))
+                .then(() -> load.tryEmitValue(laptop))
+                .expectNext(laptop, laptop, laptop)
+                .verifyComplete();
+        repository.findById("1").block();
+
+        verify(delegate, times(1)).findById("1");
+        assertEquals(2, repository.coalescedCount());
+    }
+
+    @Test
+    void findById_shouldNotCacheAbsentProducts() {
+        when(delegate.findById("missing")).thenReturn(Mono.empty(), Mono.just(laptop));
+
+        StepVerifier.create(repository.existsById("missing"))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(repository.findById("missing"))
+                .expectNext(laptop)
+                .verifyComplete();
+    }
+
+    @Test
+    void findById_shouldNotCacheFailedLoads() {
+        when(delegate.findById("1")).thenReturn(Mono.error(new IllegalStateException("down")), Mono.just(laptop));
+
+        StepVerifier.create(repository.findById("1"))
+                .expectErrorMessage("down")
+                .verify();
+        StepVerifier.create(repository.findById("1"))
+                .expectNext(laptop)
+                .verifyComplete();
+    }
+
+    @Test
+    void findById_shouldRefreshInBackgroundAndExpireOldEntries() {
+        Product renamed = laptop.toBuilder().name("Renamed").version(2L).build();
+        Product removed = laptop.toBuilder().name("Removed").version(3L).build();
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop), Mono.just(renamed), Mono.just(removed));
+
+        repository.findById("1").block();
+        time.addAndGet(REFRESH.plusSeconds(1).toNanos());
+
+        StepVerifier.create(repository.findById("1").map(Product::getName))
+                .expectNext("Renamed")
+                .verifyComplete();
+
+        time.addAndGet(EXPIRY.plusSeconds(1).toNanos());
+        StepVerifier.create(repository.findById("1").map(Product::getName))
+                .expectNext("Removed")
+                .verifyComplete();
+    }
+
+    @Test
+    void findById_shouldEvictOnceProductsOutweighTheCache() {
+        repository = cache(CachingProductRepository.weigh(laptop) * 2L, 1 << 20);
+        IntStream.range(0, 10).forEach(i -> when(delegate.findById(String.valueOf(i)))
+                .thenReturn(Mono.just(laptop.toBuilder().id(String.valueOf(i)).build())));
+
+        IntStream.range(0, 10).forEach(i -> repository.findById(String.valueOf(i)).block());
+
+        assertTrue(repository.productStats().evictionCount() >= 8);
+    }
+
+    @Test
+    void writes_shouldInvalidateCachedProducts() {
+        Product renamed = laptop.toBuilder().name("Renamed").build();
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop), Mono.just(renamed), Mono.empty());
+        when(delegate.findById("2")).thenReturn(Mono.just(mouse), Mono.just(mouse));
+        when(delegate.update("1", renamed)).thenReturn(Mono.just(renamed));
+        when(delegate.save(mouse)).thenReturn(Mono.just(mouse));
+        when(delegate.deleteById("1")).thenReturn(Mono.empty());
+
+        repository.findById("1").block();
+        repository.findById("2").block();
+        StepVerifier.create(repository.update("1", renamed).then(repository.findById("1")).map(Product::getName))
+                .expectNext("Renamed")
+                .verifyComplete();
+        StepVerifier.create(repository.save(mouse).then(repository.findById("2")))
+                .expectNext(mouse)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("1").then(repository.findById("1")))
+                .verifyComplete();
+
+        verify(delegate, times(3)).findById("1");
+        verify(delegate, times(2)).findById("2");
+    }
+
+    @Test
+    void update_shouldInvalidateProductWhenTheWriteFails() {
+        Product stale = laptop.toBuilder().version(7L).build();
+        Product current = laptop.toBuilder().version(2L).build();
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop), Mono.just(current));
+        when(delegate.update("1", stale)).thenReturn(Mono.error(new ProductVersionConflictException("1", 7L, 2L)));
+
+        repository.findById("1").block();
+        StepVerifier.create(repository.update("1", stale))
+                .expectError(ProductVersionConflictException.class)
+                .verify();
+        StepVerifier.create(repository.findById("1").map(Product::getVersion))
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkWrites_shouldInvalidateEveryProductTheyWereGiven() {
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop), Mono.just(laptop), Mono.just(laptop));
+        when(delegate.findById("2")).thenReturn(Mono.just(mouse), Mono.just(mouse), Mono.just(mouse));
+        when(delegate.saveAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0));
+        when(delegate.updateAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0)
+                .concatWith(Mono.error(new IllegalStateException("down"))));
+        when(delegate.deleteAll(any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                .filter("1"::equals));
+
+        repository.findById("1").then(repository.findById("2")).block();
+        StepVerifier.create(repository.saveAll(Flux.just(laptop, mouse)))
+                .expectNext(laptop, mouse)
+                .verifyComplete();
+        repository.findById("1").then(repository.findById("2")).block();
+        StepVerifier.create(repository.updateAll(Flux.just(laptop)))
+                .expectNext(laptop)
+                .verifyErrorMessage("down");
+        repository.findById("1").block();
+        StepVerifier.create(repository.deleteAll(Flux.just("1", "2")))
+                .expectNext("1")
+                .verifyComplete();
+        repository.findById("1").then(repository.findById("2")).block();
+
+        verify(delegate, times(4)).findById("1");
+        verify(delegate, times(3)).findById("2");
+    }
+
+    @Test
+    void queries_shouldBeServedFromCacheWhileTheCatalogIsUnchanged() {
+        ProductFilter cheap = new ProductFilter(null, new BigDecimal("100"), null);
+        when(delegate.catalogVersion()).thenReturn(Mono.just(1L), Mono.just(1L), Mono.just(1L), Mono.just(1L),
+                Mono.just(1L), Mono.just(1L), Mono.just(1L), Mono.just(1L), Mono.just(2L));
+        when(delegate.findAll()).thenReturn(Flux.just(laptop, mouse), Flux.just(mouse));
+        when(delegate.findPage(null, 1)).thenReturn(Flux.just(laptop));
+        when(delegate.findByFilter(cheap)).thenReturn(Flux.just(mouse));
+        when(delegate.search("mouse", 10)).thenReturn(Flux.just(mouse));
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(repository.findAll()).expectNext(laptop, mouse).verifyComplete();
+            StepVerifier.create(repository.findPage(null, 1)).expectNext(laptop).verifyComplete();
+            StepVerifier.create(repository.findByFilter(cheap)).expectNext(mouse).verifyComplete();
+            StepVerifier.create(repository.search("mouse", 10)).expectNext(mouse).verifyComplete();
+        }
+        StepVerifier.create(repository.findAll()).expectNext(mouse).verifyComplete();
+
+        verify(delegate, times(2)).findAll();
+        verify(delegate, times(1)).findPage(null, 1);
+        verify(delegate, times(1)).findByFilter(cheap);
+        verify(delegate, times(1)).search("mouse", 10);
+        assertEquals(4, repository.queryStats().hitCount());
+    }
+
+    @Test
+    void queries_shouldNotCacheResultsOutgrowingTheQueryCache() {
+        repository = cache(1 << 20, CachingProductRepository.weigh(laptop) + 1L);
+        when(delegate.catalogVersion()).thenReturn(Mono.just(1L));
+        when(delegate.findAll()).thenReturn(Flux.just(laptop, mouse));
+        when(delegate.search("laptop", 10)).thenReturn(Flux.error(new IllegalStateException("down")));
+
+        StepVerifier.create(repository.findAll()).expectNext(laptop, mouse).verifyComplete();
+        StepVerifier.create(repository.findAll()).expectNext(laptop, mouse).verifyComplete();
+        StepVerifier.create(repository.search("laptop", 10)).verifyErrorMessage("down");
+        StepVerifier.create(repository.search("laptop", 10)).verifyErrorMessage("down");
+
+        verify(delegate, times(2)).findAll();
+        verify(delegate, times(2)).search("laptop", 10);
+        assertEquals(0, repository.queryStats().hitCount());
+    }
+
+    @Test
+    void catalogVersion_shouldDelegate() {
+        when(delegate.catalogVersion()).thenReturn(Mono.just(42L));
+
+        StepVerifier.create(repository.catalogVersion())
+                .expectNext(42L)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldInvalidateTheProduct() {
+        Product adjusted = laptop.toBuilder().quantity(3).version(2L).build();
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop), Mono.just(adjusted));
+        when(delegate.adjustQuantity("1", -2)).thenReturn(Mono.just(adjusted));
+
+        StepVerifier.create(repository.findById("1")
+                        .then(repository.adjustQuantity("1", -2))
+                        .then(repository.findById("1")))
+                .expectNext(adjusted)
+                .verifyComplete();
+    }
+
+    @Test
+    void bindTo_shouldPublishBothCaches() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        when(delegate.findById("1")).thenReturn(Mono.just(laptop));
+        repository.bindTo(registry);
+
+        repository.findById("1").block();
+        repository.findById("1").block();
+
+        assertEquals(1, registry.get("cache.gets").tags("cache", "products", "result", "hit").functionCounter()
+                .count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "products", "result", "miss").functionCounter()
+                .count());
+        assertEquals(0, registry.get("cache.size").tag("cache", "product-queries").gauge().value());
+        assertEquals(0, registry.get("product.repository.coalesced").functionCounter().count());
+    }
+
+    @Test
+    void count_shouldDelegate() {
+        when(delegate.count()).thenReturn(Mono.just(7L));
+
+        StepVerifier.create(repository.count())
+                .expectNext(7L)
+                .verifyComplete();
+    }
+
+    @Test
+    void stats_shouldDelegate() {
+        ProductStats stats = ProductStats.of(7, 1, 30, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.ONE, 7, BigDecimal.valueOf(7));
+        when(delegate.stats()).thenReturn(Mono.just(stats));
+
+        StepVerifier.create(repository.stats())
+                .expectNext(stats)
+                .verifyComplete();
+    }
+
+    private CachingProductRepository cache(long maximumWeight, long queryMaximumWeight) {
+        return new CachingProductRepository(delegate, maximumWeight, queryMaximumWeight, REFRESH, EXPIRY, time::get,
+                Runnable::run);
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.product.api.produc.infrastructure.cache;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingProductRepositoryTest {
+
+    @Mock
+    private ProductRepository delegate;
+
+    private CoalescingProductRepository repository;
+    private Product laptop;
+
+    @BeforeEach
+    void setUp() {
+        repository = new CoalescingProductRepository(delegate);
+        laptop = Product.builder().id("1").name("Laptop").price(new BigDecimal("1299.99")).version(1L).build();
+    }
+
+    @Test
+    void findById_shouldShareOneLookupBetweenConcurrentReaders() {
+        Sinks.One<Product> lookup = Sinks.one();
+        when(delegate.findById("1")).thenReturn(lookup.asMono(), Mono.just(laptop));
+
+        Mono<List<Product>> readers = Flux.range(0, 100)
+                .flatMap(reader -> repository.findById("1"))
+                .collectList();
+        StepVerifier.create(readers)
+                .then(() -> lookup.tryEmitValue(laptop))
+                .assertNext(products -> {
+                    assertEquals(100, products.size());
+                    products.forEach(product -> assertEquals(laptop, product));
+                })
+                .verifyComplete();
+        assertEquals(99, repository.coalescedCount());
+
+        // Nothing is kept once the lookup completed.
+        StepVerifier.create(repository.findById("1"))
+                .expectNext(laptop)
+                .verifyComplete();
+        verify(delegate, times(2)).findById("1");
+        assertEquals(99, repository.coalescedCount());
+    }
+
+    @Test
+    void findById_shouldShareAbsenceAndFailures() {
+        Sinks.One<Product> missing = Sinks.one();
+        Sinks.One<Product> failing = Sinks.one();
+        when(delegate.findById("missing")).thenReturn(missing.asMono());
+        when(delegate.findById("1")).thenReturn(failing.asMono(), Mono.just(laptop));
+
+        StepVerifier.create(Flux.merge(repository.existsById("missing"), repository.existsById("missing")))
+                .then(missing::tryEmitEmpty)
+                .expectNext(false, false)
+                .verifyComplete();
+        StepVerifier.create(Flux.merge(repository.findById("1"), repository.findById("1")))
+                .then(() -> failing.tryEmitError(new IllegalStateException("down")))
+                .expectErrorMessage("down")
+                .verify();
+        StepVerifier.create(repository.findById("1"))
+                .expectNext(laptop)
+                .verifyComplete();
+        assertEquals(2, repository.coalescedCount());
+    }
+
+    @Test
+    void findById_shouldNotCancelALookupOthersWaitFor() {
+        Sinks.One<Product> lookup = Sinks.one();
+        when(delegate.findById("1")).thenReturn(lookup.asMono());
+
+        StepVerifier.create(repository.findById("1"))
+                .thenCancel()
+                .verify();
+        StepVerifier.create(repository.findById("1"))
+                .then(() -> lookup.tryEmitValue(laptop))
+                .expectNext(laptop)
+                .verifyComplete();
+
+        verify(delegate, times(1)).findById("1");
+    }
+
+    @Test
+    void findById_shouldCoalesceReadersOnManyThreads() throws InterruptedException {
+        CountDownLatch waiting = new CountDownLatch(1);
+        when(delegate.findById("1")).thenReturn(Mono.fromCallable(() -> {
+            assertTrue(waiting.await(5, TimeUnit.SECONDS));
+            return laptop;
+        }).subscribeOn(Schedulers.boundedElastic()));
+
+        Mono<Long> readers = Flux.range(0, 64)
+                .parallel(8)
+                .runOn(Schedulers.parallel())
+                .flatMap(reader -> repository.findById("1"))
+                .sequential()
+                .count();
+        StepVerifier.create(readers)
+                .then(() -> {
+                    while (repository.coalescedCount() < 63) {
+                        Thread.onSpinWait();
+                    }
+                    waiting.countDown();
+                })
+                .expectNext(64L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        verify(delegate, times(1)).findById("1");
+        assertEquals(63, repository.coalescedCount());
+    }
+
+    @Test
+    void writes_shouldForgetLookupsInFlight() {
+        Product renamed = laptop.toBuilder().name("Renamed").version(2L).build();
+        Sinks.One<Product> stale = Sinks.one();
+        when(delegate.findById("1")).thenReturn(stale.asMono(), Mono.just(renamed), Mono.empty());
+        when(delegate.update("1", renamed)).thenReturn(Mono.just(renamed));
+        when(delegate.save(laptop)).thenReturn(Mono.just(laptop));
+        when(delegate.adjustQuantity("1", 1)).thenReturn(Mono.just(renamed));
+        when(delegate.deleteById("1")).thenReturn(Mono.empty());
+
+        // A read started before the write may see the product before it; one issued after the write may not.
+        Mono<Product> before = repository.findById("1");
+        StepVerifier.create(before)
+                .then(() -> repository.update("1", renamed).block())
+                .then(() -> StepVerifier.create(repository.findById("1"))
+                        .expectNext(renamed)
+                        .verifyComplete())
+                .then(() -> stale.tryEmitValue(laptop))
+                .expectNext(laptop)
+                .verifyComplete();
+        StepVerifier.create(repository.save(laptop).then(repository.adjustQuantity("1", 1))
+                        .then(repository.deleteById("1")).then(repository.findById("1")))
+                .verifyComplete();
+
+        verify(delegate, times(3)).findById("1");
+        assertEquals(0, repository.coalescedCount());
+    }
+
+    @Test
+    void bulkWrites_shouldForgetLookupsOfEveryProductTheyWereGiven() {
+        Sinks.One<Product> first = Sinks.one();
+        Sinks.One<Product> second = Sinks.one();
+        Sinks.One<Product> third = Sinks.one();
+        when(delegate.findById("1")).thenReturn(first.asMono(), second.asMono(), third.asMono(), Mono.just(laptop));
+        when(delegate.saveAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0));
+        when(delegate.updateAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0)
+                .filter(product -> false)
+                .concatWith(Mono.error(new IllegalStateException("down"))));
+        when(delegate.deleteAll(any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0));
+
+        repository.findById("1").subscribe();
+        StepVerifier.create(repository.saveAll(Flux.just(laptop)))
+                .expectNext(laptop)
+                .verifyComplete();
+        repository.findById("1").subscribe();
+        StepVerifier.create(repository.updateAll(Flux.just(laptop)))
+                .verifyErrorMessage("down");
+        repository.findById("1").subscribe();
+        StepVerifier.create(repository.deleteAll(Flux.just("1")))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(repository.findById("1"))
+                .expectNext(laptop)
+                .verifyComplete();
+
+        verify(delegate, times(4)).findById("1");
+        assertEquals(0, repository.coalescedCount());
+    }
+
+    @Test
+    void writes_shouldForgetLookupsWhenCancelled() {
+        Sinks.One<Product> lookup = Sinks.one();
+        when(delegate.findById("1")).thenReturn(lookup.asMono(), Mono.just(laptop));
+        when(delegate.update("1", laptop)).thenReturn(Mono.never());
+        when(delegate.saveAll(any())).thenReturn(Flux.never());
+
+        repository.findById("1").subscribe();
+        StepVerifier.create(repository.saveAll(Flux.just(laptop)))
+                .thenCancel()
+                .verify();
+        StepVerifier.create(repository.update("1", laptop))
+                .thenCancel()
+                .verify();
+        StepVerifier.create(repository.findById("1"))
+                .expectNext(laptop)
+                .verifyComplete();
+    }
+
+    @Test
+    void bindTo_shouldPublishCoalescedReads() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Sinks.One<Product> lookup = Sinks.one();
+        when(delegate.findById("1")).thenReturn(lookup.asMono());
+        repository.bindTo(registry);
+
+        StepVerifier.create(Flux.merge(repository.findById("1"), repository.findById("1"),
+                        repository.findById("1")))
+                .then(() -> lookup.tryEmitValue(laptop))
+                .expectNextCount(3)
+                .verifyComplete();
+
+        assertEquals(2, registry.get("product.repository.coalesced").functionCounter().count());
+    }
+
+    @Test
+    void queries_shouldDelegate() {
+        ProductFilter filter = new ProductFilter(BigDecimal.ONE, null, null);
+        ProductStats stats = ProductStats.of(7, 1, 30, BigDecimal.TEN, BigDecimal.ONE, BigDecimal.ONE, 7, BigDecimal.valueOf(7));
+        when(delegate.findAll()).thenReturn(Flux.just(laptop));
+        when(delegate.findPage("0", 1)).thenReturn(Flux.just(laptop));
+        when(delegate.findByFilter(filter)).thenReturn(Flux.just(laptop));
+        when(delegate.search("laptop", 5)).thenReturn(Flux.just(laptop));
+        when(delegate.count()).thenReturn(Mono.just(7L));
+        when(delegate.stats()).thenReturn(Mono.just(stats));
+        when(delegate.catalogVersion()).thenReturn(Mono.just(3L));
+
+        StepVerifier.create(Flux.concat(repository.findAll(), repository.findPage("0", 1),
+                        repository.findByFilter(filter), repository.search("laptop", 5)))
+                .expectNext(laptop, laptop, laptop, laptop)
+                .verifyComplete();
+        assertEquals(7L, repository.count().block());
+        assertEquals(stats, repository.stats().block());
+        assertEquals(3L, repository.catalogVersion().block());
+    }
+}
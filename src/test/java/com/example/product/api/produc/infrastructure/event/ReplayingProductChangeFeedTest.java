@@ -0,0 +1,137 @@
+package com.example.product.api.produc.infrastructure.event;
+
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.test.StepVerifier;
+import reactor.test.subscriber.TestSubscriber;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayingProductChangeFeedTest {
+
+    private static Product product(String id) {
+        return Product.builder().id(id).name("Product " + id).version(1L).build();
+    }
+
+    @Test
+    void changes_shouldResumeAfterGivenSequence() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(16, 16, BufferOverflowStrategy.DROP_OLDEST);
+        feed.publish(ProductChangeType.CREATED, product("1"));
+        feed.publish(ProductChangeType.UPDATED, product("1").toBuilder().version(2L).build());
+        feed.publish(ProductChangeType.CREATED, product("2"));
+
+        StepVerifier.create(feed.changes(1L))
+                .assertNext(change -> {
+                    assertEquals(2, change.sequence());
+                    assertEquals(ProductChangeType.UPDATED, change.type());
+                    assertEquals("1", change.productId());
+                    assertNotNull(change.occurredAt());
+                })
+                .assertNext(change -> assertEquals(3, change.sequence()))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void changes_shouldOnlyStreamNewChangesWithoutSequence() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(16, 16, BufferOverflowStrategy.DROP_OLDEST);
+        feed.publish(ProductChangeType.CREATED, product("1"));
+
+        StepVerifier.create(feed.changes(null))
+                .then(() -> feed.publish(ProductChangeType.DELETED, product("1")))
+                .assertNext(change -> {
+                    assertEquals(2, change.sequence());
+                    assertEquals(ProductChangeType.DELETED, change.type());
+                    assertEquals("1", change.productId());
+                    assertNull(change.product());
+                })
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void changes_shouldOnlyReplayRetainedChanges() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(2, 16, BufferOverflowStrategy.DROP_OLDEST);
+        for (int i = 1; i <= 5; i++) {
+            feed.publish(ProductChangeType.CREATED, product(String.valueOf(i)));
+        }
+
+        StepVerifier.create(feed.changes(0L).map(ProductChange::sequence))
+                .expectNext(4L, 5L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void changes_shouldDropOldestChangesForSlowSubscriber() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(16, 2, BufferOverflowStrategy.DROP_OLDEST);
+
+        StepVerifier.create(feed.changes(null).map(ProductChange::sequence), 0)
+                .then(() -> {
+                    for (int i = 1; i <= 5; i++) {
+                        feed.publish(ProductChangeType.CREATED, product(String.valueOf(i)));
+                    }
+                })
+                .thenRequest(2)
+                .expectNext(4L, 5L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void changes_shouldNotHoldBackOtherSubscribersWhenOneIsSlow() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(16, 1, BufferOverflowStrategy.ERROR);
+        TestSubscriber<ProductChange> slow = TestSubscriber.builder().initialRequest(0).build();
+        feed.changes(null).subscribe(slow);
+
+        feed.publish(ProductChangeType.CREATED, product("1"));
+        feed.publish(ProductChangeType.CREATED, product("2"));
+
+        StepVerifier.create(feed.changes(0L).map(ProductChange::sequence))
+                .expectNext(1L, 2L)
+                .thenCancel()
+                .verify();
+        slow.request(1);
+        assertEquals(1, slow.getReceivedOnNext().size());
+        assertTrue(slow.isTerminatedError());
+    }
+
+    @Test
+    void publish_shouldDropChangesOlderThanOnesAlreadyPublished() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(16, 16, BufferOverflowStrategy.DROP_OLDEST);
+        feed.publish(ProductChangeType.CREATED, product("1"));
+        feed.publish(ProductChangeType.UPDATED, product("1").toBuilder().version(3L).build());
+        feed.publish(ProductChangeType.PATCHED, product("1").toBuilder().version(2L).build());
+        feed.publish(ProductChangeType.UPDATED, product("1").toBuilder().version(3L).build());
+        feed.publish(ProductChangeType.UPDATED, product("2").toBuilder().version(null).build());
+        feed.publish(ProductChangeType.DELETED, Product.builder().id("1").build());
+        feed.publish(ProductChangeType.UPDATED, product("1").toBuilder().version(4L).build());
+        feed.publish(ProductChangeType.CREATED, product("1"));
+
+        StepVerifier.create(feed.changes(0L).map(change -> change.type() + " " + change.productId()))
+                .expectNext("CREATED 1", "UPDATED 1", "UPDATED 2", "DELETED 1", "CREATED 1")
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void publish_shouldOnlyRememberTheProductsChangedLast() {
+        ReplayingProductChangeFeed feed = new ReplayingProductChangeFeed(16, 16, BufferOverflowStrategy.DROP_OLDEST);
+        feed.publish(ProductChangeType.UPDATED, product("0").toBuilder().version(2L).build());
+        for (int i = 1; i <= ReplayingProductChangeFeed.ORDERED_PRODUCTS; i++) {
+            feed.publish(ProductChangeType.CREATED, product(String.valueOf(i)));
+        }
+        feed.publish(ProductChangeType.CREATED, product("0"));
+
+        StepVerifier.create(feed.changes(ReplayingProductChangeFeed.ORDERED_PRODUCTS + 1L))
+                .assertNext(change -> assertEquals("0", change.productId()))
+                .thenCancel()
+                .verify();
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.product.api.produc.infrastructure.metrics;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.usecase.GetProductById;
+import com.example.product.api.produc.usecase.SearchProducts;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductMetricsAspectTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ProductRepository store = mock(ProductRepository.class);
+    private final ProductRepository repository = proxy(store);
+
+    private final Product laptop = Product.builder().id("1").name("Laptop").build();
+
+    @SuppressWarnings("unchecked")
+    private <T> T proxy(T target) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(!(target instanceof ProductRepository));
+        factory.addAspect(new ProductMetricsAspect(registry));
+        return (T) factory.getProxy();
+    }
+
+    private Timer useCaseTimer(String useCase, String outcome, String exception) {
+        return registry.find(ProductMetricsAspect.USE_CASE_TIMER)
+                .tags("usecase", useCase, "operation", "execute", "outcome", outcome, "exception", exception)
+                .timer();
+    }
+
+    private Timer repositoryTimer(String operation, String outcome, String exception) {
+        return registry.find(ProductMetricsAspect.REPOSITORY_TIMER)
+                .tags("repository", store.getClass().getSimpleName(), "operation", operation, "outcome", outcome,
+                        "exception", exception)
+                .timer();
+    }
+
+    @Test
+    void useCases_shouldBeTimedPerOutcomeOnceSubscribed() {
+        when(store.findById("1")).thenReturn(Mono.just(laptop));
+        when(store.findById("missing")).thenReturn(Mono.empty());
+        when(store.findById("broken")).thenReturn(Mono.error(new IllegalStateException("Store down")));
+        GetProductById getProductById = proxy(new GetProductById(store));
+
+        Mono<Product> found = getProductById.execute("1");
+        assertNull(useCaseTimer("GetProductById", "success", "none"));
+
+        StepVerifier.create(found).expectNext(laptop).verifyComplete();
+        StepVerifier.create(getProductById.execute("missing")).verifyComplete();
+        StepVerifier.create(getProductById.execute("broken")).verifyError(IllegalStateException.class);
+
+        assertEquals(2, useCaseTimer("GetProductById", "success", "none").count());
+        assertEquals(1, useCaseTimer("GetProductById", "error", "IllegalStateException").count());
+    }
+
+    @Test
+    void fluxUseCases_shouldBeTimedUntilCompletedOrCancelled() {
+        when(store.search("laptop", 10)).thenReturn(Flux.just(laptop, laptop));
+        SearchProducts searchProducts = proxy(new SearchProducts(store));
+
+        StepVerifier.create(searchProducts.execute("laptop", 10)).expectNextCount(2).verifyComplete();
+        StepVerifier.create(searchProducts.execute("laptop", 10)).expectNextCount(1).thenCancel().verify();
+
+        assertEquals(1, useCaseTimer("SearchProducts", "success", "none").count());
+        assertEquals(1, useCaseTimer("SearchProducts", "cancelled", "none").count());
+    }
+
+    @Test
+    void repositoryOperations_shouldBeTimedPerOperation() {
+        when(store.findById("1")).thenReturn(Mono.just(laptop));
+        when(store.findAll()).thenReturn(Flux.error(new IllegalStateException("Store down")));
+        when(store.count()).thenReturn(Mono.never());
+
+        StepVerifier.create(repository.findById("1")).expectNext(laptop).verifyComplete();
+        StepVerifier.create(repository.findAll()).verifyError(IllegalStateException.class);
+        StepVerifier.create(repository.count()).thenCancel().verify();
+
+        assertEquals(1, repositoryTimer("findById", "success", "none").count());
+        assertEquals(1, repositoryTimer("findAll", "error", "IllegalStateException").count());
+        assertEquals(1, repositoryTimer("count", "cancelled", "none").count());
+    }
+
+    @Test
+    void monos_shouldOnlyRecordTheirFirstOutcome() {
+        when(store.findById("1")).thenReturn(Mono.just(laptop));
+
+        StepVerifier.create(repository.findById("1").flux().take(1)).expectNext(laptop).verifyComplete();
+
+        assertEquals(1, repositoryTimer("findById", "success", "none").count());
+        assertNull(repositoryTimer("findById", "cancelled", "none"));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.product.api.produc.infrastructure.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReactorSchedulerMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private void runTwice(Scheduler scheduler) {
+        try {
+            Mono.fromSupplier(() -> 1).subscribeOn(scheduler).repeat(1).blockLast();
+        } finally {
+            scheduler.disposeGracefully().block();
+        }
+    }
+
+    @Test
+    void bindTo_shouldTimeTasksOfSchedulersCreatedAfterwardsPerScheduler() {
+        try (ReactorSchedulerMetrics metrics = new ReactorSchedulerMetrics()) {
+            metrics.bindTo(registry);
+            runTwice(Schedulers.newParallel("metrics-test", 2));
+            runTwice(Schedulers.newBoundedElastic(2, 16, "metrics-elastic"));
+        }
+
+        Timer parallel = registry.find("reactor.executor").tag("name", "metrics-test").timer();
+        Timer elastic = registry.find("reactor.executor").tag("name", "metrics-elastic").timer();
+        assertEquals(2, parallel.count());
+        assertEquals(2, elastic.count());
+    }
+
+    @Test
+    void close_shouldStopDecoratingNewSchedulers() {
+        ReactorSchedulerMetrics metrics = new ReactorSchedulerMetrics();
+        metrics.bindTo(registry);
+        metrics.close();
+
+        runTwice(Schedulers.newSingle("metrics-closed"));
+
+        assertNull(registry.find("reactor.executor").tag("name", "metrics-closed").timer());
+    }
+
+    @Test
+    void name_shouldFallBackToTheSchedulerDescription() {
+        assertEquals("ImmediateScheduler", ReactorSchedulerMetrics.name(Schedulers.immediate()));
+    }
+}
@@ -0,0 +1,248 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileProductJournalTest {
+
+    @TempDir
+    private Path directory;
+
+    private final Map<String, Product> state = new LinkedHashMap<>();
+
+    private static Product product(String id, long version) {
+        return Product.builder().id(id).name("Product " + id).version(version).build();
+    }
+
+    private FileProductJournal open(FsyncPolicy fsyncPolicy) {
+        return new FileProductJournal(directory, fsyncPolicy, Duration.ofMillis(1), Duration.ofHours(1));
+    }
+
+    private boolean recover(FileProductJournal journal) {
+        state.clear();
+        return journal.recover(snapshot -> snapshot.forEach(product -> state.put(product.getId(), product)),
+                record -> {
+                    if (record.isDelete()) {
+                        state.remove(record.id());
+                    } else {
+                        state.put(record.id(), record.product());
+                    }
+                }, state::values);
+    }
+
+    private void write(FileProductJournal journal, JournalRecord record) {
+        journal.write(() -> {
+            journal.append(record);
+            if (record.isDelete()) {
+                return state.remove(record.id());
+            }
+            return state.put(record.id(), record.product());
+        });
+    }
+
+    private List<String> files() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.map(path -> path.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    @Test
+    void recover_shouldReportNothingRecordedInNewDirectory() throws InterruptedException {
+        FileProductJournal journal = open(FsyncPolicy.INTERVAL);
+
+        assertFalse(recover(journal));
+        assertTrue(state.isEmpty());
+        StepVerifier.create(journal.sync()).verifyComplete();
+        journal.close();
+    }
+
+    @Test
+    void recover_shouldReplaySyncedRecordsInOrderAfterCrash() throws IOException, InterruptedException {
+        // Neither journal is closed, as if the process had crashed after the writes were acknowledged.
+        for (FsyncPolicy fsyncPolicy : FsyncPolicy.values()) {
+            FileProductJournal journal = open(fsyncPolicy);
+            recover(journal);
+            write(journal, JournalRecord.put(product(fsyncPolicy + "-1", 1)));
+            write(journal, JournalRecord.put(product(fsyncPolicy + "-2", 1)));
+            write(journal, JournalRecord.put(product(fsyncPolicy + "-1", 2)));
+            write(journal, JournalRecord.delete(fsyncPolicy + "-2"));
+            StepVerifier.create(journal.sync()).verifyComplete();
+        }
+
+        Map<String, Product> expected = Map.of("EVERY_BATCH-1", product("EVERY_BATCH-1", 2),
+                "INTERVAL-1", product("INTERVAL-1", 2));
+        FileProductJournal reopened = open(FsyncPolicy.INTERVAL);
+        assertTrue(recover(reopened));
+        assertEquals(expected, state);
+        assertEquals(List.of("wal-00000000000000000001.log", "wal-00000000000000000002.log",
+                "wal-00000000000000000003.log"), files());
+        reopened.close();
+        assertEquals(List.of("snapshot-00000000000000000003.bin", "wal-00000000000000000004.log"), files());
+    }
+
+    @Test
+    void close_shouldSnapshotSoThatRestartReplaysNoLog() throws IOException, InterruptedException {
+        FileProductJournal journal = open(FsyncPolicy.INTERVAL);
+        recover(journal);
+        write(journal, JournalRecord.put(product("1", 1)));
+        write(journal, JournalRecord.put(product("2", 1)));
+        write(journal, JournalRecord.delete("1"));
+        journal.close();
+
+        assertEquals(List.of("snapshot-00000000000000000001.bin", "wal-00000000000000000002.log"), files());
+        assertEquals(0, Files.size(directory.resolve("wal-00000000000000000002.log")));
+        FileProductJournal reopened = open(FsyncPolicy.INTERVAL);
+        assertTrue(recover(reopened));
+        assertEquals(Map.of("2", product("2", 1)), state);
+        reopened.close();
+    }
+
+    @Test
+    void sync_shouldGroupConcurrentWrites() throws Exception {
+        FileProductJournal journal = open(FsyncPolicy.EVERY_BATCH);
+        recover(journal);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> writes = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            int offset = thread * 250;
+            writes.add(executor.submit(() -> IntStream.range(offset, offset + 250).forEach(i -> {
+                synchronized (state) {
+                    write(journal, JournalRecord.put(product(String.valueOf(i), 1)));
+                }
+                journal.sync().block();
+            })));
+        }
+        for (Future<?> write : writes) {
+            write.get();
+        }
+        executor.shutdown();
+        journal.close();
+
+        FileProductJournal reopened = open(FsyncPolicy.INTERVAL);
+        assertTrue(recover(reopened));
+        assertEquals(2000, state.size());
+        reopened.close();
+    }
+
+    @Test
+    void recover_shouldDiscardTornWriteAtEndOfLog() throws IOException, InterruptedException {
+        FileProductJournal journal = open(FsyncPolicy.INTERVAL);
+        recover(journal);
+        write(journal, JournalRecord.put(product("1", 1)));
+        journal.sync().block();
+        Path log = directory.resolve(files().get(0));
+        long intact = Files.size(log);
+        Files.write(log, "torn".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        FileProductJournal reopened = open(FsyncPolicy.INTERVAL);
+        assertTrue(recover(reopened));
+        assertEquals(Map.of("1", product("1", 1)), state);
+        assertEquals(intact, Files.size(log));
+        reopened.close();
+    }
+
+    @Test
+    void snapshot_shouldReplaceCoveredLogSegments() throws IOException, InterruptedException {
+        FileProductJournal journal = open(FsyncPolicy.INTERVAL);
+        recover(journal);
+        IntStream.range(0, 1500).forEach(i -> write(journal, JournalRecord.put(product(String.valueOf(i), 1))));
+        journal.snapshot();
+        write(journal, JournalRecord.delete("0"));
+        journal.snapshot();
+        write(journal, JournalRecord.put(product("1", 2)));
+        journal.sync().block();
+        journal.snapshot();
+        journal.close();
+
+        assertEquals(List.of("snapshot-00000000000000000003.bin", "wal-00000000000000000004.log"), files());
+        FileProductJournal reopened = open(FsyncPolicy.INTERVAL);
+        assertTrue(recover(reopened));
+        assertEquals(1499, state.size());
+        assertEquals(product("1", 2), state.get("1"));
+        reopened.snapshot();
+        assertEquals(List.of("snapshot-00000000000000000003.bin", "wal-00000000000000000004.log",
+                "wal-00000000000000000005.log"), files());
+        reopened.close();
+    }
+
+    @Test
+    void recover_shouldRejectCorruptSnapshot() throws IOException {
+        Files.write(directory.resolve("snapshot-00000000000000000001.bin"), new byte[] {'P', 'S', 'N', 'P'});
+        assertThrows(UncheckedIOException.class, () -> recover(open(FsyncPolicy.INTERVAL)));
+
+        ByteBuffer unindexed = ByteBuffer.allocate(ProductSnapshot.HEADER_SIZE)
+                .putInt(ProductSnapshot.MAGIC)
+                .putInt(ProductSnapshot.FORMAT)
+                .putLong(1)
+                .putLong(ProductSnapshot.HEADER_SIZE);
+        Files.write(directory.resolve("snapshot-00000000000000000002.bin"), unindexed.array());
+        assertThrows(UncheckedIOException.class, () -> recover(open(FsyncPolicy.INTERVAL)));
+    }
+
+    @Test
+    void writerFailure_shouldFailPendingAndLaterWrites() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        FileProductJournal journal = new FileProductJournal(directory, FsyncPolicy.INTERVAL, Duration.ofMillis(1),
+                Duration.ofHours(1), task -> new Thread(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                    // The writer finds itself interrupted as soon as it waits for records, and fails.
+                    Thread.currentThread().interrupt();
+                    task.run();
+                }));
+        recover(journal);
+        write(journal, JournalRecord.put(product("1", 1)));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> snapshot = executor.submit(journal::snapshot);
+        while (!Files.exists(directory.resolve("snapshot-00000000000000000001.bin"))) {
+            Thread.sleep(1);
+        }
+
+        StepVerifier.create(journal.sync())
+                .then(start::countDown)
+                .expectErrorMessage("The product journal is unavailable")
+                .verify(Duration.ofSeconds(5));
+        snapshot.get();
+        executor.shutdown();
+
+        assertThrows(IllegalStateException.class, () -> journal.append(JournalRecord.delete("1")));
+        journal.snapshot();
+        assertEquals(List.of("snapshot-00000000000000000001.bin", "snapshot-00000000000000000002.bin",
+                "wal-00000000000000000001.log"), files());
+        journal.close();
+    }
+
+    @Test
+    void close_shouldDoNothingBeforeRecovery() throws InterruptedException {
+        open(FsyncPolicy.INTERVAL).close();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalCodecTest {
+
+    @Test
+    void read_shouldDecodeEncodedRecords() {
+        Product full = Product.builder()
+                .id("1")
+                .name("Café crème")
+                .description("Größe L")
+                .price(new BigDecimal("12.50"))
+                .quantity(0)
+                .version(7L)
+                .build();
+        Product sparse = Product.builder().id("2").version(1L).build();
+        ByteBuffer buffer = concat(JournalCodec.encode(JournalRecord.put(full)),
+                JournalCodec.encode(JournalRecord.put(sparse)),
+                JournalCodec.encode(JournalRecord.delete("3")));
+
+        assertEquals(JournalRecord.put(full), JournalCodec.read(buffer));
+        assertEquals(JournalRecord.put(sparse), JournalCodec.read(buffer));
+        JournalRecord deleted = JournalCodec.read(buffer);
+        assertTrue(deleted.isDelete());
+        assertEquals("3", deleted.id());
+        assertNull(JournalCodec.read(buffer));
+    }
+
+    @Test
+    void read_shouldStopAtTornOrCorruptFrames() {
+        ByteBuffer frame = JournalCodec.encode(JournalRecord.delete("1"));
+
+        ByteBuffer torn = frame.duplicate().limit(frame.limit() - 1);
+        assertNull(JournalCodec.read(torn));
+        assertEquals(0, torn.position());
+
+        ByteBuffer corrupt = ByteBuffer.allocate(frame.limit()).put(frame.duplicate()).flip();
+        corrupt.put(corrupt.limit() - 1, (byte) 'x');
+        assertNull(JournalCodec.read(corrupt));
+
+        assertNull(JournalCodec.read(ByteBuffer.allocate(64)));
+        assertNull(JournalCodec.read(ByteBuffer.allocate(3)));
+    }
+
+    private static ByteBuffer concat(ByteBuffer... frames) {
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        for (ByteBuffer frame : frames) {
+            buffer.put(frame);
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.product.api.produc.infrastructure.persistence;
+
+import com.example.product.api.produc.domain.model.Product;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductSnapshotTest {
+
+    private static final long REGION_SIZE = 128;
+
+    @TempDir
+    private Path directory;
+
+    private static Product product(int i) {
+        return Product.builder()
+                .id(String.valueOf(i))
+                .name("Product " + i)
+                .description(i % 2 == 0 ? "Größe " + "L".repeat(i) : null)
+                .price(i % 3 == 0 ? null : new BigDecimal("19.99").multiply(BigDecimal.valueOf(i)))
+                .quantity(i % 4 == 0 ? null : i)
+                .version((long) i + 1)
+                .build();
+    }
+
+    @Test
+    void open_shouldDecodeWrittenProductsOnAccess() throws IOException {
+        List<Product> products = IntStream.range(0, 40).mapToObj(ProductSnapshotTest::product).toList();
+        Path path = directory.resolve("snapshot.bin");
+
+        // Regions this small make the writer pad records over and over to keep each one inside a region.
+        ProductSnapshot.write(path, products, REGION_SIZE);
+        ProductSnapshot snapshot = ProductSnapshot.open(path, REGION_SIZE);
+
+        assertEquals(40, snapshot.size());
+        assertEquals(products.get(39), snapshot.get(39));
+        assertEquals(products, snapshot.parallelStream().toList());
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.get(40));
+    }
+
+    @Test
+    void open_shouldKeepPricesBeyondLongPrecision() throws IOException {
+        Product product = Product.builder()
+                .id("1")
+                .price(new BigDecimal("123456789012345678901234567890.123456789"))
+                .version(1L)
+                .build();
+        Path path = directory.resolve("snapshot.bin");
+
+        ProductSnapshot.write(path, List.of(product));
+
+        assertEquals(List.of(product), ProductSnapshot.open(path));
+    }
+
+    @Test
+    void open_shouldReadEmptySnapshot() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+
+        ProductSnapshot.write(path, List.of());
+
+        assertTrue(ProductSnapshot.open(path).isEmpty());
+        assertEquals(ProductSnapshot.HEADER_SIZE, Files.size(path));
+    }
+
+    @Test
+    void write_shouldRejectProductLargerThanRegion() {
+        Product product = Product.builder().id("1").description("x".repeat(200)).version(1L).build();
+
+        assertThrows(IOException.class,
+                () -> ProductSnapshot.write(directory.resolve("snapshot.bin"), List.of(product), REGION_SIZE));
+    }
+
+    @Test
+    void open_shouldRejectUnrecognizedOrTruncatedFiles() throws IOException {
+        Path path = directory.resolve("snapshot.bin");
+        ProductSnapshot.write(path, List.of(product(1), product(2)));
+        byte[] valid = Files.readAllBytes(path);
+
+        assertRejected(path, new byte[0]);
+        assertRejected(path, ByteBuffer.allocate(ProductSnapshot.HEADER_SIZE).putInt(0x12345678).array());
+        assertRejected(path, ByteBuffer.wrap(valid.clone()).putInt(Integer.BYTES, 1).array());
+        assertRejected(path, ByteBuffer.wrap(valid.clone()).putLong(Integer.BYTES * 2, -1).array());
+        assertRejected(path, ByteBuffer.wrap(valid.clone()).putLong(Integer.BYTES * 2, 1L << 32).array());
+        assertRejected(path, ByteBuffer.wrap(valid.clone()).putLong(Integer.BYTES * 2 + Long.BYTES, 0).array());
+        assertRejected(path, Arrays.copyOf(valid, valid.length - 1));
+    }
+
+    private static void assertRejected(Path path, byte[] contents) throws IOException {
+        Files.write(path, contents);
+        assertThrows(IOException.class, () -> ProductSnapshot.open(path));
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import com.example.product.api.produc.domain.exception.ReadOnlyReplicaException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.example.product.api.produc.infrastructure.repository.InMemoryProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaJournalTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:10Z"), ZoneOffset.UTC);
+    private static final long NOW = CLOCK.millis();
+
+    private final List<String> connections = new CopyOnWriteArrayList<>();
+    private final Queue<Flux<ReplicationEntry>> streams = new ConcurrentLinkedQueue<>();
+    private final ReplicaJournal journal = new ReplicaJournal((log, after) -> {
+        connections.add(log + "@" + after);
+        Flux<ReplicationEntry> stream = streams.poll();
+        return stream != null ? stream : Flux.never();
+    }, "http://leader:8080", Duration.ofMillis(10), CLOCK);
+    private final InMemoryProductRepository store = new InMemoryProductRepository(journal);
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    private static ReplicationEntry put(long sequence, long timestamp, String id) {
+        return ReplicationEntry.of(sequence, timestamp,
+                JournalRecord.put(Product.builder().id(id).name("Product " + id).version(1L).build()));
+    }
+
+    private static ReplicationEntry delete(long sequence, long timestamp, String id) {
+        return ReplicationEntry.of(sequence, timestamp, JournalRecord.delete(id));
+    }
+
+    private static ReplicationEntry marker(long sequence, long timestamp, ReplicationEntry.Kind kind, String log) {
+        return ReplicationEntry.marker(sequence, timestamp, kind, log);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+        }
+    }
+
+    private List<String> ids() {
+        return store.findAll().map(Product::getId).sort().collectList().block();
+    }
+
+    @Test
+    void recover_shouldApplyTheLeadersCopyAndThenItsWritesWithoutSeeding() {
+        streams.add(Flux.just(
+                marker(2, NOW - 500, ReplicationEntry.Kind.RESYNC, "log-1"),
+                put(2, NOW - 500, "a"),
+                put(2, NOW - 500, "b"),
+                marker(2, NOW - 500, ReplicationEntry.Kind.SYNCED, null),
+                put(3, NOW - 300, "c"),
+                delete(4, NOW - 200, "a")).concatWith(Flux.never()));
+
+        store.init();
+
+        assertEquals(List.of("b", "c"), ids());
+        ReplicationStatus status = journal.status();
+        assertEquals(ReplicationStatus.Role.FOLLOWER, status.role());
+        assertEquals("log-1", status.log());
+        assertEquals(4, status.sequence());
+        assertEquals(true, status.connected());
+        assertEquals(200, status.lagMillis());
+        assertNull(status.followers());
+        assertEquals(List.of("null@0"), connections);
+    }
+
+    @Test
+    void recover_shouldResumeAfterTheLastWriteAppliedWhenTheStreamBreaks() {
+        streams.add(Flux.just(
+                        marker(2, NOW, ReplicationEntry.Kind.RESYNC, "log-1"),
+                        put(2, NOW, "a"),
+                        marker(2, NOW, ReplicationEntry.Kind.SYNCED, null),
+                        put(3, NOW, "b"))
+                .concatWith(Flux.error(new IllegalStateException("Connection reset"))));
+        streams.add(Flux.just(put(4, NOW, "c")));
+        streams.add(Flux.just(marker(4, NOW, ReplicationEntry.Kind.HEARTBEAT, null)).concatWith(Flux.never()));
+
+        store.init();
+
+        await(() -> connections.size() == 3);
+        assertEquals(List.of("null@0", "log-1@3", "log-1@4"), connections);
+        assertEquals(List.of("a", "b", "c"), ids());
+    }
+
+    @Test
+    void apply_shouldDropProductsLeftOutOfANewCopy() {
+        streams.add(Flux.just(
+                        marker(2, NOW, ReplicationEntry.Kind.RESYNC, "log-1"),
+                        put(2, NOW, "a"),
+                        put(2, NOW, "b"),
+                        marker(2, NOW, ReplicationEntry.Kind.SYNCED, null))
+                .concatWith(Flux.error(new IllegalStateException("Leader restarted"))));
+        // A copy cut short leaves the follower where it was, so it asks for a copy again.
+        streams.add(Flux.just(
+                        marker(1, NOW, ReplicationEntry.Kind.RESYNC, "log-2"),
+                        put(1, NOW, "c"))
+                .concatWith(Flux.error(new IllegalStateException("Connection reset"))));
+        streams.add(Flux.just(
+                marker(1, NOW, ReplicationEntry.Kind.RESYNC, "log-2"),
+                put(1, NOW, "b"),
+                marker(1, NOW, ReplicationEntry.Kind.SYNCED, null)).concatWith(Flux.never()));
+
+        store.init();
+
+        await(() -> "log-2".equals(journal.status().log()));
+        assertEquals(List.of("null@0", "log-1@2", "log-1@2"), connections);
+        assertEquals(List.of("b"), ids());
+        assertEquals(1, journal.status().sequence());
+    }
+
+    @Test
+    void write_shouldBeRejectedOnAFollower() {
+        store.init();
+
+        StepVerifier.create(store.save(Product.builder().id("new").build()))
+                .expectErrorSatisfies(error -> {
+                    assertInstanceOf(ReadOnlyReplicaException.class, error);
+                    assertTrue(error.getMessage().contains("http://leader:8080"));
+                })
+                .verify();
+        assertThrows(ReadOnlyReplicaException.class, () -> journal.append(JournalRecord.delete("1")));
+        StepVerifier.create(journal.sync())
+                .verifyComplete();
+        assertEquals(List.of(), ids());
+    }
+
+    @Test
+    void status_shouldHaveNoLagBeforeTheFirstCopyCompletes() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        journal.bindTo(registry);
+
+        assertNull(journal.status().lagMillis());
+        assertFalse(journal.status().connected());
+        assertTrue(Double.isNaN(registry.get("product.replication.lag").timeGauge().value()));
+
+        streams.add(Flux.just(
+                marker(0, NOW - 1_500, ReplicationEntry.Kind.RESYNC, "log-1"),
+                marker(0, NOW - 1_500, ReplicationEntry.Kind.SYNCED, null),
+                marker(0, NOW - 250, ReplicationEntry.Kind.HEARTBEAT, null)).concatWith(Flux.never()));
+        store.init();
+
+        assertEquals(0.25, registry.get("product.replication.lag").timeGauge().value());
+        assertEquals(0, registry.get("product.replication.sequence").gauge().value());
+        assertEquals(1, registry.get("product.replication.connected").gauge().value());
+    }
+
+    @Test
+    void close_shouldStopFollowingTheLeader() {
+        streams.add(Flux.just(marker(0, NOW, ReplicationEntry.Kind.HEARTBEAT, null)));
+        store.init();
+        journal.close();
+
+        LockSupport.parkNanos(Duration.ofMillis(50).toNanos());
+        assertEquals(1, connections.size());
+        assertFalse(journal.status().connected());
+        new ReplicaJournal((log, after) -> Flux.never(), "http://leader:8080", Duration.ofMillis(10)).close();
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.product.api.produc.infrastructure.replication;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.persistence.JournalRecord;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import com.example.product.api.produc.infrastructure.repository.InMemoryProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ReplicationLogTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    private final ProductJournal journal = spy(new NoOpProductJournal());
+
+    private ReplicationLog log(int logSize, int bufferSize, Duration heartbeatInterval) {
+        return new ReplicationLog(journal, logSize, bufferSize, heartbeatInterval, CLOCK);
+    }
+
+    // Seeds the default products, which are written as sequences 1 to 10.
+    private static InMemoryProductRepository store(ReplicationLog log) {
+        InMemoryProductRepository store = new InMemoryProductRepository(log);
+        store.init();
+        return store;
+    }
+
+    private static Product product(String id) {
+        return Product.builder().id(id).name("Product " + id).build();
+    }
+
+    @Test
+    void append_shouldNumberWritesAndPassThemOn() {
+        ReplicationLog log = log(16, 16, Duration.ofHours(1));
+        InMemoryProductRepository store = store(log);
+        StepVerifier.create(store.deleteById("1"))
+                .verifyComplete();
+
+        verify(journal).recover(any(), any(), any());
+        verify(journal, times(11)).write(any());
+        verify(journal, times(11)).append(any(JournalRecord.class));
+        verify(journal).sync();
+        ReplicationStatus status = log.status();
+        assertEquals(ReplicationStatus.Role.LEADER, status.role());
+        assertEquals(11, status.sequence());
+        assertEquals(0, status.followers());
+        assertNotNull(status.log());
+    }
+
+    @Test
+    void stream_shouldCopyEveryProductToNewFollowersAndThenStreamWrites() {
+        ReplicationLog log = log(16, 16, Duration.ofHours(1));
+        InMemoryProductRepository store = store(log);
+        String id = log.status().log();
+
+        StepVerifier.create(log.stream(null, 0))
+                .assertNext(entry -> {
+                    assertEquals(ReplicationEntry.Kind.RESYNC, entry.kind());
+                    assertEquals(id, entry.id());
+                    assertEquals(10, entry.sequence());
+                    assertEquals(CLOCK.millis(), entry.timestamp());
+                })
+                .expectNextMatches(entry -> entry.kind() == ReplicationEntry.Kind.PUT && entry.id().equals("1")
+                        && entry.product().getName().equals("Laptop") && entry.sequence() == 10)
+                .expectNextCount(9)
+                .expectNextMatches(entry -> entry.kind() == ReplicationEntry.Kind.SYNCED && entry.sequence() == 10)
+                .then(() -> store.save(product("new")).block())
+                .expectNextMatches(entry -> entry.kind() == ReplicationEntry.Kind.PUT && entry.id().equals("new")
+                        && entry.sequence() == 11)
+                .then(() -> store.deleteById("new").block())
+                .expectNextMatches(entry -> entry.kind() == ReplicationEntry.Kind.DELETE && entry.id().equals("new")
+                        && entry.product() == null && entry.sequence() == 12)
+                .thenCancel()
+                .verify();
+        assertEquals(0, log.status().followers());
+    }
+
+    @Test
+    void stream_shouldResumeFromRetainedWrites() {
+        ReplicationLog log = log(16, 16, Duration.ofHours(1));
+        InMemoryProductRepository store = store(log);
+
+        StepVerifier.create(log.stream(log.status().log(), 8).map(ReplicationEntry::sequence))
+                .expectNext(9L, 10L)
+                .then(() -> assertEquals(1, log.status().followers()))
+                .then(() -> store.save(product("new")).block())
+                .expectNext(11L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void stream_shouldCopyWhenTheWritesMissedCannotBeResumed() {
+        ReplicationLog log = log(4, 16, Duration.ofHours(1));
+        store(log);
+        String id = log.status().log();
+
+        // Writes 1 to 6 are no longer retained, the follower is ahead, or the log is another one.
+        for (long after : new long[]{5, -1, 11}) {
+            StepVerifier.create(log.stream(id, after).map(ReplicationEntry::kind))
+                    .expectNext(ReplicationEntry.Kind.RESYNC)
+                    .thenCancel()
+                    .verify();
+        }
+        StepVerifier.create(log.stream("other", 10).map(ReplicationEntry::kind))
+                .expectNext(ReplicationEntry.Kind.RESYNC)
+                .thenCancel()
+                .verify();
+        StepVerifier.create(log.stream(id, 6).map(ReplicationEntry::sequence))
+                .expectNext(7L, 8L, 9L, 10L)
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void stream_shouldSendHeartbeatsWhileIdle() {
+        ReplicationLog log = log(16, 16, Duration.ofMillis(10));
+        store(log);
+
+        StepVerifier.create(log.stream(log.status().log(), 10))
+                .assertNext(entry -> {
+                    assertEquals(ReplicationEntry.Kind.HEARTBEAT, entry.kind());
+                    assertEquals(10, entry.sequence());
+                    assertEquals(CLOCK.millis(), entry.timestamp());
+                })
+                .expectNextMatches(entry -> entry.kind() == ReplicationEntry.Kind.HEARTBEAT)
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void stream_shouldDisconnectFollowersThatFallBehind() {
+        ReplicationLog log = log(16, 4, Duration.ofMillis(1));
+        InMemoryProductRepository store = store(log);
+
+        StepVerifier.create(log.stream(log.status().log(), 10), 0)
+                .then(() -> IntStream.range(0, 1_000).forEach(i -> store.save(product("new-" + i)).block()))
+                .then(() -> assertEquals(0, log.status().followers()))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(entry -> true)
+                .expectErrorMessage("The follower fell more than 4 writes behind")
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void stream_shouldKeepEveryWriteMadeDuringACopyAndConverge() {
+        ReplicationLog log = log(16, 4, Duration.ofHours(1));
+        InMemoryProductRepository store = store(log);
+        IntStream.range(0, 1_000).forEach(i -> store.save(product("old-" + i)).block());
+        ReplicaJournal replica = new ReplicaJournal((id, after) -> Flux.never(), "http://leader:8080",
+                Duration.ofHours(1), CLOCK);
+        InMemoryProductRepository follower = new InMemoryProductRepository(replica);
+        follower.init();
+
+        // Nothing is requested until the writes are made, so the copy is still streaming while they are.
+        StepVerifier.create(log.stream(null, 0), 0)
+                .then(() -> IntStream.range(0, 100).forEach(i -> {
+                    store.save(product("new-" + i)).block();
+                    store.deleteById("old-" + i).block();
+                }))
+                .then(() -> assertEquals(1, log.status().followers()))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(entry -> entry.sequence() < 1_210, replica::apply)
+                .assertNext(replica::apply)
+                .then(() -> assertEquals(1, log.status().followers()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(log.status().log(), replica.status().log());
+        assertEquals(1_210, replica.status().sequence());
+        assertEquals(store.findAll().map(Product::getId).sort().collectList().block(),
+                follower.findAll().map(Product::getId).sort().collectList().block());
+        replica.close();
+    }
+
+    @Test
+    void stream_shouldDisconnectFollowersThatMissHeartbeats() {
+        ReplicationLog log = log(16, 4, Duration.ofMillis(1));
+        store(log);
+
+        StepVerifier.create(log.stream(log.status().log(), 10), 0)
+                .then(() -> {
+                    long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+                    while (log.status().followers() > 0 && System.nanoTime() < deadline) {
+                        LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+                    }
+                })
+                .then(() -> assertEquals(0, log.status().followers()))
+                .thenRequest(Long.MAX_VALUE)
+                .thenConsumeWhile(entry -> entry.kind() == ReplicationEntry.Kind.HEARTBEAT)
+                .expectError(IllegalStateException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void close_shouldEndEveryStream() {
+        ReplicationLog log = log(16, 16, Duration.ofHours(1));
+        store(log);
+
+        StepVerifier.create(log.stream(log.status().log(), 10))
+                .then(log::close)
+                .verifyComplete();
+        assertEquals(0, log.status().followers());
+    }
+
+    @Test
+    void bindTo_shouldReportTheSequenceAndFollowers() {
+        ReplicationLog log = log(16, 16, Duration.ofHours(1));
+        store(log);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        log.bindTo(registry);
+
+        assertEquals(10, registry.get("product.replication.sequence").gauge().value());
+        StepVerifier.create(log.stream(log.status().log(), 10))
+                .then(() -> assertEquals(1, registry.get("product.replication.followers").gauge().value()))
+                .thenCancel()
+                .verify();
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductStats;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogStatsTest {
+
+    /**
+     * Computes the statistics of the products the slow way, as the reference the stores are checked against.
+     */
+    static ProductStats scan(List<Product> products) {
+        List<BigDecimal> prices = products.stream().map(Product::getPrice).filter(Objects::nonNull).toList();
+        return ProductStats.of(products.size(),
+                products.stream().filter(product -> quantity(product) <= 0).count(),
+                products.stream().mapToLong(CatalogStatsTest::quantity).sum(),
+                products.stream()
+                        .filter(product -> product.getPrice() != null)
+                        .map(product -> product.getPrice().multiply(BigDecimal.valueOf(quantity(product))))
+                        .reduce(BigDecimal.ZERO, BigDecimal::add),
+                prices.stream().min(Comparator.naturalOrder()).orElse(null),
+                prices.stream().max(Comparator.naturalOrder()).orElse(null),
+                prices.size(),
+                prices.stream().reduce(BigDecimal.ZERO, BigDecimal::add));
+    }
+
+    /**
+     * Compares statistics by value, whatever the scale of their decimals.
+     */
+    static void assertStats(ProductStats expected, ProductStats actual) {
+        assertEquals(expected.productCount(), actual.productCount());
+        assertEquals(expected.outOfStockCount(), actual.outOfStockCount());
+        assertEquals(expected.unitsInStock(), actual.unitsInStock());
+        assertDecimal(expected.stockValue(), actual.stockValue());
+        assertDecimal(expected.minPrice(), actual.minPrice());
+        assertDecimal(expected.maxPrice(), actual.maxPrice());
+        assertDecimal(expected.averagePrice(), actual.averagePrice());
+        assertEquals(expected.pricedCount(), actual.pricedCount());
+        assertDecimal(expected.priceSum(), actual.priceSum());
+    }
+
+    private static void assertDecimal(BigDecimal expected, BigDecimal actual) {
+        if (expected == null) {
+            assertNull(actual);
+        } else {
+            assertEquals(0, expected.compareTo(actual), () -> "expected " + expected + " but was " + actual);
+        }
+    }
+
+    private static int quantity(Product product) {
+        return product.getQuantity() == null ? 0 : product.getQuantity();
+    }
+
+    private static Product product(String price, Integer quantity) {
+        return Product.builder().price(price == null ? null : new BigDecimal(price)).quantity(quantity).build();
+    }
+
+    @Test
+    void snapshot_shouldBeEmptyForAnEmptyCatalog() {
+        assertEquals(ProductStats.of(0, 0, 0, BigDecimal.ZERO, null, null, 0, BigDecimal.ZERO),
+                new CatalogStats().snapshot());
+    }
+
+    @Test
+    void snapshot_shouldFollowAddedAndRemovedProducts() {
+        CatalogStats stats = new CatalogStats();
+        List<Product> products = List.of(product("10.00", 3), product("2.5", 0), product("10", null),
+                product(null, 7), product("99.99", 1));
+        products.forEach(stats::add);
+
+        assertStats(scan(products), stats.snapshot());
+        assertEquals(new BigDecimal("129.99"), stats.snapshot().stockValue());
+
+        stats.remove(products.get(0));
+        stats.remove(products.get(4));
+        assertStats(scan(products.subList(1, 4)), stats.snapshot());
+        assertEquals(0, new BigDecimal("10").compareTo(stats.snapshot().maxPrice()));
+    }
+
+    @Test
+    void snapshot_shouldKeepAPriceWhileAnyProductHasIt() {
+        CatalogStats stats = new CatalogStats();
+        stats.add(new BigDecimal("5"), 1);
+        stats.add(new BigDecimal("5.00"), 1);
+        stats.add(new BigDecimal("7"), 1);
+
+        stats.remove(new BigDecimal("5.00"), 1);
+        assertEquals(0, new BigDecimal("5").compareTo(stats.snapshot().minPrice()));
+        stats.remove(new BigDecimal("5"), 1);
+        assertEquals(0, new BigDecimal("7").compareTo(stats.snapshot().minPrice()));
+    }
+
+    @Test
+    void snapshot_shouldAddUpConcurrentWrites() throws InterruptedException {
+        CatalogStats stats = new CatalogStats();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 10_000).forEach(i -> executor.execute(() -> {
+            Product product = product(i % 2 == 0 ? "1.10" : "0.90", 2);
+            stats.add(product);
+            if (i % 4 == 0) {
+                stats.remove(product);
+            }
+        }));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        ProductStats snapshot = stats.snapshot();
+        assertEquals(7_500, snapshot.productCount());
+        assertEquals(15_000, snapshot.unitsInStock());
+        assertEquals(0, new BigDecimal("14500").compareTo(snapshot.stockValue()));
+        assertEquals(new BigDecimal("0.97"), snapshot.averagePrice());
+    }
+}
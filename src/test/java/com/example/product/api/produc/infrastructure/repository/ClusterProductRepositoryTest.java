@@ -0,0 +1,396 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.NotProductOwnerException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClusterProductRepositoryTest {
+
+    private final InMemoryProductRepository local = new InMemoryProductRepository(new NoOpProductJournal());
+    private final ClusterPeer peer = mock(ClusterPeer.class);
+    private final AtomicInteger connections = new AtomicInteger();
+    private ClusterProductRepository repository = node("a", List.of("a", "b"));
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    private ClusterProductRepository node(String self, List<String> nodes) {
+        return new ClusterProductRepository(self, nodes, 160, local, node -> {
+            assertEquals("b", node);
+            connections.incrementAndGet();
+            return peer;
+        }, Duration.ofMillis(10));
+    }
+
+    private static Product product(String id, String price, int quantity) {
+        return Product.builder().id(id).name("Product " + id).price(new BigDecimal(price)).quantity(quantity)
+                .version(1L).build();
+    }
+
+    // Returns the first product ids owned by the given node.
+    private String[] ownedBy(String node, int count) {
+        return IntStream.range(0, 1_000)
+                .mapToObj(index -> "p-" + index)
+                .filter(id -> repository.owner(id).equals(node))
+                .limit(count)
+                .toArray(String[]::new);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            LockSupport.parkNanos(Duration.ofMillis(5).toNanos());
+        }
+    }
+
+    @Test
+    void init_shouldSeedTheFirstNodeAndHandOverTheProductsOthersOwn() {
+        when(peer.adopt(any())).thenReturn(Mono.just(true));
+
+        repository.init();
+
+        List<String> kept = local.findAll().map(Product::getId).collectList().block();
+        List<String> handedOver = DefaultProducts.all().stream()
+                .map(Product::getId)
+                .filter(id -> repository.owner(id).equals("b"))
+                .toList();
+        assertFalse(handedOver.isEmpty());
+        assertEquals(10, kept.size() + handedOver.size());
+        kept.forEach(id -> assertEquals("a", repository.owner(id)));
+        handedOver.forEach(id -> verify(peer).adopt(argThat(product -> product.getId().equals(id))));
+        ClusterStatus status = repository.status().block();
+        assertEquals(new ClusterStatus("a", List.of("a", "b"), kept.size(), false), status);
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    void init_shouldNotSeedTheOtherNodes() {
+        repository = node("b", List.of("a", "b"));
+
+        repository.init();
+
+        assertEquals(0, local.count().block());
+        verify(peer, never()).adopt(any());
+    }
+
+    @Test
+    void rebalance_shouldRetryUntilTheNewOwnerAdoptsTheProducts() {
+        repository = node("a", List.of("a"));
+        repository.init();
+        assertEquals(10, local.count().block());
+        AtomicInteger attempts = new AtomicInteger();
+        when(peer.adopt(any())).thenAnswer(invocation -> attempts.incrementAndGet() == 1
+                ? Mono.error(new IllegalStateException("Connection refused"))
+                : Mono.just(true));
+
+        ClusterStatus status = repository.rebalance(List.of("a", "b")).block();
+
+        assertEquals(List.of("a", "b"), status.nodes());
+        assertTrue(status.rebalancing());
+        await(() -> !repository.status().block().rebalancing());
+        local.findAll().toIterable().forEach(product -> assertEquals("a", repository.owner(product.getId())));
+        assertTrue(local.count().block() < 10);
+    }
+
+    @Test
+    void rebalance_shouldHandOverAgainProductsWrittenWhileTheyWereHandedOver() {
+        repository = node("a", List.of("a"));
+        repository.init();
+        AtomicInteger writes = new AtomicInteger();
+        when(peer.adopt(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            return writes.getAndIncrement() == 0
+                    ? local.adjustQuantity(product.getId(), 1).thenReturn(true)
+                    : Mono.just(true);
+        });
+
+        repository.rebalance(List.of("a", "b")).block();
+
+        await(() -> !repository.status().block().rebalancing());
+        local.findAll().toIterable().forEach(product -> assertEquals("a", repository.owner(product.getId())));
+        verify(peer).adopt(argThat(product -> product.getVersion() == 2L));
+    }
+
+    @Test
+    void rebalance_shouldKeepProductsTheOwnerHoldsOtherContentsOf() {
+        repository = node("a", List.of("a"));
+        repository.init();
+        String conflicting = DefaultProducts.all().stream()
+                .map(Product::getId)
+                .filter(id -> new HashRing(List.of("a", "b"), 160).owner(id).equals("b"))
+                .findFirst()
+                .orElseThrow();
+        AtomicInteger refusals = new AtomicInteger();
+        when(peer.adopt(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            if (!product.getId().equals(conflicting)) {
+                return Mono.just(true);
+            }
+            refusals.incrementAndGet();
+            return Mono.error(new ProductVersionConflictException(conflicting, 1, 1));
+        });
+
+        repository.rebalance(List.of("a", "b")).block();
+
+        await(() -> refusals.get() >= 3);
+        assertTrue(repository.status().block().rebalancing());
+        assertEquals(true, local.existsById(conflicting).block());
+        local.findAll().toIterable().forEach(product -> assertTrue(product.getId().equals(conflicting)
+                || repository.owns(product.getId())));
+    }
+
+    @Test
+    void rebalance_shouldRestartWithTheLatestNodes() {
+        repository = node("a", List.of("a"));
+        repository.init();
+        when(peer.adopt(any())).thenReturn(Mono.never());
+
+        assertTrue(repository.rebalance(List.of("a", "b")).block().rebalancing());
+        assertFalse(repository.rebalance(List.of("a")).block().rebalancing());
+        assertEquals(10, local.count().block());
+    }
+
+    @Test
+    void close_shouldStopHandingOver() {
+        repository.close();
+        when(peer.adopt(any())).thenReturn(Mono.never());
+        repository.init();
+
+        repository.close();
+
+        assertTrue(repository.status().block().rebalancing());
+    }
+
+    @Test
+    void keyedOperations_shouldRunOnTheOwner() {
+        String mine = ownedBy("a", 1)[0];
+        String theirs = ownedBy("b", 1)[0];
+        Product remote = product(theirs, "5.00", 3);
+        local.save(product(mine, "1.00", 1)).block();
+        when(peer.findById(theirs)).thenReturn(Mono.just(remote));
+        when(peer.save(any())).thenReturn(Mono.just(remote));
+        when(peer.update(any(), any())).thenReturn(Mono.just(remote));
+        when(peer.adjustQuantity(theirs, -1)).thenReturn(Mono.just(remote));
+        when(peer.deleteAll(any())).thenReturn(Flux.just(theirs));
+        when(peer.existsById(theirs)).thenReturn(Mono.just(true));
+
+        assertEquals(remote, repository.findById(theirs).block());
+        assertEquals(mine, repository.findById(mine).block().getId());
+        assertEquals(remote, repository.save(remote).block());
+        assertEquals(remote, repository.update(theirs, remote).block());
+        assertEquals(remote, repository.adjustQuantity(theirs, -1).block());
+        assertEquals(0, repository.adjustQuantity(mine, -1).block().getQuantity());
+        assertTrue(repository.existsById(theirs).block());
+        repository.deleteById(theirs).block();
+        repository.deleteById(mine).block();
+
+        verify(peer).deleteAll(any());
+        assertEquals(0, local.count().block());
+    }
+
+    @Test
+    void keyedOperations_shouldReachProductsTheOldOwnerStillHolds() {
+        String moving = ownedBy("b", 1)[0];
+        String moved = ownedBy("b", 2)[1];
+        String stayed = ownedBy("a", 1)[0];
+        Product held = product(moving, "5.00", 3);
+        when(peer.findById(moving)).thenReturn(Mono.just(held));
+        when(peer.existsById(moving)).thenReturn(Mono.just(true));
+        when(peer.update(any(), any())).thenReturn(Mono.just(held));
+        when(peer.deleteAll(any())).thenReturn(Flux.just(moving));
+        // The old owner handed the other product over right after this node missed it.
+        when(peer.adjustQuantity(moved, 1)).thenAnswer(invocation -> local.save(product(moved, "1.00", 1))
+                .then(Mono.error(new NotProductOwnerException(moved, "a"))));
+
+        repository.rebalance(List.of("a")).block();
+
+        assertEquals(held, repository.findById(moving).block());
+        assertEquals(held, repository.update(moving, held).block());
+        assertTrue(repository.existsById(moving).block());
+        repository.deleteById(moving).block();
+        verify(peer).deleteAll(any());
+        assertEquals(2, repository.adjustQuantity(moved, 1).block().getQuantity());
+        // Products that did not move are only looked for on their owner.
+        assertNull(repository.findById(stayed).block());
+        verify(peer, never()).findById(stayed);
+    }
+
+    @Test
+    void rebalance_shouldDeleteTheAdoptedCopyOfAProductDeletedWhileItMoved() {
+        repository = node("a", List.of("a"));
+        repository.init();
+        List<String> retracted = new CopyOnWriteArrayList<>();
+        AtomicReference<String> deleted = new AtomicReference<>();
+        when(peer.adopt(any())).thenAnswer(invocation -> {
+            Product product = invocation.getArgument(0);
+            // A delete reaches this node, the old owner, while the product is on its way.
+            return deleted.compareAndSet(null, product.getId())
+                    ? local.deleteById(product.getId()).thenReturn(true)
+                    : Mono.just(true);
+        });
+        when(peer.deleteAll(any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                .doOnNext(retracted::add));
+
+        repository.rebalance(List.of("a", "b")).block();
+
+        await(() -> !repository.status().block().rebalancing());
+        assertEquals(List.of(deleted.get()), retracted);
+        assertFalse(local.existsById(deleted.get()).block());
+    }
+
+    @Test
+    void bulkOperations_shouldRunOnTheOwnersInInputOrder() {
+        String[] mine = ownedBy("a", 3);
+        String[] theirs = ownedBy("b", 2);
+        when(peer.save(any())).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(peer.updateAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(peer.deleteAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StepVerifier.create(repository.saveAll(Flux.just(product(theirs[0], "1", 1), product(mine[0], "1", 1),
+                        product(theirs[1], "1", 1), product(mine[1], "1", 1))).map(Product::getId))
+                .expectNext(theirs[0], mine[0], theirs[1], mine[1])
+                .verifyComplete();
+        StepVerifier.create(repository.updateAll(Flux.just(product(mine[0], "2", 2), product(theirs[0], "2", 2),
+                        product(mine[2], "2", 2))).map(Product::getId))
+                .expectNextCount(2)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteAll(Flux.just(theirs[1], mine[1], mine[1])))
+                .expectNext(theirs[1], mine[1])
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldMergeTheNodesInIdOrder() {
+        local.saveAll(Flux.just(product("1", "1", 1), product("3", "3", 3))).blockLast();
+        // The product "3" was just handed over, and is on both nodes for a moment.
+        when(peer.findPage(null, 3)).thenReturn(Flux.just(product("2", "2", 2), product("3", "3", 3),
+                product("4", "4", 4)));
+
+        StepVerifier.create(repository.findPage(null, 3).map(Product::getId))
+                .expectNext("1", "2", "3")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldMergeTheNodesInTheOrderOfTheFilter() {
+        local.saveAll(Flux.just(product("1", "10", 5), product("2", "30", 1))).blockLast();
+        ProductFilter prices = new ProductFilter(BigDecimal.ONE, null, null);
+        ProductFilter quantities = new ProductFilter(null, null, 10);
+        when(peer.findByFilter(prices)).thenReturn(Flux.just(product("3", "20", 9)));
+        when(peer.findByFilter(quantities)).thenReturn(Flux.just(product("3", "20", 3)));
+        when(peer.findAll()).thenReturn(Flux.just(product("3", "20", 3)));
+
+        StepVerifier.create(repository.findByFilter(prices).map(Product::getId))
+                .expectNext("1", "3", "2")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(quantities).map(Product::getId))
+                .expectNext("2", "3", "1")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, null)).map(Product::getId).sort())
+                .expectNext("1", "2", "3")
+                .verifyComplete();
+    }
+
+    @Test
+    void search_shouldTakeTheBestMatchesOfEveryNodeInTurn() {
+        local.save(Product.builder().id("1").name("Desk lamp").build()).block();
+        when(peer.search("lamp", 3)).thenReturn(Flux.just(product("5", "1", 1), product("0", "1", 1)));
+
+        StepVerifier.create(repository.search("lamp", 3).map(Product::getId))
+                .expectNext("1", "5", "0")
+                .verifyComplete();
+    }
+
+    @Test
+    void aggregates_shouldAddUpEveryNode() {
+        local.saveAll(Flux.just(product("1", "10.00", 2), product("2", "20.00", 0))).blockLast();
+        when(peer.count()).thenReturn(Mono.just(3L));
+        when(peer.catalogVersion()).thenReturn(Mono.just(7L));
+        when(peer.stats()).thenReturn(Mono.just(ProductStats.of(1, 0, 4, new BigDecimal("160.00"),
+                new BigDecimal("40.00"), new BigDecimal("40.00"), 1, new BigDecimal("40.00"))));
+
+        assertEquals(5, repository.count().block());
+        assertEquals(9, repository.catalogVersion().block());
+        ProductStats stats = repository.stats().block();
+        assertEquals(3, stats.productCount());
+        assertEquals(1, stats.outOfStockCount());
+        assertEquals(6, stats.unitsInStock());
+        assertEquals(0, new BigDecimal("180").compareTo(stats.stockValue()));
+        assertEquals(new BigDecimal("10.00"), stats.minPrice());
+        assertEquals(new BigDecimal("40.00"), stats.maxPrice());
+        assertEquals(new BigDecimal("23.33"), stats.averagePrice());
+    }
+
+    @Test
+    void catalogVersion_shouldNeverGoBackWhenNodesRestartOrChange() {
+        local.save(product("1", "10.00", 2)).block();
+        when(peer.catalogVersion()).thenReturn(Mono.just(7L), Mono.just(9L), Mono.just(2L), Mono.just(8L));
+
+        assertEquals(8, repository.catalogVersion().block());
+        assertEquals(10, repository.catalogVersion().block());
+        // The peer restarted: its version fell from 9 to 2, then rose back close to where it was.
+        assertEquals(11, repository.catalogVersion().block());
+        assertEquals(17, repository.catalogVersion().block());
+        // Without the peer, its versions no longer count, and the version still moves on.
+        repository.rebalance(List.of("a")).block();
+        assertEquals(18, repository.catalogVersion().block());
+        assertEquals(18, repository.catalogVersion().block());
+        local.save(product("2", "10.00", 2)).block();
+        assertEquals(19, repository.catalogVersion().block());
+    }
+
+    @Test
+    void combine_shouldSkipNodesWithoutPrices() {
+        ProductStats empty = ProductStats.of(0, 0, 0, BigDecimal.ZERO, null, null, 0, BigDecimal.ZERO);
+        ProductStats priced = ProductStats.of(2, 1, 3, new BigDecimal("9.00"), new BigDecimal("1.00"),
+                new BigDecimal("5.00"), 2, new BigDecimal("6.00"));
+
+        assertEquals(priced, ClusterProductRepository.combine(empty, priced));
+        assertEquals(priced, ClusterProductRepository.combine(priced, empty));
+        assertEquals(empty, ClusterProductRepository.combine(empty, empty));
+    }
+
+    @Test
+    void combine_shouldAverageOnlyThePricedProductsOfEveryNode() {
+        // Two products, one of them without a price, and four products priced 10.00 each.
+        ProductStats partlyPriced = ProductStats.of(2, 1, 1, new BigDecimal("40.00"), new BigDecimal("40.00"),
+                new BigDecimal("40.00"), 1, new BigDecimal("40.00"));
+        ProductStats priced = ProductStats.of(4, 0, 4, new BigDecimal("40.00"), new BigDecimal("10.00"),
+                new BigDecimal("10.00"), 4, new BigDecimal("40.00"));
+
+        ProductStats combined = ClusterProductRepository.combine(partlyPriced, priced);
+
+        assertEquals(6, combined.productCount());
+        assertEquals(5, combined.pricedCount());
+        assertEquals(new BigDecimal("16.00"), combined.averagePrice());
+    }
+}
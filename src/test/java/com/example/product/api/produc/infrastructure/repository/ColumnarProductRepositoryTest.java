@@ -0,0 +1,368 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.infrastructure.persistence.FileProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.FsyncPolicy;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarProductRepositoryTest {
+
+    private ColumnarProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ColumnarProductRepository(new NoOpProductJournal());
+        repository.init();
+    }
+
+    @Test
+    void findAll_shouldReturnAllProductsInIdOrderAcrossChunks() {
+        StepVerifier.create(repository.findAll().map(Product::getId))
+                .expectNext("1", "10", "2", "3", "4", "5", "6", "7", "8", "9")
+                .verifyComplete();
+
+        int added = 2 * ColumnarProductRepository.CHUNK_SIZE - 10;
+        repository.saveAll(Flux.range(0, added)
+                .map(i -> Product.builder().id(String.format("bulk-%05d", i)).build())).blockLast();
+
+        StepVerifier.create(repository.findAll().map(Product::getId).collectList())
+                .assertNext(ids -> {
+                    assertEquals(2 * ColumnarProductRepository.CHUNK_SIZE, ids.size());
+                    assertEquals(ids.stream().sorted().toList(), ids);
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldContinueAfterCursorAndSkipDeletedProducts() {
+        StepVerifier.create(repository.deleteById("3")
+                        .then(repository.save(Product.builder().id("25").name("New").build()))
+                        .thenMany(repository.findPage("2", 3))
+                        .map(Product::getId))
+                .expectNext("25", "4", "5")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldFollowUpdatesAndDeletes() {
+        ProductFilter cheap = new ProductFilter(null, new BigDecimal("50"), null);
+
+        StepVerifier.create(repository.findByFilter(cheap).map(Product::getId))
+                .expectNext("10", "6")
+                .verifyComplete();
+        StepVerifier.create(repository.update("10", Product.builder().name("Dearer").price(new BigDecimal("500"))
+                                .build())
+                        .then(repository.deleteById("6"))
+                        .thenMany(repository.findByFilter(cheap)))
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, 20)).map(Product::getId))
+                .expectNext("1", "4")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, null)))
+                .expectNextCount(9)
+                .verifyComplete();
+    }
+
+    @Test
+    void search_shouldFollowUpdatesAndDeletes() {
+        StepVerifier.create(repository.search("wireless headphones", 10).map(Product::getId))
+                .expectNext("3", "6")
+                .verifyComplete();
+        StepVerifier.create(repository.update("3", Product.builder().name("Studio Monitors").build())
+                        .then(repository.deleteById("6"))
+                        .thenMany(repository.search("wireless", 10)))
+                .verifyComplete();
+        StepVerifier.create(repository.search("studio", 10).map(Product::getId))
+                .expectNext("3")
+                .verifyComplete();
+    }
+
+    @Test
+    void save_shouldStartAtVersionOneAndBumpItOnEveryWrite() {
+        Product product = Product.builder().id("new").name("New").price(new BigDecimal("9.99")).build();
+
+        StepVerifier.create(repository.save(product).map(Product::getVersion))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(repository.save(product).then(repository.findById("new")))
+                .assertNext(stored -> {
+                    assertEquals(2L, stored.getVersion());
+                    assertEquals(new BigDecimal("9.99"), stored.getPrice());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("new"))
+                .expectNext(true)
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldApplyOnlyWhenExpectedVersionMatches() {
+        Product replacement = Product.builder().name("Renamed").version(1L).build();
+
+        StepVerifier.create(repository.update("1", replacement).map(Product::getVersion))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(repository.update("1", replacement))
+                .expectErrorSatisfies(error -> {
+                    assertEquals(ProductVersionConflictException.class, error.getClass());
+                    assertEquals("Product 1 is at version 2, expected version 1", error.getMessage());
+                })
+                .verify();
+        StepVerifier.create(repository.update("999", replacement))
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldNeverLoseConcurrentCompareAndSetWrites() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> {
+                for (int attempt = 0; attempt < 25; ) {
+                    Product current = repository.findById("1").block();
+                    boolean applied = repository.update("1", current.toBuilder().quantity(current.getQuantity() + 1)
+                                    .build())
+                            .onErrorResume(ProductVersionConflictException.class, conflict -> Mono.empty())
+                            .hasElement()
+                            .block();
+                    attempt += applied ? 1 : 0;
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(115, product.getQuantity());
+                    assertEquals(101L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkWrites_shouldEmitOnlyProductsTheyChanged() {
+        StepVerifier.create(repository.updateAll(Flux.just(
+                                Product.builder().id("1").name("Renamed").build(),
+                                Product.builder().id("missing").name("Missing").build()))
+                        .map(Product::getName))
+                .expectNext("Renamed")
+                .verifyComplete();
+        StepVerifier.create(repository.deleteAll(Flux.just("2", "missing", "3")))
+                .expectNext("2", "3")
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("2").then(repository.existsById("2")))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldApplyDeltaAndBumpVersion() {
+        StepVerifier.create(repository.adjustQuantity("1", -5))
+                .assertNext(product -> {
+                    assertEquals(10, product.getQuantity());
+                    assertEquals(2L, product.getVersion());
+                    assertEquals("Laptop", product.getName());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("1", 3))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(13, product.getQuantity());
+                    assertEquals(3L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldRejectDropsBelowZeroAndLeaveProductUntouched() {
+        long catalogVersion = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.adjustQuantity("1", -16))
+                .verifyErrorMessage("Product 1 has 15 in stock, 16 requested");
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(15, product.getQuantity());
+                    assertEquals(1L, product.getVersion());
+                })
+                .verifyComplete();
+        assertEquals(catalogVersion, repository.catalogVersion().block());
+        StepVerifier.create(repository.adjustQuantity("1", -15).map(Product::getQuantity))
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldRejectRisesBeyondTheLargestQuantityAndLeaveProductUntouched() {
+        long catalogVersion = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.adjustQuantity("1", Integer.MAX_VALUE))
+                .expectErrorSatisfies(error -> {
+                    StockLimitExceededException excess = assertInstanceOf(StockLimitExceededException.class, error);
+                    assertEquals("Product 1 has 15 in stock, 2147483647 more would exceed 2147483647",
+                            excess.getMessage());
+                    assertEquals(15, excess.getAvailable());
+                    assertEquals(Integer.MAX_VALUE, excess.getAdded());
+                })
+                .verify();
+        StepVerifier.create(repository.findById("1").map(Product::getVersion))
+                .expectNext(1L)
+                .verifyComplete();
+        assertEquals(catalogVersion, repository.catalogVersion().block());
+        StepVerifier.create(repository.adjustQuantity("1", Integer.MAX_VALUE - 15).map(Product::getQuantity))
+                .expectNext(Integer.MAX_VALUE)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldCountMissingQuantityAsZeroAndSkipMissingProducts() {
+        StepVerifier.create(repository.save(Product.builder().id("new").name("New").build())
+                        .then(repository.adjustQuantity("new", 2))
+                        .map(Product::getQuantity))
+                .expectNext(2)
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("999", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldNeverOversellUnderConcurrentReservations() throws InterruptedException {
+        repository.save(Product.builder().id("hot").name("Hot").quantity(500).build()).block();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> repository.adjustQuantity("hot", -1)
+                    .subscribe(product -> reserved.incrementAndGet(), error -> rejected.incrementAndGet()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(500, reserved.get());
+        assertEquals(500, rejected.get());
+        StepVerifier.create(repository.findById("hot"))
+                .assertNext(product -> {
+                    assertEquals(0, product.getQuantity());
+                    assertEquals(501L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void count_shouldFollowSavesAndDeletes() {
+        long seeded = DefaultProducts.all().size();
+
+        StepVerifier.create(repository.count())
+                .expectNext(seeded)
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("new").build())
+                        .then(repository.deleteById("1"))
+                        .then(repository.deleteById("2"))
+                        .then(repository.count()))
+                .expectNext(seeded - 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void stats_shouldFollowEveryWrite() {
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> CatalogStatsTest.assertStats(CatalogStatsTest.scan(DefaultProducts.all()), stats))
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("sample").name("Sample").quantity(0).build())
+                        .then(repository.findById("1"))
+                        .flatMap(laptop -> repository.update("1", laptop.toBuilder()
+                                .price(new BigDecimal("1499.50")).version(null).build()))
+                        .then(repository.adjustQuantity("2", -1))
+                        .then(repository.deleteById("3"))
+                        .thenMany(repository.saveAll(Flux.just(Product.builder().id("cheap").name("Cheap")
+                                .price(new BigDecimal("0.25")).quantity(4).build())))
+                        .then())
+                .verifyComplete();
+
+        List<Product> products = repository.findAll().collectList().block();
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> {
+                    CatalogStatsTest.assertStats(CatalogStatsTest.scan(products), stats);
+                    assertEquals(11, stats.productCount());
+                    assertEquals(0, new BigDecimal("0.25").compareTo(stats.minPrice()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void catalogVersion_shouldChangeOnlyWhenSomethingWasWritten() {
+        long initial = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.save(Product.builder().id("new").build())
+                        .then(repository.update("1", Product.builder().name("Renamed").build()))
+                        .then(repository.update("999", Product.builder().build()))
+                        .then(repository.deleteById("2"))
+                        .then(repository.deleteById("999"))
+                        .then(repository.catalogVersion()))
+                .expectNext(initial + 3)
+                .verifyComplete();
+    }
+
+    @Test
+    void init_shouldRecoverJournaledProductsInsteadOfSeeding(@TempDir Path directory) throws InterruptedException {
+        FileProductJournal journal = new FileProductJournal(directory, FsyncPolicy.EVERY_BATCH,
+                Duration.ofMillis(10), Duration.ofHours(1));
+        ColumnarProductRepository journaled = new ColumnarProductRepository(journal);
+        journaled.init();
+        StepVerifier.create(journaled.deleteById("1")
+                        .then(journaled.update("2", Product.builder().name("Renamed").price(BigDecimal.ONE).build()))
+                        .then(journaled.update("4", Product.builder().name("Monitor").price(BigDecimal.TEN).build()))
+                        .thenMany(journaled.saveAll(Flux.just(Product.builder().id("new").name("New").build())))
+                        .then(journaled.deleteAll(Flux.just("3")).then()))
+                .verifyComplete();
+
+        // The first restart follows a crash and replays the log; the second follows a clean shutdown, which
+        // leaves a snapshot to restore.
+        for (int restart = 0; restart < 2; restart++) {
+            FileProductJournal reopened = new FileProductJournal(directory, FsyncPolicy.EVERY_BATCH,
+                    Duration.ofMillis(10), Duration.ofHours(1));
+            ColumnarProductRepository recovered = new ColumnarProductRepository(reopened);
+            recovered.init();
+
+            StepVerifier.create(recovered.findAll().map(Product::getId))
+                    .expectNext("10", "2", "4", "5", "6", "7", "8", "9", "new")
+                    .verifyComplete();
+            StepVerifier.create(recovered.findById("2").map(Product::getVersion))
+                    .expectNext(2L)
+                    .verifyComplete();
+            StepVerifier.create(recovered.search("renamed", 10).map(Product::getId))
+                    .expectNext("2")
+                    .verifyComplete();
+            StepVerifier.create(recovered.findByFilter(new ProductFilter(null, new BigDecimal("10"), null))
+                            .map(Product::getId))
+                    .expectNext("2", "4")
+                    .verifyComplete();
+            CatalogStatsTest.assertStats(CatalogStatsTest.scan(recovered.findAll().collectList().block()),
+                    recovered.stats().block());
+            reopened.close();
+        }
+    }
+}
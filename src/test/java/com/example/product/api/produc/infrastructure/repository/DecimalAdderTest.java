@@ -0,0 +1,37 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecimalAdderTest {
+
+    @Test
+    void sum_shouldBeExact() {
+        DecimalAdder adder = new DecimalAdder(1);
+        adder.add(new BigDecimal("0.1"));
+        adder.add(new BigDecimal("0.2"));
+        adder.add(new BigDecimal("-0.05"));
+
+        assertEquals(new BigDecimal("0.25"), adder.sum());
+    }
+
+    @Test
+    void sum_shouldAddUpEveryCellUnderConcurrentAdditions() throws InterruptedException {
+        DecimalAdder adder = new DecimalAdder(6);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 10_000).forEach(i -> executor.execute(() -> adder.add(new BigDecimal("0.01"))));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(new BigDecimal("100.00"), adder.sum());
+        assertEquals(BigDecimal.ZERO, new DecimalAdder().sum());
+    }
+}
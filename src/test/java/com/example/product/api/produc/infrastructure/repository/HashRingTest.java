@@ -0,0 +1,72 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashRingTest {
+
+    private static final List<String> KEYS = IntStream.range(0, 20_000)
+            .mapToObj(index -> UUID.nameUUIDFromBytes(("product-" + index).getBytes()).toString())
+            .toList();
+
+    private static Map<String, Integer> shares(HashRing ring) {
+        Map<String, Integer> shares = new HashMap<>();
+        KEYS.forEach(key -> shares.merge(ring.owner(key), 1, Integer::sum));
+        return shares;
+    }
+
+    @Test
+    void owner_shouldSpreadKeysEvenlyOverTheNodes() {
+        HashRing ring = new HashRing(List.of("a", "b", "c", "d"), 160);
+
+        Map<String, Integer> shares = shares(ring);
+        assertEquals(4, shares.size());
+        shares.values().forEach(share -> assertEquals(KEYS.size() / 4.0, share, KEYS.size() / 4.0 * 0.2));
+        assertEquals(ring.owner(KEYS.get(0)), new HashRing(List.of("a", "b", "c", "d"), 160).owner(KEYS.get(0)));
+        // A key hashing right onto a point belongs to the node of that point.
+        assertEquals("c", ring.owner("c#7"));
+    }
+
+    @Test
+    void owner_shouldOnlyMoveKeysToAddedNodes() {
+        HashRing before = new HashRing(List.of("a", "b", "c", "d"), 160);
+        HashRing after = new HashRing(List.of("a", "b", "c", "d", "e"), 160);
+
+        long moved = KEYS.stream().filter(key -> !before.owner(key).equals(after.owner(key))).count();
+        KEYS.stream()
+                .filter(key -> !before.owner(key).equals(after.owner(key)))
+                .forEach(key -> assertEquals("e", after.owner(key)));
+        assertEquals(KEYS.size() / 5.0, moved, KEYS.size() / 5.0 * 0.2);
+    }
+
+    @Test
+    void owner_shouldOnlyMoveTheKeysOfRemovedNodes() {
+        HashRing before = new HashRing(List.of("a", "b", "c"), 160);
+        HashRing after = new HashRing(List.of("a", "c"), 160);
+
+        KEYS.stream()
+                .filter(key -> !before.owner(key).equals(after.owner(key)))
+                .forEach(key -> assertEquals("b", before.owner(key)));
+    }
+
+    @Test
+    void owner_shouldGiveEveryKeyToASingleNode() {
+        HashRing ring = new HashRing(List.of("a", "a"), 1);
+
+        assertEquals(List.of("a"), ring.nodes());
+        assertEquals(Map.of("a", KEYS.size()), shares(ring));
+    }
+
+    @Test
+    void constructor_shouldRejectEmptyRings() {
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(List.of(), 160));
+        assertThrows(IllegalArgumentException.class, () -> new HashRing(List.of("a"), 0));
+    }
+}
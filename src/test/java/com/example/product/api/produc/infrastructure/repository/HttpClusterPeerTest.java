@@ -0,0 +1,173 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reaches the partition of a one-node cluster, as its peers would.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "product.repository.type=cluster",
+        "product.persistence.enabled=false",
+        "product.cluster.self=http://node",
+        "product.cluster.nodes=http://node"
+})
+class HttpClusterPeerTest {
+
+    @LocalServerPort
+    private int port;
+
+    private HttpClusterPeer peer;
+
+    @BeforeEach
+    void setUp() {
+        peer = new HttpClusterPeer(WebClient.builder(), "http://localhost:" + port, Duration.ofSeconds(5));
+    }
+
+    private static Product product(String id, String price, int quantity) {
+        return Product.builder().id(id).name("Peer " + id).description("Reached over HTTP")
+                .price(new BigDecimal(price)).quantity(quantity).build();
+    }
+
+    @Test
+    void reads_shouldReturnTheProductsOfTheNode() {
+        StepVerifier.create(peer.findAll())
+                .expectNextCount(10)
+                .thenConsumeWhile(product -> true)
+                .verifyComplete();
+        StepVerifier.create(peer.findPage("1", 2).map(Product::getId))
+                .expectNext("10", "2")
+                .verifyComplete();
+        StepVerifier.create(peer.findPage(null, 1).map(Product::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(peer.findByFilter(new ProductFilter(new BigDecimal("1000"), null, null))
+                        .map(Product::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(peer.findByFilter(new ProductFilter(new BigDecimal("40"), new BigDecimal("50"), 60))
+                        .map(Product::getId))
+                .expectNext("6")
+                .verifyComplete();
+        StepVerifier.create(peer.search("laptop", 5).map(Product::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(peer.findById("1").map(Product::getName))
+                .expectNext("Laptop")
+                .verifyComplete();
+        StepVerifier.create(peer.findById("missing"))
+                .verifyComplete();
+        StepVerifier.create(peer.existsById("missing"))
+                .expectNext(false)
+                .verifyComplete();
+        assertTrue(peer.count().block() >= 10);
+        assertTrue(peer.stats().block().productCount() >= 10);
+        assertTrue(peer.catalogVersion().block() >= 10);
+    }
+
+    @Test
+    void writes_shouldRunOnTheNode() {
+        StepVerifier.create(peer.save(product("peer-1", "10.00", 5)).map(Product::getVersion))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(peer.update("peer-1", product("peer-1", "12.00", 5).toBuilder().version(1L).build())
+                        .map(Product::getPrice))
+                .expectNext(new BigDecimal("12.00"))
+                .verifyComplete();
+        StepVerifier.create(peer.update("peer-missing", product("peer-missing", "1", 1)))
+                .verifyComplete();
+        StepVerifier.create(peer.adjustQuantity("peer-1", -2).map(Product::getQuantity))
+                .expectNext(3)
+                .verifyComplete();
+        StepVerifier.create(peer.adjustQuantity("peer-missing", 1))
+                .verifyComplete();
+        StepVerifier.create(peer.saveAll(Flux.just(product("peer-2", "1", 1), product("peer-3", "1", 1)))
+                        .map(Product::getId))
+                .expectNext("peer-2", "peer-3")
+                .verifyComplete();
+        StepVerifier.create(peer.updateAll(Flux.just(product("peer-2", "2", 2), product("peer-missing", "2", 2)))
+                        .map(Product::getId))
+                .expectNext("peer-2")
+                .verifyComplete();
+        StepVerifier.create(peer.deleteAll(Flux.just("peer-2", "peer-missing")))
+                .expectNext("peer-2")
+                .verifyComplete();
+        StepVerifier.create(peer.deleteById("peer-3"))
+                .verifyComplete();
+        StepVerifier.create(peer.existsById("peer-3"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void writes_shouldFailLikeTheRepositoryOfTheNode() {
+        peer.save(product("peer-4", "10.00", 5)).block();
+
+        StepVerifier.create(peer.update("peer-4", product("peer-4", "1", 1).toBuilder().version(7L).build()))
+                .expectErrorSatisfies(error -> {
+                    ProductVersionConflictException conflict =
+                            assertInstanceOf(ProductVersionConflictException.class, error);
+                    assertEquals("Product peer-4 is at version 1, expected version 7", conflict.getMessage());
+                    assertEquals(1, conflict.getCurrentVersion());
+                })
+                .verify();
+        StepVerifier.create(peer.adjustQuantity("peer-4", -6))
+                .expectErrorSatisfies(error -> {
+                    InsufficientStockException shortage = assertInstanceOf(InsufficientStockException.class, error);
+                    assertEquals("Product peer-4 has 5 in stock, 6 requested", shortage.getMessage());
+                })
+                .verify();
+        StepVerifier.create(peer.adjustQuantity("peer-4", Integer.MAX_VALUE))
+                .expectErrorSatisfies(error -> {
+                    StockLimitExceededException excess = assertInstanceOf(StockLimitExceededException.class, error);
+                    assertEquals(5, excess.getAvailable());
+                    assertEquals(Integer.MAX_VALUE, excess.getAdded());
+                })
+                .verify();
+    }
+
+    @Test
+    void requests_shouldFailWhenTheNodeDoesNotAnswerInTime() throws IOException {
+        // The socket is never accepted from, so connections are made but no request is ever answered.
+        try (ServerSocket silent = new ServerSocket(0)) {
+            HttpClusterPeer hanging = new HttpClusterPeer(WebClient.builder(),
+                    "http://localhost:" + silent.getLocalPort(), Duration.ofMillis(200));
+
+            StepVerifier.create(hanging.count())
+                    .expectError()
+                    .verify(Duration.ofSeconds(5));
+        }
+    }
+
+    @Test
+    void adopt_shouldStoreHandedOverProductsAtTheirVersion() {
+        Product moved = product("peer-5", "3.00", 1).toBuilder().version(4L).build();
+
+        StepVerifier.create(peer.adopt(moved))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(peer.adopt(moved))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(peer.findById("peer-5").map(Product::getVersion))
+                .expectNext(4L)
+                .verifyComplete();
+    }
+}
@@ -1,11 +1,28 @@
 package com.example.product.api.produc.infrastructure.repository;
 
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.infrastructure.persistence.FileProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.FsyncPolicy;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -15,7 +32,7 @@ class InMemoryProductRepositoryTest {
 
     @BeforeEach
     void setUp() {
-        repository = new InMemoryProductRepository();
+        repository = new InMemoryProductRepository(new NoOpProductJournal());
         repository.init();
     }
 
@@ -26,6 +43,168 @@ class InMemoryProductRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void findPage_shouldReturnFirstPageOrderedById() {
+        StepVerifier.create(repository.findPage(null, 3).map(Product::getId))
+                .expectNext("1", "10", "2")
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldContinueAfterCursor() {
+        StepVerifier.create(repository.findPage("2", 3).map(Product::getId))
+                .expectNext("3", "4", "5")
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldReturnEmptyAfterLastProduct() {
+        StepVerifier.create(repository.findPage("9", 3))
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldSkipDeletedProducts() {
+        StepVerifier.create(repository.deleteById("3"))
+                .verifyComplete();
+
+        StepVerifier.create(repository.findPage("2", 2).map(Product::getId))
+                .expectNext("4", "5")
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldIncludeSavedProducts() {
+        Product newProduct = Product.builder()
+                .id("25")
+                .name("New Product")
+                .price(new BigDecimal("9.99"))
+                .quantity(1)
+                .build();
+
+        StepVerifier.create(repository.save(newProduct))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(repository.findPage("2", 2).map(Product::getId))
+                .expectNext("25", "3")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldReturnPriceRangeOrderedByPrice() {
+        ProductFilter filter = new ProductFilter(new BigDecimal("50"), new BigDecimal("130"), null);
+
+        StepVerifier.create(repository.findByFilter(filter).map(Product::getName))
+                .expectNext("Bluetooth Speaker", "HD Webcam", "Mechanical Keyboard")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldCombinePriceAndQuantityBounds() {
+        ProductFilter filter = new ProductFilter(null, new BigDecimal("100"), 40);
+
+        StepVerifier.create(repository.findByFilter(filter).map(Product::getId))
+                .expectNext("8")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldUseQuantityIndexWithoutPriceBounds() {
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, 20)).map(Product::getId))
+                .expectNext("1", "4")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldReturnAllProductsWithoutBounds() {
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, null)))
+                .expectNextCount(10)
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldFollowUpdatesAndDeletes() {
+        Product cheaperLaptop = Product.builder()
+                .name("Laptop")
+                .price(new BigDecimal("10.00"))
+                .quantity(5)
+                .build();
+
+        StepVerifier.create(repository.update("1", cheaperLaptop))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("10"))
+                .verifyComplete();
+
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, new BigDecimal("40"), null))
+                        .map(Product::getId))
+                .expectNext("1")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(new BigDecimal("1000"), null, null)))
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldIgnoreEntriesMadeStaleByInPlaceChanges() {
+        Product laptop = repository.findById("1").block();
+        laptop.setPrice(new BigDecimal("5.00"));
+
+        StepVerifier.create(repository.findByFilter(new ProductFilter(new BigDecimal("1000"), null, null)))
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldStayConsistentUnderConcurrentWrites() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 2_000).forEach(i -> executor.execute(() -> repository.update(String.valueOf(i % 10 + 1),
+                Product.builder()
+                        .name("Product " + i)
+                        .price(BigDecimal.valueOf(i % 100))
+                        .quantity(i % 50)
+                        .build()).block()));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        List<Product> all = repository.findAll().collectList().block();
+        List<Product> cheap = repository.findByFilter(new ProductFilter(null, new BigDecimal("49"), null))
+                .collectList().block();
+        List<Product> expected = all.stream()
+                .filter(product -> product.getPrice().compareTo(new BigDecimal("49")) <= 0)
+                .toList();
+        assertEquals(expected.size(), cheap.size());
+        assertTrue(cheap.containsAll(expected));
+    }
+
+    @Test
+    void search_shouldRankMatchesOnNameAndDescription() {
+        StepVerifier.create(repository.search("wireless headphones", 10).map(Product::getId))
+                .expectNext("3", "6")
+                .verifyComplete();
+    }
+
+    @Test
+    void search_shouldFollowUpdatesAndDeletes() {
+        Product renamed = Product.builder()
+                .name("Gaming Mouse")
+                .description("Wired mouse")
+                .price(new BigDecimal("59.99"))
+                .quantity(10)
+                .build();
+
+        StepVerifier.create(repository.update("6", renamed))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("3"))
+                .verifyComplete();
+
+        StepVerifier.create(repository.search("wireless", 10))
+                .verifyComplete();
+        StepVerifier.create(repository.search("gaming", 10).map(Product::getId))
+                .expectNext("6")
+                .verifyComplete();
+    }
+
     @Test
     void findById_shouldReturnProductWhenExists() {
         StepVerifier.create(repository.findById("1"))
@@ -82,6 +261,149 @@ class InMemoryProductRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void save_shouldStartAtVersionOneAndStoreACopy() {
+        Product newProduct = Product.builder()
+                .id("100")
+                .name("New Product")
+                .price(new BigDecimal("99.99"))
+                .quantity(10)
+                .build();
+
+        Product saved = repository.save(newProduct).block();
+        newProduct.setName("Changed after save");
+
+        assertEquals(1L, saved.getVersion());
+        StepVerifier.create(repository.findById("100"))
+                .assertNext(product -> assertEquals("New Product", product.getName()))
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldIncrementVersionWithoutTouchingPreviousInstance() {
+        Product before = repository.findById("1").block();
+        Product change = before.toBuilder().name("Renamed").version(null).build();
+
+        StepVerifier.create(repository.update("1", change))
+                .assertNext(product -> {
+                    assertEquals(2L, product.getVersion());
+                    assertEquals("Renamed", product.getName());
+                })
+                .verifyComplete();
+        assertEquals("Laptop", before.getName());
+        assertEquals(1L, before.getVersion());
+    }
+
+    @Test
+    void update_shouldApplyWhenExpectedVersionMatches() {
+        Product change = repository.findById("1").block().toBuilder().quantity(1).build();
+
+        StepVerifier.create(repository.update("1", change))
+                .assertNext(product -> assertEquals(2L, product.getVersion()))
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldRejectStaleVersionAndKeepStoredProduct() {
+        Product stale = repository.findById("1").block().toBuilder().name("Stale").version(5L).build();
+
+        StepVerifier.create(repository.update("1", stale))
+                .expectError(ProductVersionConflictException.class)
+                .verify();
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals("Laptop", product.getName());
+                    assertEquals(1L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldNeverLoseConcurrentCompareAndSetWrites() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger conflicts = new AtomicInteger();
+        IntStream.range(0, 1_000).forEach(i -> executor.execute(() -> {
+            while (true) {
+                Product current = repository.findById("1").block();
+                try {
+                    repository.update("1", current.toBuilder().quantity(current.getQuantity() + 1).build()).block();
+                    return;
+                } catch (ProductVersionConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }
+        }));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Product laptop = repository.findById("1").block();
+        assertEquals(15 + 1_000, laptop.getQuantity());
+        assertEquals(1 + 1_000, laptop.getVersion());
+    }
+
+    @Test
+    void catalogVersion_shouldChangeOnEverySuccessfulWrite() {
+        StepVerifier.create(repository.catalogVersion())
+                .expectNext(10L)
+                .verifyComplete();
+
+        repository.save(Product.builder().id("100").name("New").build()).block();
+        repository.update("1", Product.builder().name("Renamed").build()).block();
+        repository.deleteById("2").block();
+
+        StepVerifier.create(repository.catalogVersion())
+                .expectNext(13L)
+                .verifyComplete();
+    }
+
+    @Test
+    void catalogVersion_shouldNotChangeWhenNothingWasWritten() {
+        repository.update("999", Product.builder().name("Missing").build()).block();
+        repository.deleteById("999").block();
+        repository.update("1", Product.builder().name("Stale").version(9L).build())
+                .onErrorResume(ProductVersionConflictException.class, e -> Mono.empty())
+                .block();
+
+        StepVerifier.create(repository.catalogVersion())
+                .expectNext(10L)
+                .verifyComplete();
+    }
+
+    @Test
+    void saveAll_shouldStoreEveryProductInOrder() {
+        StepVerifier.create(repository.saveAll(Flux.just(
+                                Product.builder().id("100").name("A").build(),
+                                Product.builder().id("101").name("B").build()))
+                        .map(Product::getId))
+                .expectNext("100", "101")
+                .verifyComplete();
+
+        StepVerifier.create(repository.findById("101"))
+                .assertNext(product -> assertEquals(1L, product.getVersion()))
+                .verifyComplete();
+    }
+
+    @Test
+    void updateAll_shouldEmitOnlyExistingProducts() {
+        StepVerifier.create(repository.updateAll(Flux.just(
+                                Product.builder().id("1").name("Renamed").build(),
+                                Product.builder().id("999").name("Missing").build()))
+                        .map(Product::getName))
+                .expectNext("Renamed")
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteAll_shouldEmitOnlyDeletedIds() {
+        StepVerifier.create(repository.deleteAll(Flux.just("1", "999", "2")))
+                .expectNext("1", "2")
+                .verifyComplete();
+
+        StepVerifier.create(repository.findAll())
+                .expectNextCount(8)
+                .verifyComplete();
+    }
+
     @Test
     void update_shouldReturnEmptyWhenProductNotExists() {
         Product updatedProduct = Product.builder()
@@ -110,6 +432,63 @@ class InMemoryProductRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void adopt_shouldKeepTheVersionAndOnlyReplaceEarlierVersions() {
+        Product moved = Product.builder().id("moved").name("Moved").price(BigDecimal.TEN).quantity(1).version(7L)
+                .build();
+
+        StepVerifier.create(repository.adopt(moved))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(repository.adopt(moved.toBuilder().name("Stale").version(6L).build()))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(repository.adopt(moved.toBuilder().build()))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(repository.adopt(moved.toBuilder().name("Other").build()))
+                .expectErrorSatisfies(error -> {
+                    ProductVersionConflictException conflict =
+                            assertInstanceOf(ProductVersionConflictException.class, error);
+                    assertEquals(7L, conflict.getCurrentVersion());
+                })
+                .verify();
+        StepVerifier.create(repository.findById("moved").map(Product::getName))
+                .expectNext("Moved")
+                .verifyComplete();
+        StepVerifier.create(repository.adopt(moved.toBuilder().name("Newer").version(9L).build()))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(repository.findById("moved"))
+                .expectNextMatches(product -> product.getName().equals("Newer") && product.getVersion() == 9L)
+                .verifyComplete();
+        StepVerifier.create(repository.search("newer", 10).map(Product::getId))
+                .expectNext("moved")
+                .verifyComplete();
+        assertEquals(11, repository.count().block());
+        assertEquals(12, repository.catalogVersion().block());
+    }
+
+    @Test
+    void release_shouldOnlyDeleteTheVersionHandedOver() {
+        Product handedOver = repository.findById("1").block();
+        Product written = repository.adjustQuantity("1", 1).block();
+
+        StepVerifier.create(repository.release(handedOver))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(repository.release(written))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(repository.release(written))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("1"))
+                .expectNext(false)
+                .verifyComplete();
+        assertEquals(12, repository.catalogVersion().block());
+    }
+
     @Test
     void existsById_shouldReturnTrueWhenProductExists() {
         StepVerifier.create(repository.existsById("1"))
@@ -123,4 +502,197 @@ class InMemoryProductRepositoryTest {
                 .expectNext(false)
                 .verifyComplete();
     }
+
+    @Test
+    void adjustQuantity_shouldApplyDeltaAndBumpVersion() {
+        StepVerifier.create(repository.adjustQuantity("1", -5))
+                .assertNext(product -> {
+                    assertEquals(10, product.getQuantity());
+                    assertEquals(2L, product.getVersion());
+                    assertEquals("Laptop", product.getName());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("1", 3))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(13, product.getQuantity());
+                    assertEquals(3L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldRejectDropsBelowZeroAndLeaveProductUntouched() {
+        long catalogVersion = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.adjustQuantity("1", -16))
+                .verifyErrorMessage("Product 1 has 15 in stock, 16 requested");
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(15, product.getQuantity());
+                    assertEquals(1L, product.getVersion());
+                })
+                .verifyComplete();
+        assertEquals(catalogVersion, repository.catalogVersion().block());
+        StepVerifier.create(repository.adjustQuantity("1", -15).map(Product::getQuantity))
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldRejectRisesBeyondTheLargestQuantityAndLeaveProductUntouched() {
+        long catalogVersion = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.adjustQuantity("1", Integer.MAX_VALUE))
+                .expectErrorSatisfies(error -> {
+                    StockLimitExceededException excess = assertInstanceOf(StockLimitExceededException.class, error);
+                    assertEquals("Product 1 has 15 in stock, 2147483647 more would exceed 2147483647",
+                            excess.getMessage());
+                    assertEquals(15, excess.getAvailable());
+                    assertEquals(Integer.MAX_VALUE, excess.getAdded());
+                })
+                .verify();
+        StepVerifier.create(repository.findById("1").map(Product::getVersion))
+                .expectNext(1L)
+                .verifyComplete();
+        assertEquals(catalogVersion, repository.catalogVersion().block());
+        StepVerifier.create(repository.adjustQuantity("1", Integer.MAX_VALUE - 15).map(Product::getQuantity))
+                .expectNext(Integer.MAX_VALUE)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldCountMissingQuantityAsZeroAndSkipMissingProducts() {
+        StepVerifier.create(repository.save(Product.builder().id("new").name("New").build())
+                        .then(repository.adjustQuantity("new", 2))
+                        .map(Product::getQuantity))
+                .expectNext(2)
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("999", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldNeverOversellUnderConcurrentReservations() throws InterruptedException {
+        repository.save(Product.builder().id("hot").name("Hot").quantity(500).build()).block();
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> repository.adjustQuantity("hot", -1)
+                    .subscribe(product -> reserved.incrementAndGet(), error -> rejected.incrementAndGet()));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(500, reserved.get());
+        assertEquals(500, rejected.get());
+        StepVerifier.create(repository.findById("hot"))
+                .assertNext(product -> {
+                    assertEquals(0, product.getQuantity());
+                    assertEquals(501L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldKeepQuantityIndexCurrent() {
+        ProductFilter filter = new ProductFilter(null, null, 12);
+
+        StepVerifier.create(repository.findByFilter(filter).map(Product::getId).collectList())
+                .assertNext(ids -> assertFalse(ids.contains("1")))
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("1", -4)
+                        .thenMany(repository.findByFilter(filter))
+                        .filter(product -> product.getId().equals("1"))
+                        .map(Product::getQuantity))
+                .expectNext(11)
+                .verifyComplete();
+    }
+
+    @Test
+    void count_shouldFollowSavesAndDeletes() {
+        long seeded = DefaultProducts.all().size();
+
+        StepVerifier.create(repository.count())
+                .expectNext(seeded)
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("new").build())
+                        .then(repository.deleteById("1"))
+                        .then(repository.deleteById("2"))
+                        .then(repository.count()))
+                .expectNext(seeded - 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void stats_shouldFollowEveryWrite() {
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> CatalogStatsTest.assertStats(CatalogStatsTest.scan(DefaultProducts.all()), stats))
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("sample").name("Sample").quantity(0).build())
+                        .then(repository.findById("1"))
+                        .flatMap(laptop -> repository.update("1", laptop.toBuilder()
+                                .price(new BigDecimal("1499.50")).version(null).build()))
+                        .then(repository.adjustQuantity("2", -1))
+                        .then(repository.deleteById("3"))
+                        .thenMany(repository.saveAll(Flux.just(Product.builder().id("cheap").name("Cheap")
+                                .price(new BigDecimal("0.25")).quantity(4).build())))
+                        .then())
+                .verifyComplete();
+
+        List<Product> products = repository.findAll().collectList().block();
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> {
+                    CatalogStatsTest.assertStats(CatalogStatsTest.scan(products), stats);
+                    assertEquals(11, stats.productCount());
+                    assertEquals(0, new BigDecimal("0.25").compareTo(stats.minPrice()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void init_shouldRecoverJournaledProductsInsteadOfSeeding(@TempDir Path directory) throws InterruptedException {
+        FileProductJournal journal = new FileProductJournal(directory, FsyncPolicy.EVERY_BATCH,
+                Duration.ofMillis(10), Duration.ofHours(1));
+        InMemoryProductRepository journaled = new InMemoryProductRepository(journal);
+        journaled.init();
+        StepVerifier.create(journaled.deleteById("1")
+                        .then(journaled.findById("2"))
+                        .flatMap(product -> journaled.update("2", product.toBuilder().name("Renamed").build()))
+                        .thenMany(journaled.saveAll(Flux.just(Product.builder().id("new").name("New").build())))
+                        .then(journaled.deleteAll(Flux.just("3")).then()))
+                .verifyComplete();
+
+        // The first restart follows a crash and replays the log; the second follows a clean shutdown, which
+        // leaves a snapshot to restore.
+        for (int restart = 0; restart < 2; restart++) {
+            FileProductJournal reopened = new FileProductJournal(directory, FsyncPolicy.EVERY_BATCH,
+                    Duration.ofMillis(10), Duration.ofHours(1));
+            InMemoryProductRepository recovered = new InMemoryProductRepository(reopened);
+            recovered.init();
+
+            StepVerifier.create(recovered.findAll().map(Product::getId).sort())
+                    .expectNext("10", "2", "4", "5", "6", "7", "8", "9", "new")
+                    .verifyComplete();
+            StepVerifier.create(recovered.findById("2"))
+                    .assertNext(product -> {
+                        assertEquals("Renamed", product.getName());
+                        assertEquals(2L, product.getVersion());
+                    })
+                    .verifyComplete();
+            StepVerifier.create(recovered.search("renamed", 10).map(Product::getId))
+                    .expectNext("2")
+                    .verifyComplete();
+            StepVerifier.create(recovered.findByFilter(new ProductFilter(null, new BigDecimal("50"), null))
+                            .map(Product::getId))
+                    .expectNext("10", "6")
+                    .verifyComplete();
+            CatalogStatsTest.assertStats(CatalogStatsTest.scan(recovered.findAll().collectList().block()),
+                    recovered.stats().block());
+            reopened.close();
+        }
+    }
 }
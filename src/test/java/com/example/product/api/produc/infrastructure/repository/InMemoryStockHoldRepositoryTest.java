@@ -0,0 +1,129 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.StockHold;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class InMemoryStockHoldRepositoryTest {
+
+    private final AtomicLong nanos = new AtomicLong(1_000);
+    private InMemoryStockHoldRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new InMemoryStockHoldRepository(Duration.ofSeconds(1), 8, nanos::get);
+    }
+
+    private StockHold create(String productId, int quantity, Duration ttl) {
+        return repository.create(productId, quantity, ttl).block();
+    }
+
+    private void elapse(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+        repository.expire();
+    }
+
+    @Test
+    void create_shouldRegisterAnOutstandingHold() {
+        Instant before = Instant.now();
+        StockHold hold = create("1", 3, Duration.ofMinutes(15));
+
+        assertEquals("1", hold.productId());
+        assertEquals(3, hold.quantity());
+        assertFalse(hold.expiresAt().isBefore(before.plus(Duration.ofMinutes(15))));
+        StepVerifier.create(repository.findById(hold.id()))
+                .expectNext(hold)
+                .verifyComplete();
+        assertEquals(1, repository.size());
+    }
+
+    @Test
+    void remove_shouldEmitTheHoldOnlyOnce() {
+        StockHold hold = create("1", 3, Duration.ofSeconds(10));
+
+        StepVerifier.create(repository.remove(hold.id()))
+                .expectNext(hold)
+                .verifyComplete();
+        StepVerifier.create(repository.remove(hold.id()))
+                .verifyComplete();
+        StepVerifier.create(repository.findById(hold.id()))
+                .verifyComplete();
+    }
+
+    @Test
+    void expire_shouldEmitHoldsOnceTheirTimeIsUp() {
+        StockHold soon = create("1", 3, Duration.ofSeconds(5));
+        StockHold later = create("2", 1, Duration.ofSeconds(30));
+        StockHold removed = create("3", 1, Duration.ofSeconds(5));
+        repository.remove(removed.id()).block();
+
+        elapse(Duration.ofSeconds(4));
+        elapse(Duration.ofSeconds(2));
+
+        StepVerifier.create(repository.expired())
+                .expectNext(soon)
+                .then(() -> elapse(Duration.ofSeconds(30)))
+                .expectNext(later)
+                .thenCancel()
+                .verify();
+        StepVerifier.create(repository.remove(soon.id()))
+                .verifyComplete();
+        assertEquals(0, repository.size());
+    }
+
+    @Test
+    void removeAll_shouldEmitEveryOutstandingHoldAndKeepThemFromExpiring() {
+        StockHold first = create("1", 3, Duration.ofSeconds(5));
+        StockHold second = create("2", 1, Duration.ofSeconds(5));
+
+        StepVerifier.create(repository.removeAll().collectList())
+                .assertNext(holds -> assertEquals(2, holds.size()))
+                .verifyComplete();
+        elapse(Duration.ofSeconds(10));
+
+        StepVerifier.create(repository.expired())
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenCancel()
+                .verify();
+        StepVerifier.create(repository.findById(first.id()))
+                .verifyComplete();
+        StepVerifier.create(repository.findById(second.id()))
+                .verifyComplete();
+    }
+
+    @Test
+    void bindTo_shouldPublishTheNumberOfOutstandingHolds() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        repository.bindTo(registry);
+        create("1", 3, Duration.ofSeconds(5));
+        create("1", 2, Duration.ofSeconds(5));
+
+        assertEquals(2, registry.get("product.holds.outstanding").gauge().value());
+    }
+
+    @Test
+    void constructor_shouldExpireHoldsOnItsOwnThread() throws InterruptedException {
+        InMemoryStockHoldRepository ticking = new InMemoryStockHoldRepository(Duration.ofMillis(10), 16);
+        try {
+            StockHold hold = ticking.create("1", 1, Duration.ofMillis(50)).block();
+
+            StepVerifier.create(ticking.expired())
+                    .expectNext(hold)
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+        } finally {
+            ticking.close();
+        }
+        new InMemoryStockHoldRepository(Duration.ofSeconds(1), 8, nanos::get).close();
+    }
+}
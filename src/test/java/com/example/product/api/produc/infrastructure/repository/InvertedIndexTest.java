@@ -0,0 +1,101 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    private InvertedIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new InvertedIndex();
+        index.index("1", InvertedIndex.tokenize("Wireless Headphones", "Noise-cancelling over-ear headphones"));
+        index.index("2", InvertedIndex.tokenize("Wireless Mouse", "Ergonomic wireless mouse"));
+        index.index("3", InvertedIndex.tokenize("Laptop", "High-performance laptop"));
+    }
+
+    @Test
+    void tokenize_shouldLowercaseSplitAndSkipMissingText() {
+        assertEquals(List.of("usb", "c", "charger", "65w"), InvertedIndex.tokenize("USB-C Charger", null, " 65W "));
+        assertEquals(List.of("größe", "xl", "東京", "½"), InvertedIndex.tokenize("Größe: XL", "東京/½"));
+    }
+
+    @Test
+    void search_shouldRankDocumentsByTermRelevance() {
+        assertEquals(List.of("2", "1"), index.search("wireless", 10));
+        assertEquals(List.of("1", "2"), index.search("wireless headphones", 10));
+    }
+
+    @Test
+    void rank_shouldReturnScoresBestFirst() {
+        List<InvertedIndex.Match> matches = index.rank("wireless", 10);
+
+        assertEquals(List.of("2", "1"), matches.stream().map(InvertedIndex.Match::id).toList());
+        assertTrue(matches.get(0).score() > matches.get(1).score());
+    }
+
+    @Test
+    void search_shouldReturnOnlyTheTopResults() {
+        assertEquals(List.of("2"), index.search("wireless", 1));
+    }
+
+    @Test
+    void search_shouldReturnNothingForUnknownTerms() {
+        assertTrue(index.search("tablet", 10).isEmpty());
+        assertTrue(new InvertedIndex().search("laptop", 10).isEmpty());
+    }
+
+    @Test
+    void index_shouldReplacePreviousTermsOfTheDocument() {
+        index.index("3", InvertedIndex.tokenize("Gaming Laptop", "Wireless charging"));
+
+        assertEquals(List.of("3"), index.search("gaming", 10));
+        assertTrue(index.search("performance", 10).isEmpty());
+        assertEquals(3, index.search("wireless", 10).size());
+    }
+
+    @Test
+    void index_shouldDropDocumentsWithoutTerms() {
+        index.index("3", InvertedIndex.tokenize(null, "  "));
+
+        assertTrue(index.search("laptop", 10).isEmpty());
+    }
+
+    @Test
+    void remove_shouldDropDocumentAndUnusedTerms() {
+        int terms = index.termCount();
+
+        index.remove("3");
+        index.remove("unknown");
+
+        assertTrue(index.search("laptop", 10).isEmpty());
+        assertEquals(terms - 3, index.termCount());
+    }
+
+    @Test
+    void postings_shouldStayCorrectAcrossGrowthAndCompaction() {
+        IntStream.range(0, 200).forEach(i -> index.index("bulk" + i, InvertedIndex.tokenize("Bulk item " + i)));
+        IntStream.range(0, 150).forEach(i -> index.remove("bulk" + i));
+
+        assertEquals(50, index.search("bulk", 100).size());
+        assertEquals(List.of("bulk199"), index.search("199", 10));
+    }
+
+    @Test
+    void index_shouldRenumberInsteadOfGrowingOnRepeatedUpdates() {
+        IntStream.range(0, 100_000).forEach(i -> index.index("1", InvertedIndex.tokenize("Headphones rev " + i)));
+
+        assertTrue(index.capacity() <= 128);
+        assertEquals(List.of("1"), index.search("99999", 10));
+        assertEquals(List.of("1"), index.search("headphones", 10));
+        assertEquals(List.of("2"), index.search("mouse", 10));
+        assertEquals(List.of("2", "3"), index.search("wireless laptop", 10).stream().sorted().toList());
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProductColumnsTest {
+
+    private ProductColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new ProductColumns();
+        DefaultProducts.all().forEach(product -> columns.put(product.toBuilder().version(1L).build()));
+    }
+
+    private List<String> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+
+    private List<String> filter(String minPrice, String maxPrice, Integer maxQuantity) {
+        return ids(columns.filter(new ProductFilter(minPrice == null ? null : new BigDecimal(minPrice),
+                maxPrice == null ? null : new BigDecimal(maxPrice), maxQuantity)));
+    }
+
+    @Test
+    void read_shouldReturnEveryAttributeAsStored() {
+        Product sparse = Product.builder().id("sparse").version(3L).build();
+        Product huge = Product.builder().id("huge").name("Huge").description("Priced beyond a long")
+                .price(new BigDecimal("123456789012345678901234.5")).quantity(0).version(1L).build();
+        Product tiny = Product.builder().id("tiny").price(new BigDecimal("1E-200")).version(1L).build();
+        List.of(sparse, huge, tiny).forEach(columns::put);
+
+        assertEquals(sparse, columns.read(columns.slotOf("sparse")));
+        assertEquals(huge, columns.read(columns.slotOf("huge")));
+        assertEquals(tiny, columns.read(columns.slotOf("tiny")));
+        assertEquals(new BigDecimal("1299.99"), columns.read(columns.slotOf("1")).getPrice());
+        assertEquals(13, columns.size());
+
+        columns.put(huge.toBuilder().price(BigDecimal.ONE).version(2L).build());
+        assertEquals(BigDecimal.ONE, columns.read(columns.slotOf("huge")).getPrice());
+    }
+
+    @Test
+    void put_shouldReplaceRowOfTheSameId() {
+        int slot = columns.slotOf("1");
+        columns.put(Product.builder().id("1").name("Renamed").price(new BigDecimal("1E+3")).version(2L).build());
+
+        assertEquals(slot, columns.slotOf("1"));
+        Product replaced = columns.read(slot);
+        assertEquals("Renamed", replaced.getName());
+        assertNull(replaced.getDescription());
+        assertEquals(new BigDecimal("1E+3"), replaced.getPrice());
+        assertNull(replaced.getQuantity());
+        assertEquals(2L, columns.version(slot));
+        assertEquals(10, columns.size());
+    }
+
+    @Test
+    void remove_shouldHideProductAndLetItBeAddedAgain() {
+        columns.remove(columns.slotOf("3"));
+
+        assertEquals(-1, columns.slotOf("3"));
+        assertEquals(-1, columns.slotOf("missing"));
+        assertEquals(List.of("2", "4"), ids(columns.page("10", 2)));
+
+        columns.put(Product.builder().id("3").name("Back").version(1L).build());
+        assertEquals(List.of("2", "3", "4"), ids(columns.page("10", 3)));
+        assertEquals("Back", columns.name(columns.slotOf("3")));
+    }
+
+    @Test
+    void page_shouldMergeSortedAndRecentlyAddedIds() {
+        columns.put(Product.builder().id("25").version(1L).build());
+        columns.put(Product.builder().id("0").version(1L).build());
+
+        assertEquals(List.of("0", "1", "10", "2", "25", "3"), ids(columns.page(null, 6)));
+        assertEquals(List.of("25", "3"), ids(columns.page("2", 2)));
+        assertEquals(List.of("9"), ids(columns.page("8", 5)));
+        assertEquals(List.of(), ids(columns.page("9", 5)));
+    }
+
+    @Test
+    void page_shouldStayOrderedAcrossMergesAndSlotReuse() {
+        List<String> expected = new ArrayList<>(IntStream.range(1, 11).mapToObj(String::valueOf).toList());
+        for (int i = 0; i < 3 * ProductColumns.MIN_MERGE_SIZE; i++) {
+            String id = String.format("bulk-%05d", (i * 7919) % (3 * ProductColumns.MIN_MERGE_SIZE));
+            columns.put(Product.builder().id(id).name("Bulk").version(1L).build());
+            expected.add(id);
+        }
+        for (int i = 0; i < 3 * ProductColumns.MIN_MERGE_SIZE; i += 2) {
+            String id = String.format("bulk-%05d", i);
+            columns.remove(columns.slotOf(id));
+            expected.remove(id);
+        }
+        columns.put(Product.builder().id("bulk-00000").version(1L).build());
+        expected.add("bulk-00000");
+        expected.sort(null);
+
+        assertEquals(expected, ids(columns.page(null, Integer.MAX_VALUE)));
+        assertEquals(expected.subList(1, 4), ids(columns.page(expected.get(0), 3)));
+        assertEquals(expected.size(), columns.size());
+    }
+
+    @Test
+    void load_shouldOrderProductsWhetherOrNotTheyComeSorted() {
+        ProductColumns sorted = new ProductColumns();
+        sorted.load(List.of(product("a"), product("b"), product("c")));
+        ProductColumns unsorted = new ProductColumns();
+        unsorted.load(List.of(product("c"), product("a"), product("b")));
+
+        assertEquals(List.of("a", "b", "c"), ids(sorted.page(null, 10)));
+        assertEquals(List.of("b", "c"), ids(unsorted.page("a", 10)));
+        assertEquals(3, unsorted.size());
+    }
+
+    @Test
+    void filter_shouldApplyInclusiveBoundsAndOrderByPrice() {
+        assertEquals(List.of("9", "8", "5"), filter("50", "130", null));
+        assertEquals(List.of("9"), filter("79.99", "79.99", null));
+        assertEquals(List.of("8"), filter(null, "100", 40));
+        assertEquals(List.of(), filter("130", "50", null));
+        assertEquals(List.of("10", "6"), filter("0.000000000000000000001", "49.999", null));
+    }
+
+    @Test
+    void filter_shouldOrderByQuantityWithoutPriceBounds() {
+        columns.put(Product.builder().id("no-quantity").version(1L).build());
+        IntStream.range(0, 20).forEach(i -> columns.put(Product.builder().id("stock-" + i).quantity(i).version(1L)
+                .build()));
+
+        assertEquals(List.of("stock-0", "stock-1"), filter(null, null, 1));
+        assertEquals(List.of("stock-14", "1", "stock-15"), filter(null, null, 15).subList(14, 17));
+    }
+
+    @Test
+    void filter_shouldCompareEveryPriceRepresentation() {
+        columns.put(Product.builder().id("huge").price(new BigDecimal("1E+100")).version(1L).build());
+        columns.put(Product.builder().id("tiny").price(new BigDecimal("1E-200")).version(1L).build());
+        columns.put(Product.builder().id("round").price(new BigDecimal("6E+1")).version(1L).build());
+        columns.put(Product.builder().id("none").version(1L).build());
+
+        assertEquals(List.of("tiny"), filter(null, "0.5", null));
+        assertEquals(List.of("huge"), filter("1E+99", null, null));
+        assertEquals(List.of("round", "9"), filter("59", "80", null));
+        assertEquals(List.of("1", "huge"), filter("1000", "1E+100", null));
+        assertEquals(List.of("tiny", "10"), filter("1E-300", "40", null));
+    }
+
+    private static Product product(String id) {
+        return Product.builder().id(id).version(1L).build();
+    }
+}
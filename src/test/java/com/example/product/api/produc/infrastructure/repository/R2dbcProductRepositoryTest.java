@@ -0,0 +1,361 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class R2dbcProductRepositoryTest {
+
+    private ConnectionFactory connectionFactory;
+    private R2dbcProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory =
+                ConnectionFactories.get("r2dbc:h2:mem:///" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        repository = new R2dbcProductRepository(DatabaseClient.create(connectionFactory),
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)));
+        repository.init();
+    }
+
+    @Test
+    void init_shouldSeedDefaultProductsOnlyOnce() {
+        repository.init();
+
+        StepVerifier.create(repository.findAll().map(Product::getId))
+                .expectNext("1", "10", "2", "3", "4", "5", "6", "7", "8", "9")
+                .verifyComplete();
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals("Laptop", product.getName());
+                    assertEquals(new BigDecimal("1299.99"), product.getPrice());
+                    assertEquals(1L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldReturnPagesOrderedById() {
+        StepVerifier.create(repository.findPage(null, 3).map(Product::getId))
+                .expectNext("1", "10", "2")
+                .verifyComplete();
+        StepVerifier.create(repository.findPage("2", 3).map(Product::getId))
+                .expectNext("3", "4", "5")
+                .verifyComplete();
+        StepVerifier.create(repository.findPage("9", 3))
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldApplyBoundsAndOrderByIndexedAttribute() {
+        ProductFilter priceRange = new ProductFilter(new BigDecimal("50"), new BigDecimal("130"), null);
+
+        StepVerifier.create(repository.findByFilter(priceRange).map(Product::getName))
+                .expectNext("Bluetooth Speaker", "HD Webcam", "Mechanical Keyboard")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, new BigDecimal("100"), 40))
+                        .map(Product::getId))
+                .expectNext("8")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, 20)).map(Product::getId))
+                .expectNext("1", "4")
+                .verifyComplete();
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, null)))
+                .expectNextCount(10)
+                .verifyComplete();
+    }
+
+    @Test
+    void search_shouldRankProductsMatchingMoreTermsFirst() {
+        StepVerifier.create(repository.search("Wireless headphones", 10).map(Product::getId))
+                .expectNext("3", "6")
+                .verifyComplete();
+        StepVerifier.create(repository.search("wireless", 1).map(Product::getId))
+                .expectNext("3")
+                .verifyComplete();
+        StepVerifier.create(repository.search(" -- ", 10))
+                .verifyComplete();
+    }
+
+    @Test
+    void save_shouldInsertNewProductsAndBumpVersionOfExistingOnes() {
+        Product product = Product.builder().id("new").name("New").price(new BigDecimal("12.50")).build();
+
+        StepVerifier.create(repository.save(product))
+                .assertNext(saved -> {
+                    assertEquals(1L, saved.getVersion());
+                    assertEquals(new BigDecimal("12.5"), saved.getPrice());
+                    assertNull(saved.getQuantity());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.save(product.toBuilder().price(new BigDecimal("100")).quantity(3).build()))
+                .assertNext(saved -> {
+                    assertEquals(2L, saved.getVersion());
+                    assertEquals(new BigDecimal("100"), saved.getPrice());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("sparse").build()))
+                .assertNext(saved -> assertNull(saved.getPrice()))
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldReplaceProductWhenVersionMatches() {
+        Product replacement = Product.builder().name("Renamed").description("Updated").price(BigDecimal.TEN)
+                .quantity(1).build();
+
+        StepVerifier.create(repository.update("1", replacement))
+                .assertNext(updated -> {
+                    assertEquals("1", updated.getId());
+                    assertEquals("Renamed", updated.getName());
+                    assertEquals(2L, updated.getVersion());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.update("1", replacement.toBuilder().version(2L).build())
+                        .map(Product::getVersion))
+                .expectNext(3L)
+                .verifyComplete();
+        StepVerifier.create(repository.update("999", replacement))
+                .verifyComplete();
+        StepVerifier.create(repository.update("999", replacement.toBuilder().version(1L).build()))
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldRejectStaleVersionWithoutChangingProduct() {
+        Product stale = Product.builder().name("Stale").version(7L).build();
+
+        StepVerifier.create(repository.update("1", stale))
+                .expectErrorSatisfies(error -> {
+                    assertEquals(ProductVersionConflictException.class, error.getClass());
+                    assertEquals("Product 1 is at version 1, expected version 7", error.getMessage());
+                })
+                .verify();
+        StepVerifier.create(repository.findById("1").map(Product::getName))
+                .expectNext("Laptop")
+                .verifyComplete();
+    }
+
+    @Test
+    void deleteById_shouldRemoveProduct() {
+        StepVerifier.create(repository.deleteById("1").then(repository.existsById("1")))
+                .expectNext(false)
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("2"))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkWrites_shouldKeepInputOrderAndSkipMissingProducts() {
+        Flux<Product> created = Flux.fromStream(IntStream.range(0, 50)
+                .mapToObj(i -> Product.builder().id("bulk-" + i).name("Bulk " + i).build()));
+
+        StepVerifier.create(repository.saveAll(created).map(Product::getId))
+                .expectNextSequence(IntStream.range(0, 50).mapToObj(i -> "bulk-" + i).toList())
+                .verifyComplete();
+        StepVerifier.create(repository.updateAll(Flux.just(
+                                Product.builder().id("bulk-1").name("Renamed").build(),
+                                Product.builder().id("missing").name("Missing").build()))
+                        .map(Product::getName))
+                .expectNext("Renamed")
+                .verifyComplete();
+        StepVerifier.create(repository.deleteAll(Flux.just("bulk-2", "missing", "bulk-3")))
+                .expectNext("bulk-2", "bulk-3")
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldApplyDeltaAndBumpVersion() {
+        StepVerifier.create(repository.adjustQuantity("1", -5))
+                .assertNext(product -> {
+                    assertEquals(10, product.getQuantity());
+                    assertEquals(2L, product.getVersion());
+                    assertEquals("Laptop", product.getName());
+                })
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("1", 3))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(13, product.getQuantity());
+                    assertEquals(3L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldRejectDropsBelowZeroAndLeaveProductUntouched() {
+        long catalogVersion = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.adjustQuantity("1", -16))
+                .verifyErrorMessage("Product 1 has 15 in stock, 16 requested");
+        StepVerifier.create(repository.findById("1"))
+                .assertNext(product -> {
+                    assertEquals(15, product.getQuantity());
+                    assertEquals(1L, product.getVersion());
+                })
+                .verifyComplete();
+        assertEquals(catalogVersion, repository.catalogVersion().block());
+        StepVerifier.create(repository.adjustQuantity("1", -15).map(Product::getQuantity))
+                .expectNext(0)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldRejectRisesBeyondTheLargestQuantityAndLeaveProductUntouched() {
+        long catalogVersion = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.adjustQuantity("1", Integer.MAX_VALUE))
+                .expectErrorSatisfies(error -> {
+                    StockLimitExceededException excess = assertInstanceOf(StockLimitExceededException.class, error);
+                    assertEquals("Product 1 has 15 in stock, 2147483647 more would exceed 2147483647",
+                            excess.getMessage());
+                    assertEquals(15, excess.getAvailable());
+                    assertEquals(Integer.MAX_VALUE, excess.getAdded());
+                })
+                .verify();
+        StepVerifier.create(repository.findById("1").map(Product::getVersion))
+                .expectNext(1L)
+                .verifyComplete();
+        assertEquals(catalogVersion, repository.catalogVersion().block());
+        StepVerifier.create(repository.adjustQuantity("1", Integer.MAX_VALUE - 15).map(Product::getQuantity))
+                .expectNext(Integer.MAX_VALUE)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldCountMissingQuantityAsZeroAndSkipMissingProducts() {
+        StepVerifier.create(repository.save(Product.builder().id("new").name("New").build())
+                        .then(repository.adjustQuantity("new", 2))
+                        .map(Product::getQuantity))
+                .expectNext(2)
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("999", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void count_shouldFollowSavesAndDeletes() {
+        long seeded = DefaultProducts.all().size();
+
+        StepVerifier.create(repository.count())
+                .expectNext(seeded)
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("new").build())
+                        .then(repository.deleteById("1"))
+                        .then(repository.deleteById("2"))
+                        .then(repository.count()))
+                .expectNext(seeded - 1)
+                .verifyComplete();
+    }
+
+    @Test
+    void stats_shouldFollowEveryWrite() {
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> CatalogStatsTest.assertStats(CatalogStatsTest.scan(DefaultProducts.all()), stats))
+                .verifyComplete();
+        StepVerifier.create(repository.save(Product.builder().id("sample").name("Sample").quantity(0).build())
+                        .then(repository.findById("1"))
+                        .flatMap(laptop -> repository.update("1", laptop.toBuilder()
+                                .price(new BigDecimal("1499.50")).version(null).build()))
+                        .then(repository.adjustQuantity("2", -1))
+                        .then(repository.deleteById("3"))
+                        .thenMany(repository.saveAll(Flux.just(Product.builder().id("cheap").name("Cheap")
+                                .price(new BigDecimal("0.25")).quantity(4).build())))
+                        .then())
+                .verifyComplete();
+
+        List<Product> products = repository.findAll().collectList().block();
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> {
+                    CatalogStatsTest.assertStats(CatalogStatsTest.scan(products), stats);
+                    assertEquals(11, stats.productCount());
+                    assertEquals(0, new BigDecimal("0.25").compareTo(stats.minPrice()));
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void catalogVersion_shouldChangeOnEveryWrite() {
+        long initial = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.save(Product.builder().id("new").build())
+                        .then(repository.update("1", Product.builder().name("Renamed").build()))
+                        .then(repository.update("999", Product.builder().build()))
+                        .then(repository.deleteById("2"))
+                        .then(repository.deleteById("999"))
+                        .then(repository.catalogVersion()))
+                .expectNext(initial + 3)
+                .verifyComplete();
+    }
+
+    @Test
+    void catalogVersion_shouldSpreadBumpsOverStripesAndKeepAnExistingVersion() {
+        DatabaseClient database = DatabaseClient.create(connectionFactory);
+        // A store created before the catalog version was striped holds a single counter.
+        database.sql("UPDATE product_catalog SET version = 0").then().block();
+        database.sql("DELETE FROM product_catalog WHERE id <> 1").then().block();
+        database.sql("UPDATE product_catalog SET version = 500 WHERE id = 1").then().block();
+
+        repository.init();
+        Flux.range(0, 200).flatMap(i -> repository.save(Product.builder().id("p-" + i).build()), 16).blockLast();
+
+        assertEquals(700, repository.catalogVersion().block());
+        assertEquals(R2dbcProductRepository.CATALOG_STRIPES, database.sql("SELECT COUNT(*) FROM product_catalog")
+                .map(row -> row.get(0, Long.class)).one().block());
+        assertTrue(database.sql("SELECT COUNT(*) FROM product_catalog WHERE version > 0")
+                .map(row -> row.get(0, Long.class)).one().block() > R2dbcProductRepository.CATALOG_STRIPES / 2);
+    }
+
+    @Test
+    void catalogVersion_shouldBeBumpedInTheTransactionOfTheWrite() {
+        DatabaseClient database = DatabaseClient.create(connectionFactory);
+        long initial = repository.catalogVersion().block();
+        // Once the catalog counters are gone, bumping the version fails, which must undo the write.
+        database.sql("DROP TABLE product_catalog").then().block();
+
+        StepVerifier.create(repository.update("1", Product.builder().name("Renamed").build()))
+                .expectError()
+                .verify();
+        StepVerifier.create(repository.deleteById("2"))
+                .expectError()
+                .verify();
+        StepVerifier.create(repository.adjustQuantity("3", 1))
+                .expectError()
+                .verify();
+        StepVerifier.create(repository.save(Product.builder().id("new").build()))
+                .expectError()
+                .verify();
+
+        assertEquals("Laptop", repository.findById("1").block().getName());
+        assertEquals(true, repository.existsById("2").block());
+        assertEquals(false, repository.existsById("new").block());
+        repository.init();
+        assertEquals(0, repository.catalogVersion().block());
+        assertTrue(initial > 0);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeIndexTest {
+
+    private RangeIndex<Integer> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RangeIndex<>();
+        index.add(10, "b");
+        index.add(10, "a");
+        index.add(20, "c");
+        index.add(30, "d");
+    }
+
+    private List<String> ids(Integer from, Integer to) {
+        return index.range(from, to).stream().map(RangeIndex.Entry::id).toList();
+    }
+
+    @Test
+    void range_shouldReturnEntriesOrderedByValueThenId() {
+        assertEquals(List.of("a", "b", "c", "d"), ids(null, null));
+    }
+
+    @Test
+    void range_shouldApplyInclusiveBounds() {
+        assertEquals(List.of("a", "b", "c"), ids(10, 20));
+        assertEquals(List.of("c", "d"), ids(20, null));
+        assertEquals(List.of("a", "b"), ids(null, 10));
+    }
+
+    @Test
+    void addAll_shouldIndexEntriesWithValues() {
+        index.addAll(Stream.of(new RangeIndex.Entry<>(15, "f"), new RangeIndex.Entry<>(null, "g"),
+                new RangeIndex.Entry<>(5, "e")));
+
+        assertEquals(List.of("e", "a", "b", "f", "c", "d"), ids(null, null));
+    }
+
+    @Test
+    void range_shouldBeEmptyWhenBoundsAreInverted() {
+        assertTrue(ids(30, 10).isEmpty());
+    }
+
+    @Test
+    void remove_shouldDropOnlyTheGivenEntry() {
+        index.remove(10, "a");
+        index.remove(99, "c");
+
+        assertEquals(List.of("b", "c", "d"), ids(null, null));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void nullValues_shouldNotBeIndexed() {
+        index.add(null, "e");
+        index.remove(null, "a");
+
+        assertEquals(4, index.size());
+    }
+}
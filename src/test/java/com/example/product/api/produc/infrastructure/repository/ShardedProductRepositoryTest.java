@@ -0,0 +1,315 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.infrastructure.persistence.FileProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.FsyncPolicy;
+import com.example.product.api.produc.infrastructure.persistence.NoOpProductJournal;
+import com.example.product.api.produc.infrastructure.persistence.ProductJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedProductRepositoryTest {
+
+    private static final int SHARDS = 4;
+
+    private ShardedProductRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        repository = new ShardedProductRepository(IntStream.range(0, SHARDS)
+                .<ProductJournal>mapToObj(shard -> new NoOpProductJournal())
+                .toList());
+        repository.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        repository.close();
+    }
+
+    @Test
+    void shardOf_shouldSpreadProductsOverEveryShard() {
+        assertEquals(SHARDS, repository.shardCount());
+        Set<Integer> used = new HashSet<>();
+        IntStream.range(0, 1_000).forEach(i -> {
+            int shard = repository.shardOf("product-" + i);
+            assertTrue(shard >= 0 && shard < SHARDS);
+            assertEquals(shard, repository.shardOf("product-" + i));
+            used.add(shard);
+        });
+        assertEquals(SHARDS, used.size());
+    }
+
+    @Test
+    void findAll_shouldReturnProductsOfEveryShard() {
+        StepVerifier.create(repository.findAll().map(Product::getId).sort())
+                .expectNext("1", "10", "2", "3", "4", "5", "6", "7", "8", "9")
+                .verifyComplete();
+    }
+
+    @Test
+    void findPage_shouldMergeShardsInIdOrder() {
+        StepVerifier.create(repository.findPage(null, 3).map(Product::getId))
+                .expectNext("1", "10", "2")
+                .verifyComplete();
+        StepVerifier.create(repository.findPage("2", 3).map(Product::getId))
+                .expectNext("3", "4", "5")
+                .verifyComplete();
+        StepVerifier.create(repository.findPage("9", 3))
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldMergeShardsInPriceOrder() {
+        ProductFilter filter = new ProductFilter(new BigDecimal("50"), new BigDecimal("130"), null);
+
+        StepVerifier.create(repository.findByFilter(filter).map(Product::getName))
+                .expectNext("Bluetooth Speaker", "HD Webcam", "Mechanical Keyboard")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldMergeShardsInQuantityOrder() {
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, 20)).map(Product::getId))
+                .expectNext("1", "4")
+                .verifyComplete();
+    }
+
+    @Test
+    void findByFilter_shouldReturnAllProductsWithoutBounds() {
+        StepVerifier.create(repository.findByFilter(new ProductFilter(null, null, null)))
+                .expectNextCount(10)
+                .verifyComplete();
+    }
+
+    @Test
+    void search_shouldMergeMatchesOfEveryShard() {
+        StepVerifier.create(repository.search("wireless headphones", 10).map(Product::getId).collectList())
+                .assertNext(ids -> assertEquals(Set.of("3", "6"), Set.copyOf(ids)))
+                .verifyComplete();
+        StepVerifier.create(repository.search("wireless headphones", 1))
+                .expectNextCount(1)
+                .verifyComplete();
+        StepVerifier.create(repository.search("blender", 10))
+                .verifyComplete();
+    }
+
+    @Test
+    void search_shouldTakeTheBestMatchesOfEveryShardBeforeTheNextOnes() {
+        List<String> crowded = IntStream.range(0, 100).mapToObj(i -> "lamp-" + i)
+                .filter(id -> repository.shardOf(id) == 0)
+                .limit(3)
+                .toList();
+        String alone = IntStream.range(0, 100).mapToObj(i -> "lamp-" + i)
+                .filter(id -> repository.shardOf(id) == 1)
+                .findFirst()
+                .orElseThrow();
+        Flux.fromIterable(crowded)
+                .map(id -> Product.builder().id(id).name("Desk lamp " + id).build())
+                .concatWith(Mono.just(Product.builder().id(alone).name("Floor lamp").build()))
+                .concatMap(repository::save)
+                .blockLast();
+
+        StepVerifier.create(repository.search("lamp", 2).map(product -> repository.shardOf(product.getId())))
+                .recordWith(HashSet::new)
+                .expectNextCount(2)
+                .consumeRecordedWith(shards -> assertEquals(Set.of(0, 1), shards))
+                .verifyComplete();
+        StepVerifier.create(repository.search("lamp", 10))
+                .expectNextCount(4)
+                .verifyComplete();
+    }
+
+    @Test
+    void reads_shouldNotWaitForTheThreadOfTheShard() {
+        String caller = Thread.currentThread().getName();
+
+        StepVerifier.create(repository.findById("1").map(product -> Thread.currentThread().getName()))
+                .expectNext(caller)
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("1").map(exists -> Thread.currentThread().getName()))
+                .expectNext(caller)
+                .verifyComplete();
+    }
+
+    @Test
+    void singleProductOperations_shouldRunOnTheOwningShard() {
+        Product product = Product.builder().id("new").name("New").price(new BigDecimal("5.00")).quantity(3).build();
+
+        StepVerifier.create(repository.save(product).map(Product::getVersion))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("new"))
+                .expectNext(true)
+                .verifyComplete();
+        StepVerifier.create(repository.update("new", product.toBuilder().name("Renamed").build())
+                        .map(Product::getName))
+                .expectNext("Renamed")
+                .verifyComplete();
+        StepVerifier.create(repository.adjustQuantity("new", -2).map(Product::getQuantity))
+                .expectNext(1)
+                .verifyComplete();
+        StepVerifier.create(repository.findById("new").map(Product::getVersion))
+                .expectNext(3L)
+                .verifyComplete();
+        StepVerifier.create(repository.deleteById("new"))
+                .verifyComplete();
+        StepVerifier.create(repository.findById("new"))
+                .verifyComplete();
+        StepVerifier.create(repository.existsById("new"))
+                .expectNext(false)
+                .verifyComplete();
+    }
+
+    @Test
+    void bulkWrites_shouldEmitInInputOrderAcrossShards() {
+        List<String> ids = IntStream.range(0, 50).mapToObj(i -> "bulk-" + i).toList();
+
+        StepVerifier.create(repository.saveAll(Flux.fromIterable(ids)
+                                .map(id -> Product.builder().id(id).name(id).build()))
+                        .map(Product::getId)
+                        .collectList())
+                .expectNext(ids)
+                .verifyComplete();
+        StepVerifier.create(repository.updateAll(Flux.just(
+                                Product.builder().id("bulk-7").name("Renamed").build(),
+                                Product.builder().id("missing").name("Missing").build(),
+                                Product.builder().id("bulk-3").name("Renamed too").build()))
+                        .map(Product::getName))
+                .expectNext("Renamed", "Renamed too")
+                .verifyComplete();
+        StepVerifier.create(repository.deleteAll(Flux.just("bulk-9", "missing", "bulk-1")))
+                .expectNext("bulk-9", "bulk-1")
+                .verifyComplete();
+        StepVerifier.create(repository.count())
+                .expectNext(58L)
+                .verifyComplete();
+    }
+
+    @Test
+    void saveAll_shouldSyncEveryShardOncePerGroupAndKeepInputOrder() throws Exception {
+        AtomicInteger syncs = new AtomicInteger();
+        ShardedProductRepository counted = new ShardedProductRepository(IntStream.range(0, SHARDS)
+                .<ProductJournal>mapToObj(shard -> new NoOpProductJournal() {
+                    @Override
+                    public Mono<Void> sync() {
+                        return Mono.fromRunnable(syncs::incrementAndGet);
+                    }
+                })
+                .toList());
+        counted.init();
+        syncs.set(0);
+        List<String> ids = IntStream.range(0, 200).mapToObj(i -> "bulk-" + i % 150).toList();
+
+        StepVerifier.create(counted.saveAll(Flux.fromIterable(ids)
+                                .map(id -> Product.builder().id(id).name(id).build()))
+                        .map(Product::getId)
+                        .collectList())
+                .expectNext(ids)
+                .verifyComplete();
+        assertEquals(SHARDS, syncs.get());
+        StepVerifier.create(counted.findById("bulk-10").map(Product::getVersion))
+                .expectNext(2L)
+                .verifyComplete();
+        counted.close();
+    }
+
+    @Test
+    void catalogVersion_shouldChangeOnWritesToAnyShard() {
+        long before = repository.catalogVersion().block();
+
+        StepVerifier.create(repository.save(Product.builder().id("a").build())
+                        .then(repository.save(Product.builder().id("b").build()))
+                        .then(repository.catalogVersion()))
+                .assertNext(after -> assertEquals(before + 2, after))
+                .verifyComplete();
+    }
+
+    @Test
+    void stats_shouldAddUpEveryShard() {
+        StepVerifier.create(repository.adjustQuantity("2", -1)
+                        .then(repository.deleteById("3"))
+                        .then(repository.save(Product.builder().id("cheap").name("Cheap")
+                                .price(new BigDecimal("0.25")).quantity(4).build()))
+                        .then())
+                .verifyComplete();
+
+        List<Product> products = repository.findAll().collectList().block();
+        StepVerifier.create(repository.stats())
+                .assertNext(stats -> {
+                    CatalogStatsTest.assertStats(CatalogStatsTest.scan(products), stats);
+                    assertEquals(10, stats.productCount());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void adjustQuantity_shouldNeverOversellUnderConcurrentReservations() throws InterruptedException {
+        StepVerifier.create(repository.save(Product.builder().id("hot").name("Hot").quantity(100).build()))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 500).forEach(i -> executor.execute(() -> {
+            repository.adjustQuantity("hot", -1).onErrorResume(error -> Mono.empty())
+                    .block();
+            repository.save(Product.builder().id("concurrent-" + i).build()).block();
+        }));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        StepVerifier.create(repository.findById("hot").map(Product::getQuantity))
+                .expectNext(0)
+                .verifyComplete();
+        StepVerifier.create(repository.count())
+                .expectNext(511L)
+                .verifyComplete();
+    }
+
+    @Test
+    void init_shouldRecoverEveryShardInsteadOfSeeding(@TempDir Path directory) throws Exception {
+        ShardedProductRepository journaled = new ShardedProductRepository(journals(directory));
+        journaled.init();
+        StepVerifier.create(journaled.deleteById("1")
+                        .then(journaled.save(Product.builder().id("new").name("New").build()))
+                        .then())
+                .verifyComplete();
+        journaled.close();
+
+        ShardedProductRepository recovered = new ShardedProductRepository(journals(directory));
+        recovered.init();
+        StepVerifier.create(recovered.findAll().map(Product::getId).sort())
+                .expectNext("10", "2", "3", "4", "5", "6", "7", "8", "9", "new")
+                .verifyComplete();
+        CatalogStatsTest.assertStats(CatalogStatsTest.scan(recovered.findAll().collectList().block()),
+                recovered.stats().block());
+        recovered.close();
+    }
+
+    private static List<ProductJournal> journals(Path directory) {
+        return IntStream.range(0, SHARDS)
+                .<ProductJournal>mapToObj(shard -> new FileProductJournal(directory.resolve("shard-" + shard),
+                        FsyncPolicy.EVERY_BATCH, Duration.ofMillis(10), Duration.ofHours(1)))
+                .toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StringArenaTest {
+
+    private final StringArena arena = new StringArena();
+
+    @Test
+    void intern_shouldStoreEachDistinctStringOnce() {
+        int laptop = arena.intern("Laptop");
+        int mouse = arena.intern("Mouse");
+
+        assertEquals(laptop, arena.intern("Laptop"));
+        assertNotEquals(laptop, mouse);
+        assertEquals(2, arena.size());
+        assertEquals("Laptop", arena.get(laptop));
+        assertEquals("Mouse", arena.get(mouse));
+        assertEquals(11, arena.byteSize());
+    }
+
+    @Test
+    void intern_shouldKeepTextOfAnyScript() {
+        int entry = arena.intern("Café ☕ 東京 🚀");
+
+        assertEquals("Café ☕ 東京 🚀", arena.get(entry));
+        assertEquals(entry, arena.find("Café ☕ 東京 🚀"));
+        assertEquals(-1, arena.find("Cafe"));
+    }
+
+    @Test
+    void release_shouldDropEntryWithItsLastReference() {
+        int laptop = arena.intern("Laptop");
+        arena.intern("Laptop");
+
+        arena.release(laptop);
+        assertEquals(laptop, arena.find("Laptop"));
+
+        arena.release(laptop);
+        assertEquals(-1, arena.find("Laptop"));
+        assertEquals(0, arena.size());
+        assertEquals(laptop, arena.intern("Keyboard"));
+    }
+
+    @Test
+    void release_shouldKeepOtherStringsFindable() {
+        List<Integer> entries = new ArrayList<>();
+        IntStream.range(0, 5000).forEach(i -> entries.add(arena.intern("value-" + i)));
+
+        for (int i = 0; i < 5000; i += 3) {
+            arena.release(entries.get(i));
+        }
+
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 3 == 0 ? -1 : entries.get(i), arena.find("value-" + i));
+        }
+        assertEquals(3333, arena.size());
+    }
+
+    @Test
+    void intern_shouldReclaimBytesOfReleasedStringsWhenGrowing() {
+        String text = "x".repeat(512);
+        for (int i = 0; i < 100; i++) {
+            arena.release(arena.intern(text + i));
+        }
+        int kept = arena.intern("kept");
+        arena.intern(text);
+
+        assertTrue(arena.byteSize() < 4 * text.length());
+        assertEquals("kept", arena.get(kept));
+        assertEquals(kept, arena.find("kept"));
+    }
+
+    @Test
+    void intern_shouldFailOnceLiveStringsFillTheArena() {
+        StringArena small = new StringArena(2048);
+        small.intern("x".repeat(1024));
+
+        assertThrows(IllegalStateException.class, () -> small.intern("y".repeat(1025)));
+        assertEquals(1, small.size());
+    }
+}
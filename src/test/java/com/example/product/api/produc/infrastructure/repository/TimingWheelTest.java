@@ -0,0 +1,133 @@
+package com.example.product.api.produc.infrastructure.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    private static final long MS = 1_000_000;
+
+    static final class Timer extends TimingWheel.Entry {
+        final String name;
+
+        Timer(String name) {
+            this.name = name;
+        }
+    }
+
+    private final List<String> expired = new ArrayList<>();
+    private TimingWheel<Timer> wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new TimingWheel<>(Duration.ofMillis(10), 4, 0);
+    }
+
+    private void advance(long millis) {
+        wheel.advance(millis * MS, timer -> expired.add(timer.name));
+    }
+
+    @Test
+    void advance_shouldExpireEntriesNoEarlierThanTheirDeadlineAndWithinOneTick() {
+        wheel.add(new Timer("a"), 25 * MS);
+        wheel.add(new Timer("b"), 30 * MS);
+
+        advance(29);
+        assertEquals(List.of(), expired);
+        advance(30);
+        assertEquals(List.of("a", "b"), expired.stream().sorted().toList());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_shouldKeepEntriesDueAfterMoreThanOneTurnOfTheWheel() {
+        wheel.add(new Timer("later"), 100 * MS);
+        wheel.add(new Timer("sooner"), 20 * MS);
+
+        advance(90);
+        assertEquals(List.of("sooner"), expired);
+        advance(100);
+        assertEquals(List.of("sooner", "later"), expired);
+    }
+
+    @Test
+    void advance_shouldCatchUpOnEveryTickMissedSinceTheLastCall() {
+        wheel.add(new Timer("a"), 10 * MS);
+        wheel.add(new Timer("b"), 70 * MS);
+
+        advance(1000);
+
+        assertEquals(List.of("a", "b"), expired);
+    }
+
+    @Test
+    void add_shouldExpireOverdueEntriesOnTheNextTick() {
+        advance(50);
+        wheel.add(new Timer("overdue"), 10 * MS);
+
+        advance(59);
+        assertEquals(List.of(), expired);
+        advance(60);
+        assertEquals(List.of("overdue"), expired);
+    }
+
+    @Test
+    void add_shouldRejectAnEntryThatIsAlreadyScheduled() {
+        Timer timer = new Timer("a");
+        wheel.add(timer, 10 * MS);
+
+        assertThrows(IllegalStateException.class, () -> wheel.add(timer, 20 * MS));
+    }
+
+    @Test
+    void remove_shouldUnscheduleEntriesAnywhereInTheirBucket() {
+        Timer first = new Timer("first");
+        Timer middle = new Timer("middle");
+        Timer last = new Timer("last");
+        wheel.add(first, 10 * MS);
+        wheel.add(middle, 10 * MS);
+        wheel.add(last, 10 * MS);
+
+        assertTrue(wheel.remove(middle));
+        assertTrue(wheel.remove(last));
+        assertFalse(wheel.remove(last));
+        assertEquals(1, wheel.size());
+
+        advance(10);
+        assertEquals(List.of("first"), expired);
+        assertFalse(wheel.remove(first));
+    }
+
+    @Test
+    void remove_shouldAllowRescheduling() {
+        Timer timer = new Timer("a");
+        wheel.add(timer, 10 * MS);
+        wheel.remove(timer);
+        wheel.add(timer, 20 * MS);
+
+        advance(10);
+        assertEquals(List.of(), expired);
+        advance(20);
+        assertEquals(List.of("a"), expired);
+    }
+
+    @Test
+    void constructor_shouldRoundTheWheelUpToAPowerOfTwoAndRejectNonPositiveSizes() {
+        TimingWheel<Timer> single = new TimingWheel<>(Duration.ofMillis(10), 1, 0);
+        single.add(new Timer("a"), 30 * MS);
+        single.advance(30 * MS, timer -> expired.add(timer.name));
+        assertEquals(List.of("a"), expired);
+
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<Timer>(Duration.ZERO, 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> new TimingWheel<Timer>(Duration.ofMillis(10), 0, 0));
+    }
+}
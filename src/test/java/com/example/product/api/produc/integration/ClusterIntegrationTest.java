@@ -0,0 +1,334 @@
+package com.example.product.api.produc.integration;
+
+import com.example.product.api.produc.ProductApiApplication;
+import com.example.product.api.produc.domain.exception.NotProductOwnerException;
+import com.example.product.api.produc.domain.model.BatchItemResult;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.cache.CoalescingProductRepository;
+import com.example.product.api.produc.infrastructure.repository.ClusterStatus;
+import com.example.product.api.produc.infrastructure.repository.HttpClusterPeer;
+import com.example.product.api.produc.presentation.dto.ProductRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a cluster of nodes on localhost, each in an application of its own, starting with two nodes and adding a
+ * third.
+ */
+class ClusterIntegrationTest {
+
+    private static final int PRODUCTS = 600;
+
+    private static final List<ConfigurableApplicationContext> nodes = new ArrayList<>();
+    private static String a;
+    private static String b;
+    private static String c;
+
+    @BeforeAll
+    static void startNodes() throws IOException {
+        a = "http://localhost:" + freePort();
+        b = "http://localhost:" + freePort();
+        c = "http://localhost:" + freePort();
+        start(a, a, b);
+        start(b, a, b);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodes.forEach(ConfigurableApplicationContext::close);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void start(String self, String... cluster) {
+        nodes.add(new SpringApplicationBuilder(ProductApiApplication.class).run(
+                "--server.port=" + self.substring(self.lastIndexOf(':') + 1),
+                "--product.repository.type=cluster",
+                "--product.persistence.enabled=false",
+                "--product.cluster.self=" + self,
+                "--product.cluster.nodes=" + String.join(",", cluster),
+                "--product.cluster.retry-interval=50ms"));
+    }
+
+    private static WebTestClient client(String node) {
+        return WebTestClient.bindToServer().baseUrl(node).responseTimeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+
+    private static ClusterStatus status(String node) {
+        return client(node).get()
+                .uri("/api/v1/cluster/nodes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ClusterStatus.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private static void rebalance(String node, String... cluster) {
+        client(node).put()
+                .uri("/api/v1/cluster/nodes")
+                .bodyValue(List.of(cluster))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    // Maps every product id to the node holding it, failing when a product is held by two nodes.
+    private static Map<String, String> holders(String... cluster) {
+        Map<String, String> holders = new HashMap<>();
+        for (String node : cluster) {
+            client(node).get()
+                    .uri("/api/v1/cluster/partition/products")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .returnResult(Product.class)
+                    .getResponseBody()
+                    .toIterable()
+                    .forEach(product -> assertNull(holders.put(product.getId(), node), product.getId()));
+        }
+        return holders;
+    }
+
+    private static boolean settled(int products, String... cluster) {
+        long held = 0;
+        for (String node : cluster) {
+            ClusterStatus status = status(node);
+            if (status.rebalancing()) {
+                return false;
+            }
+            held += status.products();
+        }
+        return held == products;
+    }
+
+    private static boolean rebalancing(String... cluster) {
+        return Arrays.stream(cluster).anyMatch(node -> status(node).rebalancing());
+    }
+
+    private static List<Product> listing(String node) {
+        return client(node).get()
+                .uri("/api/v1/products?limit=1000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    @Test
+    void shouldPartitionTheCatalogAndMoveAboutAThirdOfItToAnAddedNode() {
+        // The first node seeds the default products, and hands over those the second node owns.
+        await(() -> settled(10, a, b));
+        String requests = IntStream.range(0, PRODUCTS)
+                .mapToObj(index -> "{\"name\":\"Cluster product " + index + "\",\"price\":" + (index + 1)
+                        + ",\"quantity\":" + index % 7 + "}")
+                .reduce((left, right) -> left + "\n" + right)
+                .orElseThrow();
+        client(b).post()
+                .uri("/api/v1/products:batchCreate")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(PRODUCTS)
+                .jsonPath("$[?(@.status != 'CREATED')]").isEmpty();
+        int total = PRODUCTS + 10;
+
+        Map<String, String> before = holders(a, b);
+        assertEquals(total, before.size());
+        long onA = before.values().stream().filter(a::equals).count();
+        assertEquals(total / 2.0, onA, total * 0.15);
+        List<Product> listed = listing(a);
+        assertEquals(total, listed.size());
+        assertEquals(listed, listing(b));
+        client(a).get()
+                .uri("/api/v1/products/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productCount").isEqualTo(total);
+
+        start(c, a, b, c);
+        rebalance(a, a, b, c);
+        rebalance(b, a, b, c);
+        await(() -> settled(total, a, b, c));
+
+        Map<String, String> after = holders(a, b, c);
+        assertEquals(before.keySet(), after.keySet());
+        List<String> moved = before.keySet().stream()
+                .filter(id -> !before.get(id).equals(after.get(id)))
+                .toList();
+        moved.forEach(id -> assertEquals(c, after.get(id), id));
+        assertEquals(total / 3.0, moved.size(), total * 0.12);
+        assertEquals(moved.size(), status(c).products());
+        assertEquals(listed, listing(c));
+    }
+
+    @Test
+    void shouldForwardOperationsOnOneProductToItsOwner() {
+        await(() -> settled(10, a, b) || nodes.size() == 3);
+        // Reads of a product may wait on its owner, so concurrent ones share a lookup.
+        assertInstanceOf(CoalescingProductRepository.class, nodes.get(0).getBean(ProductRepository.class));
+        Product created = client(a).post()
+                .uri("/api/v1/products")
+                .bodyValue(ProductRequest.builder()
+                        .name("Forwarded Lamp")
+                        .description("Written wherever it lands")
+                        .price(new BigDecimal("34.99"))
+                        .quantity(5)
+                        .build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+
+        for (String node : List.of(a, b)) {
+            client(node).get()
+                    .uri("/api/v1/products/" + created.getId())
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.name").isEqualTo("Forwarded Lamp");
+            client(node).get()
+                    .uri("/api/v1/products/search?q=forwarded")
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$[0].id").isEqualTo(created.getId());
+            client(node).put()
+                    .uri("/api/v1/products/" + created.getId())
+                    .header("If-Match", "\"7\"")
+                    .bodyValue(ProductRequest.builder().name("Stale").price(BigDecimal.ONE).quantity(1).build())
+                    .exchange()
+                    .expectStatus().isEqualTo(412)
+                    .expectBody()
+                    .jsonPath("$.currentVersion").isEqualTo(1);
+            client(node).post()
+                    .uri("/api/v1/products/" + created.getId() + "/stock:reserve")
+                    .bodyValue(Map.of("quantity", 6))
+                    .exchange()
+                    .expectStatus().isEqualTo(409);
+        }
+        // Partition endpoints only write the products of their node: the owner sees the stale version, the others
+        // refuse the write.
+        List<String> cluster = nodes.size() == 3 ? List.of(a, b, c) : List.of(a, b);
+        List<String> failures = cluster.stream()
+                .map(node -> new HttpClusterPeer(WebClient.builder(), node, Duration.ofSeconds(5))
+                        .update(created.getId(), created.toBuilder().version(7L).build())
+                        .map(Product::getId)
+                        .onErrorResume(error -> Mono.just(error.getClass().getName()))
+                        .block())
+                .toList();
+        assertEquals(1, Collections.frequency(failures, ProductVersionConflictException.class.getName()));
+        assertEquals(cluster.size() - 1, Collections.frequency(failures, NotProductOwnerException.class.getName()));
+        client(b).delete()
+                .uri("/api/v1/products/" + created.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+        client(a).get()
+                .uri("/api/v1/products/" + created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldKeepProductsDeletedWhileTheyMoveToAnotherNode() {
+        String[] cluster = nodes.size() == 3 ? new String[]{a, b, c} : new String[]{a, b};
+        await(() -> !rebalancing(cluster));
+        int existing = holders(cluster).size();
+        String requests = IntStream.range(0, 300)
+                .mapToObj(index -> "{\"name\":\"Moving product " + index + "\",\"price\":1,\"quantity\":1}")
+                .reduce((left, right) -> left + "\n" + right)
+                .orElseThrow();
+        List<String> ids = client(b).post()
+                .uri("/api/v1/products:batchCreate")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(requests)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(BatchItemResult.class)
+                .returnResult()
+                .getResponseBody()
+                .stream()
+                .map(BatchItemResult::id)
+                .toList();
+
+        String deletes = ids.stream()
+                .skip(1)
+                .map(id -> "{\"id\":\"" + id + "\"}")
+                .collect(Collectors.joining("\n"));
+
+        // Every product moves to the first node, and is deleted while it moves.
+        for (String node : cluster) {
+            rebalance(node, a);
+        }
+        client(b).delete()
+                .uri("/api/v1/products/" + ids.get(0))
+                .exchange()
+                .expectStatus().isNoContent();
+        client(a).post()
+                .uri("/api/v1/products:batchDelete")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(deletes)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(ids.size() - 1)
+                .jsonPath("$[?(@.status != 'DELETED')]").isEmpty();
+        await(() -> !rebalancing(cluster));
+
+        Map<String, String> holders = holders(cluster);
+        assertEquals(existing, holders.size());
+        ids.forEach(id -> assertFalse(holders.containsKey(id), id));
+        for (String node : cluster) {
+            client(node).get()
+                    .uri("/api/v1/products/" + ids.get(0))
+                    .exchange()
+                    .expectStatus().isNotFound();
+        }
+        for (String node : cluster) {
+            rebalance(node, cluster);
+        }
+        await(() -> settled(existing, cluster));
+    }
+}
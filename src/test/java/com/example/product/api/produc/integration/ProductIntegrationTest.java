@@ -1,29 +1,69 @@
 package com.example.product.api.produc.integration;
 
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.domain.event.ProductChangeType;
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.model.StockHold;
+import com.example.product.api.produc.presentation.dto.ProductBatchDeleteRequest;
 import com.example.product.api.produc.presentation.dto.ProductPatchRequest;
 import com.example.product.api.produc.presentation.dto.ProductRequest;
+import com.example.product.api.produc.presentation.dto.StockChangeRequest;
+import com.example.product.api.produc.presentation.dto.StockHoldRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import io.r2dbc.spi.ConnectionFactory;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.MediaType;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
 
+import java.io.IOException;
 import java.math.BigDecimal;
-
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "product.persistence.enabled=false")
 @AutoConfigureWebTestClient
+@AutoConfigureObservability
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 class ProductIntegrationTest {
 
     @Autowired
     private WebTestClient webTestClient;
 
+    @Autowired
+    private ObjectProvider<ConnectionFactory> connectionFactory;
+
+    @Test
+    @Order(1)
+    void shouldNotConnectToADatabaseWhenProductsAreInMemory() {
+        assertNull(connectionFactory.getIfAvailable());
+    }
+
     @Test
     @Order(1)
     void shouldGetAllProducts() {
@@ -35,6 +75,97 @@ class ProductIntegrationTest {
                 .hasSize(10);
     }
 
+    @Test
+    @Order(1)
+    void shouldWalkProductsPageByPage() {
+        String nextCursor = webTestClient.get()
+                .uri("/api/v1/products?limit=6")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .hasSize(6)
+                .returnResult()
+                .getResponseHeaders()
+                .getFirst("X-Next-Cursor");
+
+        webTestClient.get()
+                .uri("/api/v1/products?limit=6&cursor=" + nextCursor)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-Cursor")
+                .expectBodyList(Product.class)
+                .hasSize(4);
+    }
+
+    @Test
+    @Order(1)
+    void shouldFilterProductsByPriceAndQuantity() {
+        webTestClient.get()
+                .uri("/api/v1/products?minPrice=50&maxPrice=130&maxQuantity=40")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].name").isEqualTo("HD Webcam")
+                .jsonPath("$[1].name").isEqualTo("Mechanical Keyboard");
+    }
+
+    @Test
+    @Order(1)
+    void shouldSearchProductsByText() {
+        webTestClient.get()
+                .uri("/api/v1/products/search?q=wireless&limit=2")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].name").isEqualTo("Wireless Mouse");
+    }
+
+    @Test
+    @Order(1)
+    void shouldStreamProductsAsNdjsonOnDemand() {
+        Flux<Product> stream = webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Product.class)
+                .getResponseBody();
+
+        StepVerifier.create(stream, 3)
+                .expectNextCount(3)
+                .thenRequest(Long.MAX_VALUE)
+                .expectNextCount(7)
+                .verifyComplete();
+    }
+
+    @Test
+    @Order(1)
+    void shouldServeProductsAsSmileOnDemand() throws IOException {
+        MediaType smileType = MediaType.parseMediaType("application/x-jackson-smile");
+        byte[] json = webTestClient.get()
+                .uri("/api/v1/products")
+                .exchange()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        byte[] smile = webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(smileType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(smileType)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        Product[] products = new SmileMapper().readValue(smile, Product[].class);
+        assertEquals(List.of(new ObjectMapper().readValue(json, Product[].class)), List.of(products));
+        assertTrue(smile.length < json.length, smile.length + " bytes of Smile, " + json.length + " of JSON");
+    }
+
     @Test
     @Order(2)
     void shouldGetProductById() {
@@ -48,6 +179,30 @@ class ProductIntegrationTest {
                 .jsonPath("$.price").isEqualTo(1299.99);
     }
 
+    @Test
+    @Order(3)
+    void shouldAnswerUnchangedPollsWithNotModified() {
+        String catalogETag = webTestClient.get()
+                .uri("/api/v1/products")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Product.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .header("If-None-Match", catalogETag)
+                .exchange()
+                .expectStatus().isNotModified();
+
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .header("If-None-Match", "\"1\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
     @Test
     @Order(3)
     void shouldReturn404WhenProductNotFound() {
@@ -177,6 +332,35 @@ class ProductIntegrationTest {
                 .jsonPath("$.quantity").isEqualTo(50);
     }
 
+    @Test
+    @Order(9)
+    void shouldRejectPatchWithStaleETag() {
+        String etag = webTestClient.get()
+                .uri("/api/v1/products/5")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(Product.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.patch()
+                .uri("/api/v1/products/5")
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductPatchRequest.builder().quantity(49).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().exists("ETag");
+
+        webTestClient.patch()
+                .uri("/api/v1/products/5")
+                .header("If-Match", etag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ProductPatchRequest.builder().quantity(48).build())
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
     @Test
     @Order(10)
     void shouldReturn404WhenPatchingNonExistentProduct() {
@@ -207,8 +391,68 @@ class ProductIntegrationTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    @Order(11)
+    void shouldApplyBulkWritesWithPerEntryResults() {
+        String ndjson = """
+                {"name":"Bulk One","price":1.50,"quantity":3}
+                {"name":"","price":1.50,"quantity":3}
+                """;
+
+        webTestClient.post()
+                .uri("/api/v1/products:batchCreate")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(ndjson)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("CREATED")
+                .jsonPath("$[0].product.version").isEqualTo(1)
+                .jsonPath("$[1].status").isEqualTo("INVALID");
+
+        webTestClient.post()
+                .uri("/api/v1/products:batchDelete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new ProductBatchDeleteRequest("7"), new ProductBatchDeleteRequest("does-not-exist")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("DELETED")
+                .jsonPath("$[1].status").isEqualTo("NOT_FOUND");
+    }
+
     @Test
     @Order(12)
+    void shouldReplayAndStreamProductChanges() {
+        Flux<ProductChange> changes = webTestClient.get()
+                .uri("/api/v1/products/changes?after=0")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(ProductChange.class)
+                .getResponseBody();
+
+        StepVerifier.create(changes)
+                .assertNext(change -> assertEquals(1, change.sequence()))
+                .then(() -> webTestClient.post()
+                        .uri("/api/v1/products")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(ProductRequest.builder()
+                                .name("Change Feed Product")
+                                .price(new BigDecimal("5.00"))
+                                .quantity(1)
+                                .build())
+                        .exchange()
+                        .expectStatus().isCreated())
+                .thenConsumeWhile(change -> change.product() == null
+                        || !"Change Feed Product".equals(change.product().getName()))
+                .assertNext(change -> assertEquals(ProductChangeType.CREATED, change.type()))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    @Order(13)
     @DirtiesContext
     void shouldCompleteFullCRUDWorkflow() {
         // Create
@@ -281,4 +525,170 @@ class ProductIntegrationTest {
                 .exchange()
                 .expectStatus().isNotFound();
     }
+
+    @Test
+    @Order(14)
+    void shouldAnswerHealthProbes() {
+        for (String probe : List.of("/actuator/health/liveness", "/actuator/health/readiness")) {
+            webTestClient.get()
+                    .uri(probe)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBody()
+                    .jsonPath("$.status").isEqualTo("UP");
+        }
+    }
+
+    @Test
+    @Order(15)
+    void shouldPublishUseCaseAndRepositoryMetrics() {
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .exchange()
+                .expectStatus().isOk();
+
+        String metrics = webTestClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertTrue(metrics.contains("product_usecase_seconds_count{exception=\"none\",operation=\"execute\","
+                + "outcome=\"success\",usecase=\"GetProductById\"}"));
+        assertTrue(metrics.contains("product_repository_seconds_bucket{exception=\"none\",operation=\"findById\","
+                + "outcome=\"success\",repository=\"InMemoryProductRepository\","));
+        assertFalse(metrics.contains("product_repository_coalesced"));
+        assertTrue(metrics.contains("product_catalog_size "));
+    }
+
+    @Test
+    @Order(16)
+    void shouldNeverOversellUnderConcurrentReservations() {
+        Product created = webTestClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(ProductRequest.builder().name("Flash sale").price(new BigDecimal("9.99")).quantity(50)
+                        .build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+
+        Map<HttpStatusCode, Long> statuses = Flux.range(0, 80)
+                .flatMap(i -> Mono.fromCallable(() -> webTestClient.post()
+                                .uri("/api/v1/products/" + created.getId() + "/stock:reserve")
+                                .bodyValue(StockChangeRequest.builder().quantity(1).build())
+                                .exchange()
+                                .returnResult(String.class)
+                                .getStatus())
+                        .subscribeOn(Schedulers.boundedElastic()), 16)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()))
+                .block();
+
+        assertEquals(Map.of(HttpStatus.OK, 50L, HttpStatus.CONFLICT, 30L), statuses);
+        webTestClient.get()
+                .uri("/api/v1/products/" + created.getId())
+                .exchange()
+                .expectBody()
+                .jsonPath("$.quantity").isEqualTo(0)
+                .jsonPath("$.version").isEqualTo(51);
+    }
+
+    @Test
+    @Order(17)
+    void shouldTakeHeldUnitsOutOfStockUntilTheHoldEnds() {
+        Product created = webTestClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(ProductRequest.builder().name("Concert ticket").price(new BigDecimal("49.00")).quantity(10)
+                        .build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+        String holds = "/api/v1/products/" + created.getId() + "/holds";
+
+        StockHold confirmed = hold(holds, 2, 60);
+        StockHold cancelled = hold(holds, 3, 60);
+        hold(holds, 4, 1);
+        webTestClient.post()
+                .uri(holds)
+                .bodyValue(StockHoldRequest.builder().quantity(2).build())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+        assertEquals(1, quantityOf(created.getId()));
+
+        webTestClient.post()
+                .uri(holds + "/" + confirmed.id() + ":confirm")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.delete()
+                .uri(holds + "/" + cancelled.id())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get()
+                .uri(holds + "/" + cancelled.id())
+                .exchange()
+                .expectStatus().isNotFound();
+        assertEquals(4, quantityOf(created.getId()));
+
+        // The last hold expires after a second and puts its units back; only the confirmed units stay out of stock.
+        Integer restored = Mono.fromCallable(() -> quantityOf(created.getId()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(quantity -> quantity == 8)
+                .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(100)))
+                .block(Duration.ofSeconds(10));
+        assertEquals(8, restored);
+    }
+
+    @Test
+    @Order(18)
+    void shouldKeepCatalogStatisticsCurrent() {
+        ProductStats before = stats();
+        webTestClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(ProductRequest.builder().name("Gold bar").price(new BigDecimal("99999.99")).quantity(2)
+                        .build())
+                .exchange()
+                .expectStatus().isCreated();
+
+        ProductStats after = stats();
+        assertEquals(before.productCount() + 1, after.productCount());
+        assertEquals(before.unitsInStock() + 2, after.unitsInStock());
+        assertEquals(0, before.stockValue().add(new BigDecimal("199999.98")).compareTo(after.stockValue()));
+        assertEquals(0, new BigDecimal("99999.99").compareTo(after.maxPrice()));
+    }
+
+    private ProductStats stats() {
+        return webTestClient.get()
+                .uri("/api/v1/products/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(ProductStats.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private StockHold hold(String holds, int quantity, long ttlSeconds) {
+        return webTestClient.post()
+                .uri(holds)
+                .bodyValue(StockHoldRequest.builder().quantity(quantity).ttlSeconds(ttlSeconds).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(StockHold.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private int quantityOf(String id) {
+        return webTestClient.get()
+                .uri("/api/v1/products/" + id)
+                .exchange()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody()
+                .getQuantity();
+    }
 }
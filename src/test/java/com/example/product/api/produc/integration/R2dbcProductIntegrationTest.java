@@ -0,0 +1,74 @@
+package com.example.product.api.produc.integration;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.cache.CachingProductRepository;
+import com.example.product.api.produc.presentation.dto.ProductRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.r2dbc.url=r2dbc:h2:mem:///r2dbc-integration;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("r2dbc")
+@AutoConfigureWebTestClient
+class R2dbcProductIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void shouldServeProductsFromTheDatabase() {
+        assertInstanceOf(CachingProductRepository.class, productRepository);
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .hasSize(10);
+
+        ProductRequest request = ProductRequest.builder()
+                .name("Desk Lamp")
+                .description("Dimmable LED desk lamp")
+                .price(new BigDecimal("34.99"))
+                .quantity(12)
+                .build();
+        Product created = webTestClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+
+        webTestClient.get()
+                .uri("/api/v1/products/search?q=lamp")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(created.getId())
+                .jsonPath("$[0].price").isEqualTo(34.99);
+
+        webTestClient.delete()
+                .uri("/api/v1/products/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.get()
+                .uri("/api/v1/products/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.product.api.produc.integration;
+
+import com.example.product.api.produc.ProductApiApplication;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.presentation.dto.ProductRequest;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs a leader and a follower on localhost, each in an application of its own, replicating over HTTP.
+ */
+class ReplicationIntegrationTest {
+
+    private static ConfigurableApplicationContext leader;
+    private static ConfigurableApplicationContext follower;
+    private static WebTestClient leaderClient;
+    private static WebTestClient followerClient;
+
+    @BeforeAll
+    static void startNodes() {
+        leader = start("--product.replication.role=leader", "--product.replication.heartbeat-interval=50ms");
+        String leaderUrl = "http://localhost:" + leader.getEnvironment().getProperty("local.server.port");
+        follower = start("--product.replication.role=follower", "--product.replication.leader-url=" + leaderUrl,
+                "--product.replication.retry-interval=50ms");
+        leaderClient = client(leader);
+        followerClient = client(follower);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        follower.close();
+        leader.close();
+    }
+
+    private static ConfigurableApplicationContext start(String... args) {
+        return new SpringApplicationBuilder(ProductApiApplication.class)
+                .run(concat(args, "--server.port=0", "--product.persistence.enabled=false"));
+    }
+
+    private static String[] concat(String[] args, String... more) {
+        String[] all = new String[args.length + more.length];
+        System.arraycopy(args, 0, all, 0, args.length);
+        System.arraycopy(more, 0, all, args.length, more.length);
+        return all;
+    }
+
+    private static WebTestClient client(ConfigurableApplicationContext node) {
+        return WebTestClient.bindToServer()
+                .baseUrl("http://localhost:" + node.getEnvironment().getProperty("local.server.port"))
+                .build();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Timed out");
+            LockSupport.parkNanos(Duration.ofMillis(20).toNanos());
+        }
+    }
+
+    private static int status(WebTestClient client, String uri) {
+        return client.get().uri(uri).exchange().returnResult(byte[].class).getStatus().value();
+    }
+
+    @Test
+    void shouldServeTheLeadersWritesFromTheFollower() {
+        await(() -> status(followerClient, "/api/v1/products/1") == 200);
+
+        Product created = leaderClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(ProductRequest.builder()
+                        .name("Replicated Lamp")
+                        .description("Desk lamp written on the leader")
+                        .price(new BigDecimal("34.99"))
+                        .quantity(12)
+                        .build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Product.class)
+                .returnResult()
+                .getResponseBody();
+        await(() -> status(followerClient, "/api/v1/products/" + created.getId()) == 200);
+        followerClient.get()
+                .uri("/api/v1/products/search?q=lamp")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(created.getId());
+
+        leaderClient.delete()
+                .uri("/api/v1/products/" + created.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+        await(() -> status(followerClient, "/api/v1/products/" + created.getId()) == 404);
+        followerClient.get()
+                .uri("/api/v1/products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(10);
+    }
+
+    @Test
+    void shouldRejectWritesOnTheFollower() {
+        followerClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(ProductRequest.builder().name("Lost").price(BigDecimal.ONE).quantity(1).build())
+                .exchange()
+                .expectStatus().isEqualTo(421)
+                .expectBody()
+                .jsonPath("$.detail").value(detail -> assertTrue(detail.toString().contains(
+                        "localhost:" + leader.getEnvironment().getProperty("local.server.port"))));
+        assertEquals(404, status(followerClient, "/api/v1/replication/log"));
+    }
+
+    @Test
+    void shouldReportReplicationStatusAndLag() {
+        await(() -> status(followerClient, "/api/v1/products/1") == 200);
+        leaderClient.get()
+                .uri("/api/v1/replication/status")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.role").isEqualTo("LEADER")
+                .jsonPath("$.followers").isEqualTo(1);
+
+        followerClient.get()
+                .uri("/api/v1/replication/status")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.role").isEqualTo("FOLLOWER")
+                .jsonPath("$.connected").isEqualTo(true)
+                .jsonPath("$.lagMillis").value(lag -> assertTrue(((Number) lag).longValue() < 5_000));
+        followerClient.get()
+                .uri("/actuator/prometheus")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(metrics -> assertTrue(metrics.contains("product_replication_lag_seconds")));
+    }
+}
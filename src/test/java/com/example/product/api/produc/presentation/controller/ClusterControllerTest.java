@@ -0,0 +1,162 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.infrastructure.repository.ClusterProductRepository;
+import com.example.product.api.produc.infrastructure.repository.ClusterStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ClusterController.class, properties = "product.repository.type=cluster")
+class ClusterControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ClusterProductRepository cluster;
+
+    @Test
+    void status_shouldDescribeTheMembershipOfThisNode() {
+        when(cluster.status()).thenReturn(Mono.just(new ClusterStatus("http://a", List.of("http://a", "http://b"),
+                42, true)));
+
+        webTestClient.get()
+                .uri("/api/v1/cluster/nodes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.self").isEqualTo("http://a")
+                .jsonPath("$.nodes[1]").isEqualTo("http://b")
+                .jsonPath("$.products").isEqualTo(42)
+                .jsonPath("$.rebalancing").isEqualTo(true);
+    }
+
+    @Test
+    void rebalance_shouldChangeTheNodes() {
+        List<String> nodes = List.of("http://a", "http://b", "http://c");
+        when(cluster.rebalance(nodes)).thenReturn(Mono.just(new ClusterStatus("http://a", nodes, 30, true)));
+
+        webTestClient.put()
+                .uri("/api/v1/cluster/nodes")
+                .bodyValue(nodes)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.nodes.length()").isEqualTo(3);
+    }
+
+    @Test
+    void rebalance_shouldRejectAnEmptyCluster() {
+        webTestClient.put()
+                .uri("/api/v1/cluster/nodes")
+                .bodyValue(List.of())
+                .exchange()
+                .expectStatus().isBadRequest();
+        verifyNoInteractions(cluster);
+    }
+
+    @Test
+    void products_shouldStreamTheProductsOfThisNode() {
+        ProductRepository partition = mock(ProductRepository.class);
+        when(cluster.partition()).thenReturn(partition);
+        when(partition.findAll()).thenReturn(Flux.just(Product.builder().id("1").build(),
+                Product.builder().id("2").build()));
+
+        webTestClient.get()
+                .uri("/api/v1/cluster/partition/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(Product.class)
+                .hasSize(2);
+    }
+
+    @Test
+    void partitionWrites_shouldRejectProductsThisNodeDoesNotOwn() {
+        ProductRepository partition = mock(ProductRepository.class);
+        when(cluster.owns("1")).thenReturn(false);
+        when(cluster.owner("1")).thenReturn("http://b");
+        when(cluster.partition()).thenReturn(partition);
+        when(partition.existsById("1")).thenReturn(Mono.just(false));
+
+        webTestClient.put()
+                .uri("/api/v1/cluster/partition/products/1")
+                .bodyValue(Product.builder().name("Lamp").build())
+                .exchange()
+                .expectStatus().isEqualTo(421)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.owner").isEqualTo("http://b");
+        webTestClient.post()
+                .uri("/api/v1/cluster/partition/products/1:update")
+                .bodyValue(Product.builder().name("Lamp").build())
+                .exchange()
+                .expectStatus().isEqualTo(421);
+        webTestClient.post()
+                .uri("/api/v1/cluster/partition/products/1:adjust?delta=1")
+                .exchange()
+                .expectStatus().isEqualTo(421);
+        webTestClient.delete()
+                .uri("/api/v1/cluster/partition/products/1")
+                .exchange()
+                .expectStatus().isEqualTo(421);
+        verify(partition, never()).save(any());
+        verify(partition, never()).update(any(), any());
+        verify(partition, never()).adjustQuantity(any(), anyInt());
+        verify(partition, never()).deleteAll(any());
+    }
+
+    @Test
+    void partitionWrites_shouldChangeProductsThisNodeStillHolds() {
+        ProductRepository partition = mock(ProductRepository.class);
+        Product lamp = Product.builder().id("1").name("Lamp").version(2L).build();
+        when(cluster.owns("1")).thenReturn(false);
+        when(cluster.partition()).thenReturn(partition);
+        when(partition.existsById("1")).thenReturn(Mono.just(true));
+        when(partition.update(any(), any())).thenReturn(Mono.just(lamp));
+        when(partition.deleteAll(any())).thenReturn(Flux.just("1"));
+
+        webTestClient.post()
+                .uri("/api/v1/cluster/partition/products/1:update")
+                .bodyValue(Product.builder().name("Lamp").build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.version").isEqualTo(2);
+        webTestClient.delete()
+                .uri("/api/v1/cluster/partition/products/1")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void partitionWrites_shouldWriteProductsThisNodeOwns() {
+        ProductRepository partition = mock(ProductRepository.class);
+        when(cluster.owns("1")).thenReturn(true);
+        when(cluster.partition()).thenReturn(partition);
+        when(partition.deleteAll(any())).thenReturn(Flux.empty());
+
+        webTestClient.delete()
+                .uri("/api/v1/cluster/partition/products/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
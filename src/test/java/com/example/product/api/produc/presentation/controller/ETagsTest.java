@@ -0,0 +1,52 @@
+package com.example.product.api.produc.presentation.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ETagsTest {
+
+    @Test
+    void of_shouldQuoteVersion() {
+        assertEquals("\"7\"", ETags.of(7));
+    }
+
+    @Test
+    void ofCatalog_shouldQuotePrefixedCatalogVersionOfThisEpoch() {
+        assertTrue(ETags.EPOCH.matches("[0-9a-z]+"));
+        assertEquals("\"catalog-" + ETags.EPOCH + "-12\"", ETags.ofCatalog(12));
+    }
+
+    @Test
+    void of_shouldNameEveryEncodingButJson() {
+        assertEquals("\"7\"", ETags.of(7, MediaType.APPLICATION_JSON));
+        assertEquals("\"7-smile\"", ETags.of(7, MediaType.parseMediaType("application/x-jackson-smile")));
+        assertEquals("\"catalog-" + ETags.EPOCH + "-12-ndjson\"", ETags.ofCatalog(12, MediaType.APPLICATION_NDJSON));
+        assertEquals("\"catalog-" + ETags.EPOCH + "-12-event-stream\"",
+                ETags.ofCatalog(12, MediaType.TEXT_EVENT_STREAM));
+    }
+
+    @Test
+    void requiredVersion_shouldParseStrongTag() {
+        assertEquals(7L, ETags.requiredVersion(" \"7\" "));
+        assertEquals(7L, ETags.requiredVersion("\"7-smile\""));
+    }
+
+    @Test
+    void requiredVersion_shouldAcceptAnyVersionWhenAbsentOrWildcard() {
+        assertNull(ETags.requiredVersion(null));
+        assertNull(ETags.requiredVersion(" "));
+        assertNull(ETags.requiredVersion("*"));
+    }
+
+    @Test
+    void requiredVersion_shouldRejectWeakOrMalformedTags() {
+        assertThrows(ResponseStatusException.class, () -> ETags.requiredVersion("W/\"7\""));
+        assertThrows(ResponseStatusException.class, () -> ETags.requiredVersion("\"1\", \"2\""));
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.BatchItem;
+import com.example.product.api.produc.domain.model.BatchItemResult;
+import com.example.product.api.produc.domain.model.BatchItemStatus;
+import com.example.product.api.produc.presentation.dto.ProductBatchDeleteRequest;
+import com.example.product.api.produc.presentation.dto.ProductRequest;
+import com.example.product.api.produc.usecase.BatchProducts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ProductBatchController.class)
+class ProductBatchControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private BatchProducts batchProducts;
+
+    private static BatchItemResult echo(long index, BatchItem item) {
+        return item.isRejected()
+                ? new BatchItemResult(index, null, BatchItemStatus.INVALID, null, item.rejection())
+                : new BatchItemResult(index, item.product().getId(), BatchItemStatus.UPDATED, item.product(), null);
+    }
+
+    @Test
+    void batchCreate_shouldValidateEachEntry() {
+        when(batchProducts.create(any())).thenAnswer(invocation -> invocation.<Flux<BatchItem>>getArgument(0)
+                .index(ProductBatchControllerTest::echo));
+
+        webTestClient.post()
+                .uri("/api/v1/products:batchCreate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(
+                        ProductRequest.builder().name("Valid").price(new BigDecimal("1.00")).quantity(1).build(),
+                        ProductRequest.builder().name("").quantity(-1).build()))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].status").isEqualTo("UPDATED")
+                .jsonPath("$[0].product.name").isEqualTo("Valid")
+                .jsonPath("$[1].status").isEqualTo("INVALID")
+                .jsonPath("$[1].message")
+                .isEqualTo("Price is required; Product name is required; "
+                        + "Quantity must be greater than or equal to 0");
+    }
+
+    @Test
+    void batchUpdate_shouldAcceptNdjsonAndStreamNdjson() {
+        when(batchProducts.update(any())).thenAnswer(invocation -> invocation.<Flux<BatchItem>>getArgument(0)
+                .index(ProductBatchControllerTest::echo));
+
+        String body = """
+                {"id":"1","name":"One","price":1.00,"quantity":1}
+                {"name":"No id","price":1.00,"quantity":1}
+                """;
+
+        webTestClient.post()
+                .uri("/api/v1/products:batchUpdate")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(BatchItemResult.class)
+                .value(results -> {
+                    assertEquals("1", results.get(0).id());
+                    assertEquals("Product id is required", results.get(1).message());
+                });
+    }
+
+    @Test
+    void batchDelete_shouldRejectBlankIds() {
+        when(batchProducts.delete(any())).thenAnswer(invocation -> invocation.<Flux<BatchItem>>getArgument(0)
+                .index(ProductBatchControllerTest::echo));
+
+        webTestClient.post()
+                .uri("/api/v1/products:batchDelete")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(List.of(new ProductBatchDeleteRequest("1"), new ProductBatchDeleteRequest(" ")))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("1")
+                .jsonPath("$[1].status").isEqualTo("INVALID");
+    }
+}
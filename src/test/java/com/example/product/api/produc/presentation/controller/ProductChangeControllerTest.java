@@ -0,0 +1,99 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.usecase.WatchProductChanges;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ProductChangeController.class)
+class ProductChangeControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private WatchProductChanges watchProductChanges;
+
+    private static ProductChange change(long sequence, ProductChangeType type) {
+        return new ProductChange(sequence, type, "1", Product.builder().id("1").name("Product").build(),
+                Instant.parse("2024-01-01T00:00:00Z"));
+    }
+
+    @Test
+    void streamChanges_shouldResumeAfterLastEventId() {
+        when(watchProductChanges.execute(4L)).thenReturn(Flux.just(
+                change(5, ProductChangeType.UPDATED), change(6, ProductChangeType.PATCHED)));
+
+        Flux<ServerSentEvent<ProductChange>> events = webTestClient.get()
+                .uri("/api/v1/products/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(ProductChangeController.LAST_EVENT_ID_HEADER, "4")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(new ParameterizedTypeReference<ServerSentEvent<ProductChange>>() {
+                })
+                .getResponseBody();
+
+        StepVerifier.create(events)
+                .assertNext(event -> {
+                    assertEquals("5", event.id());
+                    assertEquals("UPDATED", event.event());
+                    assertEquals("Product", event.data().product().getName());
+                })
+                .assertNext(event -> assertEquals("PATCHED", event.event()))
+                .verifyComplete();
+    }
+
+    @Test
+    void streamChanges_shouldAcceptSequenceAsQueryParameter() {
+        when(watchProductChanges.execute(9L)).thenReturn(Flux.just(change(10, ProductChangeType.CREATED)));
+
+        webTestClient.get()
+                .uri("/api/v1/products/changes?after=9")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .value(body -> assertEquals(true, body.contains("id:10")));
+    }
+
+    @Test
+    void streamChanges_shouldRejectInvalidLastEventId() {
+        webTestClient.get()
+                .uri("/api/v1/products/changes")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(ProductChangeController.LAST_EVENT_ID_HEADER, "abc")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void changes_shouldStreamNdjson() {
+        when(watchProductChanges.execute(null)).thenReturn(Flux.just(change(1, ProductChangeType.DELETED)));
+
+        webTestClient.get()
+                .uri("/api/v1/products/changes")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ProductChange.class)
+                .hasSize(1)
+                .value(changes -> assertEquals(ProductChangeType.DELETED, changes.get(0).type()));
+    }
+}
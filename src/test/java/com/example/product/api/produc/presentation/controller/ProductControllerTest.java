@@ -1,26 +1,45 @@
 package com.example.product.api.produc.presentation.controller;
 
+import com.example.product.api.produc.config.CodecConfig;
+import com.example.product.api.produc.domain.exception.InvalidCursorException;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
+import com.example.product.api.produc.domain.exception.ReadOnlyReplicaException;
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
+import com.example.product.api.produc.domain.model.ProductPage;
+import com.example.product.api.produc.domain.model.ProductStats;
 import com.example.product.api.produc.presentation.dto.ProductPatchRequest;
 import com.example.product.api.produc.presentation.dto.ProductRequest;
 import com.example.product.api.produc.usecase.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebFluxTest(ProductController.class)
+@Import({ProductJsonCache.class, CodecConfig.class})
 class ProductControllerTest {
 
     @Autowired
@@ -44,6 +63,18 @@ class ProductControllerTest {
     @MockBean
     private DeleteProduct deleteProduct;
 
+    @MockBean
+    private SearchProducts searchProducts;
+
+    @MockBean
+    private GetProductStats getProductStats;
+
+    @SpyBean
+    private ProductJsonCache productJsonCache;
+
+    private final ObjectMapper smile = new SmileMapper();
+    private final MediaType smileType = MediaType.parseMediaType(ProductController.APPLICATION_SMILE_VALUE);
+
     private Product product;
 
     @BeforeEach
@@ -54,7 +85,10 @@ class ProductControllerTest {
                 .description("Test Description")
                 .price(new BigDecimal("99.99"))
                 .quantity(10)
+                .version(3L)
                 .build();
+
+        when(getAllProducts.catalogVersion()).thenReturn(Mono.just(7L));
     }
 
     @Test
@@ -69,6 +103,230 @@ class ProductControllerTest {
                 .hasSize(1);
     }
 
+    @Test
+    void getAllProducts_shouldStreamNdjsonWhenRequested() {
+        when(getAllProducts.execute()).thenReturn(Flux.just(product, product));
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBody(String.class)
+                .value(body -> assertEquals(2, body.lines().count()));
+    }
+
+    @Test
+    void getAllProducts_shouldStreamServerSentEventsWhenRequested() {
+        when(getAllProducts.execute()).thenReturn(Flux.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM)
+                .expectBody(String.class)
+                .value(body -> assertTrue(body.startsWith("data:{\"id\":\"1\"")));
+    }
+
+    @Test
+    void getAllProducts_shouldReturnSmileArrayWhenRequested() throws IOException {
+        when(getAllProducts.execute()).thenReturn(Flux.just(product, product));
+
+        byte[] body = webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(smileType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(smileType)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(List.of(product, product), List.of(smile.readValue(body, Product[].class)));
+    }
+
+    @Test
+    void getAllProducts_shouldReturnCatalogETag() {
+        when(getAllProducts.execute()).thenReturn(Flux.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", ETags.ofCatalog(7))
+                .expectHeader().valueEquals("Vary", "Accept");
+    }
+
+    @Test
+    void getAllProducts_shouldTagEachEncodingApart() {
+        when(getAllProducts.execute()).thenReturn(Flux.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(smileType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", ETags.ofCatalog(7, smileType))
+                .expectHeader().valueEquals("Vary", "Accept");
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", ETags.ofCatalog(7, MediaType.APPLICATION_NDJSON));
+        // A JSON tag never revalidates a Smile listing.
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .accept(smileType)
+                .header("If-None-Match", ETags.ofCatalog(7))
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void listingEncoding_shouldFollowTheMostSpecificAcceptableType() {
+        assertEquals(MediaType.APPLICATION_JSON, ProductController.listingEncoding(List.of()));
+        assertEquals(MediaType.APPLICATION_JSON, ProductController.listingEncoding(List.of(MediaType.ALL)));
+        assertEquals(smileType, ProductController.listingEncoding(
+                MediaType.parseMediaTypes("application/json;q=0.5, application/x-jackson-smile")));
+        assertEquals(MediaType.TEXT_EVENT_STREAM, ProductController.listingEncoding(
+                MediaType.parseMediaTypes("text/*, application/json;q=0")));
+    }
+
+    @Test
+    void getAllProducts_shouldReturn304WhenCatalogUnchanged() {
+        when(getAllProducts.execute()).thenReturn(Flux.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .header("If-None-Match", ETags.ofCatalog(7))
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+        // Tags of the same catalog version handed out before a restart, or by another epoch, no longer match.
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .header("If-None-Match", "\"catalog-7\"")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/api/v1/products")
+                .header("If-None-Match", "\"catalog-0-7\"")
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    @Test
+    void getAllProducts_shouldReturnPageWithNextCursorHeader() {
+        when(getAllProducts.execute("abc", 1)).thenReturn(Mono.just(new ProductPage(List.of(product), "next")));
+
+        webTestClient.get()
+                .uri("/api/v1/products?limit=1&cursor=abc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Next-Cursor", "next")
+                .expectBodyList(Product.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getAllProducts_shouldUseDefaultPageSizeAndOmitCursorOnLastPage() {
+        when(getAllProducts.execute("abc", 100)).thenReturn(Mono.just(new ProductPage(List.of(product), null)));
+
+        webTestClient.get()
+                .uri("/api/v1/products?cursor=abc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist("X-Next-Cursor")
+                .expectBodyList(Product.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getAllProducts_shouldReturn400WhenLimitOutOfRange() {
+        webTestClient.get()
+                .uri("/api/v1/products?limit=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getAllProducts_shouldReturn400WhenCursorInvalid() {
+        when(getAllProducts.execute("bad", 100)).thenReturn(Mono.error(new InvalidCursorException("bad")));
+
+        webTestClient.get()
+                .uri("/api/v1/products?cursor=bad")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Invalid pagination cursor: bad");
+    }
+
+    @Test
+    void getAllProducts_shouldApplyRangeFilters() {
+        ProductFilter filter = new ProductFilter(new BigDecimal("10"), new BigDecimal("100"), 20);
+        when(getAllProducts.execute(filter)).thenReturn(Flux.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products?minPrice=10&maxPrice=100&maxQuantity=20")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Product.class)
+                .hasSize(1);
+    }
+
+    @Test
+    void getAllProducts_shouldReturn400WhenFilterCombinedWithPagination() {
+        webTestClient.get()
+                .uri("/api/v1/products?maxPrice=100&limit=10")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchProducts_shouldReturnMatches() {
+        when(searchProducts.execute("test", 20)).thenReturn(Flux.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products/search?q=test")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo("1");
+    }
+
+    @Test
+    void searchProducts_shouldReturn400WhenQueryBlank() {
+        webTestClient.get()
+                .uri("/api/v1/products/search?q= ")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void getProductStats_shouldReturnTheAggregates() {
+        when(getProductStats.execute()).thenReturn(Mono.just(ProductStats.of(10, 1, 412,
+                new BigDecimal("48250.37"), new BigDecimal("9.99"), new BigDecimal("1299.99"), 9,
+                new BigDecimal("2362.41"))));
+
+        webTestClient.get()
+                .uri("/api/v1/products/stats")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.productCount").isEqualTo(10)
+                .jsonPath("$.outOfStockCount").isEqualTo(1)
+                .jsonPath("$.unitsInStock").isEqualTo(412)
+                .jsonPath("$.stockValue").isEqualTo(48250.37)
+                .jsonPath("$.minPrice").isEqualTo(9.99)
+                .jsonPath("$.maxPrice").isEqualTo(1299.99)
+                .jsonPath("$.averagePrice").isEqualTo(262.49)
+                .jsonPath("$.pricedCount").isEqualTo(9);
+    }
+
     @Test
     void getProductById_shouldReturnProductWhenExists() {
         when(getProductById.execute("1")).thenReturn(Mono.just(product));
@@ -77,9 +335,98 @@ class ProductControllerTest {
                 .uri("/api/v1/products/1")
                 .exchange()
                 .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
                 .expectBody()
                 .jsonPath("$.id").isEqualTo("1")
-                .jsonPath("$.name").isEqualTo("Test Product");
+                .jsonPath("$.name").isEqualTo("Test Product")
+                .jsonPath("$.version").isEqualTo(3);
+    }
+
+    @Test
+    void getProductById_shouldServeNewJsonOnceProductChanged() {
+        when(getProductById.execute("1")).thenReturn(Mono.just(product),
+                Mono.just(product.toBuilder().name("Renamed").version(4L).build()));
+
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Test Product")
+                .jsonPath("$.price").isEqualTo(99.99);
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"")
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Renamed")
+                .jsonPath("$.version").isEqualTo(4);
+    }
+
+    @Test
+    void getProductById_shouldReturnSmileWhenRequested() throws IOException {
+        when(getProductById.execute("1")).thenReturn(Mono.just(product));
+
+        byte[] body = webTestClient.get()
+                .uri("/api/v1/products/1")
+                .accept(smileType)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3-smile\"")
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectHeader().contentType(smileType)
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .accept(MediaType.ALL)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON);
+
+        assertEquals(product, smile.readValue(body, Product.class));
+    }
+
+    @Test
+    void getProductById_shouldReturn404WhenSmileRequested() {
+        when(getProductById.execute("999")).thenReturn(Mono.empty());
+
+        webTestClient.get()
+                .uri("/api/v1/products/999")
+                .accept(smileType)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getProductById_shouldReturn304WhenProductUnchanged() {
+        when(getProductById.execute("1")).thenReturn(Mono.just(product));
+
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .header("If-None-Match", "\"3\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectHeader().valueEquals("Vary", "Accept")
+                .expectBody().isEmpty();
+        verify(productJsonCache, never()).json(any());
+        // The JSON and Smile encodings of one version are tagged apart.
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .accept(smileType)
+                .header("If-None-Match", "\"3\"")
+                .exchange()
+                .expectStatus().isOk();
+        webTestClient.get()
+                .uri("/api/v1/products/1")
+                .accept(smileType)
+                .header("If-None-Match", "\"3-smile\"")
+                .exchange()
+                .expectStatus().isNotModified();
     }
 
     @Test
@@ -113,6 +460,52 @@ class ProductControllerTest {
                 .jsonPath("$.id").isEqualTo("1");
     }
 
+    @Test
+    void createProduct_shouldReturn421OnAFollower() {
+        ProductRequest request = ProductRequest.builder()
+                .name("New Product")
+                .price(new BigDecimal("49.99"))
+                .quantity(5)
+                .build();
+
+        when(createProduct.execute(any(Product.class)))
+                .thenReturn(Mono.error(new ReadOnlyReplicaException("http://leader:8080")));
+
+        webTestClient.post()
+                .uri("/api/v1/products")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(421)
+                .expectBody()
+                .jsonPath("$.detail").value(detail -> assertTrue(detail.toString().contains("http://leader:8080")));
+    }
+
+    @Test
+    void createProduct_shouldAcceptAndReturnSmile() throws IOException {
+        ProductRequest request = ProductRequest.builder()
+                .name("New Product")
+                .description("New Description")
+                .price(new BigDecimal("49.99"))
+                .quantity(5)
+                .build();
+
+        when(createProduct.execute(argThat(created -> created.getName().equals("New Product")
+                && created.getPrice().equals(new BigDecimal("49.99"))))).thenReturn(Mono.just(product));
+
+        byte[] body = webTestClient.post()
+                .uri("/api/v1/products")
+                .contentType(smileType)
+                .accept(smileType)
+                .bodyValue(smile.writeValueAsBytes(request))
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(byte[].class)
+                .returnResult()
+                .getResponseBody();
+
+        assertEquals(product, smile.readValue(body, Product.class));
+    }
+
     @Test
     void createProduct_shouldReturn400WhenInvalidRequest() {
         ProductRequest invalidRequest = ProductRequest.builder()
@@ -169,6 +562,68 @@ class ProductControllerTest {
                 .expectStatus().isNotFound();
     }
 
+    @Test
+    void updateProduct_shouldPassIfMatchVersionAndReturnNewETag() {
+        ProductRequest request = ProductRequest.builder()
+                .name("Updated Product")
+                .price(new BigDecimal("79.99"))
+                .quantity(15)
+                .build();
+        Product updated = product.toBuilder().version(4L).build();
+
+        when(updateProduct.execute(eq("1"), argThat(candidate -> candidate.getVersion() == 3L)))
+                .thenReturn(Mono.just(updated));
+
+        webTestClient.put()
+                .uri("/api/v1/products/1")
+                .header("If-Match", "\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"");
+    }
+
+    @Test
+    void updateProduct_shouldReturn412OnVersionConflict() {
+        ProductRequest request = ProductRequest.builder()
+                .name("Updated Product")
+                .price(new BigDecimal("79.99"))
+                .quantity(15)
+                .build();
+
+        when(updateProduct.execute(eq("1"), any(Product.class)))
+                .thenReturn(Mono.error(new ProductVersionConflictException("1", 2, 3)));
+
+        webTestClient.put()
+                .uri("/api/v1/products/1")
+                .header("If-Match", "\"2\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(412)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Product 1 is at version 3, expected version 2")
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.expectedVersion").isEqualTo(2)
+                .jsonPath("$.currentVersion").isEqualTo(3);
+    }
+
+    @Test
+    void patchProduct_shouldReturn412OnMalformedIfMatch() {
+        ProductPatchRequest request = ProductPatchRequest.builder()
+                .name("Patched Name")
+                .build();
+
+        webTestClient.patch()
+                .uri("/api/v1/products/1")
+                .header("If-Match", "W/\"3\"")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(412);
+    }
+
     @Test
     void patchProduct_shouldReturnPatchedProduct() {
         ProductPatchRequest request = ProductPatchRequest.builder()
@@ -0,0 +1,141 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.model.StockHold;
+import com.example.product.api.produc.presentation.dto.StockHoldRequest;
+import com.example.product.api.produc.usecase.HoldStock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ProductHoldController.class)
+class ProductHoldControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private HoldStock holdStock;
+
+    private final StockHold hold = new StockHold("h1", "1", 3, Instant.parse("2030-01-01T00:00:00Z"));
+
+    @Test
+    void place_shouldReturnTheHoldAndItsLocation() {
+        when(holdStock.place("1", 3, Duration.ofSeconds(60))).thenReturn(Mono.just(hold));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(3).ttlSeconds(60L).build())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectHeader().valueEquals("Location", "/api/v1/products/1/holds/h1")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("h1")
+                .jsonPath("$.productId").isEqualTo("1")
+                .jsonPath("$.quantity").isEqualTo(3)
+                .jsonPath("$.expiresAt").isEqualTo("2030-01-01T00:00:00Z");
+    }
+
+    @Test
+    void place_shouldHoldFor15MinutesByDefault() {
+        when(holdStock.place("1", 3, Duration.ofMinutes(15))).thenReturn(Mono.just(hold));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(3).build())
+                .exchange()
+                .expectStatus().isCreated();
+    }
+
+    @Test
+    void place_shouldReturn404Or409WhenNothingCanBeHeld() {
+        when(holdStock.place("999", 1, Duration.ofMinutes(15))).thenReturn(Mono.empty());
+        when(holdStock.place("1", 20, Duration.ofMinutes(15)))
+                .thenReturn(Mono.error(new InsufficientStockException("1", 12, 20)));
+
+        webTestClient.post()
+                .uri("/api/v1/products/999/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(1).build())
+                .exchange()
+                .expectStatus().isNotFound();
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(20).build())
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void place_shouldRejectInvalidQuantitiesAndDurations() {
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(0).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(1).ttlSeconds(0L).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds")
+                .bodyValue(StockHoldRequest.builder().quantity(1).ttlSeconds(86401L).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(holdStock);
+    }
+
+    @Test
+    void get_shouldReturnOutstandingHolds() {
+        when(holdStock.get("1", "h1")).thenReturn(Mono.just(hold));
+        when(holdStock.get("1", "h2")).thenReturn(Mono.empty());
+
+        webTestClient.get()
+                .uri("/api/v1/products/1/holds/h1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("h1");
+        webTestClient.get()
+                .uri("/api/v1/products/1/holds/h2")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void confirm_shouldReturnTheConfirmedHold() {
+        when(holdStock.confirm("1", "h1")).thenReturn(Mono.just(hold));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/holds/h1:confirm")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.quantity").isEqualTo(3);
+    }
+
+    @Test
+    void cancel_shouldReturn204OrNotFound() {
+        when(holdStock.cancel("1", "h1")).thenReturn(Mono.just(hold));
+        when(holdStock.cancel("1", "h2")).thenReturn(Mono.empty());
+
+        webTestClient.delete()
+                .uri("/api/v1/products/1/holds/h1")
+                .exchange()
+                .expectStatus().isNoContent();
+        webTestClient.delete()
+                .uri("/api/v1/products/1/holds/h2")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ProductJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ProductJsonCache cache = new ProductJsonCache(objectMapper, DataSize.ofMegabytes(1));
+
+    private final Product product = Product.builder()
+            .id("1")
+            .name("Café")
+            .price(new BigDecimal("1299.990"))
+            .quantity(15)
+            .version(1L)
+            .build();
+
+    @Test
+    void json_shouldMatchWhatJacksonWrites() throws IOException {
+        byte[] json = cache.json(product);
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(product), json);
+        assertEquals(product, objectMapper.readValue(json, Product.class));
+        assertEquals("{\"id\":\"1\",\"name\":\"Café\",\"description\":null,\"price\":1299.990,\"quantity\":15,"
+                + "\"version\":1}", new String(json, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void json_shouldReuseBytesUntilTheVersionChanges() {
+        byte[] first = cache.json(product);
+
+        assertSame(first, cache.json(product.toBuilder().build()));
+
+        byte[] renamed = cache.json(product.toBuilder().name("Renamed").version(2L).build());
+        assertNotSame(first, renamed);
+        assertSame(renamed, cache.json(product.toBuilder().name("Renamed").version(2L).build()));
+    }
+
+    @Test
+    void json_shouldSerializeProductsWithoutAVersionEveryTime() {
+        Product unversioned = product.toBuilder().version(null).build();
+        byte[] first = cache.json(unversioned);
+
+        assertArrayEquals(first, cache.json(unversioned));
+        assertNotSame(first, cache.json(unversioned));
+        assertNotSame(cache.json(product), first);
+    }
+
+    @Test
+    void json_shouldServeProductsThatDoNotFitTheCache() {
+        ProductJsonCache empty = new ProductJsonCache(objectMapper, DataSize.ofBytes(0));
+
+        assertArrayEquals(cache.json(product), empty.json(product));
+    }
+
+    @Test
+    void json_shouldReportProductsThatCannotBeSerialized() {
+        ObjectMapper failing = new ObjectMapper().registerModule(new SimpleModule()
+                .addSerializer(BigDecimal.class, new JsonSerializer<>() {
+                    @Override
+                    public void serialize(BigDecimal value, JsonGenerator generator, SerializerProvider provider)
+                            throws IOException {
+                        throw new IOException("unsupported");
+                    }
+                }));
+
+        UncheckedIOException error = assertThrows(UncheckedIOException.class,
+                () -> new ProductJsonCache(failing, DataSize.ofMegabytes(1)).json(product));
+        assertEquals("Cannot serialize product 1", error.getMessage());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.exception.StockLimitExceededException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.presentation.dto.StockAdjustRequest;
+import com.example.product.api.produc.presentation.dto.StockChangeRequest;
+import com.example.product.api.produc.usecase.AdjustStock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ProductStockController.class)
+class ProductStockControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private AdjustStock adjustStock;
+
+    private final Product product = Product.builder().id("1").name("Laptop").quantity(12).version(4L).build();
+
+    @Test
+    void reserve_shouldReturnNewQuantityAndETag() {
+        when(adjustStock.reserve("1", 3)).thenReturn(Mono.just(product));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:reserve")
+                .bodyValue(StockChangeRequest.builder().quantity(3).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"4\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.quantity").isEqualTo(12)
+                .jsonPath("$.version").isEqualTo(4)
+                .jsonPath("$.name").doesNotExist();
+    }
+
+    @Test
+    void reserve_shouldReturn409WhenStockIsShort() {
+        when(adjustStock.reserve("1", 20)).thenReturn(Mono.error(new InsufficientStockException("1", 12, 20)));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:reserve")
+                .bodyValue(StockChangeRequest.builder().quantity(20).build())
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.detail").isEqualTo("Product 1 has 12 in stock, 20 requested")
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.available").isEqualTo(12)
+                .jsonPath("$.requested").isEqualTo(20);
+    }
+
+    @Test
+    void release_shouldReturn409WhenStockWouldExceedTheLargestQuantity() {
+        when(adjustStock.release("1", Integer.MAX_VALUE))
+                .thenReturn(Mono.error(new StockLimitExceededException("1", 12, Integer.MAX_VALUE)));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:release")
+                .bodyValue(StockChangeRequest.builder().quantity(Integer.MAX_VALUE).build())
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.available").isEqualTo(12)
+                .jsonPath("$.added").isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void reserve_shouldRejectQuantitiesBelowOne() {
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:reserve")
+                .bodyValue(StockChangeRequest.builder().quantity(0).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(adjustStock);
+    }
+
+    @Test
+    void release_shouldReturn404WhenProductNotFound() {
+        when(adjustStock.release("999", 2)).thenReturn(Mono.empty());
+
+        webTestClient.post()
+                .uri("/api/v1/products/999/stock:release")
+                .bodyValue(StockChangeRequest.builder().quantity(2).build())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void adjust_shouldApplyDeltaOfEitherSign() {
+        when(adjustStock.adjust("1", -5)).thenReturn(Mono.just(product));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:adjust")
+                .bodyValue(StockAdjustRequest.builder().delta(-5).build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.quantity").isEqualTo(12);
+    }
+
+    @Test
+    void adjust_shouldRequireDelta() {
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:adjust")
+                .bodyValue(new StockAdjustRequest())
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(adjustStock);
+    }
+
+    @Test
+    void adjust_shouldRejectADeltaWhoseNegationOverflows() {
+        when(adjustStock.adjust("1", -Integer.MAX_VALUE))
+                .thenReturn(Mono.error(new InsufficientStockException("1", 12, Integer.MAX_VALUE)));
+
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:adjust")
+                .bodyValue(StockAdjustRequest.builder().delta(Integer.MIN_VALUE).build())
+                .exchange()
+                .expectStatus().isBadRequest();
+        webTestClient.post()
+                .uri("/api/v1/products/1/stock:adjust")
+                .bodyValue(StockAdjustRequest.builder().delta(-Integer.MAX_VALUE).build())
+                .exchange()
+                .expectStatus().isEqualTo(409)
+                .expectBody()
+                .jsonPath("$.requested").isEqualTo(Integer.MAX_VALUE);
+
+        verify(adjustStock).adjust("1", -Integer.MAX_VALUE);
+        verifyNoMoreInteractions(adjustStock);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.product.api.produc.presentation.controller;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.infrastructure.replication.ReplicationEntry;
+import com.example.product.api.produc.infrastructure.replication.ReplicationLog;
+import com.example.product.api.produc.infrastructure.replication.ReplicationStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(controllers = ReplicationController.class, properties = "product.replication.role=leader")
+class ReplicationControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReplicationLog replicationLog;
+
+    @Test
+    void status_shouldDescribeThisNode() {
+        when(replicationLog.status())
+                .thenReturn(new ReplicationStatus(ReplicationStatus.Role.LEADER, "log-1", 42, 2, null, null));
+
+        webTestClient.get()
+                .uri("/api/v1/replication/status")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.role").isEqualTo("LEADER")
+                .jsonPath("$.log").isEqualTo("log-1")
+                .jsonPath("$.sequence").isEqualTo(42)
+                .jsonPath("$.followers").isEqualTo(2)
+                .jsonPath("$.lagMillis").doesNotExist();
+    }
+
+    @Test
+    void log_shouldStreamTheLeadersWritesAsNdjson() {
+        when(replicationLog.stream("log-1", 41)).thenReturn(Flux.just(
+                new ReplicationEntry(42, 1_000, ReplicationEntry.Kind.PUT, "1",
+                        Product.builder().id("1").name("Laptop").version(3L).build()),
+                new ReplicationEntry(43, 2_000, ReplicationEntry.Kind.DELETE, "2", null)));
+
+        webTestClient.get()
+                .uri("/api/v1/replication/log?log=log-1&after=41")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(ReplicationEntry.class)
+                .contains(new ReplicationEntry(42, 1_000, ReplicationEntry.Kind.PUT, "1",
+                                Product.builder().id("1").name("Laptop").version(3L).build()),
+                        new ReplicationEntry(43, 2_000, ReplicationEntry.Kind.DELETE, "2", null));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class AdjustStockTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
+    @InjectMocks
+    private AdjustStock adjustStock;
+
+    private final Product product = Product.builder().id("1").name("Laptop").quantity(12).version(2L).build();
+
+    @Test
+    void reserve_shouldRemoveUnitsAndPublishTheChange() {
+        when(productRepository.adjustQuantity("1", -3)).thenReturn(Mono.just(product));
+
+        StepVerifier.create(adjustStock.reserve("1", 3))
+                .expectNext(product)
+                .verifyComplete();
+
+        verify(productChangeFeed).publish(ProductChangeType.UPDATED, product);
+    }
+
+    @Test
+    void release_shouldAddUnits() {
+        when(productRepository.adjustQuantity("1", 3)).thenReturn(Mono.just(product));
+
+        StepVerifier.create(adjustStock.release("1", 3))
+                .expectNext(product)
+                .verifyComplete();
+    }
+
+    @Test
+    void adjust_shouldPublishNothingWhenStockIsShortOrProductMissing() {
+        when(productRepository.adjustQuantity("1", -20))
+                .thenReturn(Mono.error(new InsufficientStockException("1", 12, 20)));
+        when(productRepository.adjustQuantity("999", 1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(adjustStock.adjust("1", -20))
+                .verifyError(InsufficientStockException.class);
+        StepVerifier.create(adjustStock.adjust("999", 1))
+                .verifyComplete();
+
+        verifyNoInteractions(productChangeFeed);
+    }
+}
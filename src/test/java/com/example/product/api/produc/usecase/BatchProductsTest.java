@@ -0,0 +1,208 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.model.BatchItem;
+import com.example.product.api.produc.domain.model.BatchItemResult;
+import com.example.product.api.produc.domain.model.BatchItemStatus;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchProductsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
+    @InjectMocks
+    private BatchProducts batchProducts;
+
+    private static Product product(String id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(new BigDecimal("10.00"))
+                .quantity(1)
+                .build();
+    }
+
+    @Test
+    void create_shouldAssignIdsAndReportEachEntryInOrder() {
+        when(productRepository.saveAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0)
+                .map(saved -> saved.toBuilder().version(1L).build()));
+
+        StepVerifier.create(batchProducts.create(Flux.just(
+                        BatchItem.of(product(null)),
+                        BatchItem.rejected("Price is required"),
+                        BatchItem.of(product(null)))))
+                .assertNext(result -> {
+                    assertEquals(0, result.index());
+                    assertEquals(BatchItemStatus.CREATED, result.status());
+                    assertNotNull(result.id());
+                    assertEquals(result.id(), result.product().getId());
+                    assertEquals(1L, result.product().getVersion());
+                })
+                .assertNext(result -> {
+                    assertEquals(1, result.index());
+                    assertEquals(BatchItemStatus.INVALID, result.status());
+                    assertEquals("Price is required", result.message());
+                })
+                .assertNext(result -> assertEquals(BatchItemStatus.CREATED, result.status()))
+                .verifyComplete();
+
+        verify(productChangeFeed, times(2)).publish(eq(ProductChangeType.CREATED), any());
+    }
+
+    @Test
+    void create_shouldWriteInChunks() {
+        when(productRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        StepVerifier.create(batchProducts.create(Flux.range(0, BatchProducts.CHUNK_SIZE * 2 + 1)
+                        .map(i -> BatchItem.of(product(null)))))
+                .expectNextCount(BatchProducts.CHUNK_SIZE * 2 + 1)
+                .verifyComplete();
+
+        verify(productRepository, times(3)).saveAll(any());
+    }
+
+    @Test
+    void update_shouldReportMissingProductsAsNotFound() {
+        when(productRepository.updateAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0)
+                .filter(updated -> updated.getId().equals("1")));
+
+        StepVerifier.create(batchProducts.update(Flux.just(BatchItem.of(product("1")), BatchItem.of(product("2")))))
+                .assertNext(result -> {
+                    assertEquals(BatchItemStatus.UPDATED, result.status());
+                    assertEquals("Product 1", result.product().getName());
+                })
+                .assertNext(result -> {
+                    assertEquals("2", result.id());
+                    assertEquals(BatchItemStatus.NOT_FOUND, result.status());
+                    assertEquals("Product not found", result.message());
+                })
+                .verifyComplete();
+
+        verify(productChangeFeed).publish(eq(ProductChangeType.UPDATED),
+                argThat(product -> "1".equals(product.getId())));
+        verifyNoMoreInteractions(productChangeFeed);
+    }
+
+    @Test
+    void delete_shouldReportDeletedIdsWithoutProducts() {
+        when(productRepository.deleteAll(any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                .filter(id -> !id.equals("9")));
+
+        StepVerifier.create(batchProducts.delete(Flux.fromStream(IntStream.of(1, 9)
+                        .mapToObj(i -> BatchItem.of(Product.builder().id(String.valueOf(i)).build())))))
+                .assertNext(result -> {
+                    assertEquals(BatchItemStatus.DELETED, result.status());
+                    assertNull(result.product());
+                })
+                .assertNext(result -> assertEquals(BatchItemStatus.NOT_FOUND, result.status()))
+                .verifyComplete();
+
+        verify(productChangeFeed).publish(eq(ProductChangeType.DELETED),
+                argThat(product -> "1".equals(product.getId())));
+        verifyNoMoreInteractions(productChangeFeed);
+    }
+
+    @Test
+    void delete_shouldReportEachEntryOfARepeatedIdOnItsOwn() {
+        Set<String> stored = new HashSet<>(Set.of("a", "b"));
+        when(productRepository.deleteAll(any())).thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                .filter(stored::remove));
+
+        StepVerifier.create(batchProducts.delete(Flux.just("a", "a", "b", "a")
+                        .map(id -> BatchItem.of(Product.builder().id(id).build()))).map(BatchItemResult::status))
+                .expectNext(BatchItemStatus.DELETED, BatchItemStatus.NOT_FOUND, BatchItemStatus.DELETED,
+                        BatchItemStatus.NOT_FOUND)
+                .verifyComplete();
+
+        verify(productRepository, times(3)).deleteAll(any());
+        verify(productChangeFeed, times(2)).publish(eq(ProductChangeType.DELETED), any());
+    }
+
+    @Test
+    void update_shouldApplyRepeatedIdsInRequestOrder() {
+        AtomicLong version = new AtomicLong();
+        when(productRepository.updateAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0)
+                .map(updated -> updated.toBuilder().version(version.incrementAndGet()).build()));
+        Product first = product("1").toBuilder().name("First").build();
+        Product second = product("1").toBuilder().name("Second").build();
+
+        StepVerifier.create(batchProducts.update(Flux.just(BatchItem.of(first), BatchItem.rejected("Name is required"),
+                        BatchItem.of(product("2")), BatchItem.of(second))))
+                .assertNext(result -> {
+                    assertEquals(0, result.index());
+                    assertEquals("First", result.product().getName());
+                })
+                .assertNext(result -> assertEquals(BatchItemStatus.INVALID, result.status()))
+                .assertNext(result -> assertEquals("2", result.id()))
+                .assertNext(result -> {
+                    assertEquals(3, result.index());
+                    assertEquals("Second", result.product().getName());
+                    assertEquals(3L, result.product().getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void update_shouldApplyIdsRepeatedAcrossChunksInRequestOrder() {
+        List<String> applied = Collections.synchronizedList(new ArrayList<>());
+        when(productRepository.updateAll(any())).thenAnswer(invocation -> invocation.<Flux<Product>>getArgument(0)
+                .collectList()
+                .flatMapMany(products -> {
+                    // The chunk holding the first write of the product is the slowest to answer.
+                    Duration delay = products.stream().anyMatch(updated -> "First".equals(updated.getName()))
+                            ? Duration.ofMillis(200) : Duration.ZERO;
+                    return Flux.fromIterable(products).delaySubscription(delay);
+                })
+                .doOnNext(updated -> {
+                    if ("x".equals(updated.getId())) {
+                        applied.add(updated.getName());
+                    }
+                }));
+        Flux<BatchItem> items = Flux.range(0, BatchProducts.CHUNK_SIZE + 2).map(i -> switch (i) {
+            case 0 -> BatchItem.of(product("x").toBuilder().name("First").build());
+            case BatchProducts.CHUNK_SIZE + 1 -> BatchItem.of(product("x").toBuilder().name("Second").build());
+            default -> BatchItem.of(product(String.valueOf(i)));
+        });
+
+        StepVerifier.create(batchProducts.update(items))
+                .expectNextCount(BatchProducts.CHUNK_SIZE + 2)
+                .verifyComplete();
+
+        assertEquals(List.of("First", "Second"), applied);
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
 import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -25,6 +27,9 @@ class CreateProductTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
     @InjectMocks
     private CreateProduct createProduct;
 
@@ -57,5 +62,6 @@ class CreateProductTest {
         ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
         verify(productRepository).save(captor.capture());
         assertNotNull(captor.getValue().getId());
+        verify(productChangeFeed).publish(ProductChangeType.CREATED, captor.getValue());
     }
 }
@@ -1,14 +1,21 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import reactor.core.publisher.Mono;
+import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -17,14 +24,29 @@ class DeleteProductTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
     @InjectMocks
     private DeleteProduct deleteProduct;
 
     @Test
     void execute_shouldDeleteProduct() {
-        when(productRepository.deleteById("1")).thenReturn(Mono.empty());
+        when(productRepository.deleteAll(any())).thenReturn(Flux.just("1"));
 
         StepVerifier.create(deleteProduct.execute("1"))
                 .verifyComplete();
+
+        verify(productChangeFeed).publish(eq(ProductChangeType.DELETED), argThat(product -> "1".equals(product.getId())));
+    }
+
+    @Test
+    void execute_shouldNotPublishWhenProductNotExists() {
+        when(productRepository.deleteAll(any())).thenReturn(Flux.empty());
+
+        StepVerifier.create(deleteProduct.execute("999"))
+                .verifyComplete();
+
+        verifyNoInteractions(productChangeFeed);
     }
 }
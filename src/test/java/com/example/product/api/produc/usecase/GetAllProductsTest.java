@@ -1,6 +1,7 @@
 package com.example.product.api.produc.usecase;
 
 import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.ProductFilter;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,11 +9,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import com.example.product.api.produc.domain.exception.InvalidCursorException;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -63,4 +70,66 @@ class GetAllProductsTest {
         StepVerifier.create(getAllProducts.execute())
                 .verifyComplete();
     }
+
+    @Test
+    void executePage_shouldReturnNextCursorWhenMoreProductsExist() {
+        when(productRepository.findPage(null, 2)).thenReturn(Flux.just(product1, product2));
+
+        StepVerifier.create(getAllProducts.execute(null, 1))
+                .assertNext(page -> {
+                    assertEquals(List.of(product1), page.items());
+                    assertEquals(GetAllProducts.encodeCursor("1"), page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void executePage_shouldDecodeCursorAndOmitNextCursorOnLastPage() {
+        String cursor = GetAllProducts.encodeCursor("1");
+        when(productRepository.findPage("1", 3)).thenReturn(Flux.just(product2));
+
+        StepVerifier.create(getAllProducts.execute(cursor, 2))
+                .assertNext(page -> {
+                    assertEquals(List.of(product2), page.items());
+                    assertNull(page.nextCursor());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void executePage_shouldTreatEmptyCursorAsFirstPage() {
+        when(productRepository.findPage(null, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(getAllProducts.execute("", 2))
+                .assertNext(page -> assertEquals(List.of(), page.items()))
+                .verifyComplete();
+    }
+
+    @Test
+    void executePage_shouldFailOnMalformedCursor() {
+        StepVerifier.create(getAllProducts.execute("not*base64", 2))
+                .expectError(InvalidCursorException.class)
+                .verify();
+
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void executeFilter_shouldDelegateToRepository() {
+        ProductFilter filter = new ProductFilter(new BigDecimal("15.00"), null, null);
+        when(productRepository.findByFilter(filter)).thenReturn(Flux.just(product2));
+
+        StepVerifier.create(getAllProducts.execute(filter))
+                .expectNext(product2)
+                .verifyComplete();
+    }
+
+    @Test
+    void catalogVersion_shouldDelegateToRepository() {
+        when(productRepository.catalogVersion()).thenReturn(Mono.just(42L));
+
+        StepVerifier.create(getAllProducts.catalogVersion())
+                .expectNext(42L)
+                .verifyComplete();
+    }
 }
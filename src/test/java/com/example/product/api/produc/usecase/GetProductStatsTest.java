@@ -0,0 +1,36 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.model.ProductStats;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GetProductStatsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private GetProductStats getProductStats;
+
+    @Test
+    void execute_shouldReturnTheCatalogAggregates() {
+        ProductStats stats = ProductStats.of(10, 1, 412, new BigDecimal("48250.37"), new BigDecimal("9.99"),
+                new BigDecimal("1299.99"), 9, new BigDecimal("2362.41"));
+        when(productRepository.stats()).thenReturn(Mono.just(stats));
+
+        StepVerifier.create(getProductStats.execute())
+                .expectNext(stats)
+                .verifyComplete();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.exception.InsufficientStockException;
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.model.StockHold;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import com.example.product.api.produc.domain.repository.StockHoldRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HoldStockTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockHoldRepository stockHoldRepository;
+
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
+    @InjectMocks
+    private HoldStock holdStock;
+
+    private final Product product = Product.builder().id("1").name("Laptop").quantity(12).version(2L).build();
+    private final StockHold hold = new StockHold("h1", "1", 3, Instant.parse("2030-01-01T00:00:00Z"));
+
+    @Test
+    void place_shouldTakeUnitsOutOfStockAndRegisterTheHold() {
+        when(productRepository.adjustQuantity("1", -3)).thenReturn(Mono.just(product));
+        when(stockHoldRepository.create("1", 3, Duration.ofMinutes(5))).thenReturn(Mono.just(hold));
+
+        StepVerifier.create(holdStock.place("1", 3, Duration.ofMinutes(5)))
+                .expectNext(hold)
+                .verifyComplete();
+
+        verify(productChangeFeed).publish(ProductChangeType.UPDATED, product);
+    }
+
+    @Test
+    void place_shouldHoldNothingWhenStockIsShortOrProductMissing() {
+        when(productRepository.adjustQuantity("1", -20))
+                .thenReturn(Mono.error(new InsufficientStockException("1", 12, 20)));
+        when(productRepository.adjustQuantity("999", -1)).thenReturn(Mono.empty());
+
+        StepVerifier.create(holdStock.place("1", 20, Duration.ofMinutes(5)))
+                .expectError(InsufficientStockException.class)
+                .verify();
+        StepVerifier.create(holdStock.place("999", 1, Duration.ofMinutes(5)))
+                .verifyComplete();
+
+        verify(stockHoldRepository, never()).create(anyString(), anyInt(), any());
+    }
+
+    @Test
+    void get_shouldOnlyFindHoldsOfTheGivenProduct() {
+        when(stockHoldRepository.findById("h1")).thenReturn(Mono.just(hold));
+
+        StepVerifier.create(holdStock.get("1", "h1"))
+                .expectNext(hold)
+                .verifyComplete();
+        StepVerifier.create(holdStock.get("2", "h1"))
+                .verifyComplete();
+    }
+
+    @Test
+    void confirm_shouldRemoveTheHoldAndKeepItsUnitsOutOfStock() {
+        when(stockHoldRepository.findById("h1")).thenReturn(Mono.just(hold));
+        when(stockHoldRepository.remove("h1")).thenReturn(Mono.just(hold));
+
+        StepVerifier.create(holdStock.confirm("1", "h1"))
+                .expectNext(hold)
+                .verifyComplete();
+
+        verify(productRepository, never()).adjustQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    void cancel_shouldPutTheUnitsBackIntoStock() {
+        when(stockHoldRepository.findById("h1")).thenReturn(Mono.just(hold));
+        when(stockHoldRepository.remove("h1")).thenReturn(Mono.just(hold));
+        when(productRepository.adjustQuantity("1", 3)).thenReturn(Mono.just(product));
+
+        StepVerifier.create(holdStock.cancel("1", "h1"))
+                .expectNext(hold)
+                .verifyComplete();
+
+        verify(productChangeFeed).publish(ProductChangeType.UPDATED, product);
+    }
+
+    @Test
+    void cancel_shouldReleaseNothingWhenTheHoldExpiredMeanwhile() {
+        when(stockHoldRepository.findById("h1")).thenReturn(Mono.just(hold));
+        when(stockHoldRepository.remove("h1")).thenReturn(Mono.empty());
+
+        StepVerifier.create(holdStock.cancel("1", "h1"))
+                .verifyComplete();
+
+        verify(productRepository, never()).adjustQuantity(anyString(), anyInt());
+    }
+
+    @Test
+    void releaseExpiredHolds_shouldPutUnitsBackAndGoOnAfterAFailure() {
+        StockHold other = new StockHold("h2", "2", 1, hold.expiresAt());
+        when(stockHoldRepository.expired()).thenReturn(Flux.just(hold, other));
+        when(productRepository.adjustQuantity("1", 3)).thenReturn(Mono.error(new IllegalStateException("down")));
+        when(productRepository.adjustQuantity("2", 1)).thenReturn(Mono.just(product));
+
+        holdStock.releaseExpiredHolds();
+
+        verify(productRepository).adjustQuantity("2", 1);
+        verify(productChangeFeed).publish(ProductChangeType.UPDATED, product);
+    }
+
+    @Test
+    void releaseAllHolds_shouldPutTheUnitsOfOutstandingHoldsBack() {
+        StockHold other = new StockHold("h2", "2", 1, hold.expiresAt());
+        when(stockHoldRepository.expired()).thenReturn(Flux.never());
+        when(stockHoldRepository.removeAll()).thenReturn(Flux.just(hold, other));
+        when(productRepository.adjustQuantity("1", 3)).thenReturn(Mono.error(new IllegalStateException("down")));
+        when(productRepository.adjustQuantity("2", 1)).thenReturn(Mono.just(product));
+        holdStock.releaseExpiredHolds();
+
+        holdStock.releaseAllHolds();
+
+        verify(productRepository).adjustQuantity("2", 1);
+    }
+}
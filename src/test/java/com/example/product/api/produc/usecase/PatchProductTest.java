@@ -1,5 +1,8 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import com.example.product.api.produc.domain.exception.ProductVersionConflictException;
 import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -15,7 +18,10 @@ import java.math.BigDecimal;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -24,6 +30,9 @@ class PatchProductTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
     @InjectMocks
     private PatchProduct patchProduct;
 
@@ -37,6 +46,7 @@ class PatchProductTest {
                 .description("Original Description")
                 .price(new BigDecimal("50.00"))
                 .quantity(10)
+                .version(3L)
                 .build();
     }
 
@@ -60,6 +70,9 @@ class PatchProductTest {
                     assertEquals(10, product.getQuantity());
                 })
                 .verifyComplete();
+
+        verify(productChangeFeed).publish(eq(ProductChangeType.PATCHED),
+                argThat(product -> "New Name".equals(product.getName())));
     }
 
     @Test
@@ -118,4 +131,79 @@ class PatchProductTest {
         StepVerifier.create(patchProduct.execute("999", partialProduct))
                 .verifyComplete();
     }
+
+    @Test
+    void execute_shouldPatchPriceAndQuantityOnACopy() {
+        Product partialProduct = Product.builder()
+                .price(new BigDecimal("75.00"))
+                .quantity(4)
+                .build();
+
+        when(productRepository.findById("1")).thenReturn(Mono.just(existingProduct));
+        when(productRepository.update(eq("1"), any(Product.class))).thenAnswer(invocation ->
+                Mono.just(invocation.getArgument(1)));
+
+        StepVerifier.create(patchProduct.execute("1", partialProduct))
+                .assertNext(product -> {
+                    assertEquals(new BigDecimal("75.00"), product.getPrice());
+                    assertEquals(4, product.getQuantity());
+                    assertEquals(3L, product.getVersion());
+                })
+                .verifyComplete();
+        assertEquals(10, existingProduct.getQuantity());
+    }
+
+    @Test
+    void execute_shouldRetryOnConflictWhenNoVersionRequired() {
+        Product partialProduct = Product.builder()
+                .name("New Name")
+                .build();
+        Product newerProduct = existingProduct.toBuilder().version(4L).build();
+
+        when(productRepository.findById("1")).thenReturn(Mono.just(existingProduct), Mono.just(newerProduct));
+        when(productRepository.update(eq("1"), argThat(product -> product.getVersion() == 3L)))
+                .thenReturn(Mono.error(new ProductVersionConflictException("1", 3, 4)));
+        when(productRepository.update(eq("1"), argThat(product -> product.getVersion() == 4L)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(1)));
+
+        StepVerifier.create(patchProduct.execute("1", partialProduct))
+                .assertNext(product -> {
+                    assertEquals("New Name", product.getName());
+                    assertEquals(4L, product.getVersion());
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void execute_shouldGiveUpAfterTooManyConflicts() {
+        Product partialProduct = Product.builder()
+                .name("New Name")
+                .build();
+
+        when(productRepository.findById("1")).thenReturn(Mono.just(existingProduct));
+        when(productRepository.update(eq("1"), any(Product.class)))
+                .thenReturn(Mono.error(new ProductVersionConflictException("1", 3, 4)));
+
+        StepVerifier.create(patchProduct.execute("1", partialProduct))
+                .expectError(ProductVersionConflictException.class)
+                .verify();
+        verify(productRepository, times(PatchProduct.MAX_CONFLICT_RETRIES + 1)).findById("1");
+    }
+
+    @Test
+    void execute_shouldApplyPatchToRequiredVersionWithoutRetrying() {
+        Product partialProduct = Product.builder()
+                .name("New Name")
+                .version(2L)
+                .build();
+
+        when(productRepository.findById("1")).thenReturn(Mono.just(existingProduct));
+        when(productRepository.update(eq("1"), argThat(product -> product.getVersion() == 2L)))
+                .thenReturn(Mono.error(new ProductVersionConflictException("1", 2, 3)));
+
+        StepVerifier.create(patchProduct.execute("1", partialProduct))
+                .expectError(ProductVersionConflictException.class)
+                .verify();
+        verify(productRepository, times(1)).findById("1");
+    }
 }
@@ -0,0 +1,40 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.model.Product;
+import com.example.product.api.produc.domain.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchProductsTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private SearchProducts searchProducts;
+
+    @Test
+    void execute_shouldReturnRankedMatches() {
+        Product product = Product.builder()
+                .id("1")
+                .name("Wireless Mouse")
+                .price(new BigDecimal("49.99"))
+                .quantity(60)
+                .build();
+        when(productRepository.search("wireless", 5)).thenReturn(Flux.just(product));
+
+        StepVerifier.create(searchProducts.execute("wireless", 5))
+                .expectNext(product)
+                .verifyComplete();
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.product.api.produc.usecase;
 
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
 import com.example.product.api.produc.domain.model.Product;
 import com.example.product.api.produc.domain.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,6 +15,8 @@ import reactor.test.StepVerifier;
 
 import java.math.BigDecimal;
 
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -21,6 +25,9 @@ class UpdateProductTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
     @InjectMocks
     private UpdateProduct updateProduct;
 
@@ -43,6 +50,8 @@ class UpdateProductTest {
         StepVerifier.create(updateProduct.execute("1", product))
                 .expectNext(product)
                 .verifyComplete();
+
+        verify(productChangeFeed).publish(ProductChangeType.UPDATED, product);
     }
 
     @Test
@@ -51,5 +60,7 @@ class UpdateProductTest {
 
         StepVerifier.create(updateProduct.execute("999", product))
                 .verifyComplete();
+
+        verifyNoInteractions(productChangeFeed);
     }
 }
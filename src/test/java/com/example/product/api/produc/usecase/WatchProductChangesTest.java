@@ -0,0 +1,36 @@
+package com.example.product.api.produc.usecase;
+
+import com.example.product.api.produc.domain.event.ProductChange;
+import com.example.product.api.produc.domain.event.ProductChangeFeed;
+import com.example.product.api.produc.domain.event.ProductChangeType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class WatchProductChangesTest {
+
+    @Mock
+    private ProductChangeFeed productChangeFeed;
+
+    @InjectMocks
+    private WatchProductChanges watchProductChanges;
+
+    @Test
+    void execute_shouldStreamChangesAfterLastSequence() {
+        ProductChange change = new ProductChange(8, ProductChangeType.DELETED, "1", null, Instant.now());
+        when(productChangeFeed.changes(7L)).thenReturn(Flux.just(change));
+
+        StepVerifier.create(watchProductChanges.execute(7L))
+                .expectNext(change)
+                .verifyComplete();
+    }
+}